@@ -0,0 +1,75 @@
+// Teste de carga do estoque-service com k6 (https://k6.io).
+// Rodar uma vez com ESTOQUE_THREADS_VIRTUAIS=false e outra com true, mesma máquina e mesmo banco,
+// e comparar p(99) de http_req_duration e o pico de VUs sem erro (ver loadtest/README.md).
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const MODO = __ENV.MODO || 'desconhecido';
+const VUS_MAXIMO = parseInt(__ENV.VUS_MAXIMO || '2000');
+
+export const options = {
+    scenarios: {
+        rampa: {
+            executor: 'ramping-vus',
+            startVUs: 0,
+            stages: [
+                { duration: '30s', target: VUS_MAXIMO / 4 },
+                { duration: '30s', target: VUS_MAXIMO / 2 },
+                { duration: '30s', target: VUS_MAXIMO },
+                { duration: '60s', target: VUS_MAXIMO },
+                { duration: '15s', target: 0 },
+            ],
+            gracefulRampDown: '10s',
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+    thresholds: {
+        http_req_failed: ['rate<0.01'],
+    },
+    tags: { modo: MODO },
+};
+
+// Usa os estoques já cadastrados: a primeira página da listagem define os produtos do teste
+export function setup() {
+    const resposta = http.get(`${BASE_URL}/api/estoques?limite=200`);
+    const estoques = resposta.json().itens;
+    if (!estoques || estoques.length === 0) {
+        throw new Error('Nenhum estoque cadastrado; importe dados antes (POST /api/estoques/importar)');
+    }
+    return { estoques };
+}
+
+export default function (dados) {
+    const estoque = dados.estoques[Math.floor(Math.random() * dados.estoques.length)];
+    const sorteio = Math.random();
+
+    if (sorteio < 0.6) {
+        const resposta = http.get(`${BASE_URL}/api/estoques/${estoque.skuProduto}`, { tags: { operacao: 'buscar' } });
+        check(resposta, { 'buscar 200': (r) => r.status === 200 });
+        return;
+    }
+
+    // Baixa seguida de restauração do mesmo item mantém o saldo estável durante o teste
+    const corpo = JSON.stringify({ itens: [{ idProduto: estoque.idProduto, quantidade: 1 }] });
+    const params = { headers: { 'Content-Type': 'application/json' }, tags: { operacao: 'baixa' } };
+    const baixa = http.post(`${BASE_URL}/api/estoques/baixa`, corpo, params);
+    check(baixa, { 'baixa 200': (r) => r.status === 200 });
+    if (baixa.status === 200 && baixa.json('sucesso')) {
+        params.tags.operacao = 'restaurar';
+        const restauracao = http.post(`${BASE_URL}/api/estoques/restaurar`, corpo, params);
+        check(restauracao, { 'restaurar 200': (r) => r.status === 200 });
+    }
+}
+
+export function handleSummary(data) {
+    const duracao = data.metrics.http_req_duration.values;
+    const linha = `modo=${MODO} vus_max=${data.metrics.vus_max.values.max} ` +
+        `p99_ms=${duracao['p(99)'].toFixed(1)} p95_ms=${duracao['p(95)'].toFixed(1)} ` +
+        `req_s=${data.metrics.http_reqs.values.rate.toFixed(1)} ` +
+        `falhas=${(data.metrics.http_req_failed.values.rate * 100).toFixed(2)}%\n`;
+    return {
+        stdout: linha,
+        [`loadtest/resultado-${MODO}.json`]: JSON.stringify(data, null, 2),
+    };
+}
@@ -0,0 +1,62 @@
+// Teste de carga de um único SKU quente com k6 (https://k6.io): todos os VUs fazem baixa + restauração
+// do mesmo produto. Rodar com BUCKETS=1, 4, 16... e comparar req_s (ver loadtest/README.md).
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const SKU = __ENV.SKU;
+const BUCKETS = parseInt(__ENV.BUCKETS || '0');
+const VUS = parseInt(__ENV.VUS || '200');
+
+export const options = {
+    scenarios: {
+        sku_quente: {
+            executor: 'constant-vus',
+            vus: VUS,
+            duration: __ENV.DURACAO || '60s',
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+    thresholds: {
+        http_req_failed: ['rate<0.01'],
+    },
+    tags: { buckets: String(BUCKETS) },
+};
+
+// Particiona o SKU antes do teste; BUCKETS=0 mede a linha única de estoque
+export function setup() {
+    if (!SKU) {
+        throw new Error('Informe o SKU do teste: k6 run -e SKU=AP-IPH-001 -e BUCKETS=16 loadtest/sku-quente.js');
+    }
+    const particionamento = http.put(`${BASE_URL}/api/estoques/particionamento/${SKU}?buckets=${BUCKETS}`);
+    if (particionamento.status !== 200) {
+        throw new Error(`Falha ao particionar ${SKU}: ${particionamento.status} ${particionamento.body}`);
+    }
+    const estoque = http.get(`${BASE_URL}/api/estoques/${SKU}`).json();
+    return { idProduto: estoque.idProduto };
+}
+
+export default function (dados) {
+    // Baixa seguida de restauração mantém o saldo estável durante o teste
+    const corpo = JSON.stringify({ itens: [{ idProduto: dados.idProduto, quantidade: 1 }] });
+    const params = { headers: { 'Content-Type': 'application/json' }, tags: { operacao: 'baixa' } };
+    const baixa = http.post(`${BASE_URL}/api/estoques/baixa`, corpo, params);
+    check(baixa, { 'baixa 200': (r) => r.status === 200 });
+    if (baixa.status === 200 && baixa.json('sucesso')) {
+        params.tags.operacao = 'restaurar';
+        const restauracao = http.post(`${BASE_URL}/api/estoques/restaurar`, corpo, params);
+        check(restauracao, { 'restaurar 200': (r) => r.status === 200 });
+    }
+}
+
+export function handleSummary(data) {
+    const duracao = data.metrics.http_req_duration.values;
+    const linha = `buckets=${BUCKETS} vus=${VUS} ` +
+        `req_s=${data.metrics.http_reqs.values.rate.toFixed(1)} ` +
+        `p99_ms=${duracao['p(99)'].toFixed(1)} p95_ms=${duracao['p(95)'].toFixed(1)} ` +
+        `falhas=${(data.metrics.http_req_failed.values.rate * 100).toFixed(2)}%\n`;
+    return {
+        stdout: linha,
+        [`loadtest/resultado-sku-quente-${BUCKETS}.json`]: JSON.stringify(data, null, 2),
+    };
+}
@@ -0,0 +1,100 @@
+package com.fiap.postech.estoque_service.benchmark;
+
+import com.fiap.postech.estoque_service.api.dto.BaixaEstoqueRequest;
+import com.fiap.postech.estoque_service.api.dto.BaixaEstoqueResponse;
+import com.fiap.postech.estoque_service.api.dto.ItemEstoqueBaixaDTO;
+import com.fiap.postech.estoque_service.domain.model.ModoLeitura;
+import com.fiap.postech.estoque_service.gateway.database.EstoqueRepositoryImpl;
+import com.fiap.postech.estoque_service.service.EstoqueCache;
+import com.fiap.postech.estoque_service.service.EstoqueServiceImpl;
+import com.fiap.postech.estoque_service.service.PipelineBaixaEstoque;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caminho completo da baixa (serviço -> repositório -> baixa condicional por item) sobre um repositório em
+ * memória. Cada operação baixa um pedido e o restaura em seguida, mantendo o saldo estável entre iterações.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BaixaEstoqueBenchmark {
+
+    private static final int PRODUTOS = 1_000;
+
+    @Param({"1", "10"})
+    private int itensPorPedido;
+
+    private EstoqueServiceImpl service;
+
+    @Setup
+    public void preparar() {
+        ConcurrentHashMap<Integer, AtomicInteger> saldos = new ConcurrentHashMap<>();
+        for (int id = 1; id <= PRODUTOS; id++) {
+            saldos.put(id, new AtomicInteger(1_000_000));
+        }
+
+        EstoqueRepositoryImpl repository = new EstoqueRepositoryImpl();
+        ReflectionTestUtils.setField(repository, "estoqueRepositoryJPA", EstoqueJpaEmMemoria.criar(saldos));
+        ReflectionTestUtils.setField(repository, "buckets", EstoqueJpaEmMemoria.semBuckets());
+        ReflectionTestUtils.setField(repository, "locais", EstoqueJpaEmMemoria.semLocais());
+        ReflectionTestUtils.setField(repository, "outbox", EstoqueJpaEmMemoria.semOutbox());
+        ReflectionTestUtils.setField(repository, "movimentacaoEmLote", false);
+
+        EstoqueCache cache = new EstoqueCache();
+        ReflectionTestUtils.setField(cache, "repositoryPort", repository);
+        ReflectionTestUtils.setField(cache, "tamanhoMaximo", 10_000L);
+        ReflectionTestUtils.setField(cache, "ttlSegundos", 5L);
+        ReflectionTestUtils.setField(cache, "modoLeitura", ModoLeitura.RELAXADO);
+        cache.iniciar();
+
+        service = new EstoqueServiceImpl();
+        ReflectionTestUtils.setField(service, "repositoryPort", repository);
+        ReflectionTestUtils.setField(service, "estoqueCache", cache);
+        ReflectionTestUtils.setField(service, "alertas", EstoqueJpaEmMemoria.semAlertas());
+        // Pipeline desabilitado (padrão): cada pedido vai direto ao repositório, como no restante do benchmark
+        ReflectionTestUtils.setField(service, "pipelineBaixa", new PipelineBaixaEstoque());
+    }
+
+    @State(Scope.Thread)
+    public static class Pedido {
+        BaixaEstoqueRequest request;
+
+        @Setup(Level.Invocation)
+        public void sortear(BaixaEstoqueBenchmark benchmark) {
+            List<ItemEstoqueBaixaDTO> itens = new ArrayList<>(benchmark.itensPorPedido);
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < benchmark.itensPorPedido; i++) {
+                ItemEstoqueBaixaDTO item = new ItemEstoqueBaixaDTO();
+                item.setIdProduto(random.nextInt(1, PRODUTOS + 1));
+                item.setQuantidade(random.nextInt(1, 5));
+                itens.add(item);
+            }
+            request = new BaixaEstoqueRequest();
+            request.setItens(itens);
+        }
+    }
+
+    @Benchmark
+    public BaixaEstoqueResponse baixarERestaurar(Pedido pedido) {
+        service.baixarEstoque(pedido.request);
+        return service.restaurarEstoque(pedido.request);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public BaixaEstoqueResponse baixarERestaurarConcorrente(Pedido pedido) {
+        service.baixarEstoque(pedido.request);
+        return service.restaurarEstoque(pedido.request);
+    }
+}
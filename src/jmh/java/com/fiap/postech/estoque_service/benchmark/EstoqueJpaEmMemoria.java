@@ -0,0 +1,120 @@
+package com.fiap.postech.estoque_service.benchmark;
+
+import com.fiap.postech.estoque_service.api.dto.AlertaEstoqueDto;
+import com.fiap.postech.estoque_service.api.dto.AlocacaoEstoqueDTO;
+import com.fiap.postech.estoque_service.api.dto.CriterioAlocacaoDTO;
+import com.fiap.postech.estoque_service.api.dto.ItemEstoqueResultadoDTO;
+import com.fiap.postech.estoque_service.api.dto.ResponseDto;
+import com.fiap.postech.estoque_service.domain.model.EventoEstoque;
+import com.fiap.postech.estoque_service.domain.model.TipoEventoEstoque;
+import com.fiap.postech.estoque_service.gateway.database.EstoqueBucketRepository;
+import com.fiap.postech.estoque_service.gateway.database.EstoqueLocalRepositoryImpl;
+import com.fiap.postech.estoque_service.gateway.database.OutboxEstoqueRepository;
+import com.fiap.postech.estoque_service.gateway.database.repository.EstoqueRepositoryJPA;
+import com.fiap.postech.estoque_service.gateway.port.AlertaEstoqueServicePort;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Substitui o {@link EstoqueRepositoryJPA} por um mapa em memória, para medir o código do serviço e do
+ * repositório sem banco. Só implementa os métodos usados pelos benchmarks.
+ */
+final class EstoqueJpaEmMemoria {
+
+    private EstoqueJpaEmMemoria() {
+    }
+
+    static EstoqueRepositoryJPA criar(ConcurrentHashMap<Integer, AtomicInteger> saldos) {
+        return (EstoqueRepositoryJPA) Proxy.newProxyInstance(
+                EstoqueRepositoryJPA.class.getClassLoader(),
+                new Class<?>[]{EstoqueRepositoryJPA.class},
+                (proxy, metodo, args) -> switch (metodo.getName()) {
+                    case "save" -> args[0];
+                    case "flush" -> null;
+                    case "atualizarQuantidade" -> 1;
+                    case "baixarEstoque" -> baixa(saldos.get((Integer) args[0]), (Integer) args[1]);
+                    case "restaurarEstoque" -> {
+                        saldos.get((Integer) args[0]).addAndGet((Integer) args[1]);
+                        yield 1;
+                    }
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "EstoqueJpaEmMemoria";
+                    default -> throw new UnsupportedOperationException(metodo.getName());
+                });
+    }
+
+    // Nenhum produto particionado: todas as movimentações seguem pela linha única de estoque
+    static EstoqueBucketRepository semBuckets() {
+        return new EstoqueBucketRepository() {
+            @Override
+            public boolean redefinirSaldo(int idProduto, int total, long versaoEsperada) {
+                return true;
+            }
+
+            @Override
+            public int quantidadeBuckets(int idProduto) {
+                return 0;
+            }
+        };
+    }
+
+    // Nenhum produto com estoque por local: a baixa não passa pela alocação
+    static EstoqueLocalRepositoryImpl semLocais() {
+        return new EstoqueLocalRepositoryImpl() {
+            @Override
+            public Map<Integer, List<AlocacaoEstoqueDTO>> alocar(Map<Integer, Integer> quantidadePorProduto,
+                                                                CriterioAlocacaoDTO criterio) {
+                return Map.of();
+            }
+        };
+    }
+
+    // Monta os eventos como em produção, mas não os grava
+    static OutboxEstoqueRepository semOutbox() {
+        return new OutboxEstoqueRepository() {
+            @Override
+            public void registrar(TipoEventoEstoque tipo, List<EventoEstoque> eventos) {
+            }
+        };
+    }
+
+    // Nenhum SKU com limite de reposição: a avaliação após cada movimentação não gera alerta
+    static AlertaEstoqueServicePort semAlertas() {
+        return new AlertaEstoqueServicePort() {
+            @Override
+            public ResponseDto definirLimite(String skuProduto, Integer limiteReposicao) {
+                throw new UnsupportedOperationException("definirLimite");
+            }
+
+            @Override
+            public List<AlertaEstoqueDto> listarAlertas() {
+                return List.of();
+            }
+
+            @Override
+            public void avaliar(List<ItemEstoqueResultadoDTO> resultados) {
+            }
+
+            @Override
+            public void avaliar(Integer idProduto, String skuProduto, Integer quantidadeEstoque) {
+            }
+        };
+    }
+
+    // Mesma semântica do UPDATE condicional: só decrementa se houver saldo
+    private static int baixa(AtomicInteger saldo, int quantidade) {
+        int atual;
+        do {
+            atual = saldo.get();
+            if (atual < quantidade) {
+                return 0;
+            }
+        } while (!saldo.compareAndSet(atual, atual - quantidade));
+        return 1;
+    }
+}
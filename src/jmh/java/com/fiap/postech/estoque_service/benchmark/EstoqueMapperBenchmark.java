@@ -0,0 +1,52 @@
+package com.fiap.postech.estoque_service.benchmark;
+
+import com.fiap.postech.estoque_service.api.dto.EstoqueDto;
+import com.fiap.postech.estoque_service.api.dto.EstoqueRequest;
+import com.fiap.postech.estoque_service.api.mapper.EstoqueMapper;
+import com.fiap.postech.estoque_service.domain.model.Estoque;
+import com.fiap.postech.estoque_service.gateway.database.entity.EstoqueEntity;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EstoqueMapperBenchmark {
+
+    private EstoqueRequest request;
+    private Estoque estoque;
+    private EstoqueEntity entity;
+
+    @Setup
+    public void preparar() {
+        request = new EstoqueRequest();
+        request.setSkuProduto("AP-IPH-001");
+        request.setQuantidadeEstoque(10);
+        estoque = new Estoque(1, 2, "AP-IPH-001", 10);
+        entity = new EstoqueEntity(1, 2, "AP-IPH-001", 10, 0, 0L);
+    }
+
+    @Benchmark
+    public Estoque requestToDomain() {
+        return EstoqueMapper.INSTANCE.requestToDomain(request);
+    }
+
+    @Benchmark
+    public EstoqueEntity domainToEntity() {
+        return EstoqueMapper.INSTANCE.domainToEntity(estoque);
+    }
+
+    @Benchmark
+    public Estoque entityToDomain() {
+        return EstoqueMapper.INSTANCE.entityToDomain(entity);
+    }
+
+    @Benchmark
+    public EstoqueDto domainToDto() {
+        return EstoqueMapper.INSTANCE.domainToDto(estoque);
+    }
+}
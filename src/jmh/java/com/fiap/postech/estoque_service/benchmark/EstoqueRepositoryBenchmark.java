@@ -0,0 +1,40 @@
+package com.fiap.postech.estoque_service.benchmark;
+
+import com.fiap.postech.estoque_service.api.dto.ResponseDto;
+import com.fiap.postech.estoque_service.domain.model.Estoque;
+import com.fiap.postech.estoque_service.gateway.database.EstoqueRepositoryImpl;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * atualizarEstoque sem banco: UPDATE condicional por versão em memória, conversão do mapper e montagem da resposta (montaResponse).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EstoqueRepositoryBenchmark {
+
+    private EstoqueRepositoryImpl repository;
+    private Estoque estoque;
+
+    @Setup
+    public void preparar() {
+        repository = new EstoqueRepositoryImpl();
+        ReflectionTestUtils.setField(repository, "estoqueRepositoryJPA", EstoqueJpaEmMemoria.criar(new ConcurrentHashMap<>()));
+        ReflectionTestUtils.setField(repository, "buckets", EstoqueJpaEmMemoria.semBuckets());
+        ReflectionTestUtils.setField(repository, "locais", EstoqueJpaEmMemoria.semLocais());
+        ReflectionTestUtils.setField(repository, "outbox", EstoqueJpaEmMemoria.semOutbox());
+        estoque = new Estoque(1, 2, "AP-IPH-001", 10);
+    }
+
+    @Benchmark
+    public ResponseDto atualizarEstoque() {
+        return repository.atualizarEstoque(estoque);
+    }
+}
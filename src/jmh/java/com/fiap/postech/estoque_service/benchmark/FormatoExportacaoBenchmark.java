@@ -0,0 +1,87 @@
+package com.fiap.postech.estoque_service.benchmark;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fiap.postech.estoque_service.api.dto.EstoqueDto;
+import com.fiap.postech.estoque_service.domain.model.FormatoExportacao;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Custo por registro da exportação em cada formato, com o mesmo EstoqueDto e mapeadores copiados do JSON como no
+// serviço. O tempo sai por registro (OperationsPerInvocation); o tamanho por registro é impresso no início do fork
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FormatoExportacaoBenchmark {
+
+    private static final int REGISTROS = 1_000;
+
+    @Param({"NDJSON", "CBOR", "SMILE"})
+    private FormatoExportacao formato;
+
+    private final List<EstoqueDto> estoques = new ArrayList<>();
+    private final ByteArrayOutputStream saida = new ByteArrayOutputStream(64 * REGISTROS);
+    private ObjectWriter escritor;
+    private ObjectReader leitor;
+    private byte[] exportado;
+
+    @Setup
+    public void preparar() throws IOException {
+        ObjectMapper json = new ObjectMapper();
+        ObjectMapper mapeador = switch (formato) {
+            case NDJSON -> json;
+            case CBOR -> json.copyWith(new CBORFactory());
+            case SMILE -> json.copyWith(new SmileFactory());
+        };
+        // Os geradores binários não aceitam separador: os valores já se delimitam sozinhos
+        escritor = formato == FormatoExportacao.NDJSON ? mapeador.writer().withRootValueSeparator("\n") : mapeador.writer();
+        leitor = mapeador.readerFor(EstoqueDto.class);
+        for (int i = 1; i <= REGISTROS; i++) {
+            EstoqueDto dto = new EstoqueDto();
+            dto.setIdProduto(i);
+            dto.setSkuProduto("AP-IPH-" + String.format("%03d", i % 1000));
+            dto.setQuantidadeEstoque(i * 7 % 500);
+            estoques.add(dto);
+        }
+        exportar();
+        exportado = saida.toByteArray();
+        System.out.printf("%n%s: %.1f bytes por registro%n", formato, (double) exportado.length / REGISTROS);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REGISTROS)
+    public int exportar() throws IOException {
+        saida.reset();
+        try (SequenceWriter sequencia = escritor.writeValues(saida)) {
+            for (EstoqueDto estoque : estoques) {
+                sequencia.write(estoque);
+            }
+        }
+        return saida.size();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REGISTROS)
+    public int ler() throws IOException {
+        int soma = 0;
+        try (MappingIterator<EstoqueDto> registros = leitor.readValues(exportado)) {
+            while (registros.hasNext()) {
+                soma += registros.next().getQuantidadeEstoque();
+            }
+        }
+        return soma;
+    }
+}
@@ -0,0 +1,32 @@
+package com.fiap.postech.estoque_service.benchmark;
+
+import com.fiap.postech.estoque_service.domain.model.Estoque;
+import com.fiap.postech.estoque_service.domain.model.Sku;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validação de SKU no cadastro e na importação: normaliza e aplica a expressão regular a cada chamada.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SkuBenchmark {
+
+    @Param({"AP-IPH-001", " ap iph 001 ", "SKU-INVALIDO"})
+    private String sku;
+
+    @Benchmark
+    public boolean skuValido() {
+        return new Estoque(null, 1, sku, 10).skuValido();
+    }
+
+    @Benchmark
+    public String normalizar() {
+        return Sku.normalizar(sku);
+    }
+}
@@ -0,0 +1,81 @@
+package com.fiap.postech.estoque_service.api.controller;
+
+import com.fiap.postech.estoque_service.api.dto.AlertaEstoqueDto;
+import com.fiap.postech.estoque_service.api.dto.ResponseDto;
+import com.fiap.postech.estoque_service.gateway.port.AlertaEstoqueServicePort;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/estoques")
+@Tag(name = "Alertas de estoque", description = "Limites de reposição por SKU e SKUs que chegaram a eles")
+public class AlertaEstoqueController {
+
+    @Autowired
+    private AlertaEstoqueServicePort service;
+
+    @Operation(summary = "Listar SKUs no limite de reposição ou abaixo dele",
+            description = "Servido da memória da instância, atualizada a cada movimentação e sincronizada periodicamente com o banco.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Alertas retornados com sucesso", content = @Content(
+                    mediaType = "application/json",
+                    array = @ArraySchema(schema = @Schema(implementation = AlertaEstoqueDto.class)),
+                    examples = @ExampleObject(value = """
+                                [
+                                  {
+                                    "idProduto": 1,
+                                    "skuProduto": "AP-IPH-001",
+                                    "quantidadeEstoque": 3,
+                                    "limiteReposicao": 10,
+                                    "desde": "2025-07-24T10:00:00"
+                                  }
+                                ]
+                            """))),
+    })
+    @GetMapping("/alertas")
+    public ResponseEntity<List<AlertaEstoqueDto>> listarAlertas() {
+        return ResponseEntity.status(HttpStatus.OK).body(service.listarAlertas());
+    }
+
+    @Operation(summary = "Definir o limite de reposição de um SKU",
+            description = "O SKU entra em alerta quando o saldo fica igual ou abaixo do limite. Sem o parâmetro, o limite é removido.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Limite atualizado com sucesso", content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = ResponseDto.class),
+                    examples = @ExampleObject(value = """
+                                {
+                                  "message": "Limite de reposição atualizado com sucesso!",
+                                  "data": { "skuProduto": "AP-IPH-001", "limiteReposicao": 10 }
+                                }
+                            """))),
+            @ApiResponse(responseCode = "400", description = "Limite negativo", content = @Content(
+                    mediaType = "application/json",
+                    examples = @ExampleObject(value = "{\"mensagem\": \"Limite de reposição não pode ser negativo.\"}"))),
+            @ApiResponse(responseCode = "404", description = "Estoque não encontrado", content = @Content(
+                    mediaType = "application/json",
+                    examples = @ExampleObject(value = "{\"mensagem\": \"Estoque não encontrado!\"}"))),
+            @ApiResponse(responseCode = "500", description = "Erro interno do servidor", content = @Content(
+                    mediaType = "application/json",
+                    examples = @ExampleObject(value = "{\"mensagem\": \"Erro interno!\"}"))),
+    })
+    @PutMapping("/{skuProduto}/limite-reposicao")
+    public ResponseEntity<ResponseDto> definirLimite(
+            @PathVariable String skuProduto,
+            @RequestParam(required = false) Integer limite) {
+        ResponseDto response = service.definirLimite(skuProduto, limite);
+        return ResponseEntity.status(HttpStatus.OK).body(response);
+    }
+}
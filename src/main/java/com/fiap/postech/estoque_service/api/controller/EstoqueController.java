@@ -1,8 +1,15 @@
 package com.fiap.postech.estoque_service.api.controller;
 
 import com.fiap.postech.estoque_service.api.dto.*;
+import com.fiap.postech.estoque_service.domain.model.FormatoExportacao;
+import com.fiap.postech.estoque_service.domain.model.FormatoImportacao;
 import com.fiap.postech.estoque_service.gateway.port.EstoqueServicePort;
+import com.fiap.postech.estoque_service.gateway.port.IdempotenciaServicePort;
+import com.fiap.postech.estoque_service.gateway.port.ImportacaoEstoqueServicePort;
+import com.fiap.postech.estoque_service.gateway.port.ReconciliacaoEstoqueServicePort;
+import com.fiap.postech.estoque_service.utils.ConstantUtils;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -11,10 +18,14 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -25,6 +36,15 @@ public class EstoqueController {
     @Autowired
     private EstoqueServicePort service;
 
+    @Autowired
+    private IdempotenciaServicePort idempotenciaService;
+
+    @Autowired
+    private ImportacaoEstoqueServicePort importacaoService;
+
+    @Autowired
+    private ReconciliacaoEstoqueServicePort reconciliacaoService;
+
     @Operation(summary = "Cadastrar um novo estoque")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Estoque cadastrado com sucesso", content = @Content(
@@ -46,6 +66,9 @@ public class EstoqueController {
             @ApiResponse(responseCode = "500", description = "Erro interno do servidor", content = @Content(
                     mediaType = "application/json",
                     examples = @ExampleObject(value = "{\"mensagem\": \"Erro interno!\"}"))),
+            @ApiResponse(responseCode = "503", description = "Serviço de produto indisponível", content = @Content(
+                    mediaType = "application/json",
+                    examples = @ExampleObject(value = "{\"mensagem\": \"Serviço de produto indisponível no momento. Tente novamente em instantes.\"}"))),
     })
     @PostMapping("/cadastrar")
     public ResponseEntity<ResponseDto> cadastrarEstoque(@Valid @RequestBody EstoqueRequest request) {
@@ -53,6 +76,86 @@ public class EstoqueController {
         return ResponseEntity.status(HttpStatus.CREATED).body(estoque);
     }
 
+    @Operation(summary = "Importar estoques em massa a partir de CSV ou NDJSON")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Arquivo processado; linhas rejeitadas constam no relatório", content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = ImportacaoEstoqueResponse.class),
+                    examples = @ExampleObject(value = """
+                                {
+                                  "mensagem": "Importação concluída.",
+                                  "linhasProcessadas": 3,
+                                  "importados": 2,
+                                  "rejeitados": 1,
+                                  "erros": [
+                                    {
+                                      "linha": 3,
+                                      "skuProduto": "AP-IPH-001",
+                                      "mensagem": "Já existe estoque cadastrado para o SKU informado."
+                                    }
+                                  ]
+                                }
+                            """))),
+            @ApiResponse(responseCode = "500", description = "Erro interno do servidor", content = @Content(
+                    mediaType = "application/json",
+                    examples = @ExampleObject(value = "{\"mensagem\": \"Erro interno!\"}"))),
+    })
+    @PostMapping(value = "/importar", consumes = {"text/csv", "text/plain", "application/x-ndjson"})
+    public ResponseEntity<ImportacaoEstoqueResponse> importarEstoques(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream corpo) {
+        ImportacaoEstoqueResponse response = importacaoService.importar(corpo, FormatoImportacao.doContentType(contentType));
+        return ResponseEntity.status(HttpStatus.OK).body(response);
+    }
+
+    @Operation(summary = "Reconciliar o estoque com um arquivo de recontagem (CSV ou NDJSON) ordenado por SKU",
+            description = "Só as diferenças são gravadas, como ajuste sobre o saldo lido: movimentações feitas durante "
+                    + "a reconciliação são preservadas. SKUs ausentes do arquivo não são alterados.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Arquivo processado; divergências e linhas rejeitadas constam no relatório", content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = ReconciliacaoEstoqueResponse.class),
+                    examples = @ExampleObject(value = """
+                                {
+                                  "mensagem": "Reconciliação concluída.",
+                                  "linhasProcessadas": 3,
+                                  "conferidos": 1,
+                                  "divergentes": 1,
+                                  "ajustados": 1,
+                                  "rejeitados": 1,
+                                  "divergencias": [
+                                    {
+                                      "linha": 2,
+                                      "skuProduto": "AP-IPH-002",
+                                      "quantidadeSistema": 30,
+                                      "quantidadeContada": 28,
+                                      "diferenca": -2,
+                                      "aplicada": true
+                                    }
+                                  ],
+                                  "erros": [
+                                    {
+                                      "linha": 3,
+                                      "skuProduto": "AP-IPH-001",
+                                      "mensagem": "SKU fora de ordem: o arquivo deve estar ordenado por SKU."
+                                    }
+                                  ]
+                                }
+                            """))),
+            @ApiResponse(responseCode = "500", description = "Erro interno do servidor", content = @Content(
+                    mediaType = "application/json",
+                    examples = @ExampleObject(value = "{\"mensagem\": \"Erro interno!\"}"))),
+    })
+    @PostMapping(value = "/reconciliacao", consumes = {"text/csv", "text/plain", "application/x-ndjson"})
+    public ResponseEntity<ReconciliacaoEstoqueResponse> reconciliarEstoque(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @RequestParam(required = false) String referencia,
+            InputStream corpo) {
+        ReconciliacaoEstoqueResponse response = reconciliacaoService.reconciliar(corpo,
+                FormatoImportacao.doContentType(contentType), referencia);
+        return ResponseEntity.status(HttpStatus.OK).body(response);
+    }
+
     @Operation(summary = "Dar baixa em estoque")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Baixa realizada com sucesso", content = @Content(
@@ -73,6 +176,9 @@ public class EstoqueController {
                                   "mensagem": "Estoque insuficiente!"
                                 }
                             """))),
+            @ApiResponse(responseCode = "409", description = "Requisição com a mesma Idempotency-Key ainda em processamento", content = @Content(
+                    mediaType = "application/json",
+                    examples = @ExampleObject(value = "{\"mensagem\": \"Requisição com a mesma Idempotency-Key ainda em processamento.\"}"))),
             @ApiResponse(responseCode = "500", description = "Erro interno do servidor", content = @Content(
                     mediaType = "application/json",
                     schema = @Schema(implementation = BaixaEstoqueResponse.class),
@@ -85,12 +191,18 @@ public class EstoqueController {
     })
     @PostMapping("/baixa")
     public ResponseEntity<BaixaEstoqueResponse> baixarEstoque(
+            @Parameter(description = "Chave única da operação; retentativas com a mesma chave recebem a resposta original")
+            @RequestHeader(value = ConstantUtils.IDEMPOTENCY_KEY, required = false) String idempotencyKey,
             @Valid @RequestBody BaixaEstoqueRequest request) {
-        BaixaEstoqueResponse response = service.baixarEstoque(request);
+        BaixaEstoqueResponse response = idempotenciaService.executar(idempotencyKey, ConstantUtils.OPERACAO_BAIXA,
+                request, BaixaEstoqueResponse.class, () -> service.baixarEstoque(request));
         return ResponseEntity.status(HttpStatus.OK).body(response);
     }
 
-    @Operation(summary = "Atualizar a quantidade do estoque de um produto")
+    @Operation(summary = "Atualizar a quantidade do estoque de um produto",
+            description = "A quantidade é absoluta. Envie em versao o valor devolvido pela consulta do SKU: se o estoque "
+                    + "mudou desde então (baixa, restauração, ajuste), a atualização é recusada com 409 em vez de "
+                    + "sobrescrever a outra operação. Sem versao, vale a versão lida no momento da atualização.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Estoque atualizado com sucesso", content = @Content(
                     mediaType = "application/json",
@@ -110,6 +222,9 @@ public class EstoqueController {
             @ApiResponse(responseCode = "404", description = "Estoque não encontrado", content = @Content(
                     mediaType = "application/json",
                     examples = @ExampleObject(value = "{\"mensagem\": \"Estoque não encontrado!\"}"))),
+            @ApiResponse(responseCode = "409", description = "Estoque alterado desde a versão informada", content = @Content(
+                    mediaType = "application/json",
+                    examples = @ExampleObject(value = "{\"mensagem\": \"Estoque alterado por outra operação. Consulte o estoque e envie a versão atual.\"}"))),
             @ApiResponse(responseCode = "500", description = "Erro interno do servidor", content = @Content(
                     mediaType = "application/json",
                     examples = @ExampleObject(value = "{\"mensagem\": \"Erro interno!\"}"))),
@@ -117,11 +232,43 @@ public class EstoqueController {
     @PutMapping("/atualizar/{skuProduto}")
     public ResponseEntity<ResponseDto> atualizarEstoque(
             @PathVariable String skuProduto,
-            @RequestParam Integer novaQuantidade) {
-        ResponseDto estoque = service.atualizarEstoque(skuProduto, novaQuantidade);
+            @RequestParam Integer novaQuantidade,
+            @RequestParam(required = false) Long versao) {
+        ResponseDto estoque = service.atualizarEstoque(skuProduto, novaQuantidade, versao);
         return ResponseEntity.status(HttpStatus.OK).body(estoque);
     }
 
+    @Operation(summary = "Particionar o estoque de um SKU em buckets",
+            description = "Para SKUs com muitas baixas simultâneas: o saldo é dividido em N linhas e cada baixa trava só uma delas. "
+                    + "As consultas continuam devolvendo o saldo total; buckets=0 volta o SKU para uma única linha.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Particionamento atualizado com sucesso", content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = ResponseDto.class),
+                    examples = @ExampleObject(value = """
+                                {
+                                  "message": "Particionamento do estoque atualizado com sucesso!",
+                                  "data": { "skuProduto": "AP-IPH-001", "buckets": 16 }
+                                }
+                            """))),
+            @ApiResponse(responseCode = "400", description = "Quantidade de buckets fora do limite", content = @Content(
+                    mediaType = "application/json",
+                    examples = @ExampleObject(value = "{\"mensagem\": \"Quantidade de buckets deve estar entre 0 e 64.\"}"))),
+            @ApiResponse(responseCode = "404", description = "Estoque não encontrado", content = @Content(
+                    mediaType = "application/json",
+                    examples = @ExampleObject(value = "{\"mensagem\": \"Estoque não encontrado!\"}"))),
+            @ApiResponse(responseCode = "500", description = "Erro interno do servidor", content = @Content(
+                    mediaType = "application/json",
+                    examples = @ExampleObject(value = "{\"mensagem\": \"Erro interno!\"}"))),
+    })
+    @PutMapping("/particionamento/{skuProduto}")
+    public ResponseEntity<ResponseDto> particionarEstoque(
+            @PathVariable String skuProduto,
+            @RequestParam Integer buckets) {
+        ResponseDto response = service.particionarEstoque(skuProduto, buckets);
+        return ResponseEntity.status(HttpStatus.OK).body(response);
+    }
+
     @Operation(summary = "Restaurar estoque após baixa indevida")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Estoque restaurado com sucesso", content = @Content(
@@ -142,6 +289,9 @@ public class EstoqueController {
                                   "mensagem": "Requisição inválida!"
                                 }
                             """))),
+            @ApiResponse(responseCode = "409", description = "Requisição com a mesma Idempotency-Key ainda em processamento", content = @Content(
+                    mediaType = "application/json",
+                    examples = @ExampleObject(value = "{\"mensagem\": \"Requisição com a mesma Idempotency-Key ainda em processamento.\"}"))),
             @ApiResponse(responseCode = "500", description = "Erro interno do servidor", content = @Content(
                     mediaType = "application/json",
                     schema = @Schema(implementation = BaixaEstoqueResponse.class),
@@ -154,8 +304,79 @@ public class EstoqueController {
     })
     @PostMapping("/restaurar")
     public ResponseEntity<BaixaEstoqueResponse> restaurarEstoque(
+            @Parameter(description = "Chave única da operação; retentativas com a mesma chave recebem a resposta original")
+            @RequestHeader(value = ConstantUtils.IDEMPOTENCY_KEY, required = false) String idempotencyKey,
             @Valid @RequestBody BaixaEstoqueRequest request) {
-        BaixaEstoqueResponse response = service.restaurarEstoque(request);
+        BaixaEstoqueResponse response = idempotenciaService.executar(idempotencyKey, ConstantUtils.OPERACAO_RESTAURACAO,
+                request, BaixaEstoqueResponse.class, () -> service.restaurarEstoque(request));
+        return ResponseEntity.status(HttpStatus.OK).body(response);
+    }
+
+    @Operation(summary = "Somar ou retirar quantidade do estoque de um SKU",
+            description = "Aplica o delta no servidor em um único comando, sem ler o saldo antes; o saldo nunca fica negativo.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Ajuste processado; sucesso = false se algum SKU não existir ou ficar negativo, e nada é aplicado", content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = BaixaEstoqueResponse.class),
+                    examples = @ExampleObject(value = """
+                                  {
+                                    "sucesso": true,
+                                    "mensagem": "Estoque ajustado com sucesso!",
+                                    "itens": [{"idProduto": 1, "skuProduto": "AP-IPH-001", "quantidade": 12, "quantidadeEstoque": 30, "sucesso": true}]
+                                  }
+                            """))),
+            @ApiResponse(responseCode = "400", description = "Dados inválidos", content = @Content(
+                    mediaType = "application/json",
+                    examples = @ExampleObject(value = "{\"mensagem\": \"Requisição inválida!\"}"))),
+            @ApiResponse(responseCode = "409", description = "Requisição com a mesma Idempotency-Key ainda em processamento", content = @Content(
+                    mediaType = "application/json",
+                    examples = @ExampleObject(value = "{\"mensagem\": \"Requisição com a mesma Idempotency-Key ainda em processamento.\"}"))),
+            @ApiResponse(responseCode = "500", description = "Erro interno do servidor", content = @Content(
+                    mediaType = "application/json",
+                    examples = @ExampleObject(value = "{\"mensagem\": \"Erro interno!\"}"))),
+    })
+    @PatchMapping("/ajuste/{skuProduto}")
+    public ResponseEntity<BaixaEstoqueResponse> ajustarEstoque(
+            @Parameter(description = "Chave única da operação; retentativas com a mesma chave recebem a resposta original")
+            @RequestHeader(value = ConstantUtils.IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            @PathVariable String skuProduto,
+            @Parameter(description = "Quantidade a somar; negativa para retirar", example = "-3")
+            @RequestParam Integer delta) {
+        BaixaEstoqueResponse response = idempotenciaService.executar(idempotencyKey, ConstantUtils.OPERACAO_AJUSTE,
+                List.of(skuProduto, delta), BaixaEstoqueResponse.class, () -> service.ajustarEstoque(skuProduto, delta));
+        return ResponseEntity.status(HttpStatus.OK).body(response);
+    }
+
+    @Operation(summary = "Ajustar o estoque de vários SKUs em uma requisição",
+            description = "Todos os deltas são aplicados na mesma transação: se algum SKU não existir ou ficar negativo, nenhum é aplicado.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Ajuste processado; sucesso = false se algum SKU não existir ou ficar negativo, e nada é aplicado", content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = BaixaEstoqueResponse.class),
+                    examples = @ExampleObject(value = """
+                                  {
+                                    "sucesso": true,
+                                    "mensagem": "Estoque ajustado com sucesso!",
+                                    "itens": [{"idProduto": 1, "skuProduto": "AP-IPH-001", "quantidade": 12, "quantidadeEstoque": 30, "sucesso": true}]
+                                  }
+                            """))),
+            @ApiResponse(responseCode = "400", description = "Dados inválidos", content = @Content(
+                    mediaType = "application/json",
+                    examples = @ExampleObject(value = "{\"mensagem\": \"Requisição inválida!\"}"))),
+            @ApiResponse(responseCode = "409", description = "Requisição com a mesma Idempotency-Key ainda em processamento", content = @Content(
+                    mediaType = "application/json",
+                    examples = @ExampleObject(value = "{\"mensagem\": \"Requisição com a mesma Idempotency-Key ainda em processamento.\"}"))),
+            @ApiResponse(responseCode = "500", description = "Erro interno do servidor", content = @Content(
+                    mediaType = "application/json",
+                    examples = @ExampleObject(value = "{\"mensagem\": \"Erro interno!\"}"))),
+    })
+    @PatchMapping("/ajuste")
+    public ResponseEntity<BaixaEstoqueResponse> ajustarEstoqueEmLote(
+            @Parameter(description = "Chave única da operação; retentativas com a mesma chave recebem a resposta original")
+            @RequestHeader(value = ConstantUtils.IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            @Valid @RequestBody AjusteEstoqueRequest request) {
+        BaixaEstoqueResponse response = idempotenciaService.executar(idempotencyKey, ConstantUtils.OPERACAO_AJUSTE,
+                request, BaixaEstoqueResponse.class, () -> service.ajustarEstoque(request));
         return ResponseEntity.status(HttpStatus.OK).body(response);
     }
 
@@ -184,33 +405,99 @@ public class EstoqueController {
         return ResponseEntity.status(HttpStatus.OK).body(estoque);
     }
 
-    @Operation(summary = "Listar todos os estoques")
+    @Operation(summary = "Consultar o estoque de vários produtos",
+            description = "Resolve todos os SKUs e IDs em uma única consulta ao banco (os que já estão em cache nem vão a ele). "
+                    + "Itens sem estoque cadastrado voltam em naoEncontrados, sem falhar a consulta. "
+                    + "Com Accept application/cbor ou application/x-jackson-smile a resposta sai em binário.")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Lista de estoques retornada com sucesso", content = @Content(
+            @ApiResponse(responseCode = "200", description = "Consulta realizada com sucesso", content = @Content(
                     mediaType = "application/json",
-                    schema = @Schema(implementation = EstoqueDto.class),
+                    schema = @Schema(implementation = ConsultaEstoqueResponse.class),
+                    examples = @ExampleObject(value = """
+                                {
+                                  "porSku": { "AP-IPH-001": 42, "SA-GAL-010": 0 },
+                                  "porIdProduto": { "3": 15 },
+                                  "naoEncontrados": ["XX-YY-999"]
+                                }
+                            """))),
+            @ApiResponse(responseCode = "400", description = "Consulta vazia ou com itens demais", content = @Content(
+                    mediaType = "application/json",
+                    examples = @ExampleObject(value = "{\"mensagem\": \"A consulta aceita no máximo 500 itens.\"}"))),
+            @ApiResponse(responseCode = "500", description = "Erro interno do servidor", content = @Content(
+                    mediaType = "application/json",
+                    examples = @ExampleObject(value = "{\"mensagem\": \"Erro interno!\"}"))),
+    })
+    @PostMapping("/consulta")
+    public ResponseEntity<ConsultaEstoqueResponse> consultarEstoques(@Valid @RequestBody ConsultaEstoqueRequest request) {
+        return ResponseEntity.status(HttpStatus.OK).body(service.consultarEstoques(request));
+    }
+
+    @Operation(summary = "Listar estoques paginados por cursor",
+            description = "Devolve no máximo 'limite' registros (padrão 100). Quando houver mais, proximoCursor (repetido no "
+                    + "cabeçalho X-Proximo-Cursor) traz o valor a enviar em 'cursor' na próxima chamada; nulo na última página. "
+                    + "Com Accept application/cbor ou application/x-jackson-smile a página sai em binário.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Página de estoques retornada com sucesso", content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = PaginaEstoqueDto.class),
                     examples = @ExampleObject(value = """
-                                    [
-                                      {
-                                        "idProduto": 1,
-                                        "skuProduto": "AP-IPH-001",
-                                        "quantidade": 45
-                                      },
-                                      {
-                                        "idProduto": 2,
-                                        "skuProduto": "AP-IPH-002",
-                                        "quantidade": 30
-                                      }
-                                    ]
+                                    {
+                                      "itens": [
+                                        {
+                                          "idProduto": 1,
+                                          "skuProduto": "AP-IPH-001",
+                                          "quantidadeEstoque": 45,
+                                          "versao": 3
+                                        },
+                                        {
+                                          "idProduto": 2,
+                                          "skuProduto": "AP-IPH-002",
+                                          "quantidadeEstoque": 30,
+                                          "versao": 1
+                                        }
+                                      ],
+                                      "proximoCursor": 2
+                                    }
                             """))),
             @ApiResponse(responseCode = "500", description = "Erro interno do servidor", content = @Content(
                     mediaType = "application/json",
                     examples = @ExampleObject(value = "{\"mensagem\": \"Erro interno!\"}"))),
     })
     @GetMapping
-    public ResponseEntity<List<EstoqueDto>> listarTodos() {
-        List<EstoqueDto> estoques = service.listarTodos();
-        return ResponseEntity.status(HttpStatus.OK).body(estoques);
+    public ResponseEntity<PaginaEstoqueDto> listarTodos(
+            @RequestParam(required = false) Integer cursor,
+            @RequestParam(required = false) Integer limite) {
+        PaginaEstoqueDto pagina = service.listarTodos(cursor, limite);
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.OK);
+        if (pagina.getProximoCursor() != null) {
+            response.header(ConstantUtils.PROXIMO_CURSOR, String.valueOf(pagina.getProximoCursor()));
+        }
+        return response.body(pagina);
+    }
+
+    @Operation(summary = "Exportar todos os estoques em NDJSON, CBOR ou Smile",
+            description = "Lido do banco por cursor; o consumo de memória não depende do tamanho do catálogo. O formato "
+                    + "segue o Accept: application/x-ndjson (padrão, um objeto por linha), application/cbor-seq "
+                    + "(sequência CBOR, RFC 8742) ou application/x-jackson-smile. Os formatos binários têm os mesmos "
+                    + "campos do JSON e ocupam menos bytes por registro.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Exportação em andamento", content = {
+                    @Content(mediaType = "application/x-ndjson",
+                            examples = @ExampleObject(value = """
+                                        {"idProduto":1,"quantidadeEstoque":45,"skuProduto":"AP-IPH-001"}
+                                        {"idProduto":2,"quantidadeEstoque":30,"skuProduto":"AP-IPH-002"}
+                                    """)),
+                    @Content(mediaType = "application/cbor-seq"),
+                    @Content(mediaType = "application/x-jackson-smile")}),
+    })
+    @GetMapping(value = "/exportar", produces = {"application/x-ndjson", "application/cbor-seq", "application/x-jackson-smile"})
+    public ResponseEntity<StreamingResponseBody> exportarEstoques(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        FormatoExportacao formato = FormatoExportacao.doAccept(accept);
+        StreamingResponseBody corpo = saida -> service.exportarEstoques(saida, formato);
+        return ResponseEntity.status(HttpStatus.OK)
+                .contentType(MediaType.parseMediaType(formato.getContentType()))
+                .body(corpo);
     }
 
     @Operation(summary = "Deletar estoque pelo SKU")
@@ -0,0 +1,114 @@
+package com.fiap.postech.estoque_service.api.controller;
+
+import com.fiap.postech.estoque_service.api.dto.EstoqueLocaisResponse;
+import com.fiap.postech.estoque_service.api.dto.LocalEstoqueRequest;
+import com.fiap.postech.estoque_service.api.dto.ResponseDto;
+import com.fiap.postech.estoque_service.gateway.port.LocalEstoqueServicePort;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/estoques")
+@Tag(name = "Locais de estoque", description = "Centros de distribuição e saldo de cada produto por local")
+public class LocalEstoqueController {
+
+    @Autowired
+    private LocalEstoqueServicePort service;
+
+    @Operation(summary = "Cadastrar ou alterar um centro de distribuição",
+            description = "As coordenadas são usadas pelas regras de alocação por distância; locais sem elas ficam por último.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Local salvo com sucesso", content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = ResponseDto.class),
+                    examples = @ExampleObject(value = """
+                                {
+                                  "message": "Local de estoque salvo com sucesso!",
+                                  "data": { "codigo": "CD-SP", "nome": "CD São Paulo" }
+                                }
+                            """))),
+            @ApiResponse(responseCode = "400", description = "Dados inválidos", content = @Content(
+                    mediaType = "application/json",
+                    examples = @ExampleObject(value = "{\"mensagem\": \"O nome do local é obrigatório\"}"))),
+            @ApiResponse(responseCode = "500", description = "Erro interno do servidor", content = @Content(
+                    mediaType = "application/json",
+                    examples = @ExampleObject(value = "{\"mensagem\": \"Erro interno!\"}"))),
+    })
+    @PutMapping("/locais/{codigo}")
+    public ResponseEntity<ResponseDto> salvarLocal(
+            @PathVariable String codigo,
+            @Valid @RequestBody LocalEstoqueRequest request) {
+        ResponseDto response = service.salvarLocal(codigo, request);
+        return ResponseEntity.status(HttpStatus.OK).body(response);
+    }
+
+    @Operation(summary = "Definir o saldo de um SKU em um local",
+            description = "Move saldo entre o saldo sem local e o local informado; o total do SKU não muda. "
+                    + "A soma dos locais não pode passar do total, e SKUs particionados não podem ter estoque por local.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Saldo do local atualizado com sucesso", content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = ResponseDto.class),
+                    examples = @ExampleObject(value = """
+                                {
+                                  "message": "Estoque do local atualizado com sucesso!",
+                                  "data": { "skuProduto": "AP-IPH-001", "codigoLocal": "CD-SP", "quantidade": 30 }
+                                }
+                            """))),
+            @ApiResponse(responseCode = "400", description = "Quantidade inválida ou acima do saldo sem local", content = @Content(
+                    mediaType = "application/json",
+                    examples = @ExampleObject(value = "{\"mensagem\": \"A soma dos locais não pode exceder o saldo total do produto.\"}"))),
+            @ApiResponse(responseCode = "404", description = "Estoque ou local não encontrado", content = @Content(
+                    mediaType = "application/json",
+                    examples = @ExampleObject(value = "{\"mensagem\": \"Local de estoque não encontrado.\"}"))),
+            @ApiResponse(responseCode = "500", description = "Erro interno do servidor", content = @Content(
+                    mediaType = "application/json",
+                    examples = @ExampleObject(value = "{\"mensagem\": \"Erro interno!\"}"))),
+    })
+    @PutMapping("/{skuProduto}/locais/{codigoLocal}")
+    public ResponseEntity<ResponseDto> definirQuantidade(
+            @PathVariable String skuProduto,
+            @PathVariable String codigoLocal,
+            @RequestParam Integer quantidade) {
+        ResponseDto response = service.definirQuantidade(skuProduto, codigoLocal, quantidade);
+        return ResponseEntity.status(HttpStatus.OK).body(response);
+    }
+
+    @Operation(summary = "Listar o saldo de um SKU por local")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Saldos retornados com sucesso", content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = EstoqueLocaisResponse.class),
+                    examples = @ExampleObject(value = """
+                                {
+                                  "skuProduto": "AP-IPH-001",
+                                  "quantidadeEstoque": 50,
+                                  "quantidadeSemLocal": 5,
+                                  "locais": [
+                                    { "codigoLocal": "CD-RJ", "nome": "CD Rio de Janeiro", "quantidade": 15 },
+                                    { "codigoLocal": "CD-SP", "nome": "CD São Paulo", "quantidade": 30 }
+                                  ]
+                                }
+                            """))),
+            @ApiResponse(responseCode = "404", description = "Estoque não encontrado", content = @Content(
+                    mediaType = "application/json",
+                    examples = @ExampleObject(value = "{\"mensagem\": \"Estoque não encontrado!\"}"))),
+            @ApiResponse(responseCode = "500", description = "Erro interno do servidor", content = @Content(
+                    mediaType = "application/json",
+                    examples = @ExampleObject(value = "{\"mensagem\": \"Erro interno!\"}"))),
+    })
+    @GetMapping("/{skuProduto}/locais")
+    public ResponseEntity<EstoqueLocaisResponse> listarLocais(@PathVariable String skuProduto) {
+        return ResponseEntity.status(HttpStatus.OK).body(service.listarLocais(skuProduto));
+    }
+}
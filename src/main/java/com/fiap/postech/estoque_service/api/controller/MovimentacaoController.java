@@ -0,0 +1,74 @@
+package com.fiap.postech.estoque_service.api.controller;
+
+import com.fiap.postech.estoque_service.api.dto.MovimentacaoEstoqueDto;
+import com.fiap.postech.estoque_service.api.dto.PaginaMovimentacaoDto;
+import com.fiap.postech.estoque_service.gateway.port.MovimentacaoServicePort;
+import com.fiap.postech.estoque_service.utils.ConstantUtils;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/estoques/movimentacoes")
+@Tag(name = "Movimentações", description = "Histórico de movimentações de estoque")
+public class MovimentacaoController {
+
+    @Autowired
+    private MovimentacaoServicePort service;
+
+    @Operation(summary = "Listar movimentações de estoque por SKU e/ou período, paginadas por cursor",
+            description = "Sem 'de'/'ate', considera os últimos dias configurados até agora. Quando houver mais "
+                    + "registros, o cabeçalho X-Proximo-Cursor traz o valor a enviar em 'cursor' na próxima chamada. "
+                    + "As movimentações aparecem alguns instantes depois da operação, quando o outbox é publicado.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Movimentações retornadas com sucesso", content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = MovimentacaoEstoqueDto.class),
+                    examples = @ExampleObject(value = """
+                                    [
+                                      {
+                                        "id": 1024,
+                                        "registradoEm": "2025-07-24T10:00:00",
+                                        "idProduto": 1,
+                                        "skuProduto": "AP-IPH-001",
+                                        "motivo": "BAIXA",
+                                        "delta": -2,
+                                        "quantidadeEstoque": 43,
+                                        "referencia": "PED-2025-000123"
+                                      }
+                                    ]
+                            """))),
+            @ApiResponse(responseCode = "400", description = "Período inválido", content = @Content(
+                    mediaType = "application/json",
+                    examples = @ExampleObject(value = "{\"mensagem\": \"Período inválido: a data inicial deve ser anterior à final.\"}"))),
+            @ApiResponse(responseCode = "500", description = "Erro interno do servidor", content = @Content(
+                    mediaType = "application/json",
+                    examples = @ExampleObject(value = "{\"mensagem\": \"Erro interno!\"}"))),
+    })
+    @GetMapping
+    public ResponseEntity<List<MovimentacaoEstoqueDto>> listarMovimentacoes(
+            @RequestParam(required = false) String sku,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime de,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime ate,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer limite) {
+        PaginaMovimentacaoDto pagina = service.listarMovimentacoes(sku, de, ate, cursor, limite);
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.OK);
+        if (pagina.getProximoCursor() != null) {
+            response.header(ConstantUtils.PROXIMO_CURSOR, String.valueOf(pagina.getProximoCursor()));
+        }
+        return response.body(pagina.getItens());
+    }
+}
@@ -0,0 +1,113 @@
+package com.fiap.postech.estoque_service.api.controller;
+
+import com.fiap.postech.estoque_service.api.dto.ReservaRequest;
+import com.fiap.postech.estoque_service.api.dto.ReservaResponse;
+import com.fiap.postech.estoque_service.gateway.port.ReservaServicePort;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/estoques/reservas")
+@Tag(name = "Reservas", description = "Reserva temporária de itens do estoque")
+public class ReservaController {
+
+    @Autowired
+    private ReservaServicePort service;
+
+    @Operation(summary = "Reservar itens do estoque por um tempo limitado")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Reserva criada com sucesso", content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = ReservaResponse.class),
+                    examples = @ExampleObject(value = """
+                                  {
+                                    "sucesso": true,
+                                    "mensagem": "Reserva criada com sucesso!",
+                                    "idReserva": "3f2c6a4e-8d0b-4c1e-9a57-1b2f0c9d7e11",
+                                    "status": "ATIVA",
+                                    "expiraEm": "2024-07-24T10:15:00"
+                                  }
+                            """))),
+            @ApiResponse(responseCode = "409", description = "Estoque insuficiente", content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = ReservaResponse.class),
+                    examples = @ExampleObject(value = """
+                                {
+                                  "sucesso": false,
+                                  "mensagem": "Estoque insuficiente para o produto ID: 1"
+                                }
+                            """))),
+            @ApiResponse(responseCode = "500", description = "Erro interno do servidor", content = @Content(
+                    mediaType = "application/json",
+                    examples = @ExampleObject(value = "{\"mensagem\": \"Erro interno!\"}"))),
+    })
+    @PostMapping
+    public ResponseEntity<ReservaResponse> criarReserva(@Valid @RequestBody ReservaRequest request) {
+        ReservaResponse response = service.criarReserva(request);
+        HttpStatus status = response.isSucesso() ? HttpStatus.CREATED : HttpStatus.CONFLICT;
+        return ResponseEntity.status(status).body(response);
+    }
+
+    @Operation(summary = "Confirmar reserva, efetivando a baixa dos itens")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Reserva confirmada com sucesso", content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = ReservaResponse.class))),
+            @ApiResponse(responseCode = "404", description = "Reserva não encontrada", content = @Content(
+                    mediaType = "application/json",
+                    examples = @ExampleObject(value = "{\"mensagem\": \"Reserva não encontrada.\"}"))),
+            @ApiResponse(responseCode = "409", description = "Reserva não está ativa ou já expirou", content = @Content(
+                    mediaType = "application/json",
+                    examples = @ExampleObject(value = "{\"mensagem\": \"Reserva expirada.\"}"))),
+    })
+    @PostMapping("/{idReserva}/confirmar")
+    public ResponseEntity<ReservaResponse> confirmarReserva(@PathVariable UUID idReserva) {
+        ReservaResponse response = service.confirmarReserva(idReserva);
+        return ResponseEntity.status(HttpStatus.OK).body(response);
+    }
+
+    @Operation(summary = "Liberar reserva, devolvendo os itens ao estoque")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Reserva liberada com sucesso", content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = ReservaResponse.class))),
+            @ApiResponse(responseCode = "404", description = "Reserva não encontrada", content = @Content(
+                    mediaType = "application/json",
+                    examples = @ExampleObject(value = "{\"mensagem\": \"Reserva não encontrada.\"}"))),
+            @ApiResponse(responseCode = "409", description = "Reserva não está ativa", content = @Content(
+                    mediaType = "application/json",
+                    examples = @ExampleObject(value = "{\"mensagem\": \"Reserva não está ativa. Situação atual: CONFIRMADA\"}"))),
+    })
+    @DeleteMapping("/{idReserva}")
+    public ResponseEntity<ReservaResponse> liberarReserva(@PathVariable UUID idReserva) {
+        ReservaResponse response = service.liberarReserva(idReserva);
+        return ResponseEntity.status(HttpStatus.OK).body(response);
+    }
+
+    @Operation(summary = "Consultar reserva")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Reserva encontrada", content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = ReservaResponse.class))),
+            @ApiResponse(responseCode = "404", description = "Reserva não encontrada", content = @Content(
+                    mediaType = "application/json",
+                    examples = @ExampleObject(value = "{\"mensagem\": \"Reserva não encontrada.\"}"))),
+    })
+    @GetMapping("/{idReserva}")
+    public ResponseEntity<ReservaResponse> buscarReserva(@PathVariable UUID idReserva) {
+        ReservaResponse response = service.buscarReserva(idReserva);
+        return ResponseEntity.status(HttpStatus.OK).body(response);
+    }
+}
@@ -0,0 +1,37 @@
+package com.fiap.postech.estoque_service.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Requisição para ajustar a quantidade de vários SKUs de uma vez")
+public class AjusteEstoqueRequest {
+
+    @NotEmpty(message = "A lista de itens é obrigatória")
+    @Schema(
+            description = "Lista de ajustes; SKUs repetidos têm os deltas somados",
+            requiredMode = Schema.RequiredMode.REQUIRED,
+            example = "[{\"skuProduto\": \"AP-IPH-001\", \"delta\": 12}, {\"skuProduto\": \"SA-GAL-010\", \"delta\": -2}]"
+    )
+    private List<@Valid ItemAjusteEstoqueDTO> itens;
+
+    @Size(max = 255, message = "A referência deve ter no máximo 255 caracteres")
+    @Schema(
+            description = "Motivo ou documento do ajuste (ex.: inventário, nota fiscal), gravado no histórico de movimentações",
+            example = "INV-2025-07"
+    )
+    private String referencia;
+
+    public AjusteEstoqueRequest(List<ItemAjusteEstoqueDTO> itens) {
+        this(itens, null);
+    }
+}
@@ -0,0 +1,26 @@
+package com.fiap.postech.estoque_service.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Schema(description = "SKU com saldo no limite de reposição ou abaixo dele")
+public class AlertaEstoqueDto {
+
+    @Schema(description = "ID do produto", example = "1")
+    private Integer idProduto;
+
+    @Schema(description = "SKU do produto", example = "AP-IPH-001")
+    private String skuProduto;
+
+    @Schema(description = "Saldo na última movimentação avaliada", example = "3")
+    private Integer quantidadeEstoque;
+
+    @Schema(description = "Limite de reposição do SKU", example = "10")
+    private Integer limiteReposicao;
+
+    @Schema(description = "Quando o SKU ficou abaixo do limite", example = "2025-07-24T10:00:00")
+    private LocalDateTime desde;
+}
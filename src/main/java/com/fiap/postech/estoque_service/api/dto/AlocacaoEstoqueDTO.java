@@ -0,0 +1,19 @@
+package com.fiap.postech.estoque_service.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Parte de um item retirada de um local")
+public class AlocacaoEstoqueDTO {
+
+    @Schema(description = "Código do local; nulo para a parte retirada do saldo ainda sem local", example = "CD-SP")
+    private String codigoLocal;
+
+    @Schema(description = "Quantidade retirada do local", example = "2")
+    private Integer quantidade;
+}
@@ -1,6 +1,9 @@
 package com.fiap.postech.estoque_service.api.dto;
 
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
 import lombok.Data;
 
 import java.util.List;
@@ -9,10 +12,23 @@ import java.util.List;
 @Schema(description = "Requisição para dar baixa em itens do estoque")
 public class BaixaEstoqueRequest {
 
+    @NotEmpty(message = "A lista de itens é obrigatória")
     @Schema(
             description = "Lista de itens para baixa",
             requiredMode = Schema.RequiredMode.REQUIRED,
             example = "[{\"idProduto\": 1, \"quantidade\": 2}, {\"idProduto\": 2, \"quantidade\": 5}]"
     )
-    private List<ItemEstoqueBaixaDTO> itens;
+    private List<@Valid ItemEstoqueBaixaDTO> itens;
+
+    @Size(max = 255, message = "A referência deve ter no máximo 255 caracteres")
+    @Schema(
+            description = "Referência da movimentação (ex.: número do pedido), gravada no histórico de movimentações",
+            example = "PED-2025-000123"
+    )
+    private String referencia;
+
+    @Valid
+    @Schema(description = "Critério de escolha dos locais para produtos com estoque por local; "
+            + "sem ele vale a regra padrão configurada")
+    private CriterioAlocacaoDTO alocacao;
 }
@@ -5,6 +5,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -16,4 +18,11 @@ public class BaixaEstoqueResponse {
 
     @Schema(description = "Mensagem de retorno da operação", example = "Baixa realizada com sucesso!")
     private String mensagem;
+
+    @Schema(description = "Resultado individual de cada produto da requisição")
+    private List<ItemEstoqueResultadoDTO> itens;
+
+    public BaixaEstoqueResponse(boolean sucesso, String mensagem) {
+        this(sucesso, mensagem, null);
+    }
 }
@@ -0,0 +1,30 @@
+package com.fiap.postech.estoque_service.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.AssertTrue;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Consulta de estoque de vários produtos em uma chamada, por SKU e/ou ID do produto")
+public class ConsultaEstoqueRequest {
+
+    @Schema(description = "SKUs a consultar", example = "[\"AP-IPH-001\", \"SA-GAL-010\"]")
+    private List<String> skus;
+
+    @Schema(description = "IDs de produto a consultar", example = "[3, 7]")
+    private List<Integer> idsProduto;
+
+    @JsonIgnore
+    @Schema(hidden = true)
+    @AssertTrue(message = "Informe ao menos um SKU ou ID de produto")
+    public boolean isInformado() {
+        return (skus != null && !skus.isEmpty()) || (idsProduto != null && !idsProduto.isEmpty());
+    }
+}
@@ -0,0 +1,27 @@
+package com.fiap.postech.estoque_service.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+@Schema(description = "Saldo de cada produto consultado, na ordem da requisição")
+public class ConsultaEstoqueResponse {
+
+    @Schema(description = "Saldo por SKU normalizado", example = "{\"AP-IPH-001\": 42, \"SA-GAL-010\": 0}")
+    private Map<String, Integer> porSku;
+
+    @Schema(description = "Saldo por ID do produto", example = "{\"3\": 15}")
+    private Map<Integer, Integer> porIdProduto;
+
+    @Schema(description = "SKUs e IDs sem estoque cadastrado", example = "[\"XX-YY-999\", \"7\"]")
+    private List<String> naoEncontrados;
+}
@@ -0,0 +1,29 @@
+package com.fiap.postech.estoque_service.api.dto;
+
+import com.fiap.postech.estoque_service.domain.model.RegraAlocacao;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Como escolher os locais de onde sai a baixa de produtos com estoque por local")
+public class CriterioAlocacaoDTO {
+
+    @Schema(description = "Regra de alocação; sem ela vale a regra padrão configurada", example = "MAIS_PROXIMO")
+    private RegraAlocacao regra;
+
+    @DecimalMin(value = "-90.0", message = "A latitude deve estar entre -90 e 90")
+    @DecimalMax(value = "90.0", message = "A latitude deve estar entre -90 e 90")
+    @Schema(description = "Latitude do destino da entrega", example = "-23.5505")
+    private Double latitude;
+
+    @DecimalMin(value = "-180.0", message = "A longitude deve estar entre -180 e 180")
+    @DecimalMax(value = "180.0", message = "A longitude deve estar entre -180 e 180")
+    @Schema(description = "Longitude do destino da entrega", example = "-46.6333")
+    private Double longitude;
+}
@@ -0,0 +1,34 @@
+package com.fiap.postech.estoque_service.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Diferença entre a quantidade contada e o saldo do sistema para um SKU")
+public class DivergenciaEstoqueDTO {
+
+    @Schema(description = "Número da linha no arquivo, começando em 1", example = "42")
+    private long linha;
+
+    @Schema(description = "SKU normalizado", example = "AP-IPH-001")
+    private String skuProduto;
+
+    @Schema(description = "Saldo do sistema no momento da leitura", example = "45")
+    private Integer quantidadeSistema;
+
+    @Schema(description = "Quantidade contada no arquivo", example = "43")
+    private Integer quantidadeContada;
+
+    @Schema(description = "Diferença aplicada ao saldo (contada - sistema)", example = "-2")
+    private Integer diferenca;
+
+    @Schema(description = "Indica se a diferença foi aplicada ao estoque", example = "true")
+    private boolean aplicada;
+
+    @Schema(description = "Motivo quando a diferença não pôde ser aplicada")
+    private String mensagem;
+}
@@ -0,0 +1,22 @@
+package com.fiap.postech.estoque_service.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Linha rejeitada na importação de estoques")
+public class ErroImportacaoDTO {
+
+    @Schema(description = "Número da linha no arquivo, começando em 1", example = "42")
+    private long linha;
+
+    @Schema(description = "SKU informado na linha, se legível", example = "AP-IPH-001")
+    private String skuProduto;
+
+    @Schema(description = "Motivo da rejeição", example = "Já existe estoque cadastrado para o SKU informado.")
+    private String mensagem;
+}
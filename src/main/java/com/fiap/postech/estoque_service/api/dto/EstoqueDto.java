@@ -15,4 +15,7 @@ public class EstoqueDto {
 
     @Schema(description = "SKU do produto", example = "AP-IPH-001")
     private String skuProduto;
+
+    @Schema(description = "Versão do estoque; envie na atualização da quantidade para não sobrescrever outra operação", example = "7")
+    private Long versao;
 }
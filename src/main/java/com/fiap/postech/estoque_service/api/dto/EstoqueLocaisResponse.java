@@ -0,0 +1,27 @@
+package com.fiap.postech.estoque_service.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Saldo do produto por local")
+public class EstoqueLocaisResponse {
+
+    @Schema(description = "SKU do produto", example = "AP-IPH-001")
+    private String skuProduto;
+
+    @Schema(description = "Saldo total do produto", example = "50")
+    private Integer quantidadeEstoque;
+
+    @Schema(description = "Parte do saldo ainda não atribuída a nenhum local", example = "5")
+    private Integer quantidadeSemLocal;
+
+    @Schema(description = "Saldo em cada local")
+    private List<EstoqueLocalDto> locais;
+}
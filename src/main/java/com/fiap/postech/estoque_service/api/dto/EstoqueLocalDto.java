@@ -0,0 +1,22 @@
+package com.fiap.postech.estoque_service.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Saldo do produto em um local")
+public class EstoqueLocalDto {
+
+    @Schema(description = "Código do local", example = "CD-SP")
+    private String codigoLocal;
+
+    @Schema(description = "Nome do local", example = "CD São Paulo")
+    private String nome;
+
+    @Schema(description = "Quantidade do produto no local", example = "30")
+    private Integer quantidade;
+}
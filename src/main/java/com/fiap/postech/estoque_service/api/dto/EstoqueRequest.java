@@ -1,5 +1,6 @@
 package com.fiap.postech.estoque_service.api.dto;
 
+import com.fiap.postech.estoque_service.api.validation.SkuValido;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
@@ -11,6 +12,7 @@ import lombok.Data;
 public class EstoqueRequest {
 
     @NotBlank(message = "O SKU do produto é obrigatório")
+    @SkuValido
     @Schema(description = "SKU do produto a ser cadastrado ou atualizado no estoque", example = "AP-IPH-001", requiredMode = Schema.RequiredMode.REQUIRED)
     private String skuProduto;
 
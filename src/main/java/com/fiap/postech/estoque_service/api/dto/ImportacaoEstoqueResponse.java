@@ -0,0 +1,31 @@
+package com.fiap.postech.estoque_service.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Resultado da importação em massa de estoques")
+public class ImportacaoEstoqueResponse {
+
+    @Schema(description = "Mensagem da operação", example = "Importação concluída.")
+    private String mensagem;
+
+    @Schema(description = "Linhas de dados lidas do arquivo", example = "1000")
+    private long linhasProcessadas;
+
+    @Schema(description = "Estoques criados", example = "998")
+    private long importados;
+
+    @Schema(description = "Linhas rejeitadas", example = "2")
+    private long rejeitados;
+
+    @Schema(description = "Detalhe das linhas rejeitadas, limitado a estoque.importacao.max-erros-relatorio")
+    private List<ErroImportacaoDTO> erros = new ArrayList<>();
+}
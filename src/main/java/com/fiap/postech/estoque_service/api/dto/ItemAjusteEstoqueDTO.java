@@ -0,0 +1,25 @@
+package com.fiap.postech.estoque_service.api.dto;
+
+import com.fiap.postech.estoque_service.api.validation.SkuValido;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Ajuste relativo da quantidade em estoque de um SKU")
+public class ItemAjusteEstoqueDTO {
+
+    @NotBlank(message = "O SKU do produto é obrigatório")
+    @SkuValido
+    @Schema(description = "SKU do produto a ser ajustado", example = "AP-IPH-001", requiredMode = Schema.RequiredMode.REQUIRED)
+    private String skuProduto;
+
+    @NotNull(message = "O delta é obrigatório")
+    @Schema(description = "Quantidade a somar ao estoque; negativa para retirar", example = "12", requiredMode = Schema.RequiredMode.REQUIRED)
+    private Integer delta;
+}
@@ -1,15 +1,20 @@
 package com.fiap.postech.estoque_service.api.dto;
 
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 
 @Data
 @Schema(description = "Informações de um item para baixa de estoque")
 public class ItemEstoqueBaixaDTO {
 
+    @NotNull(message = "O ID do produto é obrigatório")
     @Schema(description = "ID do produto a ser baixado", example = "1", requiredMode = Schema.RequiredMode.REQUIRED)
     private Integer idProduto;
 
-    @Schema(description = "Quantidade a dar baixa", example = "3", requiredMode = Schema.RequiredMode.REQUIRED)
+    @NotNull(message = "A quantidade é obrigatória")
+    @Min(value = 1, message = "A quantidade deve ser maior que zero")
+    @Schema(description = "Quantidade a dar baixa", example = "3", minimum = "1", requiredMode = Schema.RequiredMode.REQUIRED)
     private Integer quantidade;
 }
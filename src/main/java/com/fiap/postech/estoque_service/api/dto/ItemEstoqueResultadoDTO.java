@@ -0,0 +1,40 @@
+package com.fiap.postech.estoque_service.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Resultado da movimentação de estoque de um item")
+public class ItemEstoqueResultadoDTO {
+
+    @Schema(description = "ID do produto movimentado", example = "1")
+    private Integer idProduto;
+
+    @Schema(description = "SKU do produto movimentado", example = "AP-IPH-001")
+    private String skuProduto;
+
+    @Schema(description = "Quantidade solicitada para o produto", example = "3")
+    private Integer quantidade;
+
+    @Schema(description = "Quantidade em estoque após a movimentação, quando conhecida", example = "42")
+    private Integer quantidadeEstoque;
+
+    @Schema(description = "Indica se o item pôde ser movimentado", example = "true")
+    private boolean sucesso;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @Schema(description = "Locais de onde o item saiu; só em baixas de produtos com estoque por local")
+    private List<AlocacaoEstoqueDTO> alocacoes;
+
+    public ItemEstoqueResultadoDTO(Integer idProduto, String skuProduto, Integer quantidade,
+                                   Integer quantidadeEstoque, boolean sucesso) {
+        this(idProduto, skuProduto, quantidade, quantidadeEstoque, sucesso, null);
+    }
+}
@@ -0,0 +1,33 @@
+package com.fiap.postech.estoque_service.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Dados de um centro de distribuição")
+public class LocalEstoqueRequest {
+
+    @NotBlank(message = "O nome do local é obrigatório")
+    @Size(max = 100, message = "O nome deve ter no máximo 100 caracteres")
+    @Schema(description = "Nome do local", example = "CD São Paulo", requiredMode = Schema.RequiredMode.REQUIRED)
+    private String nome;
+
+    @DecimalMin(value = "-90.0", message = "A latitude deve estar entre -90 e 90")
+    @DecimalMax(value = "90.0", message = "A latitude deve estar entre -90 e 90")
+    @Schema(description = "Latitude do local; sem coordenadas ele fica por último nas regras por distância",
+            example = "-23.5505")
+    private Double latitude;
+
+    @DecimalMin(value = "-180.0", message = "A longitude deve estar entre -180 e 180")
+    @DecimalMax(value = "180.0", message = "A longitude deve estar entre -180 e 180")
+    @Schema(description = "Longitude do local", example = "-46.6333")
+    private Double longitude;
+}
@@ -0,0 +1,38 @@
+package com.fiap.postech.estoque_service.api.dto;
+
+import com.fiap.postech.estoque_service.domain.model.TipoEventoEstoque;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Schema(description = "Movimentação registrada no histórico de estoque")
+public class MovimentacaoEstoqueDto {
+
+    @Schema(description = "ID da movimentação, crescente na ordem de registro", example = "1024")
+    private Long id;
+
+    @Schema(description = "Momento em que a movimentação foi registrada", example = "2025-07-24T10:00:00")
+    private LocalDateTime registradoEm;
+
+    @Schema(description = "ID do produto movimentado", example = "1")
+    private Integer idProduto;
+
+    @Schema(description = "SKU do produto movimentado", example = "AP-IPH-001")
+    private String skuProduto;
+
+    @Schema(description = "Operação que gerou a movimentação", example = "BAIXA")
+    private TipoEventoEstoque motivo;
+
+    @Schema(description = "Quantidade somada ao saldo (negativa em baixas); nula em atualizações absolutas e remoções",
+            example = "-2")
+    private Integer delta;
+
+    @Schema(description = "Saldo após a movimentação, quando conhecido", example = "43")
+    private Integer quantidadeEstoque;
+
+    @Schema(description = "Referência informada na operação (pedido, reserva, documento de ajuste)",
+            example = "PED-2025-000123")
+    private String referencia;
+}
@@ -0,0 +1,21 @@
+package com.fiap.postech.estoque_service.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Página de movimentações ordenada por id")
+public class PaginaMovimentacaoDto {
+
+    @Schema(description = "Movimentações da página")
+    private List<MovimentacaoEstoqueDto> itens;
+
+    @Schema(description = "Cursor para a próxima página; nulo quando não há mais registros", example = "1024")
+    private Long proximoCursor;
+}
@@ -0,0 +1,40 @@
+package com.fiap.postech.estoque_service.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Resultado da reconciliação do estoque com um arquivo de recontagem")
+public class ReconciliacaoEstoqueResponse {
+
+    @Schema(description = "Mensagem da operação", example = "Reconciliação concluída.")
+    private String mensagem;
+
+    @Schema(description = "Linhas de dados lidas do arquivo", example = "1000")
+    private long linhasProcessadas;
+
+    @Schema(description = "SKUs cuja contagem bateu com o sistema", example = "990")
+    private long conferidos;
+
+    @Schema(description = "SKUs com diferença entre contagem e sistema", example = "8")
+    private long divergentes;
+
+    @Schema(description = "Diferenças aplicadas ao estoque", example = "7")
+    private long ajustados;
+
+    @Schema(description = "Linhas rejeitadas", example = "2")
+    private long rejeitados;
+
+    @Schema(description = "Detalhe das divergências, limitado a estoque.reconciliacao.max-itens-relatorio")
+    private List<DivergenciaEstoqueDTO> divergencias = new ArrayList<>();
+
+    @Schema(description = "Detalhe das linhas rejeitadas, limitado a estoque.reconciliacao.max-itens-relatorio")
+    private List<ErroImportacaoDTO> erros = new ArrayList<>();
+}
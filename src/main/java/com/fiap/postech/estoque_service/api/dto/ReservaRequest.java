@@ -0,0 +1,34 @@
+package com.fiap.postech.estoque_service.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Schema(description = "Requisição para reservar itens do estoque por um tempo limitado")
+public class ReservaRequest {
+
+    @NotEmpty(message = "A lista de itens é obrigatória")
+    @Schema(
+            description = "Lista de itens a reservar",
+            requiredMode = Schema.RequiredMode.REQUIRED,
+            example = "[{\"idProduto\": 1, \"quantidade\": 2}]"
+    )
+    private List<@Valid ItemEstoqueBaixaDTO> itens;
+
+    @Min(value = 1, message = "O tempo de reserva deve ser maior que zero")
+    @Schema(description = "Tempo de validade da reserva em segundos (padrão configurado no serviço)", example = "900")
+    private Integer ttlSegundos;
+
+    @Size(max = 255, message = "A referência deve ter no máximo 255 caracteres")
+    @Schema(
+            description = "Referência da reserva (ex.: número do pedido), gravada no histórico de movimentações",
+            example = "PED-2025-000123"
+    )
+    private String referencia;
+}
@@ -0,0 +1,36 @@
+package com.fiap.postech.estoque_service.api.dto;
+
+import com.fiap.postech.estoque_service.domain.model.StatusReserva;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Resposta das operações de reserva de estoque")
+public class ReservaResponse {
+
+    @Schema(description = "Indica se a operação foi realizada com sucesso", example = "true")
+    private boolean sucesso;
+
+    @Schema(description = "Mensagem de retorno da operação", example = "Reserva criada com sucesso!")
+    private String mensagem;
+
+    @Schema(description = "Identificador da reserva", example = "3f2c6a4e-8d0b-4c1e-9a57-1b2f0c9d7e11")
+    private UUID idReserva;
+
+    @Schema(description = "Situação atual da reserva", example = "ATIVA")
+    private StatusReserva status;
+
+    @Schema(description = "Data/hora em que a reserva expira se não for confirmada", example = "2024-07-24T10:15:00")
+    private LocalDateTime expiraEm;
+
+    @Schema(description = "Resultado individual de cada produto reservado")
+    private List<ItemEstoqueResultadoDTO> itens;
+}
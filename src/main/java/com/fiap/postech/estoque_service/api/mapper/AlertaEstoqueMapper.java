@@ -0,0 +1,15 @@
+package com.fiap.postech.estoque_service.api.mapper;
+
+import com.fiap.postech.estoque_service.api.dto.AlertaEstoqueDto;
+import com.fiap.postech.estoque_service.domain.model.AlertaEstoque;
+import org.mapstruct.Mapper;
+import org.mapstruct.factory.Mappers;
+
+@Mapper
+public interface AlertaEstoqueMapper {
+
+    AlertaEstoqueMapper INSTANCE = Mappers.getMapper(AlertaEstoqueMapper.class);
+
+    AlertaEstoqueDto domainToDto(AlertaEstoque alerta);
+
+}
@@ -15,10 +15,12 @@ public interface EstoqueMapper {
 
     EstoqueMapper INSTANCE = Mappers.getMapper(EstoqueMapper.class);
 
+    @Mapping(target = "versao", ignore = true)
     Estoque requestToDomain(EstoqueRequest request);
 
     @Mapping(target = "idEstoque", ignore = true)
     @Mapping(target = "skuProduto", source = "skuProduto")
+    @Mapping(target = "buckets", ignore = true)
     EstoqueEntity domainToEntity(Estoque estoque);
 
 
@@ -0,0 +1,15 @@
+package com.fiap.postech.estoque_service.api.mapper;
+
+import com.fiap.postech.estoque_service.api.dto.MovimentacaoEstoqueDto;
+import com.fiap.postech.estoque_service.domain.model.MovimentacaoEstoque;
+import org.mapstruct.Mapper;
+import org.mapstruct.factory.Mappers;
+
+@Mapper
+public interface MovimentacaoMapper {
+
+    MovimentacaoMapper INSTANCE = Mappers.getMapper(MovimentacaoMapper.class);
+
+    MovimentacaoEstoqueDto domainToDto(MovimentacaoEstoque movimentacao);
+
+}
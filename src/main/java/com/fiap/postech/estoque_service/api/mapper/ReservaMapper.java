@@ -0,0 +1,30 @@
+package com.fiap.postech.estoque_service.api.mapper;
+
+import com.fiap.postech.estoque_service.api.dto.ItemEstoqueBaixaDTO;
+import com.fiap.postech.estoque_service.domain.model.Reserva;
+import com.fiap.postech.estoque_service.gateway.database.entity.ReservaEntity;
+import com.fiap.postech.estoque_service.gateway.database.entity.ReservaItemEntity;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.factory.Mappers;
+
+import java.util.List;
+
+@Mapper
+public interface ReservaMapper {
+
+    ReservaMapper INSTANCE = Mappers.getMapper(ReservaMapper.class);
+
+    Reserva entityToDomain(ReservaEntity entity);
+
+    ReservaEntity domainToEntity(Reserva reserva);
+
+    ItemEstoqueBaixaDTO itemEntityToDto(ReservaItemEntity entity);
+
+    @Mapping(target = "idReservaItem", ignore = true)
+    @Mapping(target = "idReserva", ignore = true)
+    ReservaItemEntity itemDtoToEntity(ItemEstoqueBaixaDTO item);
+
+    List<ItemEstoqueBaixaDTO> itemEntityToDtoList(List<ReservaItemEntity> itens);
+
+}
@@ -0,0 +1,14 @@
+package com.fiap.postech.estoque_service.api.validation;
+
+import com.fiap.postech.estoque_service.domain.model.Sku;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+public class SkuValidoValidator implements ConstraintValidator<SkuValido, String> {
+
+    // Valor ausente fica a cargo de @NotBlank
+    @Override
+    public boolean isValid(String value, ConstraintValidatorContext context) {
+        return value == null || Sku.valido(value);
+    }
+}
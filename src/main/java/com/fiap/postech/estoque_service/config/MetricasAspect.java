@@ -0,0 +1,121 @@
+package com.fiap.postech.estoque_service.config;
+
+import com.fiap.postech.estoque_service.api.dto.BaixaEstoqueRequest;
+import com.fiap.postech.estoque_service.api.dto.ItemEstoqueBaixaDTO;
+import com.fiap.postech.estoque_service.api.dto.ItemEstoqueResultadoDTO;
+import com.fiap.postech.estoque_service.domain.exceptions.internal.ConflitoVersaoException;
+import com.fiap.postech.estoque_service.domain.exceptions.internal.EstoqueInsuficienteException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Latência e erros de toda chamada às portas de serviço e repositório de estoque e ao ProdutoClient,
+ * mais as métricas específicas da baixa (itens por pedido e rejeições por produto, na baixa individual e na
+ * baixa em grupo do pipeline) e os conflitos de versão da atualização manual (taxa = conflitos / chamadas de
+ * atualizarEstoque na camada repositorio).
+ */
+@Aspect
+@Component
+public class MetricasAspect {
+
+    public static final String OPERACAO = "estoque.operacao";
+    public static final String BAIXA_ITENS = "estoque.baixa.itens";
+    public static final String BAIXA_REJEICOES = "estoque.baixa.rejeicoes";
+    public static final String ATUALIZACAO_CONFLITOS = "estoque.atualizacao.conflitos";
+
+    private static final String NENHUMA = "nenhuma";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Around("execution(* com.fiap.postech.estoque_service.gateway.port.EstoqueServicePort+.*(..))")
+    public Object medirServico(ProceedingJoinPoint joinPoint) throws Throwable {
+        return medir(joinPoint, "servico");
+    }
+
+    @Around("execution(* com.fiap.postech.estoque_service.gateway.port.EstoqueRepositoryPort+.*(..))")
+    public Object medirRepositorio(ProceedingJoinPoint joinPoint) throws Throwable {
+        return medir(joinPoint, "repositorio");
+    }
+
+    @Around("execution(* com.fiap.postech.estoque_service.gateway.client.ProdutoClient+.*(..))")
+    public Object medirProdutoClient(ProceedingJoinPoint joinPoint) throws Throwable {
+        return medir(joinPoint, "produto-client");
+    }
+
+    @Around(value = "execution(* com.fiap.postech.estoque_service.gateway.port.EstoqueRepositoryPort+.baixarEstoque(..)) && args(itens, ..)",
+            argNames = "joinPoint,itens")
+    public Object medirBaixa(ProceedingJoinPoint joinPoint, List<ItemEstoqueBaixaDTO> itens) throws Throwable {
+        meterRegistry.summary(BAIXA_ITENS).record(itens.size());
+        try {
+            return joinPoint.proceed();
+        } catch (EstoqueInsuficienteException e) {
+            contarRejeicoes(e.getItens());
+            throw e;
+        }
+    }
+
+    // Pedidos devolvidos sem resultado seguem pela baixa individual, que já é medida em medirBaixa
+    @Around(value = "execution(* com.fiap.postech.estoque_service.gateway.port.EstoqueRepositoryPort+.baixarEstoqueAgrupado(..)) && args(pedidos)",
+            argNames = "joinPoint,pedidos")
+    @SuppressWarnings("unchecked")
+    public Object medirBaixaAgrupada(ProceedingJoinPoint joinPoint, List<BaixaEstoqueRequest> pedidos) throws Throwable {
+        Object retorno = joinPoint.proceed();
+        List<List<ItemEstoqueResultadoDTO>> resultados = (List<List<ItemEstoqueResultadoDTO>>) retorno;
+        for (int i = 0; i < pedidos.size(); i++) {
+            if (resultados.get(i) != null) {
+                meterRegistry.summary(BAIXA_ITENS).record(pedidos.get(i).getItens().size());
+                contarRejeicoes(resultados.get(i));
+            }
+        }
+        return retorno;
+    }
+
+    // Só na implementação JDBC, onde o UPDATE condicional roda: o ledger delega para ela e contaria em dobro
+    @Around("execution(* com.fiap.postech.estoque_service.gateway.database.EstoqueRepositoryImpl.atualizarEstoque(..))")
+    public Object medirConflitos(ProceedingJoinPoint joinPoint) throws Throwable {
+        try {
+            return joinPoint.proceed();
+        } catch (ConflitoVersaoException e) {
+            meterRegistry.counter(ATUALIZACAO_CONFLITOS).increment();
+            throw e;
+        }
+    }
+
+    private void contarRejeicoes(List<ItemEstoqueResultadoDTO> itens) {
+        if (itens == null) {
+            return;
+        }
+        for (ItemEstoqueResultadoDTO item : itens) {
+            if (!item.isSucesso()) {
+                meterRegistry.counter(BAIXA_REJEICOES, "id_produto", String.valueOf(item.getIdProduto())).increment();
+            }
+        }
+    }
+
+    private Object medir(ProceedingJoinPoint joinPoint, String camada) throws Throwable {
+        Timer.Sample inicio = Timer.start(meterRegistry);
+        String excecao = NENHUMA;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable t) {
+            excecao = t.getClass().getSimpleName();
+            throw t;
+        } finally {
+            inicio.stop(Timer.builder(OPERACAO)
+                    .tag("camada", camada)
+                    .tag("classe", joinPoint.getSignature().getDeclaringType().getSimpleName())
+                    .tag("metodo", joinPoint.getSignature().getName())
+                    .tag("resultado", NENHUMA.equals(excecao) ? "sucesso" : "erro")
+                    .tag("excecao", excecao)
+                    .register(meterRegistry));
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.fiap.postech.estoque_service.config;
+
+import io.micrometer.core.instrument.config.MeterFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricasConfig {
+
+    // Rejeições são por produto: limita quantos produtos distintos viram série, para não estourar o Prometheus
+    @Bean
+    public MeterFilter limiteProdutosRejeitados(@Value("${estoque.metricas.max-produtos-rejeicao:1000}") int maxProdutos) {
+        return MeterFilter.maximumAllowableTags(MetricasAspect.BAIXA_REJEICOES, "id_produto", maxProdutos, MeterFilter.deny());
+    }
+}
@@ -1,6 +1,8 @@
 package com.fiap.postech.estoque_service.domain.exceptions;
 
 import com.fiap.postech.estoque_service.domain.exceptions.internal.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -23,6 +25,9 @@ public class GlobalHandlerException {
     private static final String MENSAGEM = "mensagem";
     private static final String PATH = "path";
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
 
     @ExceptionHandler(ErroInternoException.class)
     public ResponseEntity<Map<String, Object>> handlerErroBancoDeDados(ErroInternoException erroInternoException, WebRequest request) {
@@ -33,6 +38,7 @@ public class GlobalHandlerException {
         response.put(MENSAGEM, erroInternoException.getMessage());
         response.put(PATH, request.getDescription(false));
 
+        contaErro(erroInternoException, HttpStatus.INTERNAL_SERVER_ERROR);
         return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
@@ -48,6 +54,7 @@ public class GlobalHandlerException {
         response.put("status", HttpStatus.BAD_REQUEST.value());
         response.put("errors", fieldErrors);
 
+        contaErro(ex, HttpStatus.BAD_REQUEST);
         return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
     }
 
@@ -57,15 +64,27 @@ public class GlobalHandlerException {
         response.put(TIMESTAMP, LocalDateTime.now());
         response.put(MENSAGEM, produtoNotFoundException.getMessage());
         response.put(STATUS, HttpStatus.NOT_FOUND.value());
+        contaErro(produtoNotFoundException, HttpStatus.NOT_FOUND);
         return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(ProdutoServiceIndisponivelException.class)
+    public ResponseEntity<Map<String, Object>> handlerProdutoServiceIndisponivelException(ProdutoServiceIndisponivelException produtoServiceIndisponivelException) {
+        Map<String, Object> response = new HashMap<>();
+        response.put(TIMESTAMP, LocalDateTime.now());
+        response.put(MENSAGEM, produtoServiceIndisponivelException.getMessage());
+        response.put(STATUS, HttpStatus.SERVICE_UNAVAILABLE.value());
+        contaErro(produtoServiceIndisponivelException, HttpStatus.SERVICE_UNAVAILABLE);
+        return new ResponseEntity<>(response, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
     @ExceptionHandler(EstoqueExistsException.class)
     public ResponseEntity<Map<String, Object>> handlerEstoqueExistsException(EstoqueExistsException estoqueExistsException) {
         Map<String, Object> response = new HashMap<>();
         response.put(TIMESTAMP, LocalDateTime.now());
         response.put(MENSAGEM, estoqueExistsException.getMessage());
         response.put(STATUS, HttpStatus.CONFLICT.value());
+        contaErro(estoqueExistsException, HttpStatus.CONFLICT);
         return new ResponseEntity<>(response, HttpStatus.CONFLICT);
     }
 
@@ -76,6 +95,17 @@ public class GlobalHandlerException {
         response.put(TIMESTAMP, LocalDateTime.now());
         response.put(MENSAGEM, estoqueNotFoundException.getMessage());
         response.put(STATUS, HttpStatus.NOT_FOUND.value());
+        contaErro(estoqueNotFoundException, HttpStatus.NOT_FOUND);
+        return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(LocalEstoqueNotFoundException.class)
+    public ResponseEntity<Map<String, Object>> handlerLocalEstoqueNotFoundException(LocalEstoqueNotFoundException localEstoqueNotFoundException) {
+        Map<String, Object> response = new HashMap<>();
+        response.put(TIMESTAMP, LocalDateTime.now());
+        response.put(MENSAGEM, localEstoqueNotFoundException.getMessage());
+        response.put(STATUS, HttpStatus.NOT_FOUND.value());
+        contaErro(localEstoqueNotFoundException, HttpStatus.NOT_FOUND);
         return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
     }
 
@@ -85,6 +115,7 @@ public class GlobalHandlerException {
         response.put(TIMESTAMP, LocalDateTime.now());
         response.put(MENSAGEM, invalidQuantidadeEstoqueException.getMessage());
         response.put(STATUS, HttpStatus.BAD_REQUEST.value());
+        contaErro(invalidQuantidadeEstoqueException, HttpStatus.BAD_REQUEST);
         return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
     }
 
@@ -94,7 +125,73 @@ public class GlobalHandlerException {
         response.put(TIMESTAMP, LocalDateTime.now());
         response.put(MENSAGEM, invalidSkuEstoqueException.getMessage());
         response.put(STATUS, HttpStatus.BAD_REQUEST.value());
+        contaErro(invalidSkuEstoqueException, HttpStatus.BAD_REQUEST);
+        return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(PeriodoInvalidoException.class)
+    public ResponseEntity<Map<String, Object>> handlerPeriodoInvalidoException(PeriodoInvalidoException periodoInvalidoException) {
+        Map<String, Object> response = new HashMap<>();
+        response.put(TIMESTAMP, LocalDateTime.now());
+        response.put(MENSAGEM, periodoInvalidoException.getMessage());
+        response.put(STATUS, HttpStatus.BAD_REQUEST.value());
+        contaErro(periodoInvalidoException, HttpStatus.BAD_REQUEST);
         return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(ReservaNotFoundException.class)
+    public ResponseEntity<Map<String, Object>> handlerReservaNotFoundException(ReservaNotFoundException reservaNotFoundException) {
+        Map<String, Object> response = new HashMap<>();
+        response.put(TIMESTAMP, LocalDateTime.now());
+        response.put(MENSAGEM, reservaNotFoundException.getMessage());
+        response.put(STATUS, HttpStatus.NOT_FOUND.value());
+        contaErro(reservaNotFoundException, HttpStatus.NOT_FOUND);
+        return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(ReservaInvalidaException.class)
+    public ResponseEntity<Map<String, Object>> handlerReservaInvalidaException(ReservaInvalidaException reservaInvalidaException) {
+        Map<String, Object> response = new HashMap<>();
+        response.put(TIMESTAMP, LocalDateTime.now());
+        response.put(MENSAGEM, reservaInvalidaException.getMessage());
+        response.put(STATUS, HttpStatus.CONFLICT.value());
+        contaErro(reservaInvalidaException, HttpStatus.CONFLICT);
+        return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(ConflitoVersaoException.class)
+    public ResponseEntity<Map<String, Object>> handlerConflitoVersaoException(ConflitoVersaoException conflitoVersaoException) {
+        Map<String, Object> response = new HashMap<>();
+        response.put(TIMESTAMP, LocalDateTime.now());
+        response.put(MENSAGEM, conflitoVersaoException.getMessage());
+        response.put(STATUS, HttpStatus.CONFLICT.value());
+        contaErro(conflitoVersaoException, HttpStatus.CONFLICT);
+        return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(RequisicaoEmProcessamentoException.class)
+    public ResponseEntity<Map<String, Object>> handlerRequisicaoEmProcessamentoException(RequisicaoEmProcessamentoException requisicaoEmProcessamentoException) {
+        Map<String, Object> response = new HashMap<>();
+        response.put(TIMESTAMP, LocalDateTime.now());
+        response.put(MENSAGEM, requisicaoEmProcessamentoException.getMessage());
+        response.put(STATUS, HttpStatus.CONFLICT.value());
+        contaErro(requisicaoEmProcessamentoException, HttpStatus.CONFLICT);
+        return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(ChaveIdempotenciaReutilizadaException.class)
+    public ResponseEntity<Map<String, Object>> handlerChaveIdempotenciaReutilizadaException(ChaveIdempotenciaReutilizadaException chaveIdempotenciaReutilizadaException) {
+        Map<String, Object> response = new HashMap<>();
+        response.put(TIMESTAMP, LocalDateTime.now());
+        response.put(MENSAGEM, chaveIdempotenciaReutilizadaException.getMessage());
+        response.put(STATUS, HttpStatus.UNPROCESSABLE_ENTITY.value());
+        contaErro(chaveIdempotenciaReutilizadaException, HttpStatus.UNPROCESSABLE_ENTITY);
+        return new ResponseEntity<>(response, HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+    private void contaErro(Exception exception, HttpStatus status) {
+        meterRegistry.counter("estoque.erros", "excecao", exception.getClass().getSimpleName(),
+                "status", String.valueOf(status.value())).increment();
+    }
+
 }
@@ -0,0 +1,7 @@
+package com.fiap.postech.estoque_service.domain.exceptions.internal;
+
+public class ChaveIdempotenciaReutilizadaException extends RuntimeException {
+  public ChaveIdempotenciaReutilizadaException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,7 @@
+package com.fiap.postech.estoque_service.domain.exceptions.internal;
+
+public class ConflitoVersaoException extends RuntimeException {
+  public ConflitoVersaoException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,23 @@
+package com.fiap.postech.estoque_service.domain.exceptions.internal;
+
+import com.fiap.postech.estoque_service.api.dto.ItemEstoqueResultadoDTO;
+
+import java.util.List;
+
+public class EstoqueInsuficienteException extends RuntimeException {
+
+  private final transient List<ItemEstoqueResultadoDTO> itens;
+
+  public EstoqueInsuficienteException(String message) {
+    this(message, null);
+  }
+
+  public EstoqueInsuficienteException(String message, List<ItemEstoqueResultadoDTO> itens) {
+    super(message);
+    this.itens = itens;
+  }
+
+  public List<ItemEstoqueResultadoDTO> getItens() {
+    return itens;
+  }
+}
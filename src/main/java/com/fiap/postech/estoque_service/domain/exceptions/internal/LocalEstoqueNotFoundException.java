@@ -0,0 +1,7 @@
+package com.fiap.postech.estoque_service.domain.exceptions.internal;
+
+public class LocalEstoqueNotFoundException extends RuntimeException {
+  public LocalEstoqueNotFoundException(String message) {
+    super(message);
+  }
+}
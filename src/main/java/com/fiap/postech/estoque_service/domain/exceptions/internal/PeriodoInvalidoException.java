@@ -0,0 +1,7 @@
+package com.fiap.postech.estoque_service.domain.exceptions.internal;
+
+public class PeriodoInvalidoException extends RuntimeException {
+  public PeriodoInvalidoException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,7 @@
+package com.fiap.postech.estoque_service.domain.exceptions.internal;
+
+public class ProdutoServiceIndisponivelException extends RuntimeException {
+  public ProdutoServiceIndisponivelException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,7 @@
+package com.fiap.postech.estoque_service.domain.exceptions.internal;
+
+public class RequisicaoEmProcessamentoException extends RuntimeException {
+  public RequisicaoEmProcessamentoException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,7 @@
+package com.fiap.postech.estoque_service.domain.exceptions.internal;
+
+public class ReservaInvalidaException extends RuntimeException {
+  public ReservaInvalidaException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,7 @@
+package com.fiap.postech.estoque_service.domain.exceptions.internal;
+
+public class ReservaNotFoundException extends RuntimeException {
+  public ReservaNotFoundException(String message) {
+    super(message);
+  }
+}
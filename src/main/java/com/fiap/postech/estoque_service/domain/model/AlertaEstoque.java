@@ -0,0 +1,24 @@
+package com.fiap.postech.estoque_service.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cruzamento do limite de reposição de um SKU. No índice de alertas, {@code desde} é quando o SKU ficou abaixo
+ * do limite; nas notificações, é o momento do cruzamento.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlertaEstoque {
+
+    private TipoAlertaEstoque tipo;
+    private Integer idProduto;
+    private String skuProduto;
+    private Integer quantidadeEstoque;
+    private Integer limiteReposicao;
+    private LocalDateTime desde;
+}
@@ -0,0 +1,77 @@
+package com.fiap.postech.estoque_service.domain.model;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Escolhe de quais locais sai a baixa de um produto, só com os candidatos já em memória. O resultado vem na ordem
+ * de preferência da regra; o que os locais não cobrirem fica fora do mapa e sai do saldo sem local do produto.
+ */
+public final class AlocadorEstoque {
+
+    private static final double RAIO_TERRA_KM = 6371.0;
+
+    private AlocadorEstoque() {
+    }
+
+    /**
+     * Sem coordenadas de destino, as regras por distância seguem a ordem de {@link RegraAlocacao#MAIOR_ESTOQUE}.
+     */
+    public static Map<String, Integer> alocar(int quantidade, List<EstoqueLocal> candidatos, RegraAlocacao regra,
+                                              Double latitude, Double longitude) {
+        List<EstoqueLocal> comSaldo = new ArrayList<>();
+        for (EstoqueLocal candidato : candidatos) {
+            if (candidato.getQuantidade() != null && candidato.getQuantidade() > 0) {
+                comSaldo.add(candidato);
+            }
+        }
+        boolean porDistancia = regra != RegraAlocacao.MAIOR_ESTOQUE && latitude != null && longitude != null;
+        comSaldo.sort(porDistancia ? porDistancia(latitude, longitude) : porMaiorSaldo());
+
+        Map<String, Integer> alocacao = new LinkedHashMap<>();
+        if (regra == RegraAlocacao.MAIS_PROXIMO) {
+            for (EstoqueLocal candidato : comSaldo) {
+                if (candidato.getQuantidade() >= quantidade) {
+                    alocacao.put(candidato.getCodigoLocal(), quantidade);
+                    return alocacao;
+                }
+            }
+        }
+        int restante = quantidade;
+        for (EstoqueLocal candidato : comSaldo) {
+            if (restante == 0) {
+                break;
+            }
+            int retirada = Math.min(restante, candidato.getQuantidade());
+            alocacao.put(candidato.getCodigoLocal(), retirada);
+            restante -= retirada;
+        }
+        return alocacao;
+    }
+
+    public static double distanciaKm(double latitudeOrigem, double longitudeOrigem,
+                                     double latitudeDestino, double longitudeDestino) {
+        double deltaLatitude = Math.toRadians(latitudeDestino - latitudeOrigem);
+        double deltaLongitude = Math.toRadians(longitudeDestino - longitudeOrigem);
+        double a = Math.pow(Math.sin(deltaLatitude / 2), 2)
+                + Math.cos(Math.toRadians(latitudeOrigem)) * Math.cos(Math.toRadians(latitudeDestino))
+                * Math.pow(Math.sin(deltaLongitude / 2), 2);
+        return 2 * RAIO_TERRA_KM * Math.asin(Math.sqrt(a));
+    }
+
+    // Locais sem coordenadas vão para o fim; empates ficam com o código, para a escolha ser determinística
+    private static Comparator<EstoqueLocal> porDistancia(double latitude, double longitude) {
+        return Comparator.comparingDouble((EstoqueLocal local) -> local.getLatitude() == null || local.getLongitude() == null
+                        ? Double.MAX_VALUE
+                        : distanciaKm(latitude, longitude, local.getLatitude(), local.getLongitude()))
+                .thenComparing(EstoqueLocal::getCodigoLocal);
+    }
+
+    private static Comparator<EstoqueLocal> porMaiorSaldo() {
+        return Comparator.comparing(EstoqueLocal::getQuantidade, Comparator.reverseOrder())
+                .thenComparing(EstoqueLocal::getCodigoLocal);
+    }
+}
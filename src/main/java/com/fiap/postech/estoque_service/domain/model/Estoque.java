@@ -13,16 +13,29 @@ public class Estoque {
     private Integer idProduto;
     private String skuProduto;
     private Integer quantidadeEstoque;
+    private Long versao;
+
+    public Estoque(Integer idEstoque, Integer idProduto, String skuProduto, Integer quantidadeEstoque) {
+        this(idEstoque, idProduto, skuProduto, quantidadeEstoque, null);
+    }
 
     public boolean quantidadeValida() {
         return quantidadeEstoque != null && quantidadeEstoque >= 0;
     }
 
     public boolean skuValido() {
-        if (skuProduto == null) {
+        return Sku.valido(skuProduto);
+    }
+
+    /**
+     * Troca o SKU pela forma normalizada; retorna false (sem alterar nada) se ele for inválido.
+     */
+    public boolean normalizarSku() {
+        String normalizado = Sku.normalizar(skuProduto);
+        if (normalizado == null) {
             return false;
         }
-        skuProduto = skuProduto.trim().toUpperCase().replace(" ", "-");
-        return skuProduto.matches("^[A-Z0-9]{2,}-[A-Z0-9]{2,}-[0-9]{3,}$");
+        skuProduto = normalizado;
+        return true;
     }
 }
@@ -0,0 +1,21 @@
+package com.fiap.postech.estoque_service.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Saldo de um produto em um local ({@code estoque_local}), com as coordenadas do local para a alocação.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstoqueLocal {
+
+    private Integer idProduto;
+    private String codigoLocal;
+    private String nome;
+    private Integer quantidade;
+    private Double latitude;
+    private Double longitude;
+}
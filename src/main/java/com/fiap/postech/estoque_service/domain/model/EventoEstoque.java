@@ -0,0 +1,39 @@
+package com.fiap.postech.estoque_service.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Mudança de estoque registrada no outbox. {@code quantidade} é o delta aplicado (negativo em baixas) e
+ * {@code quantidadeEstoque} o saldo depois dela; ficam nulos quando a operação não os conhece
+ * (atualização absoluta não tem delta, remoção não tem saldo). {@code referencia} identifica a origem da
+ * movimentação (pedido, reserva), quando informada. O {@code id} é crescente e único:
+ * a entrega é "ao menos uma vez", então consumidores descartam ids já vistos.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventoEstoque {
+
+    private Long id;
+    private TipoEventoEstoque tipo;
+    private Integer idProduto;
+    private String skuProduto;
+    private Integer quantidade;
+    private Integer quantidadeEstoque;
+    private String referencia;
+    private LocalDateTime criadoEm;
+
+    public EventoEstoque(TipoEventoEstoque tipo, Integer idProduto, String skuProduto, Integer quantidade,
+                         Integer quantidadeEstoque) {
+        this(tipo, idProduto, skuProduto, quantidade, quantidadeEstoque, null);
+    }
+
+    public EventoEstoque(TipoEventoEstoque tipo, Integer idProduto, String skuProduto, Integer quantidade,
+                         Integer quantidadeEstoque, String referencia) {
+        this(null, tipo, idProduto, skuProduto, quantidade, quantidadeEstoque, referencia, null);
+    }
+}
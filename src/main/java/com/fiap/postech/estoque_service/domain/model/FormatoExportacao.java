@@ -0,0 +1,69 @@
+package com.fiap.postech.estoque_service.domain.model;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+public enum FormatoExportacao {
+    // Um objeto JSON por linha
+    NDJSON("application/x-ndjson"),
+    // Sequência de itens CBOR concatenados (RFC 8742), sem separador
+    CBOR("application/cbor-seq"),
+    // Um único stream Smile com vários valores na raiz; o cabeçalho é escrito uma vez
+    SMILE("application/x-jackson-smile");
+
+    private final String contentType;
+    private final MediaType mediaType;
+
+    FormatoExportacao(String contentType) {
+        this.contentType = contentType;
+        this.mediaType = MediaType.parseMediaType(contentType);
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * Escolhe o formato como o {@code produces} do Spring: os tipos do Accept em ordem de qualidade e
+     * especificidade, cada um comparado com os três tipos exatos (curingas valem, q=0 exclui). Accept ausente,
+     * só com curingas ou inválido continua em NDJSON.
+     */
+    public static FormatoExportacao doAccept(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return NDJSON;
+        }
+        List<MediaType> aceitos;
+        try {
+            aceitos = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return NDJSON;
+        }
+        Set<FormatoExportacao> recusados = EnumSet.noneOf(FormatoExportacao.class);
+        for (MediaType aceito : aceitos) {
+            if (aceito.getQualityValue() == 0) {
+                for (FormatoExportacao formato : values()) {
+                    if (aceito.includes(formato.mediaType)) {
+                        recusados.add(formato);
+                    }
+                }
+            }
+        }
+        MimeTypeUtils.sortBySpecificity(aceitos);
+        for (MediaType aceito : aceitos) {
+            if (aceito.getQualityValue() == 0) {
+                continue;
+            }
+            for (FormatoExportacao formato : values()) {
+                if (!recusados.contains(formato) && aceito.includes(formato.mediaType)) {
+                    return formato;
+                }
+            }
+        }
+        return NDJSON;
+    }
+}
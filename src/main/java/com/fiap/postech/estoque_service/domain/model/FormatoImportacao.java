@@ -0,0 +1,12 @@
+package com.fiap.postech.estoque_service.domain.model;
+
+public enum FormatoImportacao {
+    // skuProduto,quantidadeEstoque por linha; cabeçalho opcional
+    CSV,
+    // Um objeto {"skuProduto": ..., "quantidadeEstoque": ...} por linha
+    NDJSON;
+
+    public static FormatoImportacao doContentType(String contentType) {
+        return contentType != null && contentType.toLowerCase().contains("json") ? NDJSON : CSV;
+    }
+}
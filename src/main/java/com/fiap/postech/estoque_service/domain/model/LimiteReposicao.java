@@ -0,0 +1,19 @@
+package com.fiap.postech.estoque_service.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * SKU com limite de reposição e seu saldo atual, lido na sincronização do índice de alertas.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LimiteReposicao {
+
+    private Integer idProduto;
+    private String skuProduto;
+    private Integer limiteReposicao;
+    private Integer quantidadeEstoque;
+}
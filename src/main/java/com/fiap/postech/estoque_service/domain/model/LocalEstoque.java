@@ -0,0 +1,19 @@
+package com.fiap.postech.estoque_service.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Centro de distribuição ({@code local_estoque}). Sem coordenadas, o local entra por último nas regras por distância.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LocalEstoque {
+
+    private String codigo;
+    private String nome;
+    private Double latitude;
+    private Double longitude;
+}
@@ -0,0 +1,8 @@
+package com.fiap.postech.estoque_service.domain.model;
+
+public enum ModoLeitura {
+    // Sempre consulta o banco e atualiza o cache com o valor lido
+    ESTRITO,
+    // Aceita o valor em cache, limitado pelo TTL da entrada
+    RELAXADO
+}
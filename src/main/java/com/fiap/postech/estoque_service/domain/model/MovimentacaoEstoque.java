@@ -0,0 +1,26 @@
+package com.fiap.postech.estoque_service.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Linha do diário {@code movimentacao_estoque}. O {@code id} é o do evento de outbox que a originou, então
+ * segue a ordem em que as movimentações foram registradas; {@code motivo} é o tipo desse evento.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovimentacaoEstoque {
+
+    private Long id;
+    private LocalDateTime registradoEm;
+    private Integer idProduto;
+    private String skuProduto;
+    private TipoEventoEstoque motivo;
+    private Integer delta;
+    private Integer quantidadeEstoque;
+    private String referencia;
+}
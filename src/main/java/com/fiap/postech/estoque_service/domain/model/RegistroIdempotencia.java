@@ -0,0 +1,17 @@
+package com.fiap.postech.estoque_service.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RegistroIdempotencia {
+
+    private String chave;
+    private String operacao;
+    private boolean concluido;
+    private String resposta;
+    private String hashRequisicao;
+}
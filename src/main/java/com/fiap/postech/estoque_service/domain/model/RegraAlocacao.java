@@ -0,0 +1,16 @@
+package com.fiap.postech.estoque_service.domain.model;
+
+/**
+ * Como a baixa de um produto com estoque por local escolhe de onde sai cada item.
+ */
+public enum RegraAlocacao {
+
+    // Local mais próximo do destino que atende o item inteiro; se nenhum atender, divide a partir do mais próximo
+    MAIS_PROXIMO,
+
+    // Local com maior saldo primeiro, dividindo pelos seguintes quando ele não bastar
+    MAIOR_ESTOQUE,
+
+    // Sempre do mais próximo para o mais distante, esgotando cada local antes de passar ao seguinte
+    DIVIDIDO
+}
@@ -0,0 +1,22 @@
+package com.fiap.postech.estoque_service.domain.model;
+
+import com.fiap.postech.estoque_service.api.dto.ItemEstoqueBaixaDTO;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Reserva {
+
+    private UUID idReserva;
+    private StatusReserva status;
+    private LocalDateTime expiraEm;
+    private LocalDateTime criadoEm;
+    private List<ItemEstoqueBaixaDTO> itens;
+}
@@ -0,0 +1,92 @@
+package com.fiap.postech.estoque_service.domain.model;
+
+import com.fiap.postech.estoque_service.domain.exceptions.internal.InvalidSkuEstoqueException;
+import com.fiap.postech.estoque_service.utils.ConstantUtils;
+
+/**
+ * SKU normalizado no formato XX-XX-XXX: dois grupos alfanuméricos e um numérico, com ao menos 2, 2 e 3 caracteres.
+ * A entrada é aparada, convertida para maiúsculas e tem espaços trocados por hífen, em uma única passada.
+ */
+public record Sku(String valor) {
+
+    private static final int MINIMO_GRUPO = 2;
+    private static final int MINIMO_GRUPO_NUMERICO = 3;
+
+    public Sku {
+        String normalizado = normalizar(valor);
+        if (normalizado == null) {
+            throw new InvalidSkuEstoqueException(ConstantUtils.SKU_INVALIDO);
+        }
+        valor = normalizado;
+    }
+
+    public static boolean valido(CharSequence bruto) {
+        return normalizar(bruto) != null;
+    }
+
+    /**
+     * Retorna o SKU normalizado ou null se ele não segue o formato. Uma entrada já normalizada é devolvida
+     * sem cópia; nos demais casos a única alocação é a String resultante.
+     */
+    public static String normalizar(CharSequence bruto) {
+        if (bruto == null) {
+            return null;
+        }
+        int inicio = 0;
+        int fim = bruto.length();
+        while (inicio < fim && bruto.charAt(inicio) <= ' ') {
+            inicio++;
+        }
+        while (fim > inicio && bruto.charAt(fim - 1) <= ' ') {
+            fim--;
+        }
+
+        int grupo = 0;
+        int tamanhoGrupo = 0;
+        boolean alterado = inicio > 0 || fim < bruto.length();
+        for (int i = inicio; i < fim; i++) {
+            char c = bruto.charAt(i);
+            if (c == '-' || c == ' ') {
+                if (grupo == 2 || tamanhoGrupo < MINIMO_GRUPO) {
+                    return null;
+                }
+                alterado |= c == ' ';
+                grupo++;
+                tamanhoGrupo = 0;
+            } else if (c >= '0' && c <= '9') {
+                tamanhoGrupo++;
+            } else if (grupo < 2 && ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z'))) {
+                alterado |= c >= 'a';
+                tamanhoGrupo++;
+            } else {
+                return null;
+            }
+        }
+        if (grupo != 2 || tamanhoGrupo < MINIMO_GRUPO_NUMERICO) {
+            return null;
+        }
+        if (!alterado && bruto instanceof String texto) {
+            return texto;
+        }
+
+        char[] saida = new char[fim - inicio];
+        for (int i = inicio; i < fim; i++) {
+            char c = bruto.charAt(i);
+            saida[i - inicio] = c == ' ' ? '-' : (c >= 'a' && c <= 'z') ? (char) (c - ('a' - 'A')) : c;
+        }
+        return new String(saida);
+    }
+
+    /**
+     * Chave de busca/cache: o SKU normalizado quando válido, senão o texto original (que não vai existir no banco).
+     */
+    public static String chave(String bruto) {
+        String normalizado = normalizar(bruto);
+        return normalizado != null ? normalizado : bruto;
+    }
+
+    @Override
+    public String toString() {
+        return valor;
+    }
+}
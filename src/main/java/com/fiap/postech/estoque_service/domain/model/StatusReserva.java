@@ -0,0 +1,8 @@
+package com.fiap.postech.estoque_service.domain.model;
+
+public enum StatusReserva {
+    ATIVA,
+    CONFIRMADA,
+    LIBERADA,
+    EXPIRADA
+}
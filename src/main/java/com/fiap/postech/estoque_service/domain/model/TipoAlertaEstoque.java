@@ -0,0 +1,10 @@
+package com.fiap.postech.estoque_service.domain.model;
+
+public enum TipoAlertaEstoque {
+
+    // Saldo chegou ao limite de reposição ou abaixo dele
+    ABAIXO_DO_LIMITE,
+
+    // Saldo voltou a ficar acima do limite
+    NORMALIZADO
+}
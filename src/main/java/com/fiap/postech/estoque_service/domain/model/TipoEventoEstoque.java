@@ -0,0 +1,11 @@
+package com.fiap.postech.estoque_service.domain.model;
+
+public enum TipoEventoEstoque {
+    CADASTRO,
+    BAIXA,
+    RESTAURACAO,
+    AJUSTE,
+    ATUALIZACAO,
+    REMOCAO,
+    DESCARGA_LEDGER
+}
@@ -0,0 +1,22 @@
+package com.fiap.postech.estoque_service.gateway.alerta;
+
+import com.fiap.postech.estoque_service.domain.model.AlertaEstoque;
+import com.fiap.postech.estoque_service.gateway.port.NotificadorAlertaPort;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Notificador padrão: registra cada cruzamento de limite no log da aplicação.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "estoque.alerta.notificador", havingValue = "log", matchIfMissing = true)
+public class NotificadorAlertaLog implements NotificadorAlertaPort {
+
+    @Override
+    public void notificar(AlertaEstoque alerta) {
+        log.warn("Alerta de estoque {}: SKU {} com saldo {} (limite de reposição {})", alerta.getTipo(),
+                alerta.getSkuProduto(), alerta.getQuantidadeEstoque(), alerta.getLimiteReposicao());
+    }
+}
@@ -0,0 +1,62 @@
+package com.fiap.postech.estoque_service.gateway.alerta;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fiap.postech.estoque_service.domain.model.AlertaEstoque;
+import com.fiap.postech.estoque_service.gateway.port.NotificadorAlertaPort;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * Envia cada alerta como JSON em um POST para {@code estoque.alerta.webhook.url}. O envio é assíncrono e sem
+ * retentativa: falhas só aparecem no log, e o alerta continua visível em GET /api/estoques/alertas.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "estoque.alerta.notificador", havingValue = "webhook")
+public class NotificadorAlertaWebhook implements NotificadorAlertaPort {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${estoque.alerta.webhook.url}")
+    private String url;
+
+    @Value("${estoque.alerta.webhook.timeout-ms:2000}")
+    private long timeoutMs;
+
+    private HttpClient httpClient;
+
+    @PostConstruct
+    public void iniciar() {
+        httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(timeoutMs))
+                .build();
+    }
+
+    @Override
+    public void notificar(AlertaEstoque alerta) throws Exception {
+        HttpRequest requisicao = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofMillis(timeoutMs))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(alerta)))
+                .build();
+        httpClient.sendAsync(requisicao, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((resposta, erro) -> {
+                    if (erro != null) {
+                        log.warn("Falha ao enviar alerta do SKU {} ao webhook: {}", alerta.getSkuProduto(), erro.getMessage());
+                    } else if (resposta.statusCode() >= 300) {
+                        log.warn("Webhook recusou o alerta do SKU {}: HTTP {}", alerta.getSkuProduto(), resposta.statusCode());
+                    }
+                });
+    }
+}
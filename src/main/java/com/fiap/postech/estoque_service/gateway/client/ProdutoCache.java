@@ -0,0 +1,211 @@
+package com.fiap.postech.estoque_service.gateway.client;
+
+import com.fiap.postech.estoque_service.domain.exceptions.internal.ProdutoServiceIndisponivelException;
+import com.fiap.postech.estoque_service.gateway.client.dto.ProdutoDto;
+import com.fiap.postech.estoque_service.utils.ConstantUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import feign.FeignException;
+import feign.RetryableException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Memoiza as consultas ao produto-service por SKU. SKU -> idProduto não muda, então os acertos
+ * ficam por bastante tempo; SKUs inexistentes (404) ficam em um cache negativo de TTL curto.
+ * <p>
+ * Toda chamada remota passa por um bulkhead (concorrência limitada, sem fila) e um circuit breaker;
+ * com o produto-service lento ou fora, a chamada falha na hora com {@link ProdutoServiceIndisponivelException}
+ * em vez de prender threads de requisição até o timeout do Feign.
+ */
+@Slf4j
+@Component
+public class ProdutoCache {
+
+    private static final String PRODUTO_SERVICE = "produto-service";
+
+    @Autowired
+    private ProdutoClient produtoClient;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    @Value("${produto.cache.tamanho-maximo:50000}")
+    private long tamanhoMaximo;
+
+    @Value("${produto.cache.ttl-minutos:60}")
+    private long ttlMinutos;
+
+    @Value("${produto.cache.ttl-negativo-segundos:30}")
+    private long ttlNegativoSegundos;
+
+    @Value("${produto.cache.tamanho-lote:200}")
+    private int tamanhoLote;
+
+    @Value("${produto.resiliencia.max-chamadas-concorrentes:20}")
+    private int maxChamadasConcorrentes;
+
+    @Value("${produto.resiliencia.taxa-falha-percentual:50}")
+    private float taxaFalhaPercentual;
+
+    @Value("${produto.resiliencia.janela-chamadas:20}")
+    private int janelaChamadas;
+
+    @Value("${produto.resiliencia.minimo-chamadas:10}")
+    private int minimoChamadas;
+
+    @Value("${produto.resiliencia.chamada-lenta-ms:1500}")
+    private long chamadaLentaMs;
+
+    @Value("${produto.resiliencia.espera-circuito-aberto-ms:10000}")
+    private long esperaCircuitoAbertoMs;
+
+    private Cache<String, ProdutoDto> encontrados;
+    private Cache<String, Boolean> inexistentes;
+
+    // Desligado na primeira resposta 404/405 do endpoint em lote, caindo para chamadas individuais
+    private volatile boolean loteDisponivel = true;
+
+    private Bulkhead bulkhead;
+    private CircuitBreaker circuitBreaker;
+
+    @PostConstruct
+    public void iniciar() {
+        encontrados = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutos))
+                .recordStats()
+                .build();
+        inexistentes = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(Duration.ofSeconds(ttlNegativoSegundos))
+                .build();
+        BulkheadRegistry bulkheads = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(maxChamadasConcorrentes)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        bulkhead = bulkheads.bulkhead(PRODUTO_SERVICE);
+        // 4xx é resposta válida do produto-service (ex.: 404 de SKU inexistente) e não conta como falha
+        CircuitBreakerRegistry circuitBreakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .failureRateThreshold(taxaFalhaPercentual)
+                .slowCallRateThreshold(taxaFalhaPercentual)
+                .slowCallDurationThreshold(Duration.ofMillis(chamadaLentaMs))
+                .slidingWindowSize(janelaChamadas)
+                .minimumNumberOfCalls(minimoChamadas)
+                .waitDurationInOpenState(Duration.ofMillis(esperaCircuitoAbertoMs))
+                .ignoreExceptions(FeignException.FeignClientException.class)
+                .build());
+        circuitBreaker = circuitBreakers.circuitBreaker(PRODUTO_SERVICE);
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, encontrados, "produto");
+            TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheads).bindTo(meterRegistry);
+            TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakers).bindTo(meterRegistry);
+        }
+    }
+
+    /**
+     * Retorna o produto do SKU ou null quando o produto-service responde 404.
+     */
+    public ProdutoDto buscarPorSku(String sku) {
+        ProdutoDto produto = encontrados.getIfPresent(sku);
+        if (produto != null || inexistentes.getIfPresent(sku) != null) {
+            return produto;
+        }
+        try {
+            produto = chamar(() -> produtoClient.buscarPorSku(sku));
+        } catch (FeignException.NotFound e) {
+            produto = null;
+        }
+        if (produto == null) {
+            inexistentes.put(sku, Boolean.TRUE);
+        } else {
+            encontrados.put(sku, produto);
+        }
+        return produto;
+    }
+
+    /**
+     * Resolve vários SKUs, consultando o produto-service em lotes só para os que não estão em cache.
+     * SKUs inexistentes não aparecem no mapa retornado.
+     */
+    public Map<String, ProdutoDto> buscarPorSkus(Collection<String> skus) {
+        Map<String, ProdutoDto> resultado = new HashMap<>();
+        List<String> pendentes = new ArrayList<>();
+        for (String sku : new LinkedHashSet<>(skus)) {
+            ProdutoDto produto = encontrados.getIfPresent(sku);
+            if (produto != null) {
+                resultado.put(sku, produto);
+            } else if (inexistentes.getIfPresent(sku) == null) {
+                pendentes.add(sku);
+            }
+        }
+
+        for (int inicio = 0; inicio < pendentes.size(); inicio += tamanhoLote) {
+            List<String> lote = pendentes.subList(inicio, Math.min(inicio + tamanhoLote, pendentes.size()));
+            resultado.putAll(consultaLote(lote));
+        }
+        return resultado;
+    }
+
+    private Map<String, ProdutoDto> consultaLote(List<String> lote) {
+        Map<String, ProdutoDto> resultado = new HashMap<>();
+        if (loteDisponivel) {
+            try {
+                for (ProdutoDto produto : chamar(() -> produtoClient.buscarPorSkus(lote))) {
+                    encontrados.put(produto.getSkuProduto(), produto);
+                    resultado.put(produto.getSkuProduto(), produto);
+                }
+                lote.stream()
+                        .filter(sku -> !resultado.containsKey(sku))
+                        .forEach(sku -> inexistentes.put(sku, Boolean.TRUE));
+                return resultado;
+            } catch (FeignException.NotFound | FeignException.MethodNotAllowed e) {
+                log.warn("produto-service não oferece consulta em lote; usando chamadas individuais");
+                loteDisponivel = false;
+            }
+        }
+        for (String sku : lote) {
+            ProdutoDto produto = buscarPorSku(sku);
+            if (produto != null) {
+                resultado.put(sku, produto);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Executa a chamada ao produto-service dentro do bulkhead e do circuit breaker. Falhas de
+     * disponibilidade (circuito aberto, bulkhead cheio, timeout/IO ou 5xx) viram
+     * {@link ProdutoServiceIndisponivelException}; respostas 4xx seguem como {@link FeignException}.
+     */
+    private <T> T chamar(Supplier<T> chamada) {
+        try {
+            return Bulkhead.decorateSupplier(bulkhead, CircuitBreaker.decorateSupplier(circuitBreaker, chamada)).get();
+        } catch (CallNotPermittedException | BulkheadFullException e) {
+            log.warn("Chamada ao produto-service rejeitada: {}", e.getMessage());
+            throw new ProdutoServiceIndisponivelException(ConstantUtils.PRODUTO_SERVICE_INDISPONIVEL);
+        } catch (RetryableException | FeignException.FeignServerException e) {
+            log.error("Falha ao chamar o produto-service: {}", e.getMessage());
+            throw new ProdutoServiceIndisponivelException(ConstantUtils.PRODUTO_SERVICE_INDISPONIVEL);
+        }
+    }
+}
@@ -4,10 +4,17 @@ import com.fiap.postech.estoque_service.gateway.client.dto.ProdutoDto;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.List;
 
 @FeignClient(name = "estoque-produto-service", url = "${produto.service.url}")
 public interface ProdutoClient {
 
     @GetMapping("/api/produtos/sku/{sku}")
     ProdutoDto buscarPorSku(@PathVariable("sku") String sku);
+
+    // Retorna apenas os produtos encontrados; SKUs ausentes simplesmente não aparecem na lista
+    @GetMapping("/api/produtos/skus")
+    List<ProdutoDto> buscarPorSkus(@RequestParam("skus") List<String> skus);
 }
@@ -0,0 +1,301 @@
+package com.fiap.postech.estoque_service.gateway.database;
+
+import com.fiap.postech.estoque_service.api.dto.ItemEstoqueResultadoDTO;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Estoque particionado ("split counters") para SKUs quentes: o saldo do produto fica dividido em N linhas de
+ * {@code estoque_bucket} e cada baixa trava só um bucket com saldo, em vez de todas disputarem a mesma linha
+ * de {@code estoque}. O saldo do produto é sempre {@code estoque.quantidade_estoque} + soma dos buckets, então
+ * retirar de qualquer uma das partes é correto; o rebalanceamento periódico só devolve o saldo aos buckets.
+ * <p>
+ * Os buckets de um produto são sempre numerados de 0 a {@code estoque.buckets - 1}. Os métodos de movimentação
+ * devem ser chamados dentro da transação do {@link EstoqueRepositoryImpl}, que decide pelo próprio comando de
+ * movimentação ({@code estoque.buckets}) quais produtos seguem por aqui.
+ * <p>
+ * Cada movimento em bucket incrementa a versão do bucket; a versão do produto é {@code estoque.versao} + soma das
+ * versões dos buckets, e quem regrava os buckets com todas as travas incorpora essa soma na linha principal.
+ */
+@Slf4j
+@Repository
+public class EstoqueBucketRepository {
+
+    // SKIP LOCKED: pedidos concorrentes caem em buckets diferentes em vez de esperar uns pelos outros
+    private static final String SQL_BAIXA_BUCKET = """
+            UPDATE estoque_bucket SET quantidade = quantidade - ?, versao = versao + 1
+            WHERE id_produto = ? AND bucket = (
+                SELECT bucket FROM estoque_bucket
+                WHERE id_produto = ? AND quantidade >= ?
+                ORDER BY random()
+                LIMIT 1
+                FOR UPDATE SKIP LOCKED
+            )
+            """;
+
+    private static final String SQL_RESTAURA_BUCKET =
+            "UPDATE estoque_bucket SET quantidade = quantidade + ?, versao = versao + 1 WHERE id_produto = ? AND bucket = ?";
+
+    private static final String SQL_RESTAURA_PRINCIPAL =
+            "UPDATE estoque SET quantidade_estoque = quantidade_estoque + ?, versao = versao + 1 WHERE id_produto = ?";
+
+    // Travas sempre na ordem linha principal -> buckets por número, igual em baixa, rebalanceamento e particionamento
+    private static final String SQL_TRAVA_PRINCIPAL =
+            "SELECT quantidade_estoque, buckets FROM estoque WHERE id_produto = ? FOR UPDATE";
+
+    private static final String SQL_TRAVA_BUCKETS =
+            "SELECT quantidade FROM estoque_bucket WHERE id_produto = ? ORDER BY bucket FOR UPDATE";
+
+    // Incorpora as versões dos buckets, que são zeradas em seguida: a versão combinada só avança
+    private static final String SQL_GRAVA_PRINCIPAL = """
+            UPDATE estoque SET quantidade_estoque = ?, buckets = ?, versao = versao + 1
+                + coalesce((SELECT sum(b.versao) FROM estoque_bucket b WHERE b.id_produto = estoque.id_produto), 0)
+            WHERE id_produto = ?
+            """;
+
+    private static final String SQL_GRAVA_BUCKETS = """
+            INSERT INTO estoque_bucket (id_produto, bucket, quantidade)
+            SELECT ?, * FROM unnest(?::smallint[], ?::int[])
+            ON CONFLICT (id_produto, bucket) DO UPDATE SET quantidade = EXCLUDED.quantidade, versao = 0
+            """;
+
+    private static final String SQL_REMOVE_BUCKETS_EXCEDENTES =
+            "DELETE FROM estoque_bucket WHERE id_produto = ? AND bucket >= ?";
+
+    private static final String SQL_SOMA_BUCKETS = """
+            SELECT id_produto, sum(quantidade) AS quantidade, sum(versao) AS versao FROM estoque_bucket
+            WHERE id_produto = ANY(?)
+            GROUP BY id_produto
+            """;
+
+    private static final String SQL_SALDO = """
+            SELECT e.sku_produto, e.quantidade_estoque
+                   + coalesce((SELECT sum(b.quantidade) FROM estoque_bucket b WHERE b.id_produto = e.id_produto), 0)
+                   AS quantidade_estoque
+            FROM estoque e WHERE e.id_produto = ?
+            """;
+
+    private static final String SQL_QUANTIDADE_BUCKETS = "SELECT buckets FROM estoque WHERE id_produto = ?";
+
+    private static final String SQL_VERSAO = """
+            SELECT e.versao + coalesce((SELECT sum(b.versao) FROM estoque_bucket b WHERE b.id_produto = e.id_produto), 0)
+            FROM estoque e WHERE e.id_produto = ?
+            """;
+
+    // Saldo parado na linha principal (restaurações, descargas do ledger) ou algum bucket bem abaixo da média
+    private static final String SQL_DESBALANCEADOS = """
+            SELECT e.id_produto FROM estoque e JOIN estoque_bucket b ON b.id_produto = e.id_produto
+            WHERE e.buckets > 0
+            GROUP BY e.id_produto, e.quantidade_estoque
+            HAVING e.quantidade_estoque <> 0
+                OR (max(b.quantidade) - min(b.quantidade) > 1 AND min(b.quantidade) < ? * avg(b.quantidade))
+            """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${estoque.particionamento.fator-desbalanceamento:0.25}")
+    private double fatorDesbalanceamento;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void iniciar() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Saldo e versão somados dos buckets de um produto.
+     */
+    public record SaldoBuckets(int quantidade, long versao) {
+    }
+
+    /**
+     * Quantidade de buckets gravada para o produto (0 se for de linha única ou não tiver estoque).
+     */
+    public int quantidadeBuckets(int idProduto) {
+        List<Integer> buckets = jdbcTemplate.queryForList(SQL_QUANTIDADE_BUCKETS, Integer.class, idProduto);
+        return buckets.isEmpty() ? 0 : buckets.get(0);
+    }
+
+    public boolean baixar(int idProduto, int quantidade) {
+        if (jdbcTemplate.update(SQL_BAIXA_BUCKET, quantidade, idProduto, idProduto, quantidade) > 0) {
+            return true;
+        }
+        return baixarConsolidado(idProduto, quantidade);
+    }
+
+    // Sem o bucket sorteado (produto reparticionado nesse meio tempo), a devolução vai para a linha principal
+    public boolean restaurar(int idProduto, int quantidade, int quantidadeBuckets) {
+        if (quantidadeBuckets > 0 && jdbcTemplate.update(SQL_RESTAURA_BUCKET, quantidade, idProduto,
+                ThreadLocalRandom.current().nextInt(quantidadeBuckets)) > 0) {
+            return true;
+        }
+        return jdbcTemplate.update(SQL_RESTAURA_PRINCIPAL, quantidade, idProduto) > 0;
+    }
+
+    public ItemEstoqueResultadoDTO resultado(int idProduto, int quantidade, boolean sucesso) {
+        List<ItemEstoqueResultadoDTO> resultados = jdbcTemplate.query(SQL_SALDO, (rs, rowNum) ->
+                new ItemEstoqueResultadoDTO(idProduto, rs.getString("sku_produto"), quantidade,
+                        sucesso ? rs.getInt("quantidade_estoque") : null, sucesso), idProduto);
+        return resultados.isEmpty()
+                ? new ItemEstoqueResultadoDTO(idProduto, null, quantidade, null, sucesso)
+                : resultados.get(0);
+    }
+
+    /**
+     * Soma dos buckets por produto; produtos sem buckets não aparecem no mapa.
+     */
+    public Map<Integer, SaldoBuckets> somar(Collection<Integer> idsProduto) {
+        if (idsProduto.isEmpty()) {
+            return Map.of();
+        }
+        Integer[] ids = idsProduto.toArray(new Integer[0]);
+        Map<Integer, SaldoBuckets> somas = new HashMap<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SQL_SOMA_BUCKETS);
+            ps.setArray(1, con.createArrayOf("integer", ids));
+            return ps;
+        }, (RowCallbackHandler) rs -> somas.put(rs.getInt("id_produto"),
+                new SaldoBuckets(rs.getInt("quantidade"), rs.getLong("versao"))));
+        return somas;
+    }
+
+    /**
+     * Redistribui o saldo atual do produto em {@code quantidadeBuckets} buckets (0 devolve tudo à linha principal).
+     * Retorna false se o produto não tiver estoque.
+     */
+    public boolean particionar(int idProduto, int quantidadeBuckets) {
+        int[] principal = travaPrincipal(idProduto);
+        if (principal == null) {
+            return false;
+        }
+        int[] saldos = travaBuckets(idProduto);
+        distribuir(idProduto, quantidadeBuckets, principal[0] + Arrays.stream(saldos).sum());
+        return true;
+    }
+
+    /**
+     * Troca o saldo de um produto particionado pelo valor absoluto informado, mantendo a quantidade de buckets.
+     * Sem efeito para produtos de linha única. Com os buckets travados, confere de novo a versão combinada contra
+     * {@code versaoEsperada}: uma baixa em bucket pode ter entrado depois da conferência feita na linha principal.
+     * Retorna false nesse caso, sem gravar.
+     */
+    public boolean redefinirSaldo(int idProduto, int total, long versaoEsperada) {
+        int[] principal = travaPrincipal(idProduto);
+        if (principal == null || principal[1] == 0) {
+            return true;
+        }
+        travaBuckets(idProduto);
+        Long versao = jdbcTemplate.queryForObject(SQL_VERSAO, Long.class, idProduto);
+        if (versao == null || versao != versaoEsperada) {
+            return false;
+        }
+        distribuir(idProduto, principal[1], total);
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${estoque.particionamento.intervalo-rebalanceamento-ms:5000}")
+    public void rebalancear() {
+        try {
+            List<Integer> desbalanceados = jdbcTemplate.queryForList(SQL_DESBALANCEADOS, Integer.class,
+                    fatorDesbalanceamento);
+            for (Integer idProduto : desbalanceados) {
+                transactionTemplate.executeWithoutResult(status -> {
+                    int[] principal = travaPrincipal(idProduto);
+                    if (principal != null && principal[1] > 0) {
+                        int[] saldos = travaBuckets(idProduto);
+                        distribuir(idProduto, principal[1], principal[0] + Arrays.stream(saldos).sum());
+                    }
+                });
+            }
+            if (!desbalanceados.isEmpty()) {
+                log.debug("Rebalanceados os buckets de {} produto(s)", desbalanceados.size());
+            }
+        } catch (Exception e) {
+            log.error("Erro ao rebalancear buckets de estoque", e);
+        }
+    }
+
+    // Nenhum bucket livre tem saldo para o item sozinho: trava o produto inteiro e retira de onde houver
+    private boolean baixarConsolidado(int idProduto, int quantidade) {
+        int[] principal = travaPrincipal(idProduto);
+        if (principal == null) {
+            return false;
+        }
+        int[] saldos = travaBuckets(idProduto);
+        if ((long) principal[0] + Arrays.stream(saldos).asLongStream().sum() < quantidade) {
+            return false;
+        }
+
+        int retiradoPrincipal = Math.min(Math.max(principal[0], 0), quantidade);
+        int restante = quantidade - retiradoPrincipal;
+        for (int i = 0; i < saldos.length && restante > 0; i++) {
+            int retirado = Math.min(saldos[i], restante);
+            saldos[i] -= retirado;
+            restante -= retirado;
+        }
+        grava(idProduto, principal[0] - retiradoPrincipal, saldos);
+        return true;
+    }
+
+    private void distribuir(int idProduto, int quantidadeBuckets, int total) {
+        int[] saldos = new int[quantidadeBuckets];
+        int principal = total;
+        if (quantidadeBuckets > 0 && total > 0) {
+            for (int i = 0; i < quantidadeBuckets; i++) {
+                saldos[i] = total / quantidadeBuckets + (i < total % quantidadeBuckets ? 1 : 0);
+            }
+            principal = 0;
+        }
+        grava(idProduto, principal, saldos);
+    }
+
+    private void grava(int idProduto, int principal, int[] saldos) {
+        jdbcTemplate.update(SQL_GRAVA_PRINCIPAL, principal, saldos.length, idProduto);
+        if (saldos.length > 0) {
+            Short[] numeros = new Short[saldos.length];
+            Integer[] quantidades = new Integer[saldos.length];
+            for (int i = 0; i < saldos.length; i++) {
+                numeros[i] = (short) i;
+                quantidades[i] = saldos[i];
+            }
+            jdbcTemplate.update(con -> {
+                PreparedStatement ps = con.prepareStatement(SQL_GRAVA_BUCKETS);
+                ps.setInt(1, idProduto);
+                ps.setArray(2, con.createArrayOf("smallint", numeros));
+                ps.setArray(3, con.createArrayOf("integer", quantidades));
+                return ps;
+            });
+        }
+        jdbcTemplate.update(SQL_REMOVE_BUCKETS_EXCEDENTES, idProduto, saldos.length);
+    }
+
+    // [quantidade_estoque, buckets] da linha principal, ou null se o produto não tiver estoque
+    private int[] travaPrincipal(int idProduto) {
+        List<int[]> linhas = jdbcTemplate.query(SQL_TRAVA_PRINCIPAL,
+                (rs, rowNum) -> new int[]{rs.getInt("quantidade_estoque"), rs.getInt("buckets")}, idProduto);
+        return linhas.isEmpty() ? null : linhas.get(0);
+    }
+
+    private int[] travaBuckets(int idProduto) {
+        return jdbcTemplate.queryForList(SQL_TRAVA_BUCKETS, Integer.class, idProduto).stream()
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+}
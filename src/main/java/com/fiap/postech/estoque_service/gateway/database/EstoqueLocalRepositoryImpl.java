@@ -0,0 +1,373 @@
+package com.fiap.postech.estoque_service.gateway.database;
+
+import com.fiap.postech.estoque_service.api.dto.AlocacaoEstoqueDTO;
+import com.fiap.postech.estoque_service.api.dto.CriterioAlocacaoDTO;
+import com.fiap.postech.estoque_service.domain.exceptions.ErroInternoException;
+import com.fiap.postech.estoque_service.domain.exceptions.internal.EstoqueNotFoundException;
+import com.fiap.postech.estoque_service.domain.exceptions.internal.InvalidQuantidadeEstoqueException;
+import com.fiap.postech.estoque_service.domain.exceptions.internal.LocalEstoqueNotFoundException;
+import com.fiap.postech.estoque_service.domain.model.AlocadorEstoque;
+import com.fiap.postech.estoque_service.domain.model.EstoqueLocal;
+import com.fiap.postech.estoque_service.domain.model.LocalEstoque;
+import com.fiap.postech.estoque_service.domain.model.RegraAlocacao;
+import com.fiap.postech.estoque_service.gateway.port.EstoqueLocalRepositoryPort;
+import com.fiap.postech.estoque_service.utils.ConstantUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Saldo de cada produto por local ({@code estoque_local}). O saldo do produto continua em {@code estoque}; os
+ * locais só detalham onde ele está, e o total menos a soma dos locais é o saldo ainda sem local. Restaurações,
+ * ajustes positivos e atualizações absolutas mexem só no total, ou seja, no saldo sem local.
+ * <p>
+ * A baixa escolhe os locais em memória, a partir de um índice em cache com os locais de cada produto, e grava
+ * todos os itens do pedido em um único UPDATE condicional; só os produtos em que o cache estava desatualizado,
+ * ou cujo plano deixaria sobra sem local, são relidos com trava e replanejados. O índice só recebe os saldos
+ * descontados depois do commit. {@link #alocar} deve ser chamado na transação da movimentação, depois
+ * do total: a linha de {@code estoque} já travada serializa as escritas nos locais do mesmo produto. Por isso
+ * produtos particionados, cuja baixa não trava a linha principal, não podem ter estoque por local.
+ */
+@Slf4j
+@Repository
+public class EstoqueLocalRepositoryImpl implements EstoqueLocalRepositoryPort {
+
+    private static final String SQL_LOCAIS_POR_PRODUTO = """
+            SELECT l.id_produto, l.codigo_local, d.nome, l.quantidade, d.latitude, d.longitude
+            FROM estoque_local l JOIN local_estoque d ON d.codigo = l.codigo_local
+            WHERE l.id_produto = ANY(?)
+            ORDER BY l.id_produto, l.codigo_local
+            """;
+
+    private static final String SQL_TRAVA_LOCAIS = SQL_LOCAIS_POR_PRODUTO + "FOR UPDATE OF l\n";
+
+    // Todos os itens do pedido em um comando; a guarda de saldo recusa as linhas que o cache superestimou
+    private static final String SQL_BAIXA_LOCAIS = """
+            UPDATE estoque_local l SET quantidade = l.quantidade - a.quantidade
+            FROM unnest(?::int[], ?::varchar[], ?::int[]) AS a(id_produto, codigo_local, quantidade)
+            WHERE l.id_produto = a.id_produto AND l.codigo_local = a.codigo_local AND l.quantidade >= a.quantidade
+            RETURNING l.id_produto, l.codigo_local
+            """;
+
+    private static final String SQL_DEVOLVE_LOCAIS = """
+            UPDATE estoque_local l SET quantidade = l.quantidade + a.quantidade
+            FROM unnest(?::int[], ?::varchar[], ?::int[]) AS a(id_produto, codigo_local, quantidade)
+            WHERE l.id_produto = a.id_produto AND l.codigo_local = a.codigo_local
+            """;
+
+    private static final String SQL_SALVA_LOCAL = """
+            INSERT INTO local_estoque (codigo, nome, latitude, longitude) VALUES (?, ?, ?, ?)
+            ON CONFLICT (codigo) DO UPDATE
+            SET nome = EXCLUDED.nome, latitude = EXCLUDED.latitude, longitude = EXCLUDED.longitude
+            """;
+
+    private static final String SQL_EXISTE_LOCAL = "SELECT EXISTS (SELECT 1 FROM local_estoque WHERE codigo = ?)";
+
+    // Mesma ordem de travas da baixa: linha de estoque primeiro, depois os locais
+    private static final String SQL_TRAVA_PRINCIPAL =
+            "SELECT quantidade_estoque, buckets FROM estoque WHERE id_produto = ? FOR UPDATE";
+
+    private static final String SQL_DEFINE_QUANTIDADE = """
+            INSERT INTO estoque_local (id_produto, codigo_local, quantidade) VALUES (?, ?, ?)
+            ON CONFLICT (id_produto, codigo_local) DO UPDATE SET quantidade = EXCLUDED.quantidade
+            """;
+
+    private static final String SQL_SOMA_LOCAIS =
+            "SELECT coalesce(sum(quantidade), 0) FROM estoque_local WHERE id_produto = ?";
+
+    private static final String SQL_POSSUI_LOCAIS = "SELECT EXISTS (SELECT 1 FROM estoque_local WHERE id_produto = ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${estoque.alocacao.regra-padrao:MAIOR_ESTOQUE}")
+    private RegraAlocacao regraPadrao;
+
+    @Value("${estoque.alocacao.indice.tamanho-maximo:10000}")
+    private long tamanhoMaximoIndice;
+
+    @Value("${estoque.alocacao.indice.ttl-segundos:30}")
+    private long ttlIndiceSegundos;
+
+    // idProduto -> locais com saldo; produtos sem locais ficam com lista vazia, para a baixa comum não ir ao banco
+    private Cache<Integer, List<EstoqueLocal>> indice;
+
+    @PostConstruct
+    public void iniciar() {
+        indice = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximoIndice)
+                .expireAfterWrite(Duration.ofSeconds(ttlIndiceSegundos))
+                .build();
+    }
+
+    /**
+     * Retira dos locais a quantidade já baixada do total de cada produto. Devolve, só para os produtos com estoque
+     * por local, as partes retiradas de cada local; a parte que os locais não cobrirem vem com código nulo.
+     */
+    public Map<Integer, List<AlocacaoEstoqueDTO>> alocar(Map<Integer, Integer> quantidadePorProduto,
+                                                        CriterioAlocacaoDTO criterio) {
+        if (quantidadePorProduto.isEmpty()) {
+            return Map.of();
+        }
+        Map<Integer, List<EstoqueLocal>> candidatos = new TreeMap<>();
+        indice.getAll(quantidadePorProduto.keySet(), this::carregar).forEach((idProduto, locais) -> {
+            if (!locais.isEmpty()) {
+                candidatos.put(idProduto, locais);
+            }
+        });
+        if (candidatos.isEmpty()) {
+            return Map.of();
+        }
+
+        RegraAlocacao regra = criterio != null && criterio.getRegra() != null ? criterio.getRegra() : regraPadrao;
+        Double latitude = criterio != null ? criterio.getLatitude() : null;
+        Double longitude = criterio != null ? criterio.getLongitude() : null;
+
+        Map<Integer, Map<String, Integer>> planos = planejar(candidatos, quantidadePorProduto, regra, latitude, longitude);
+        // Sobra sem local só é aceita com os locais lidos sob trava: um índice que mostra menos saldo que o banco
+        // tiraria do saldo sem local o que ainda está nos locais
+        Set<Integer> relerComTrava = new TreeSet<>();
+        planos.forEach((idProduto, plano) -> {
+            if (soma(plano) < quantidadePorProduto.get(idProduto)) {
+                relerComTrava.add(idProduto);
+            }
+        });
+        planos.keySet().removeAll(relerComTrava);
+        relerComTrava.addAll(aplicar(planos));
+        if (!relerComTrava.isEmpty()) {
+            log.debug("Relendo com trava os locais dos produtos {}", relerComTrava);
+            Map<Integer, List<EstoqueLocal>> relidos = consultar(SQL_TRAVA_LOCAIS, relerComTrava);
+            relerComTrava.forEach(idProduto -> candidatos.put(idProduto, relidos.getOrDefault(idProduto, List.of())));
+            Map<Integer, List<EstoqueLocal>> replanejar = new TreeMap<>(candidatos);
+            replanejar.keySet().retainAll(relerComTrava);
+            Map<Integer, Map<String, Integer>> replanos =
+                    planejar(replanejar, quantidadePorProduto, regra, latitude, longitude);
+            // Com os locais travados, a guarda de saldo só falharia por erro de programação
+            if (!aplicar(replanos).isEmpty()) {
+                throw new IllegalStateException("Saldo dos locais alterado com as linhas travadas");
+            }
+            planos.putAll(replanos);
+        }
+
+        Map<Integer, List<EstoqueLocal>> atualizados = new HashMap<>();
+        Map<Integer, List<AlocacaoEstoqueDTO>> alocacoes = new TreeMap<>();
+        planos.forEach((idProduto, plano) -> {
+            atualizados.put(idProduto, descontar(candidatos.get(idProduto), plano));
+            List<AlocacaoEstoqueDTO> partes = new ArrayList<>();
+            int restante = quantidadePorProduto.get(idProduto);
+            for (Map.Entry<String, Integer> parte : plano.entrySet()) {
+                partes.add(new AlocacaoEstoqueDTO(parte.getKey(), parte.getValue()));
+                restante -= parte.getValue();
+            }
+            if (restante > 0) {
+                partes.add(new AlocacaoEstoqueDTO(null, restante));
+            }
+            alocacoes.put(idProduto, partes);
+        });
+        // Movimentação desfeita não pode deixar no índice saldos já descontados
+        aposCommit(() -> indice.putAll(atualizados));
+        return alocacoes;
+    }
+
+    public int somaLocais(Integer idProduto) {
+        Integer soma = jdbcTemplate.queryForObject(SQL_SOMA_LOCAIS, Integer.class, idProduto);
+        return soma == null ? 0 : soma;
+    }
+
+    public boolean possuiLocais(Integer idProduto) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(SQL_POSSUI_LOCAIS, Boolean.class, idProduto));
+    }
+
+    @Override
+    public void salvarLocal(LocalEstoque local) {
+        try {
+            jdbcTemplate.update(SQL_SALVA_LOCAL, local.getCodigo(), local.getNome(), local.getLatitude(),
+                    local.getLongitude());
+            // As coordenadas ficam em todas as entradas do índice que têm o local
+            indice.invalidateAll();
+        } catch (Exception e) {
+            log.error("Erro ao salvar local de estoque: {}", local.getCodigo(), e);
+            throw new ErroInternoException("Erro ao salvar local de estoque: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Grava a quantidade do produto no local, desde que a soma dos locais não passe do saldo total.
+     */
+    @Transactional
+    @Override
+    public void definirQuantidade(Integer idProduto, String codigoLocal, int quantidade) {
+        try {
+            List<int[]> principal = jdbcTemplate.query(SQL_TRAVA_PRINCIPAL, (rs, rowNum) ->
+                    new int[]{rs.getInt("quantidade_estoque"), rs.getInt("buckets")}, idProduto);
+            if (principal.isEmpty()) {
+                throw new EstoqueNotFoundException(ConstantUtils.ESTOQUE_NAO_ENCONTRADO);
+            }
+            if (principal.get(0)[1] > 0) {
+                throw new InvalidQuantidadeEstoqueException(ConstantUtils.LOCAIS_COM_PARTICIONAMENTO);
+            }
+            if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(SQL_EXISTE_LOCAL, Boolean.class, codigoLocal))) {
+                throw new LocalEstoqueNotFoundException(ConstantUtils.LOCAL_NAO_ENCONTRADO);
+            }
+            jdbcTemplate.update(SQL_DEFINE_QUANTIDADE, idProduto, codigoLocal, quantidade);
+            if (somaLocais(idProduto) > principal.get(0)[0]) {
+                throw new InvalidQuantidadeEstoqueException(ConstantUtils.LOCAIS_EXCEDEM_ESTOQUE);
+            }
+            // Depois do commit também: uma baixa concorrente pode recarregar o saldo antigo antes dele
+            indice.invalidate(idProduto);
+            aposCommit(() -> indice.invalidate(idProduto));
+        } catch (EstoqueNotFoundException | InvalidQuantidadeEstoqueException | LocalEstoqueNotFoundException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Erro ao definir estoque do produto ID {} no local {}", idProduto, codigoLocal, e);
+            throw new ErroInternoException("Erro ao definir estoque do local: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public List<EstoqueLocal> listarPorProduto(Integer idProduto) {
+        try {
+            return consultar(SQL_LOCAIS_POR_PRODUTO, List.of(idProduto)).getOrDefault(idProduto, List.of());
+        } catch (Exception e) {
+            log.error("Erro ao listar locais do produto ID {}", idProduto, e);
+            throw new ErroInternoException("Erro ao listar locais do estoque: " + e.getMessage());
+        }
+    }
+
+    private Map<Integer, List<EstoqueLocal>> carregar(Set<? extends Integer> idsProduto) {
+        Map<Integer, List<EstoqueLocal>> locais = consultar(SQL_LOCAIS_POR_PRODUTO, idsProduto);
+        idsProduto.forEach(idProduto -> locais.putIfAbsent(idProduto, List.of()));
+        return locais;
+    }
+
+    private Map<Integer, List<EstoqueLocal>> consultar(String sql, Collection<? extends Integer> idsProduto) {
+        Integer[] ids = idsProduto.toArray(new Integer[0]);
+        Map<Integer, List<EstoqueLocal>> locais = new HashMap<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setArray(1, con.createArrayOf("integer", ids));
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            EstoqueLocal local = new EstoqueLocal(
+                    rs.getInt("id_produto"),
+                    rs.getString("codigo_local"),
+                    rs.getString("nome"),
+                    rs.getInt("quantidade"),
+                    rs.getObject("latitude", Double.class),
+                    rs.getObject("longitude", Double.class));
+            locais.computeIfAbsent(local.getIdProduto(), id -> new ArrayList<>()).add(local);
+        });
+        return locais;
+    }
+
+    private Map<Integer, Map<String, Integer>> planejar(Map<Integer, List<EstoqueLocal>> candidatos,
+                                                       Map<Integer, Integer> quantidadePorProduto,
+                                                       RegraAlocacao regra, Double latitude, Double longitude) {
+        Map<Integer, Map<String, Integer>> planos = new TreeMap<>();
+        candidatos.forEach((idProduto, locais) -> planos.put(idProduto, AlocadorEstoque.alocar(
+                quantidadePorProduto.get(idProduto), locais, regra, latitude, longitude)));
+        return planos;
+    }
+
+    /**
+     * Aplica os planos em um comando e devolve os produtos em que algum local não tinha o saldo planejado;
+     * as partes desses produtos que chegaram a ser retiradas são devolvidas antes do retorno.
+     */
+    private Set<Integer> aplicar(Map<Integer, Map<String, Integer>> planos) {
+        List<Integer> idsProduto = new ArrayList<>();
+        List<String> codigos = new ArrayList<>();
+        List<Integer> quantidades = new ArrayList<>();
+        planos.forEach((idProduto, plano) -> plano.forEach((codigo, quantidade) -> {
+            idsProduto.add(idProduto);
+            codigos.add(codigo);
+            quantidades.add(quantidade);
+        }));
+        Set<Integer> desatualizados = new TreeSet<>();
+        if (idsProduto.isEmpty()) {
+            return desatualizados;
+        }
+
+        Map<Integer, Set<String>> aplicados = new HashMap<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SQL_BAIXA_LOCAIS);
+            ps.setArray(1, con.createArrayOf("integer", idsProduto.toArray()));
+            ps.setArray(2, con.createArrayOf("varchar", codigos.toArray()));
+            ps.setArray(3, con.createArrayOf("integer", quantidades.toArray()));
+            return ps;
+        }, (RowCallbackHandler) rs -> aplicados
+                .computeIfAbsent(rs.getInt("id_produto"), id -> new HashSet<>())
+                .add(rs.getString("codigo_local")));
+
+        planos.forEach((idProduto, plano) -> {
+            if (aplicados.getOrDefault(idProduto, Set.of()).size() < plano.size()) {
+                desatualizados.add(idProduto);
+            }
+        });
+        if (!desatualizados.isEmpty()) {
+            devolver(planos, aplicados, desatualizados);
+        }
+        return desatualizados;
+    }
+
+    private void devolver(Map<Integer, Map<String, Integer>> planos, Map<Integer, Set<String>> aplicados,
+                          Set<Integer> desatualizados) {
+        List<Integer> idsProduto = new ArrayList<>();
+        List<String> codigos = new ArrayList<>();
+        List<Integer> quantidades = new ArrayList<>();
+        for (Integer idProduto : desatualizados) {
+            for (String codigo : aplicados.getOrDefault(idProduto, Set.of())) {
+                idsProduto.add(idProduto);
+                codigos.add(codigo);
+                quantidades.add(planos.get(idProduto).get(codigo));
+            }
+        }
+        if (idsProduto.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(SQL_DEVOLVE_LOCAIS);
+            ps.setArray(1, con.createArrayOf("integer", idsProduto.toArray()));
+            ps.setArray(2, con.createArrayOf("varchar", codigos.toArray()));
+            ps.setArray(3, con.createArrayOf("integer", quantidades.toArray()));
+            return ps;
+        });
+    }
+
+    private static int soma(Map<String, Integer> plano) {
+        return plano.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    private void aposCommit(Runnable acao) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            acao.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                acao.run();
+            }
+        });
+    }
+
+    private List<EstoqueLocal> descontar(List<EstoqueLocal> locais, Map<String, Integer> plano) {
+        return locais.stream()
+                .map(local -> new EstoqueLocal(local.getIdProduto(), local.getCodigoLocal(), local.getNome(),
+                        local.getQuantidade() - plano.getOrDefault(local.getCodigoLocal(), 0),
+                        local.getLatitude(), local.getLongitude()))
+                .toList();
+    }
+}
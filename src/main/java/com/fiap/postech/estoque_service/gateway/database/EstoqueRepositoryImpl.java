@@ -1,12 +1,23 @@
 package com.fiap.postech.estoque_service.gateway.database;
 
+import com.fiap.postech.estoque_service.api.dto.AlocacaoEstoqueDTO;
+import com.fiap.postech.estoque_service.api.dto.BaixaEstoqueRequest;
+import com.fiap.postech.estoque_service.api.dto.CriterioAlocacaoDTO;
 import com.fiap.postech.estoque_service.api.dto.EstoqueDto;
+import com.fiap.postech.estoque_service.api.dto.ItemAjusteEstoqueDTO;
+import com.fiap.postech.estoque_service.api.dto.ItemEstoqueBaixaDTO;
+import com.fiap.postech.estoque_service.api.dto.ItemEstoqueResultadoDTO;
 import com.fiap.postech.estoque_service.api.dto.ResponseDto;
 import com.fiap.postech.estoque_service.api.mapper.EstoqueMapper;
 import com.fiap.postech.estoque_service.domain.exceptions.ErroInternoException;
+import com.fiap.postech.estoque_service.domain.exceptions.internal.ConflitoVersaoException;
+import com.fiap.postech.estoque_service.domain.exceptions.internal.EstoqueInsuficienteException;
 import com.fiap.postech.estoque_service.domain.exceptions.internal.EstoqueNotFoundException;
+import com.fiap.postech.estoque_service.domain.exceptions.internal.InvalidQuantidadeEstoqueException;
 import com.fiap.postech.estoque_service.domain.exceptions.internal.ProdutoNotFoundException;
 import com.fiap.postech.estoque_service.domain.model.Estoque;
+import com.fiap.postech.estoque_service.domain.model.EventoEstoque;
+import com.fiap.postech.estoque_service.domain.model.TipoEventoEstoque;
 import com.fiap.postech.estoque_service.gateway.database.entity.EstoqueEntity;
 import com.fiap.postech.estoque_service.gateway.database.repository.EstoqueRepositoryJPA;
 import com.fiap.postech.estoque_service.gateway.port.EstoqueRepositoryPort;
@@ -14,25 +25,189 @@ import com.fiap.postech.estoque_service.utils.ConstantUtils;
 import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Repository;
 
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Consumer;
 
 @Slf4j
 @Repository
 public class EstoqueRepositoryImpl implements EstoqueRepositoryPort {
 
+    // Aplica todos os itens do pedido em um único comando, devolvendo o resultado de cada item. O UPDATE com FROM
+    // trava as linhas na ordem do plano, então elas são travadas antes por id_produto, para pedidos concorrentes
+    // com vários itens não se bloquearem em ordens opostas. Produtos particionados ficam fora do UPDATE e voltam
+    // com sucesso = false e buckets > 0 para seguir pelos buckets
+    private static final String SQL_BAIXA_LOTE = """
+            WITH itens AS (
+                SELECT * FROM unnest(?::int[], ?::int[]) AS i(id_produto, quantidade)
+            ), travados AS (
+                SELECT id_produto FROM estoque
+                WHERE id_produto IN (SELECT id_produto FROM itens) AND buckets = 0
+                ORDER BY id_produto
+                FOR UPDATE
+            ), movimentados AS (
+                UPDATE estoque e SET quantidade_estoque = e.quantidade_estoque - i.quantidade, versao = e.versao + 1
+                FROM itens i, travados t
+                WHERE e.id_produto = t.id_produto AND i.id_produto = t.id_produto
+                  AND e.quantidade_estoque >= i.quantidade
+                RETURNING e.id_produto, e.sku_produto, e.quantidade_estoque
+            )
+            SELECT i.id_produto, i.quantidade, x.buckets, m.sku_produto, m.quantidade_estoque,
+                   m.id_produto IS NOT NULL AS sucesso
+            FROM itens i
+            LEFT JOIN estoque x ON x.id_produto = i.id_produto
+            LEFT JOIN movimentados m ON m.id_produto = i.id_produto
+            ORDER BY i.id_produto
+            """;
+
+    // Baixa em grupo: trava uma vez, na ordem de produto, as linhas de todos os pedidos do lote. Produtos
+    // particionados ficam de fora, como no ajuste
+    private static final String SQL_TRAVA_GRUPO = """
+            SELECT id_produto, sku_produto, quantidade_estoque FROM estoque
+            WHERE id_produto = ANY(?) AND buckets = 0
+            ORDER BY id_produto
+            FOR UPDATE
+            """;
+
+    // Total aceito de cada produto no lote, já conferido contra o saldo travado
+    private static final String SQL_BAIXA_GRUPO = """
+            UPDATE estoque e SET quantidade_estoque = e.quantidade_estoque - i.quantidade, versao = e.versao + 1
+            FROM unnest(?::int[], ?::int[]) AS i(id_produto, quantidade)
+            WHERE e.id_produto = i.id_produto AND e.quantidade_estoque >= i.quantidade
+            """;
+
+    // Mesma trava por id_produto da baixa
+    private static final String SQL_RESTAURA_LOTE = """
+            WITH itens AS (
+                SELECT * FROM unnest(?::int[], ?::int[]) AS i(id_produto, quantidade)
+            ), travados AS (
+                SELECT id_produto FROM estoque
+                WHERE id_produto IN (SELECT id_produto FROM itens) AND buckets = 0
+                ORDER BY id_produto
+                FOR UPDATE
+            ), movimentados AS (
+                UPDATE estoque e SET quantidade_estoque = e.quantidade_estoque + i.quantidade, versao = e.versao + 1
+                FROM itens i, travados t
+                WHERE e.id_produto = t.id_produto AND i.id_produto = t.id_produto
+                RETURNING e.id_produto, e.sku_produto, e.quantidade_estoque
+            )
+            SELECT i.id_produto, i.quantidade, x.buckets, m.sku_produto, m.quantidade_estoque,
+                   m.id_produto IS NOT NULL AS sucesso
+            FROM itens i
+            LEFT JOIN estoque x ON x.id_produto = i.id_produto
+            LEFT JOIN movimentados m ON m.id_produto = i.id_produto
+            ORDER BY i.id_produto
+            """;
+
+    // Ajuste relativo por SKU com guarda de saldo não negativo. SKUs não seguem a ordem dos IDs, então as linhas
+    // são travadas antes por id_produto, na mesma ordem da baixa. Produtos particionados ficam fora do UPDATE
+    // (a linha principal continuaria quente) e voltam com sucesso = false e buckets > 0 para seguir pelos buckets
+    private static final String SQL_AJUSTA_LOTE = """
+            WITH itens AS (
+                SELECT * FROM unnest(?::varchar[], ?::int[]) AS i(sku_produto, delta)
+            ), travados AS (
+                SELECT e.id_produto FROM estoque e JOIN itens i ON i.sku_produto = e.sku_produto
+                WHERE e.buckets = 0
+                ORDER BY e.id_produto
+                FOR UPDATE OF e
+            ), movimentados AS (
+                UPDATE estoque e SET quantidade_estoque = e.quantidade_estoque + i.delta, versao = e.versao + 1
+                FROM itens i, travados t
+                WHERE e.id_produto = t.id_produto AND e.sku_produto = i.sku_produto
+                  AND e.quantidade_estoque + i.delta >= 0
+                RETURNING e.id_produto, e.quantidade_estoque
+            )
+            SELECT i.sku_produto, i.delta, x.id_produto, x.buckets, m.quantidade_estoque, m.id_produto IS NOT NULL AS sucesso
+            FROM itens i
+            LEFT JOIN estoque x ON x.sku_produto = i.sku_produto
+            LEFT JOIN movimentados m ON m.id_produto = x.id_produto
+            ORDER BY i.sku_produto
+            """;
+
+    // Um único INSERT por lote; SKUs ou produtos já cadastrados são ignorados e ficam fora do RETURNING
+    private static final String SQL_IMPORTA_LOTE = """
+            INSERT INTO estoque (id_produto, sku_produto, quantidade_estoque)
+            SELECT * FROM unnest(?::int[], ?::varchar[], ?::int[])
+            ON CONFLICT DO NOTHING
+            RETURNING id_produto, sku_produto, quantidade_estoque
+            """;
+
+    private static final String SQL_EXPORTA = """
+            SELECT e.id_produto, e.sku_produto, e.quantidade_estoque + CASE WHEN e.buckets > 0
+                       THEN (SELECT coalesce(sum(b.quantidade), 0) FROM estoque_bucket b WHERE b.id_produto = e.id_produto)
+                       ELSE 0 END AS quantidade_estoque
+            FROM estoque e ORDER BY e.id_estoque
+            """;
+
+    // Ordem binária (COLLATE "C"), a mesma de String.compareTo para SKUs normalizados, para o merge com
+    // arquivos ordenados por SKU; usa o índice idx_estoque_sku_c
+    private static final String SQL_PAGINA_POR_SKU = """
+            SELECT e.id_estoque, e.id_produto, e.sku_produto, e.versao + CASE WHEN e.buckets > 0
+                       THEN (SELECT coalesce(sum(b.versao), 0) FROM estoque_bucket b WHERE b.id_produto = e.id_produto)
+                       ELSE 0 END AS versao, e.quantidade_estoque + CASE WHEN e.buckets > 0
+                       THEN (SELECT coalesce(sum(b.quantidade), 0) FROM estoque_bucket b WHERE b.id_produto = e.id_produto)
+                       ELSE 0 END AS quantidade_estoque
+            FROM estoque e
+            WHERE e.sku_produto COLLATE "C" >= ?
+            ORDER BY e.sku_produto COLLATE "C"
+            LIMIT ?
+            """;
+
+    // Vários produtos por SKU ou ID em um comando; arrays mantêm um único plano para qualquer quantidade de itens.
+    // Em produto particionado a versão, como o saldo, soma a dos buckets
+    private static final String SQL_BUSCA_VARIOS = """
+            SELECT e.id_estoque, e.id_produto, e.sku_produto, e.versao + CASE WHEN e.buckets > 0
+                       THEN (SELECT coalesce(sum(b.versao), 0) FROM estoque_bucket b WHERE b.id_produto = e.id_produto)
+                       ELSE 0 END AS versao, e.quantidade_estoque + CASE WHEN e.buckets > 0
+                       THEN (SELECT coalesce(sum(b.quantidade), 0) FROM estoque_bucket b WHERE b.id_produto = e.id_produto)
+                       ELSE 0 END AS quantidade_estoque
+            FROM estoque e
+            WHERE e.sku_produto = ANY(?) OR e.id_produto = ANY(?)
+            """;
+
     @Autowired
     private EstoqueRepositoryJPA estoqueRepositoryJPA;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EstoqueBucketRepository buckets;
+
+    @Autowired
+    private EstoqueLocalRepositoryImpl locais;
+
+    // Toda movimentação grava seu evento na mesma transação; o RelayOutbox publica depois
+    @Autowired
+    private OutboxEstoqueRepository outbox;
+
+    @Value("${estoque.baixa.lote.habilitado:true}")
+    private boolean movimentacaoEmLote;
+
+    @Value("${estoque.exportacao.fetch-size:1000}")
+    private int fetchSizeExportacao;
+
     @Transactional
     @Override
     public ResponseDto cadastrarEstoque(Estoque estoque) {
         try {
             EstoqueEntity entity = EstoqueMapper.INSTANCE.domainToEntity(estoque);
             EstoqueEntity saved = estoqueRepositoryJPA.save(entity);
+            outbox.registrar(TipoEventoEstoque.CADASTRO, saved.getIdProduto(), saved.getSkuProduto(),
+                    saved.getQuantidadeEstoque(), saved.getQuantidadeEstoque());
             log.info("Cadastrando estoque para o SKU: {}", estoque.getSkuProduto());
             return montaResponse(saved, "cadastrar");
         } catch (Exception e) {
@@ -47,7 +222,7 @@ public class EstoqueRepositoryImpl implements EstoqueRepositoryPort {
         try {
             EstoqueEntity estoqueEntity = estoqueRepositoryJPA.findByIdProduto(idProduto)
                     .orElseThrow(() -> new ProdutoNotFoundException(ConstantUtils.PRODUTO_NAO_ENCONTRADO));
-            return EstoqueMapper.INSTANCE.entityToDomain(estoqueEntity);
+            return comSaldoDosBuckets(List.of(estoqueEntity)).get(0);
 
         } catch (Exception e) {
             log.error("Erro ao buscar estoque por ID do produto: {}", idProduto, e);
@@ -55,17 +230,36 @@ public class EstoqueRepositoryImpl implements EstoqueRepositoryPort {
         }
     }
 
+    /**
+     * Grava a nova quantidade só se a linha ainda estiver na versão lida em {@code estoque.getVersao()};
+     * caso contrário lança {@link ConflitoVersaoException} e o chamador decide se relê e tenta de novo.
+     */
     @Transactional
     @Override
     public ResponseDto atualizarEstoque(Estoque estoque) {
         try {
-            EstoqueEntity entity = EstoqueMapper.INSTANCE.domainToEntity(estoque);
-            entity.setIdEstoque(estoque.getIdEstoque());
-            entity.setIdProduto(estoque.getIdProduto());
-            EstoqueEntity updated = estoqueRepositoryJPA.save(entity);
+            int linhasAfetadas = estoqueRepositoryJPA.atualizarQuantidade(estoque.getIdProduto(),
+                    estoque.getQuantidadeEstoque(), estoque.getVersao());
+            if (linhasAfetadas == 0) {
+                log.warn("Estoque do SKU {} alterado desde a versão {}", estoque.getSkuProduto(), estoque.getVersao());
+                throw new ConflitoVersaoException(ConstantUtils.CONFLITO_ATUALIZACAO);
+            }
+            // Com a linha travada pelo UPDATE, os locais do produto não mudam até o commit
+            if (locais.somaLocais(estoque.getIdProduto()) > estoque.getQuantidadeEstoque()) {
+                throw new InvalidQuantidadeEstoqueException(ConstantUtils.ESTOQUE_ABAIXO_DOS_LOCAIS);
+            }
+            // Em produto particionado a quantidade absoluta vai para os buckets; o UPDATE já avançou a versão
+            if (!buckets.redefinirSaldo(estoque.getIdProduto(), estoque.getQuantidadeEstoque(), estoque.getVersao() + 1)) {
+                log.warn("Buckets do SKU {} alterados desde a versão {}", estoque.getSkuProduto(), estoque.getVersao());
+                throw new ConflitoVersaoException(ConstantUtils.CONFLITO_ATUALIZACAO);
+            }
+            outbox.registrar(TipoEventoEstoque.ATUALIZACAO, estoque.getIdProduto(), estoque.getSkuProduto(),
+                    null, estoque.getQuantidadeEstoque());
 
             log.info("Atualizando estoque para o SKU: {}", estoque.getSkuProduto());
-            return montaResponse(updated, "atualizar");
+            return montaResponse(EstoqueMapper.INSTANCE.domainToEntity(estoque), "atualizar");
+        } catch (ConflitoVersaoException | InvalidQuantidadeEstoqueException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Erro ao atualizar estoque", e);
             throw new ErroInternoException("Erro ao atualizar estoque: " + e.getMessage());
@@ -76,26 +270,80 @@ public class EstoqueRepositoryImpl implements EstoqueRepositoryPort {
     public Estoque buscarPorSku(String skuProduto) {
         EstoqueEntity estoqueEntity = estoqueRepositoryJPA.findBySkuProduto(skuProduto)
                 .orElseThrow(() -> new EstoqueNotFoundException(ConstantUtils.ESTOQUE_NAO_ENCONTRADO));
-        return EstoqueMapper.INSTANCE.entityToDomain(estoqueEntity);
+        return comSaldoDosBuckets(List.of(estoqueEntity)).get(0);
     }
 
     @Override
-    public List<EstoqueDto> listarTodos() {
+    public List<Estoque> buscarVarios(Collection<String> skusProduto, Collection<Integer> idsProduto) {
         try {
-            List<EstoqueEntity> estoques = estoqueRepositoryJPA.findAll();
-            return EstoqueMapper.INSTANCE.domainToDtoList(estoques);
+            return jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(SQL_BUSCA_VARIOS);
+                ps.setArray(1, con.createArrayOf("varchar", skusProduto.toArray()));
+                ps.setArray(2, con.createArrayOf("integer", idsProduto.toArray()));
+                return ps;
+            }, (rs, rowNum) -> new Estoque(
+                    rs.getInt("id_estoque"),
+                    rs.getInt("id_produto"),
+                    rs.getString("sku_produto"),
+                    rs.getInt("quantidade_estoque"),
+                    rs.getLong("versao")));
+        } catch (Exception e) {
+            log.error("Erro ao buscar {} SKU(s) e {} produto(s)", skusProduto.size(), idsProduto.size(), e);
+            throw new ErroInternoException("Erro ao buscar estoques no banco de dados: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public List<Estoque> listarPagina(Integer aposIdEstoque, int limite) {
+        try {
+            return comSaldoDosBuckets(estoqueRepositoryJPA.findByIdEstoqueGreaterThanOrderByIdEstoqueAsc(
+                    aposIdEstoque == null ? 0 : aposIdEstoque, Limit.of(limite)));
         } catch (Exception e) {
             log.error("Erro ao buscar estoques", e);
             throw new ErroInternoException("Erro ao buscar estoques no banco de dados: " + e.getMessage());
         }
     }
 
+    @Override
+    public List<Estoque> listarPaginaPorSku(String aPartirDoSku, int limite) {
+        try {
+            return jdbcTemplate.query(SQL_PAGINA_POR_SKU, (rs, rowNum) -> new Estoque(
+                    rs.getInt("id_estoque"),
+                    rs.getInt("id_produto"),
+                    rs.getString("sku_produto"),
+                    rs.getInt("quantidade_estoque"),
+                    rs.getLong("versao")), aPartirDoSku, limite);
+        } catch (Exception e) {
+            log.error("Erro ao buscar estoques a partir do SKU: {}", aPartirDoSku, e);
+            throw new ErroInternoException("Erro ao buscar estoques no banco de dados: " + e.getMessage());
+        }
+    }
+
+    // A transação mantém o autocommit desligado, sem o qual o driver do Postgres ignora o fetch size
+    // e carrega o resultado inteiro em memória
+    @Transactional
+    @Override
+    public void exportarEstoques(Consumer<EstoqueDto> consumidor) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SQL_EXPORTA);
+            ps.setFetchSize(fetchSizeExportacao);
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            EstoqueDto dto = new EstoqueDto();
+            dto.setIdProduto(rs.getInt("id_produto"));
+            dto.setSkuProduto(rs.getString("sku_produto"));
+            dto.setQuantidadeEstoque(rs.getInt("quantidade_estoque"));
+            consumidor.accept(dto);
+        });
+    }
+
     @Transactional
     @Override
     public void deletarEstoque(String skuProduto) {
-        estoqueRepositoryJPA.findBySkuProduto(skuProduto)
+        EstoqueEntity entity = estoqueRepositoryJPA.findBySkuProduto(skuProduto)
                 .orElseThrow(() -> new EstoqueNotFoundException(ConstantUtils.ESTOQUE_NAO_ENCONTRADO));
         estoqueRepositoryJPA.deleteBySkuProduto(skuProduto);
+        outbox.registrar(TipoEventoEstoque.REMOCAO, entity.getIdProduto(), skuProduto, null, null);
     }
 
     @Override
@@ -108,6 +356,384 @@ public class EstoqueRepositoryImpl implements EstoqueRepositoryPort {
         }
     }
 
+    @Transactional
+    @Override
+    public List<ItemEstoqueResultadoDTO> baixarEstoque(List<ItemEstoqueBaixaDTO> itens, String referencia) {
+        return baixarEstoque(itens, referencia, null);
+    }
+
+    /**
+     * Sem critério, produtos com estoque por local são alocados pela regra padrão.
+     */
+    @Transactional
+    @Override
+    public List<ItemEstoqueResultadoDTO> baixarEstoque(List<ItemEstoqueBaixaDTO> itens, String referencia,
+                                                       CriterioAlocacaoDTO criterio) {
+        try {
+            Map<Integer, Integer> retiradas = agrupaPorProduto(itens);
+            List<ItemEstoqueResultadoDTO> resultados = movimenta(retiradas, true);
+
+            for (ItemEstoqueResultadoDTO resultado : resultados) {
+                if (!resultado.isSucesso()) {
+                    // A exceção desfaz a transação: nenhum item do pedido é baixado
+                    log.warn("Estoque insuficiente para o produto ID: {}", resultado.getIdProduto());
+                    throw new EstoqueInsuficienteException(
+                            "Estoque insuficiente para o produto ID: " + resultado.getIdProduto(), resultados);
+                }
+            }
+            // Com o total baixado e a linha de estoque travada, escolhe de quais locais sai cada item
+            anexaAlocacoes(resultados, locais.alocar(retiradas, criterio));
+            outbox.registrar(TipoEventoEstoque.BAIXA, resultados, referencia);
+            return resultados;
+        } catch (EstoqueInsuficienteException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Erro ao baixar estoque", e);
+            throw new ErroInternoException("Erro ao baixar estoque: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Baixa de vários pedidos em uma transação ("group commit"): as linhas do lote são travadas uma única vez,
+     * cada pedido é decidido em memória na ordem recebida, com o mesmo tudo ou nada da baixa individual, e o
+     * total aceito de cada produto é gravado em um único UPDATE. Alocação por local e outbox continuam por pedido,
+     * com a referência de cada um.
+     * <p>
+     * Devolve os resultados na ordem dos pedidos; pedido recusado traz algum item com {@code sucesso = false} e
+     * pedido com produto que a trava do lote não alcançou (particionado ou sem estoque) volta {@code null}, para
+     * seguir pela baixa individual, que usa os buckets ou recusa o item.
+     */
+    @Transactional
+    @Override
+    public List<List<ItemEstoqueResultadoDTO>> baixarEstoqueAgrupado(List<BaixaEstoqueRequest> pedidos) {
+        try {
+            List<Map<Integer, Integer>> quantidades = pedidos.stream()
+                    .map(pedido -> agrupaPorProduto(pedido.getItens()))
+                    .toList();
+            Set<Integer> idsProduto = new TreeSet<>();
+            quantidades.forEach(quantidadePorProduto -> idsProduto.addAll(quantidadePorProduto.keySet()));
+
+            Map<Integer, Estoque> travados = new HashMap<>();
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(SQL_TRAVA_GRUPO);
+                ps.setArray(1, con.createArrayOf("integer", idsProduto.toArray()));
+                return ps;
+            }, (rs, rowNum) -> new Estoque(null, rs.getInt("id_produto"), rs.getString("sku_produto"),
+                    rs.getInt("quantidade_estoque"))).forEach(estoque -> travados.put(estoque.getIdProduto(), estoque));
+
+            Map<Integer, Integer> baixadoPorProduto = new TreeMap<>();
+            List<List<ItemEstoqueResultadoDTO>> resultados = new ArrayList<>();
+            for (Map<Integer, Integer> quantidadePorProduto : quantidades) {
+                resultados.add(decideNoGrupo(quantidadePorProduto, travados, baixadoPorProduto));
+            }
+            if (!baixadoPorProduto.isEmpty()) {
+                int linhasAfetadas = jdbcTemplate.update(con -> {
+                    PreparedStatement ps = con.prepareStatement(SQL_BAIXA_GRUPO);
+                    ps.setArray(1, con.createArrayOf("integer", baixadoPorProduto.keySet().toArray()));
+                    ps.setArray(2, con.createArrayOf("integer", baixadoPorProduto.values().toArray()));
+                    return ps;
+                });
+                if (linhasAfetadas != baixadoPorProduto.size()) {
+                    // Com as linhas travadas não deveria acontecer; desfaz o lote em vez de gravar parte dele
+                    throw new IllegalStateException("baixa em grupo afetou " + linhasAfetadas + " de "
+                            + baixadoPorProduto.size() + " produto(s)");
+                }
+            }
+
+            for (int i = 0; i < pedidos.size(); i++) {
+                List<ItemEstoqueResultadoDTO> resultado = resultados.get(i);
+                if (resultado != null && resultado.stream().allMatch(ItemEstoqueResultadoDTO::isSucesso)) {
+                    BaixaEstoqueRequest pedido = pedidos.get(i);
+                    anexaAlocacoes(resultado, locais.alocar(quantidades.get(i), pedido.getAlocacao()));
+                    outbox.registrar(TipoEventoEstoque.BAIXA, resultado, pedido.getReferencia());
+                }
+            }
+            return resultados;
+        } catch (Exception e) {
+            log.error("Erro ao baixar estoque em grupo", e);
+            throw new ErroInternoException("Erro ao baixar estoque em grupo: " + e.getMessage());
+        }
+    }
+
+    @Transactional
+    @Override
+    public List<ItemEstoqueResultadoDTO> restaurarEstoque(List<ItemEstoqueBaixaDTO> itens, String referencia) {
+        try {
+            List<ItemEstoqueResultadoDTO> resultados = movimenta(agrupaPorProduto(itens), false);
+
+            for (ItemEstoqueResultadoDTO resultado : resultados) {
+                if (!resultado.isSucesso()) {
+                    log.warn("Estoque não encontrado para o produto ID: {}", resultado.getIdProduto());
+                    throw new EstoqueNotFoundException("Estoque não encontrado para o produto ID: " + resultado.getIdProduto());
+                }
+            }
+            outbox.registrar(TipoEventoEstoque.RESTAURACAO, resultados, referencia);
+            return resultados;
+        } catch (EstoqueNotFoundException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Erro ao restaurar estoque", e);
+            throw new ErroInternoException("Erro ao restaurar estoque: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Soma o delta de cada SKU ao saldo em um único comando; se algum SKU não existir ou ficar negativo,
+     * a transação é desfeita e nenhum ajuste é aplicado.
+     */
+    @Transactional
+    @Override
+    public List<ItemEstoqueResultadoDTO> ajustarEstoque(List<ItemAjusteEstoqueDTO> itens, String referencia) {
+        try {
+            Map<String, Integer> deltaPorSku = new TreeMap<>();
+            for (ItemAjusteEstoqueDTO item : itens) {
+                deltaPorSku.merge(item.getSkuProduto(), item.getDelta(), Integer::sum);
+            }
+            String[] skus = deltaPorSku.keySet().toArray(new String[0]);
+            Integer[] deltas = deltaPorSku.values().toArray(new Integer[0]);
+
+            Map<Integer, Integer> particionados = new HashMap<>();
+            List<ItemEstoqueResultadoDTO> resultados = new ArrayList<>(jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(SQL_AJUSTA_LOTE);
+                ps.setArray(1, con.createArrayOf("varchar", skus));
+                ps.setArray(2, con.createArrayOf("integer", deltas));
+                return ps;
+            }, (rs, rowNum) -> {
+                Integer idProduto = rs.getObject("id_produto", Integer.class);
+                if (idProduto != null && rs.getInt("buckets") > 0) {
+                    particionados.put(idProduto, rs.getInt("buckets"));
+                }
+                return new ItemEstoqueResultadoDTO(idProduto, rs.getString("sku_produto"), rs.getInt("delta"),
+                        rs.getObject("quantidade_estoque", Integer.class), rs.getBoolean("sucesso"));
+            }));
+            if (!particionados.isEmpty()) {
+                resultados.replaceAll(resultado -> particionados.containsKey(resultado.getIdProduto())
+                        ? ajustaParticionado(resultado.getIdProduto(), resultado.getQuantidade(),
+                                particionados.get(resultado.getIdProduto()))
+                        : resultado);
+            }
+
+            for (ItemEstoqueResultadoDTO resultado : resultados) {
+                if (resultado.getIdProduto() == null) {
+                    log.warn("Estoque não encontrado para o SKU: {}", resultado.getSkuProduto());
+                    throw new EstoqueNotFoundException("Estoque não encontrado para o SKU: " + resultado.getSkuProduto());
+                }
+            }
+            for (ItemEstoqueResultadoDTO resultado : resultados) {
+                if (!resultado.isSucesso()) {
+                    log.warn("Estoque insuficiente para o SKU: {}", resultado.getSkuProduto());
+                    throw new EstoqueInsuficienteException(
+                            "Estoque insuficiente para o SKU: " + resultado.getSkuProduto(), resultados);
+                }
+            }
+            // Ajustes negativos saem dos locais pela regra padrão; os positivos ficam no saldo sem local
+            Map<Integer, Integer> retiradas = new TreeMap<>();
+            for (ItemEstoqueResultadoDTO resultado : resultados) {
+                if (resultado.getQuantidade() < 0) {
+                    retiradas.put(resultado.getIdProduto(), -resultado.getQuantidade());
+                }
+            }
+            anexaAlocacoes(resultados, locais.alocar(retiradas, null));
+            outbox.registrar(TipoEventoEstoque.AJUSTE, resultados, referencia);
+            return resultados;
+        } catch (EstoqueNotFoundException | EstoqueInsuficienteException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Erro ao ajustar estoque", e);
+            throw new ErroInternoException("Erro ao ajustar estoque: " + e.getMessage());
+        }
+    }
+
+    @Transactional
+    @Override
+    public List<String> importarEstoques(List<Estoque> estoques) {
+        try {
+            Integer[] idsProduto = estoques.stream().map(Estoque::getIdProduto).toArray(Integer[]::new);
+            String[] skus = estoques.stream().map(Estoque::getSkuProduto).toArray(String[]::new);
+            Integer[] quantidades = estoques.stream().map(Estoque::getQuantidadeEstoque).toArray(Integer[]::new);
+
+            List<EventoEstoque> inseridos = jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(SQL_IMPORTA_LOTE);
+                ps.setArray(1, con.createArrayOf("integer", idsProduto));
+                ps.setArray(2, con.createArrayOf("varchar", skus));
+                ps.setArray(3, con.createArrayOf("integer", quantidades));
+                return ps;
+            }, (rs, rowNum) -> new EventoEstoque(TipoEventoEstoque.CADASTRO, rs.getInt("id_produto"),
+                    rs.getString("sku_produto"), rs.getInt("quantidade_estoque"), rs.getInt("quantidade_estoque")));
+            outbox.registrar(TipoEventoEstoque.CADASTRO, inseridos);
+            return inseridos.stream().map(EventoEstoque::getSkuProduto).toList();
+        } catch (Exception e) {
+            log.error("Erro ao importar lote de estoques", e);
+            throw new ErroInternoException("Erro ao importar estoques: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean movimentacaoTransacional() {
+        return true;
+    }
+
+    @Transactional
+    @Override
+    public void particionarEstoque(Integer idProduto, int quantidadeBuckets) {
+        try {
+            // A baixa de produto particionado não trava a linha de estoque, que serializa as escritas nos locais
+            if (quantidadeBuckets > 0 && locais.possuiLocais(idProduto)) {
+                throw new InvalidQuantidadeEstoqueException(ConstantUtils.LOCAIS_COM_PARTICIONAMENTO);
+            }
+            if (!buckets.particionar(idProduto, quantidadeBuckets)) {
+                throw new EstoqueNotFoundException(ConstantUtils.ESTOQUE_NAO_ENCONTRADO);
+            }
+            log.info("Estoque do produto ID {} particionado em {} bucket(s)", idProduto, quantidadeBuckets);
+        } catch (EstoqueNotFoundException | InvalidQuantidadeEstoqueException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Erro ao particionar estoque", e);
+            throw new ErroInternoException("Erro ao particionar estoque: " + e.getMessage());
+        }
+    }
+
+    // Quem decide se o produto segue pela linha única ou pelos buckets é o próprio comando de movimentação:
+    // particionados voltam dele sem movimento e são movimentados nos buckets depois dos de linha única, mantendo
+    // a mesma ordem de travas entre pedidos concorrentes
+    private List<ItemEstoqueResultadoDTO> movimenta(Map<Integer, Integer> quantidadePorProduto, boolean baixa) {
+        if (quantidadePorProduto.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Integer, Integer> particionados = new HashMap<>();
+        List<ItemEstoqueResultadoDTO> resultados = new ArrayList<>(movimentacaoEmLote
+                ? movimentaEmLote(baixa ? SQL_BAIXA_LOTE : SQL_RESTAURA_LOTE, quantidadePorProduto, particionados)
+                : movimentaPorItem(quantidadePorProduto, baixa, particionados));
+        if (!particionados.isEmpty()) {
+            resultados.replaceAll(resultado -> {
+                Integer quantidadeBuckets = particionados.get(resultado.getIdProduto());
+                if (quantidadeBuckets == null) {
+                    return resultado;
+                }
+                int idProduto = resultado.getIdProduto();
+                int quantidade = resultado.getQuantidade();
+                boolean sucesso = baixa
+                        ? buckets.baixar(idProduto, quantidade)
+                        : buckets.restaurar(idProduto, quantidade, quantidadeBuckets);
+                return buckets.resultado(idProduto, quantidade, sucesso);
+            });
+        }
+        return resultados;
+    }
+
+    private List<ItemEstoqueResultadoDTO> movimentaEmLote(String sql, Map<Integer, Integer> quantidadePorProduto,
+                                                          Map<Integer, Integer> particionados) {
+        Integer[] idsProduto = quantidadePorProduto.keySet().toArray(new Integer[0]);
+        Integer[] quantidades = quantidadePorProduto.values().toArray(new Integer[0]);
+
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setArray(1, con.createArrayOf("integer", idsProduto));
+            ps.setArray(2, con.createArrayOf("integer", quantidades));
+            return ps;
+        }, (rs, rowNum) -> {
+            boolean sucesso = rs.getBoolean("sucesso");
+            if (!sucesso && rs.getInt("buckets") > 0) {
+                particionados.put(rs.getInt("id_produto"), rs.getInt("buckets"));
+            }
+            return new ItemEstoqueResultadoDTO(
+                    rs.getInt("id_produto"),
+                    rs.getString("sku_produto"),
+                    rs.getInt("quantidade"),
+                    rs.getObject("quantidade_estoque", Integer.class),
+                    sucesso);
+        });
+    }
+
+    // Confere o pedido contra o saldo que sobrou dos anteriores no lote e, se todos os itens couberem, desconta
+    private List<ItemEstoqueResultadoDTO> decideNoGrupo(Map<Integer, Integer> quantidadePorProduto,
+                                                        Map<Integer, Estoque> travados,
+                                                        Map<Integer, Integer> baixadoPorProduto) {
+        // Fora das linhas travadas: particionado ou sem estoque, decidido pela baixa individual
+        if (!travados.keySet().containsAll(quantidadePorProduto.keySet())) {
+            return null;
+        }
+        List<ItemEstoqueResultadoDTO> resultado = new ArrayList<>();
+        boolean atendido = true;
+        for (Map.Entry<Integer, Integer> item : quantidadePorProduto.entrySet()) {
+            Estoque estoque = travados.get(item.getKey());
+            boolean sucesso = estoque != null && estoque.getQuantidadeEstoque() >= item.getValue();
+            atendido &= sucesso;
+            resultado.add(new ItemEstoqueResultadoDTO(item.getKey(), estoque == null ? null : estoque.getSkuProduto(),
+                    item.getValue(), sucesso ? estoque.getQuantidadeEstoque() - item.getValue() : null, sucesso));
+        }
+        if (atendido) {
+            quantidadePorProduto.forEach((idProduto, quantidade) -> {
+                Estoque estoque = travados.get(idProduto);
+                estoque.setQuantidadeEstoque(estoque.getQuantidadeEstoque() - quantidade);
+                baixadoPorProduto.merge(idProduto, quantidade, Integer::sum);
+            });
+        } else {
+            log.warn("Estoque insuficiente para pedido no lote de baixa em grupo: {}", quantidadePorProduto);
+        }
+        return resultado;
+    }
+
+    private ItemEstoqueResultadoDTO ajustaParticionado(int idProduto, int delta, int quantidadeBuckets) {
+        boolean sucesso = delta < 0
+                ? buckets.baixar(idProduto, -delta)
+                : buckets.restaurar(idProduto, delta, quantidadeBuckets);
+        return buckets.resultado(idProduto, delta, sucesso);
+    }
+
+    // Os UPDATEs por item também ignoram produtos particionados; só o item recusado relê estoque.buckets
+    private List<ItemEstoqueResultadoDTO> movimentaPorItem(Map<Integer, Integer> quantidadePorProduto, boolean baixa,
+                                                           Map<Integer, Integer> particionados) {
+        List<ItemEstoqueResultadoDTO> resultados = new ArrayList<>();
+        for (Map.Entry<Integer, Integer> item : quantidadePorProduto.entrySet()) {
+            int linhasAfetadas = baixa
+                    ? estoqueRepositoryJPA.baixarEstoque(item.getKey(), item.getValue())
+                    : estoqueRepositoryJPA.restaurarEstoque(item.getKey(), item.getValue());
+            if (linhasAfetadas == 0) {
+                int quantidadeBuckets = buckets.quantidadeBuckets(item.getKey());
+                if (quantidadeBuckets > 0) {
+                    particionados.put(item.getKey(), quantidadeBuckets);
+                }
+            }
+            resultados.add(new ItemEstoqueResultadoDTO(item.getKey(), null, item.getValue(), null, linhasAfetadas > 0));
+        }
+        return resultados;
+    }
+
+    // Soma itens repetidos e ordena por produto para que pedidos concorrentes travem as linhas na mesma ordem
+    private Map<Integer, Integer> agrupaPorProduto(List<ItemEstoqueBaixaDTO> itens) {
+        Map<Integer, Integer> quantidadePorProduto = new TreeMap<>();
+        for (ItemEstoqueBaixaDTO item : itens) {
+            quantidadePorProduto.merge(item.getIdProduto(), item.getQuantidade(), Integer::sum);
+        }
+        return quantidadePorProduto;
+    }
+
+    private void anexaAlocacoes(List<ItemEstoqueResultadoDTO> resultados,
+                                Map<Integer, List<AlocacaoEstoqueDTO>> alocacoes) {
+        if (!alocacoes.isEmpty()) {
+            resultados.forEach(resultado -> resultado.setAlocacoes(alocacoes.get(resultado.getIdProduto())));
+        }
+    }
+
+    private List<Estoque> comSaldoDosBuckets(List<EstoqueEntity> entidades) {
+        Map<Integer, EstoqueBucketRepository.SaldoBuckets> somas = buckets.somar(entidades.stream()
+                .filter(entity -> entity.getBuckets() != null && entity.getBuckets() > 0)
+                .map(EstoqueEntity::getIdProduto)
+                .toList());
+        return entidades.stream()
+                .map(entity -> {
+                    Estoque estoque = EstoqueMapper.INSTANCE.entityToDomain(entity);
+                    EstoqueBucketRepository.SaldoBuckets soma = somas.get(entity.getIdProduto());
+                    if (soma != null) {
+                        estoque.setQuantidadeEstoque(estoque.getQuantidadeEstoque() + soma.quantidade());
+                        estoque.setVersao(estoque.getVersao() + soma.versao());
+                    }
+                    return estoque;
+                })
+                .toList();
+    }
+
     private ResponseDto montaResponse(EstoqueEntity estoqueEntity, String tipoAcao) {
         ResponseDto response = new ResponseDto();
 
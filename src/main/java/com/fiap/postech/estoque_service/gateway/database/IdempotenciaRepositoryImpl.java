@@ -0,0 +1,93 @@
+package com.fiap.postech.estoque_service.gateway.database;
+
+import com.fiap.postech.estoque_service.domain.exceptions.ErroInternoException;
+import com.fiap.postech.estoque_service.domain.model.RegistroIdempotencia;
+import com.fiap.postech.estoque_service.gateway.port.IdempotenciaRepositoryPort;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+@Slf4j
+@Repository
+public class IdempotenciaRepositoryImpl implements IdempotenciaRepositoryPort {
+
+    private static final String EM_PROCESSAMENTO = "EM_PROCESSAMENTO";
+    private static final String CONCLUIDO = "CONCLUIDO";
+
+    // Só uma requisição consegue inserir a chave; as concorrentes passam a ler o registro existente. Uma reserva
+    // EM_PROCESSAMENTO mais antiga que o lease é de um processo que caiu antes de concluir e pode ser retomada,
+    // desde que pela mesma requisição
+    private static final String SQL_RESERVA = """
+            INSERT INTO idempotencia (chave, operacao, status, hash_requisicao, criado_em) VALUES (?, ?, ?, ?, ?)
+            ON CONFLICT (chave, operacao) DO UPDATE SET criado_em = EXCLUDED.criado_em
+            WHERE idempotencia.status = EXCLUDED.status
+              AND idempotencia.criado_em < ?
+              AND idempotencia.hash_requisicao IS NOT DISTINCT FROM EXCLUDED.hash_requisicao
+            """;
+    private static final String SQL_BUSCA = """
+            SELECT chave, operacao, status, resposta, hash_requisicao FROM idempotencia
+            WHERE chave = ? AND operacao = ?
+            """;
+    // Conclusão e liberação valem só para a tentativa dona do lease: se outra retomou a chave, o criado_em mudou
+    private static final String SQL_CONCLUI = """
+            UPDATE idempotencia SET status = ?, resposta = ?
+            WHERE chave = ? AND operacao = ? AND status = ? AND criado_em = ?
+            """;
+    private static final String SQL_REMOVE =
+            "DELETE FROM idempotencia WHERE chave = ? AND operacao = ? AND status = ? AND criado_em = ?";
+    private static final String SQL_REMOVE_ANTIGAS = "DELETE FROM idempotencia WHERE criado_em < ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public LocalDateTime reservarChave(String chave, String operacao, String hashRequisicao,
+                                       LocalDateTime retomarAntesDe) {
+        // O lease é comparado por igualdade depois; a coluna guarda microssegundos
+        LocalDateTime reservadaEm = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        try {
+            int linhas = jdbcTemplate.update(SQL_RESERVA, chave, operacao, EM_PROCESSAMENTO, hashRequisicao,
+                    Timestamp.valueOf(reservadaEm), new SqlParameterValue(Types.TIMESTAMP,
+                            retomarAntesDe == null ? null : Timestamp.valueOf(retomarAntesDe)));
+            return linhas > 0 ? reservadaEm : null;
+        } catch (Exception e) {
+            log.error("Erro ao reservar chave de idempotência: {}", chave, e);
+            throw new ErroInternoException("Erro ao reservar chave de idempotência: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public RegistroIdempotencia buscar(String chave, String operacao) {
+        List<RegistroIdempotencia> registros = jdbcTemplate.query(SQL_BUSCA, (rs, rowNum) -> new RegistroIdempotencia(
+                rs.getString("chave"),
+                rs.getString("operacao"),
+                CONCLUIDO.equals(rs.getString("status")),
+                rs.getString("resposta"),
+                rs.getString("hash_requisicao")), chave, operacao);
+        return registros.isEmpty() ? null : registros.get(0);
+    }
+
+    @Override
+    public boolean registrarResposta(String chave, String operacao, String resposta, LocalDateTime reservadaEm) {
+        return jdbcTemplate.update(SQL_CONCLUI, CONCLUIDO, resposta, chave, operacao, EM_PROCESSAMENTO,
+                Timestamp.valueOf(reservadaEm)) > 0;
+    }
+
+    @Override
+    public boolean liberarChave(String chave, String operacao, LocalDateTime reservadaEm) {
+        return jdbcTemplate.update(SQL_REMOVE, chave, operacao, EM_PROCESSAMENTO, Timestamp.valueOf(reservadaEm)) > 0;
+    }
+
+    @Override
+    public int removerAnterioresA(LocalDateTime limite) {
+        return jdbcTemplate.update(SQL_REMOVE_ANTIGAS, Timestamp.valueOf(limite));
+    }
+}
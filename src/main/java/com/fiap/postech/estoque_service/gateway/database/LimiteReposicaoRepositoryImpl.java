@@ -0,0 +1,64 @@
+package com.fiap.postech.estoque_service.gateway.database;
+
+import com.fiap.postech.estoque_service.domain.exceptions.ErroInternoException;
+import com.fiap.postech.estoque_service.domain.exceptions.internal.EstoqueNotFoundException;
+import com.fiap.postech.estoque_service.domain.model.LimiteReposicao;
+import com.fiap.postech.estoque_service.gateway.port.LimiteReposicaoRepositoryPort;
+import com.fiap.postech.estoque_service.utils.ConstantUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Coluna {@code estoque.limite_reposicao}. O limite não é quantidade: alterá-lo não incrementa a versão do estoque
+ * nem gera evento no outbox.
+ */
+@Slf4j
+@Repository
+public class LimiteReposicaoRepositoryImpl implements LimiteReposicaoRepositoryPort {
+
+    private static final String SQL_DEFINE_LIMITE = "UPDATE estoque SET limite_reposicao = ? WHERE id_produto = ?";
+
+    // Só os SKUs com limite, pelo índice parcial idx_estoque_limite_reposicao
+    private static final String SQL_COM_LIMITE = """
+            SELECT e.id_produto, e.sku_produto, e.limite_reposicao, e.quantidade_estoque + CASE WHEN e.buckets > 0
+                       THEN (SELECT coalesce(sum(b.quantidade), 0) FROM estoque_bucket b WHERE b.id_produto = e.id_produto)
+                       ELSE 0 END AS quantidade_estoque
+            FROM estoque e
+            WHERE e.limite_reposicao IS NOT NULL
+            """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void definirLimite(Integer idProduto, Integer limiteReposicao) {
+        int linhasAfetadas;
+        try {
+            linhasAfetadas = jdbcTemplate.update(SQL_DEFINE_LIMITE, limiteReposicao, idProduto);
+        } catch (Exception e) {
+            log.error("Erro ao definir limite de reposição do produto ID {}", idProduto, e);
+            throw new ErroInternoException("Erro ao definir limite de reposição: " + e.getMessage());
+        }
+        if (linhasAfetadas == 0) {
+            throw new EstoqueNotFoundException(ConstantUtils.ESTOQUE_NAO_ENCONTRADO);
+        }
+    }
+
+    @Override
+    public List<LimiteReposicao> listarComLimite() {
+        try {
+            return jdbcTemplate.query(SQL_COM_LIMITE, (rs, rowNum) -> new LimiteReposicao(
+                    rs.getInt("id_produto"),
+                    rs.getString("sku_produto"),
+                    rs.getInt("limite_reposicao"),
+                    rs.getInt("quantidade_estoque")));
+        } catch (Exception e) {
+            log.error("Erro ao listar limites de reposição", e);
+            throw new ErroInternoException("Erro ao listar limites de reposição: " + e.getMessage());
+        }
+    }
+}
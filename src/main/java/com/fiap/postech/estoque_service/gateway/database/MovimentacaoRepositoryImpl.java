@@ -0,0 +1,156 @@
+package com.fiap.postech.estoque_service.gateway.database;
+
+import com.fiap.postech.estoque_service.domain.exceptions.ErroInternoException;
+import com.fiap.postech.estoque_service.domain.model.EventoEstoque;
+import com.fiap.postech.estoque_service.domain.model.MovimentacaoEstoque;
+import com.fiap.postech.estoque_service.domain.model.TipoEventoEstoque;
+import com.fiap.postech.estoque_service.gateway.port.MovimentacaoRepositoryPort;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Diário {@code movimentacao_estoque}: só recebe INSERT, feito pelo relay do outbox com o lote inteiro em um
+ * único comando. A tabela é particionada por mês de {@code registrado_em}; as consultas sempre filtram pelo
+ * período para o Postgres descartar as partições fora dele.
+ */
+@Slf4j
+@Repository
+public class MovimentacaoRepositoryImpl implements MovimentacaoRepositoryPort {
+
+    // Copia o lote direto do outbox, sem trafegar os eventos de volta. O id do evento torna a cópia
+    // idempotente: um lote reenviado pelo relay não duplica linhas. Eventos da descarga do ledger não
+    // trazem SKU, que vem do estoque
+    private static final String SQL_REGISTRA = """
+            INSERT INTO movimentacao_estoque (id, registrado_em, id_produto, sku_produto, motivo, delta,
+                                              quantidade_estoque, referencia)
+            SELECT o.id, o.criado_em, o.id_produto, coalesce(o.sku_produto, e.sku_produto), o.tipo, o.quantidade,
+                   o.quantidade_estoque, o.referencia
+            FROM outbox_estoque o
+            LEFT JOIN estoque e ON e.id_produto = o.id_produto
+            WHERE o.id = ANY(?)
+            ON CONFLICT DO NOTHING
+            """;
+
+    private static final String COLUNAS = """
+            SELECT id, registrado_em, id_produto, sku_produto, motivo, delta, quantidade_estoque, referencia
+            FROM movimentacao_estoque
+            """;
+
+    private static final String SQL_PAGINA_PERIODO = COLUNAS + """
+            WHERE registrado_em >= ? AND registrado_em < ? AND id > ?
+            ORDER BY id
+            LIMIT ?
+            """;
+
+    private static final String SQL_PAGINA_SKU = COLUNAS + """
+            WHERE sku_produto = ? AND registrado_em >= ? AND registrado_em < ? AND id > ?
+            ORDER BY id
+            LIMIT ?
+            """;
+
+    private static final String SQL_PARTICAO_EXISTE = "SELECT to_regclass(?) IS NOT NULL";
+
+    // Trava a partição padrão antes de conferir de novo: outra instância pode estar criando o mesmo mês
+    private static final String SQL_TRAVA_PADRAO = "LOCK TABLE movimentacao_estoque_padrao IN ACCESS EXCLUSIVE MODE";
+
+    // Um mês sem partição grava na padrão, e o Postgres recusa criar a partição enquanto a padrão tiver linhas
+    // do intervalo. A nova partição é montada como tabela comum, recebe essas linhas e só então é anexada
+    private static final String SQL_CRIA_TABELA_PARTICAO =
+            "CREATE TABLE %s (LIKE movimentacao_estoque INCLUDING DEFAULTS INCLUDING CONSTRAINTS)";
+
+    private static final String SQL_MOVE_DA_PADRAO = """
+            WITH movidas AS (
+                DELETE FROM movimentacao_estoque_padrao
+                WHERE registrado_em >= ? AND registrado_em < ?
+                RETURNING *
+            )
+            INSERT INTO %s SELECT * FROM movidas
+            """;
+
+    private static final String SQL_ANEXA_PARTICAO =
+            "ALTER TABLE movimentacao_estoque ATTACH PARTITION %s FOR VALUES FROM ('%s') TO ('%s')";
+
+    private static final DateTimeFormatter SUFIXO_PARTICAO = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private static final RowMapper<MovimentacaoEstoque> MOVIMENTACAO = (rs, rowNum) -> new MovimentacaoEstoque(
+            rs.getLong("id"),
+            rs.getTimestamp("registrado_em").toLocalDateTime(),
+            rs.getInt("id_produto"),
+            rs.getString("sku_produto"),
+            TipoEventoEstoque.valueOf(rs.getString("motivo")),
+            rs.getObject("delta", Integer.class),
+            rs.getObject("quantidade_estoque", Integer.class),
+            rs.getString("referencia"));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Deve rodar na transação que trava os eventos no outbox, antes de eles serem removidos pela limpeza.
+     */
+    @Override
+    public void registrar(List<EventoEstoque> eventos) {
+        if (eventos.isEmpty()) {
+            return;
+        }
+        Long[] ids = eventos.stream().map(EventoEstoque::getId).toArray(Long[]::new);
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(SQL_REGISTRA);
+            ps.setArray(1, con.createArrayOf("bigint", ids));
+            return ps;
+        });
+    }
+
+    @Override
+    public List<MovimentacaoEstoque> listarPagina(String skuProduto, LocalDateTime de, LocalDateTime ate,
+                                                  Long aposId, int limite) {
+        try {
+            long cursor = aposId == null ? 0L : aposId;
+            if (skuProduto == null) {
+                return jdbcTemplate.query(SQL_PAGINA_PERIODO, MOVIMENTACAO, de, ate, cursor, limite);
+            }
+            return jdbcTemplate.query(SQL_PAGINA_SKU, MOVIMENTACAO, skuProduto, de, ate, cursor, limite);
+        } catch (Exception e) {
+            log.error("Erro ao buscar movimentações de estoque", e);
+            throw new ErroInternoException("Erro ao buscar movimentações de estoque: " + e.getMessage());
+        }
+    }
+
+    @Transactional
+    @Override
+    public void criarParticao(YearMonth mes) {
+        // DDL não aceita parâmetros; os valores vêm de um YearMonth, nunca da requisição
+        String particao = "movimentacao_estoque_" + mes.format(SUFIXO_PARTICAO);
+        if (particaoExiste(particao)) {
+            return;
+        }
+        jdbcTemplate.execute(SQL_TRAVA_PADRAO);
+        if (particaoExiste(particao)) {
+            return;
+        }
+        LocalDate inicio = mes.atDay(1);
+        LocalDate fim = mes.plusMonths(1).atDay(1);
+        jdbcTemplate.execute(SQL_CRIA_TABELA_PARTICAO.formatted(particao));
+        int movidas = jdbcTemplate.update(SQL_MOVE_DA_PADRAO.formatted(particao), inicio.atStartOfDay(),
+                fim.atStartOfDay());
+        jdbcTemplate.execute(SQL_ANEXA_PARTICAO.formatted(particao, inicio, fim));
+        if (movidas > 0) {
+            log.warn("{} movimentação(ões) de {} movidas da partição padrão para {}", movidas, mes, particao);
+        }
+    }
+
+    private boolean particaoExiste(String particao) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(SQL_PARTICAO_EXISTE, Boolean.class, particao));
+    }
+}
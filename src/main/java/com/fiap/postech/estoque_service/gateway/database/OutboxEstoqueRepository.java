@@ -0,0 +1,111 @@
+package com.fiap.postech.estoque_service.gateway.database;
+
+import com.fiap.postech.estoque_service.api.dto.ItemEstoqueResultadoDTO;
+import com.fiap.postech.estoque_service.domain.model.EventoEstoque;
+import com.fiap.postech.estoque_service.domain.model.TipoEventoEstoque;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Tabela {@code outbox_estoque}. Os métodos de registro devem ser chamados dentro da transação que movimenta
+ * o estoque, para o evento existir se e somente se a movimentação for confirmada.
+ */
+@Repository
+public class OutboxEstoqueRepository {
+
+    // Um único INSERT por movimentação, qualquer que seja a quantidade de itens
+    private static final String SQL_REGISTRA = """
+            INSERT INTO outbox_estoque (tipo, id_produto, sku_produto, quantidade, quantidade_estoque, referencia)
+            SELECT ?, * FROM unnest(?::int[], ?::varchar[], ?::int[], ?::int[], ?::varchar[])
+            """;
+
+    // SKIP LOCKED: mais de uma instância pode rodar o relay sem publicar o mesmo lote duas vezes
+    private static final String SQL_PENDENTES = """
+            SELECT id, tipo, id_produto, sku_produto, quantidade, quantidade_estoque, referencia, criado_em
+            FROM outbox_estoque
+            WHERE publicado_em IS NULL
+            ORDER BY id
+            LIMIT ?
+            FOR UPDATE SKIP LOCKED
+            """;
+
+    private static final String SQL_MARCA_PUBLICADOS =
+            "UPDATE outbox_estoque SET publicado_em = now() WHERE id = ANY(?)";
+
+    private static final String SQL_REMOVE_PUBLICADOS =
+            "DELETE FROM outbox_estoque WHERE publicado_em IS NOT NULL AND publicado_em < ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public void registrar(TipoEventoEstoque tipo, Collection<ItemEstoqueResultadoDTO> resultados,
+                          String referencia) {
+        registrar(tipo, resultados.stream()
+                .map(item -> new EventoEstoque(tipo, item.getIdProduto(), item.getSkuProduto(),
+                        tipo == TipoEventoEstoque.BAIXA ? -item.getQuantidade() : item.getQuantidade(),
+                        item.getQuantidadeEstoque(), referencia))
+                .toList());
+    }
+
+    public void registrar(TipoEventoEstoque tipo, Integer idProduto, String skuProduto, Integer quantidade,
+                          Integer quantidadeEstoque) {
+        registrar(tipo, List.of(new EventoEstoque(tipo, idProduto, skuProduto, quantidade, quantidadeEstoque)));
+    }
+
+    public void registrar(TipoEventoEstoque tipo, List<EventoEstoque> eventos) {
+        if (eventos.isEmpty()) {
+            return;
+        }
+        Integer[] idsProduto = eventos.stream().map(EventoEstoque::getIdProduto).toArray(Integer[]::new);
+        String[] skus = eventos.stream().map(EventoEstoque::getSkuProduto).toArray(String[]::new);
+        Integer[] quantidades = eventos.stream().map(EventoEstoque::getQuantidade).toArray(Integer[]::new);
+        Integer[] saldos = eventos.stream().map(EventoEstoque::getQuantidadeEstoque).toArray(Integer[]::new);
+        String[] referencias = eventos.stream().map(EventoEstoque::getReferencia).toArray(String[]::new);
+
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(SQL_REGISTRA);
+            ps.setString(1, tipo.name());
+            ps.setArray(2, con.createArrayOf("integer", idsProduto));
+            ps.setArray(3, con.createArrayOf("varchar", skus));
+            ps.setArray(4, con.createArrayOf("integer", quantidades));
+            ps.setArray(5, con.createArrayOf("integer", saldos));
+            ps.setArray(6, con.createArrayOf("varchar", referencias));
+            return ps;
+        });
+    }
+
+    /**
+     * Trava e devolve os próximos eventos não publicados, em ordem de id. Deve rodar na mesma transação
+     * que {@link #marcarPublicados}.
+     */
+    public List<EventoEstoque> travarPendentes(int limite) {
+        return jdbcTemplate.query(SQL_PENDENTES, (rs, rowNum) -> new EventoEstoque(
+                rs.getLong("id"),
+                TipoEventoEstoque.valueOf(rs.getString("tipo")),
+                rs.getInt("id_produto"),
+                rs.getString("sku_produto"),
+                rs.getObject("quantidade", Integer.class),
+                rs.getObject("quantidade_estoque", Integer.class),
+                rs.getString("referencia"),
+                rs.getTimestamp("criado_em").toLocalDateTime()), limite);
+    }
+
+    public void marcarPublicados(List<EventoEstoque> eventos) {
+        Long[] ids = eventos.stream().map(EventoEstoque::getId).toArray(Long[]::new);
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(SQL_MARCA_PUBLICADOS);
+            ps.setArray(1, con.createArrayOf("bigint", ids));
+            return ps;
+        });
+    }
+
+    public int removerPublicadosAntesDe(LocalDateTime limite) {
+        return jdbcTemplate.update(SQL_REMOVE_PUBLICADOS, limite);
+    }
+}
@@ -0,0 +1,125 @@
+package com.fiap.postech.estoque_service.gateway.database;
+
+import com.fiap.postech.estoque_service.api.dto.ItemEstoqueBaixaDTO;
+import com.fiap.postech.estoque_service.api.mapper.ReservaMapper;
+import com.fiap.postech.estoque_service.domain.exceptions.ErroInternoException;
+import com.fiap.postech.estoque_service.domain.exceptions.internal.ReservaNotFoundException;
+import com.fiap.postech.estoque_service.domain.model.Reserva;
+import com.fiap.postech.estoque_service.domain.model.StatusReserva;
+import com.fiap.postech.estoque_service.gateway.database.entity.ReservaEntity;
+import com.fiap.postech.estoque_service.gateway.database.repository.ReservaItemRepositoryJPA;
+import com.fiap.postech.estoque_service.gateway.database.repository.ReservaRepositoryJPA;
+import com.fiap.postech.estoque_service.gateway.port.ReservaRepositoryPort;
+import com.fiap.postech.estoque_service.utils.ConstantUtils;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Slf4j
+@Repository
+public class ReservaRepositoryImpl implements ReservaRepositoryPort {
+
+    private static final String SQL_EXPIRA = """
+            UPDATE reserva SET status = 'EXPIRADA'
+            WHERE id_reserva = ANY(?) AND status = 'ATIVA' AND expira_em <= ?
+            RETURNING id_reserva
+            """;
+
+    // Vencidas de qualquer instância, em ordem de vencimento (idx_reserva_ativa); SKIP LOCKED deixa varreduras
+    // simultâneas pegarem lotes diferentes em vez de esperarem umas pelas outras
+    private static final String SQL_EXPIRA_ATRASADAS = """
+            UPDATE reserva SET status = 'EXPIRADA'
+            WHERE status = 'ATIVA' AND id_reserva IN (
+                SELECT id_reserva FROM reserva
+                WHERE status = 'ATIVA' AND expira_em < ?
+                ORDER BY expira_em
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED)
+            RETURNING id_reserva
+            """;
+
+    @Autowired
+    private ReservaRepositoryJPA reservaRepositoryJPA;
+
+    @Autowired
+    private ReservaItemRepositoryJPA reservaItemRepositoryJPA;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Transactional
+    @Override
+    public Reserva salvar(Reserva reserva) {
+        try {
+            ReservaEntity entity = ReservaMapper.INSTANCE.domainToEntity(reserva);
+            ReservaEntity saved = reservaRepositoryJPA.save(entity);
+            log.info("Reserva {} criada com {} item(ns)", saved.getIdReserva(), saved.getItens().size());
+            return ReservaMapper.INSTANCE.entityToDomain(saved);
+        } catch (Exception e) {
+            log.error("Erro ao salvar reserva", e);
+            throw new ErroInternoException("Erro ao salvar reserva: " + e.getMessage());
+        }
+    }
+
+    @Transactional
+    @Override
+    public Reserva buscarPorId(UUID idReserva) {
+        ReservaEntity entity = reservaRepositoryJPA.findById(idReserva)
+                .orElseThrow(() -> new ReservaNotFoundException(ConstantUtils.RESERVA_NAO_ENCONTRADA));
+        return ReservaMapper.INSTANCE.entityToDomain(entity);
+    }
+
+    @Transactional
+    @Override
+    public boolean confirmar(UUID idReserva, LocalDateTime agora) {
+        return reservaRepositoryJPA.confirmar(idReserva, StatusReserva.CONFIRMADA, agora) > 0;
+    }
+
+    @Transactional
+    @Override
+    public boolean liberar(UUID idReserva) {
+        return reservaRepositoryJPA.liberar(idReserva, StatusReserva.LIBERADA) > 0;
+    }
+
+    @Transactional
+    @Override
+    public List<UUID> expirar(List<UUID> idsReserva, LocalDateTime agora) {
+        try {
+            UUID[] ids = idsReserva.toArray(new UUID[0]);
+            return jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(SQL_EXPIRA);
+                ps.setArray(1, con.createArrayOf("uuid", ids));
+                ps.setTimestamp(2, Timestamp.valueOf(agora));
+                return ps;
+            }, (rs, rowNum) -> rs.getObject("id_reserva", UUID.class));
+        } catch (Exception e) {
+            log.error("Erro ao expirar reservas", e);
+            throw new ErroInternoException("Erro ao expirar reservas: " + e.getMessage());
+        }
+    }
+
+    @Transactional
+    @Override
+    public List<UUID> expirarAtrasadas(LocalDateTime vencidasAntesDe, int limite) {
+        try {
+            return jdbcTemplate.query(SQL_EXPIRA_ATRASADAS, (rs, rowNum) -> rs.getObject("id_reserva", UUID.class),
+                    Timestamp.valueOf(vencidasAntesDe), limite);
+        } catch (Exception e) {
+            log.error("Erro ao expirar reservas atrasadas", e);
+            throw new ErroInternoException("Erro ao expirar reservas: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public List<ItemEstoqueBaixaDTO> buscarItens(List<UUID> idsReserva) {
+        return ReservaMapper.INSTANCE.itemEntityToDtoList(reservaItemRepositoryJPA.findByIdReservaIn(idsReserva));
+    }
+}
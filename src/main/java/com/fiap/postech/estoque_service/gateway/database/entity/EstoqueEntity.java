@@ -25,4 +25,13 @@ public class EstoqueEntity {
 
     @Column(name = "quantidade_estoque", nullable = false)
     private Integer quantidadeEstoque;
+
+    // Mantido pelo EstoqueBucketRepository; 0 quando o saldo está todo em quantidadeEstoque
+    @Column(name = "buckets", insertable = false, updatable = false)
+    private Integer buckets;
+
+    // Incrementada também pelos UPDATEs nativos de movimentação, para a atualização manual detectar conflitos
+    @Version
+    @Column(name = "versao", nullable = false)
+    private Long versao;
 }
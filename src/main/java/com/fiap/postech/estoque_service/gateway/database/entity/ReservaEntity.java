@@ -0,0 +1,39 @@
+package com.fiap.postech.estoque_service.gateway.database.entity;
+
+import com.fiap.postech.estoque_service.domain.model.StatusReserva;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "reserva")
+@Data
+public class ReservaEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(name = "id_reserva")
+    private UUID idReserva;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private StatusReserva status;
+
+    @Column(name = "expira_em", nullable = false)
+    private LocalDateTime expiraEm;
+
+    @Column(name = "criado_em", nullable = false)
+    private LocalDateTime criadoEm;
+
+    @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
+    @JoinColumn(name = "id_reserva", nullable = false)
+    private List<ReservaItemEntity> itens = new ArrayList<>();
+}
@@ -0,0 +1,30 @@
+package com.fiap.postech.estoque_service.gateway.database.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "reserva_item")
+@Data
+public class ReservaItemEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id_reserva_item")
+    private Integer idReservaItem;
+
+    @Column(name = "id_reserva", insertable = false, updatable = false)
+    private UUID idReserva; // FK para Reserva
+
+    @Column(name = "id_produto", nullable = false)
+    private Integer idProduto;
+
+    @Column(name = "quantidade", nullable = false)
+    private Integer quantidade;
+}
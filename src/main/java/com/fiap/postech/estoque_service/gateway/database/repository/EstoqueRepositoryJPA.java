@@ -1,9 +1,15 @@
 package com.fiap.postech.estoque_service.gateway.database.repository;
 
 import com.fiap.postech.estoque_service.gateway.database.entity.EstoqueEntity;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -14,7 +20,33 @@ public interface EstoqueRepositoryJPA extends JpaRepository<EstoqueEntity, Integ
 
     Optional<EstoqueEntity> findBySkuProduto(String skuProduto);
 
+    List<EstoqueEntity> findBySkuProdutoIn(Collection<String> skusProduto);
+
     void deleteBySkuProduto(String skuProduto);
 
     boolean existsBySkuProduto(String skuProduto);
+
+    // Paginação por cursor: usa o índice da PK em vez de OFFSET, custo constante em qualquer página
+    List<EstoqueEntity> findByIdEstoqueGreaterThanOrderByIdEstoqueAsc(Integer idEstoque, Limit limite);
+
+    // Baixa condicional: só decrementa se houver saldo suficiente (retorna 0 linhas caso contrário). Produtos
+    // particionados também voltam 0 linhas e seguem pelos buckets
+    @Modifying
+    @Query(value = "UPDATE estoque SET quantidade_estoque = quantidade_estoque - :quantidade, versao = versao + 1 " +
+            "WHERE id_produto = :idProduto AND buckets = 0 AND quantidade_estoque >= :quantidade", nativeQuery = true)
+    int baixarEstoque(@Param("idProduto") Integer idProduto, @Param("quantidade") Integer quantidade);
+
+    @Modifying
+    @Query(value = "UPDATE estoque SET quantidade_estoque = quantidade_estoque + :quantidade, versao = versao + 1 " +
+            "WHERE id_produto = :idProduto AND buckets = 0", nativeQuery = true)
+    int restaurarEstoque(@Param("idProduto") Integer idProduto, @Param("quantidade") Integer quantidade);
+
+    // Atualização otimista: só grava se o produto ainda estiver na versão lida (retorna 0 linhas caso contrário).
+    // A versão do produto soma a dos buckets, que as baixas particionadas incrementam sem tocar esta linha
+    @Modifying
+    @Query(value = "UPDATE estoque SET quantidade_estoque = :quantidade, versao = versao + 1 " +
+            "WHERE id_produto = :idProduto AND versao + coalesce((SELECT sum(b.versao) FROM estoque_bucket b " +
+            "WHERE b.id_produto = :idProduto), 0) = :versao", nativeQuery = true)
+    int atualizarQuantidade(@Param("idProduto") Integer idProduto, @Param("quantidade") Integer quantidade,
+                            @Param("versao") Long versao);
 }
@@ -0,0 +1,15 @@
+package com.fiap.postech.estoque_service.gateway.database.repository;
+
+import com.fiap.postech.estoque_service.gateway.database.entity.ReservaItemEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ReservaItemRepositoryJPA extends JpaRepository<ReservaItemEntity, Integer> {
+
+    List<ReservaItemEntity> findByIdReservaIn(Collection<UUID> idsReserva);
+}
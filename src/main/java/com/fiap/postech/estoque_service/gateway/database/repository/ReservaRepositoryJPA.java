@@ -0,0 +1,27 @@
+package com.fiap.postech.estoque_service.gateway.database.repository;
+
+import com.fiap.postech.estoque_service.domain.model.StatusReserva;
+import com.fiap.postech.estoque_service.gateway.database.entity.ReservaEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Repository
+public interface ReservaRepositoryJPA extends JpaRepository<ReservaEntity, UUID> {
+
+    // Transições condicionais: só uma chamada concorrente consegue tirar a reserva do status ATIVA
+    @Modifying
+    @Query("UPDATE ReservaEntity r SET r.status = :novoStatus " +
+            "WHERE r.idReserva = :idReserva AND r.status = 'ATIVA' AND r.expiraEm > :agora")
+    int confirmar(@Param("idReserva") UUID idReserva, @Param("novoStatus") StatusReserva novoStatus,
+                  @Param("agora") LocalDateTime agora);
+
+    @Modifying
+    @Query("UPDATE ReservaEntity r SET r.status = :novoStatus WHERE r.idReserva = :idReserva AND r.status = 'ATIVA'")
+    int liberar(@Param("idReserva") UUID idReserva, @Param("novoStatus") StatusReserva novoStatus);
+}
@@ -0,0 +1,62 @@
+package com.fiap.postech.estoque_service.gateway.ledger;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Saldo em memória de um produto. O saldo é alterado apenas por CAS e o delta ainda não
+ * gravado no banco é acumulado separadamente até a próxima descarga.
+ */
+final class ContadorEstoque {
+
+    private final int idProduto;
+    private final String skuProduto;
+    private final AtomicInteger saldo;
+    private final AtomicInteger deltaPendente = new AtomicInteger();
+
+    ContadorEstoque(int idProduto, String skuProduto, int saldoInicial) {
+        this.idProduto = idProduto;
+        this.skuProduto = skuProduto;
+        this.saldo = new AtomicInteger(saldoInicial);
+    }
+
+    int getIdProduto() {
+        return idProduto;
+    }
+
+    String getSkuProduto() {
+        return skuProduto;
+    }
+
+    int saldo() {
+        return saldo.get();
+    }
+
+    /**
+     * Reserva a quantidade se houver saldo suficiente.
+     *
+     * @return o novo saldo, ou -1 se o saldo era insuficiente
+     */
+    int reservar(int quantidade) {
+        while (true) {
+            int atual = saldo.get();
+            if (atual < quantidade) {
+                return -1;
+            }
+            if (saldo.compareAndSet(atual, atual - quantidade)) {
+                return atual - quantidade;
+            }
+        }
+    }
+
+    int devolver(int quantidade) {
+        return saldo.addAndGet(quantidade);
+    }
+
+    void registrarDelta(int delta) {
+        deltaPendente.addAndGet(delta);
+    }
+
+    int drenarDelta() {
+        return deltaPendente.getAndSet(0);
+    }
+}
@@ -0,0 +1,593 @@
+package com.fiap.postech.estoque_service.gateway.ledger;
+
+import com.fiap.postech.estoque_service.api.dto.BaixaEstoqueRequest;
+import com.fiap.postech.estoque_service.api.dto.CriterioAlocacaoDTO;
+import com.fiap.postech.estoque_service.api.dto.EstoqueDto;
+import com.fiap.postech.estoque_service.api.dto.ItemAjusteEstoqueDTO;
+import com.fiap.postech.estoque_service.api.dto.ItemEstoqueBaixaDTO;
+import com.fiap.postech.estoque_service.api.dto.ItemEstoqueResultadoDTO;
+import com.fiap.postech.estoque_service.api.dto.ResponseDto;
+import com.fiap.postech.estoque_service.domain.exceptions.ErroInternoException;
+import com.fiap.postech.estoque_service.domain.exceptions.internal.EstoqueInsuficienteException;
+import com.fiap.postech.estoque_service.domain.exceptions.internal.EstoqueNotFoundException;
+import com.fiap.postech.estoque_service.domain.model.Estoque;
+import com.fiap.postech.estoque_service.domain.model.EventoEstoque;
+import com.fiap.postech.estoque_service.domain.model.TipoEventoEstoque;
+import com.fiap.postech.estoque_service.gateway.database.EstoqueBucketRepository;
+import com.fiap.postech.estoque_service.gateway.database.EstoqueRepositoryImpl;
+import com.fiap.postech.estoque_service.gateway.database.OutboxEstoqueRepository;
+import com.fiap.postech.estoque_service.gateway.database.entity.EstoqueEntity;
+import com.fiap.postech.estoque_service.gateway.database.repository.EstoqueRepositoryJPA;
+import com.fiap.postech.estoque_service.gateway.port.EstoqueRepositoryPort;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Engine "ledger" de estoque: baixas e restaurações são aplicadas por CAS em contadores em memória
+ * e os deltas líquidos são gravados no banco em lote, periodicamente. Até a descarga, cada delta fica
+ * registrado no journal local, reaplicado na inicialização caso o processo caia.
+ * <p>
+ * Os contadores são a fonte da verdade enquanto carregados, por isso esta engine exige uma única
+ * instância escrevendo no estoque. As demais operações são delegadas ao {@link EstoqueRepositoryImpl}.
+ * <p>
+ * A descarga incrementa {@code estoque.versao}. Como a atualização manual descarrega os deltas antes de conferir a
+ * versão, uma baixa aceita pelos contadores depois da leitura do cliente recusa a atualização, igual na engine jpa.
+ * <p>
+ * Pelo mesmo motivo, o outbox recebe um evento DESCARGA_LEDGER com o delta líquido de cada produto na
+ * transação da descarga, que é quando o banco muda, e não um evento por baixa. A referência das
+ * movimentações não sobrevive à soma dos deltas, então esses eventos (e o diário de movimentações) saem sem ela.
+ * <p>
+ * Baixas e ajustes não passam pela alocação por local: o saldo dos locais só é mantido pela engine jpa, e aqui as
+ * retiradas ficam todas no saldo sem local.
+ */
+@Slf4j
+@Primary
+@Repository
+@ConditionalOnProperty(name = "estoque.engine", havingValue = "ledger")
+public class EstoqueLedgerRepositoryImpl implements EstoqueRepositoryPort {
+
+    private static final String SQL_APLICA_DELTA =
+            "UPDATE estoque SET quantidade_estoque = quantidade_estoque + ?, versao = versao + 1 WHERE id_produto = ?";
+    private static final String SQL_LE_CHECKPOINT = "SELECT ultimo_segmento FROM ledger_checkpoint WHERE id = 1";
+    private static final String SQL_GRAVA_CHECKPOINT = "UPDATE ledger_checkpoint SET ultimo_segmento = ? WHERE id = 1";
+
+    @Autowired
+    private EstoqueRepositoryImpl estoqueRepository;
+
+    @Autowired
+    private EstoqueRepositoryJPA estoqueRepositoryJPA;
+
+    @Autowired
+    private EstoqueBucketRepository buckets;
+
+    @Autowired
+    private OutboxEstoqueRepository outbox;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${estoque.ledger.shards:64}")
+    private int quantidadeShards;
+
+    @Value("${estoque.ledger.journal.diretorio:./data/ledger}")
+    private String diretorioJournal;
+
+    @Value("${estoque.ledger.journal.sincronizar-disco:false}")
+    private boolean sincronizarDisco;
+
+    // Movimentações seguram o lock de leitura; a descarga toma o de escrita só para drenar deltas e trocar de segmento
+    private final ReentrantReadWriteLock rotacao = new ReentrantReadWriteLock();
+    private final ReentrantLock descarga = new ReentrantLock();
+    // Produtos com gravação absoluta em andamento (atualização, exclusão, particionamento)
+    private final ConcurrentHashMap<Integer, CountDownLatch> emManutencao = new ConcurrentHashMap<>();
+
+    private MapaContadores contadores;
+    private JournalLedger journal;
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void iniciar() throws IOException {
+        contadores = new MapaContadores(quantidadeShards);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        journal = new JournalLedger(Path.of(diretorioJournal), sincronizarDisco);
+        recuperar();
+    }
+
+    @PreDestroy
+    public void encerrar() throws IOException {
+        descarregar();
+        journal.close();
+    }
+
+    @Override
+    public List<ItemEstoqueResultadoDTO> baixarEstoque(List<ItemEstoqueBaixaDTO> itens, String referencia,
+                                                       CriterioAlocacaoDTO criterio) {
+        return baixarEstoque(itens, referencia);
+    }
+
+    /**
+     * Os contadores já não disputam trava de linha, então não há o que agrupar: cada pedido é baixado como na
+     * chamada individual e um pedido recusado devolve os resultados da recusa.
+     */
+    @Override
+    public List<List<ItemEstoqueResultadoDTO>> baixarEstoqueAgrupado(List<BaixaEstoqueRequest> pedidos) {
+        List<List<ItemEstoqueResultadoDTO>> resultados = new ArrayList<>();
+        for (BaixaEstoqueRequest pedido : pedidos) {
+            try {
+                resultados.add(baixarEstoque(pedido.getItens(), pedido.getReferencia()));
+            } catch (EstoqueInsuficienteException e) {
+                resultados.add(e.getItens());
+            }
+        }
+        return resultados;
+    }
+
+    @Override
+    public List<ItemEstoqueResultadoDTO> baixarEstoque(List<ItemEstoqueBaixaDTO> itens, String referencia) {
+        Map<Integer, Integer> quantidadePorProduto = agrupaPorProduto(itens);
+        int[] quantidades = quantidadePorProduto.values().stream().mapToInt(Integer::intValue).toArray();
+
+        return movimentar(quantidadePorProduto.keySet(), () -> {
+            List<ContadorEstoque> contadoresItens = carregar(quantidadePorProduto);
+            List<ItemEstoqueResultadoDTO> resultados = new ArrayList<>();
+            boolean falhou = false;
+            int indice = 0;
+            for (Map.Entry<Integer, Integer> item : quantidadePorProduto.entrySet()) {
+                ContadorEstoque contador = contadoresItens.get(indice++);
+                int novoSaldo = contador == null ? -1 : contador.reservar(item.getValue());
+                falhou |= novoSaldo < 0;
+                resultados.add(new ItemEstoqueResultadoDTO(item.getKey(),
+                        contador == null ? null : contador.getSkuProduto(), item.getValue(),
+                        novoSaldo < 0 ? null : novoSaldo, novoSaldo >= 0));
+            }
+
+            if (falhou) {
+                devolverReservados(contadoresItens, quantidades, resultados);
+                ItemEstoqueResultadoDTO semSaldo = resultados.stream().filter(r -> !r.isSucesso()).findFirst().orElseThrow();
+                log.warn("Estoque insuficiente para o produto ID: {}", semSaldo.getIdProduto());
+                throw new EstoqueInsuficienteException(
+                        "Estoque insuficiente para o produto ID: " + semSaldo.getIdProduto(), resultados);
+            }
+
+            registrarMovimentacao(contadoresItens, quantidades, -1);
+            return resultados;
+        });
+    }
+
+    @Override
+    public List<ItemEstoqueResultadoDTO> restaurarEstoque(List<ItemEstoqueBaixaDTO> itens, String referencia) {
+        Map<Integer, Integer> quantidadePorProduto = agrupaPorProduto(itens);
+        int[] quantidades = quantidadePorProduto.values().stream().mapToInt(Integer::intValue).toArray();
+
+        return movimentar(quantidadePorProduto.keySet(), () -> {
+            List<ContadorEstoque> contadoresItens = carregar(quantidadePorProduto);
+            int indice = 0;
+            for (Integer idProduto : quantidadePorProduto.keySet()) {
+                if (contadoresItens.get(indice++) == null) {
+                    log.warn("Estoque não encontrado para o produto ID: {}", idProduto);
+                    throw new EstoqueNotFoundException("Estoque não encontrado para o produto ID: " + idProduto);
+                }
+            }
+
+            List<ItemEstoqueResultadoDTO> resultados = new ArrayList<>();
+            for (int i = 0; i < contadoresItens.size(); i++) {
+                ContadorEstoque contador = contadoresItens.get(i);
+                int novoSaldo = contador.devolver(quantidades[i]);
+                resultados.add(new ItemEstoqueResultadoDTO(contador.getIdProduto(), contador.getSkuProduto(),
+                        quantidades[i], novoSaldo, true));
+            }
+            registrarMovimentacao(contadoresItens, quantidades, 1);
+            return resultados;
+        });
+    }
+
+    @Override
+    public List<ItemEstoqueResultadoDTO> ajustarEstoque(List<ItemAjusteEstoqueDTO> itens, String referencia) {
+        Map<String, Integer> deltaPorSku = new TreeMap<>();
+        for (ItemAjusteEstoqueDTO item : itens) {
+            deltaPorSku.merge(item.getSkuProduto(), item.getDelta(), Integer::sum);
+        }
+        // Uma consulta resolve todos os SKUs
+        Map<String, EstoqueEntity> porSku = new HashMap<>();
+        for (EstoqueEntity entity : estoqueRepositoryJPA.findBySkuProdutoIn(deltaPorSku.keySet())) {
+            porSku.put(entity.getSkuProduto(), entity);
+        }
+        for (String sku : deltaPorSku.keySet()) {
+            if (!porSku.containsKey(sku)) {
+                log.warn("Estoque não encontrado para o SKU: {}", sku);
+                throw new EstoqueNotFoundException("Estoque não encontrado para o SKU: " + sku);
+            }
+        }
+        List<Integer> idsProduto = porSku.values().stream().map(EstoqueEntity::getIdProduto).toList();
+
+        return movimentar(idsProduto, () -> {
+            // O contador é carregado sob o lock: a linha lida acima pode ser anterior a uma gravação absoluta já concluída
+            List<ContadorEstoque> contadoresItens = new ArrayList<>(deltaPorSku.size());
+            int[] deltas = new int[deltaPorSku.size()];
+            int indice = 0;
+            for (Map.Entry<String, Integer> item : deltaPorSku.entrySet()) {
+                ContadorEstoque contador = carregar(porSku.get(item.getKey()).getIdProduto());
+                if (contador == null) {
+                    log.warn("Estoque não encontrado para o SKU: {}", item.getKey());
+                    throw new EstoqueNotFoundException("Estoque não encontrado para o SKU: " + item.getKey());
+                }
+                contadoresItens.add(contador);
+                deltas[indice++] = item.getValue();
+            }
+
+            List<ItemEstoqueResultadoDTO> resultados = new ArrayList<>();
+            boolean falhou = false;
+            for (int i = 0; i < deltas.length; i++) {
+                ContadorEstoque contador = contadoresItens.get(i);
+                int novoSaldo = deltas[i] < 0 ? contador.reservar(-deltas[i]) : contador.devolver(deltas[i]);
+                falhou |= novoSaldo < 0;
+                resultados.add(new ItemEstoqueResultadoDTO(contador.getIdProduto(), contador.getSkuProduto(),
+                        deltas[i], novoSaldo < 0 ? null : novoSaldo, novoSaldo >= 0));
+            }
+
+            if (falhou) {
+                for (int i = 0; i < deltas.length; i++) {
+                    if (resultados.get(i).isSucesso()) {
+                        contadoresItens.get(i).devolver(-deltas[i]);
+                    }
+                }
+                ItemEstoqueResultadoDTO semSaldo = resultados.stream().filter(r -> !r.isSucesso()).findFirst().orElseThrow();
+                log.warn("Estoque insuficiente para o SKU: {}", semSaldo.getSkuProduto());
+                throw new EstoqueInsuficienteException(
+                        "Estoque insuficiente para o SKU: " + semSaldo.getSkuProduto(), resultados);
+            }
+
+            registrarMovimentacao(contadoresItens, deltas, 1);
+            return resultados;
+        });
+    }
+
+    /**
+     * Grava no banco os deltas acumulados desde a última descarga, em uma única transação junto
+     * com o checkpoint do journal. Em caso de falha os deltas voltam para os contadores.
+     */
+    @Scheduled(fixedDelayString = "${estoque.ledger.intervalo-descarga-ms:200}")
+    public void descarregar() {
+        descarregarPendentes();
+    }
+
+    // Devolve false quando a gravação falhou e os deltas voltaram para os contadores
+    private boolean descarregarPendentes() {
+        descarga.lock();
+        try {
+            Map<Integer, Integer> deltas = new HashMap<>();
+            long segmento;
+
+            rotacao.writeLock().lock();
+            try {
+                contadores.paraCada(contador -> {
+                    int delta = contador.drenarDelta();
+                    if (delta != 0) {
+                        deltas.put(contador.getIdProduto(), delta);
+                    }
+                });
+                if (deltas.isEmpty() && journal.segmentoAtualVazio()) {
+                    return true;
+                }
+                segmento = journal.rotacionar();
+            } finally {
+                rotacao.writeLock().unlock();
+            }
+
+            try {
+                gravarDeltas(deltas, segmento);
+                journal.removerAte(segmento);
+                return true;
+            } catch (Exception e) {
+                log.error("Erro ao descarregar o ledger de estoque; os deltas serão reenviados", e);
+                deltas.forEach((idProduto, delta) -> {
+                    ContadorEstoque contador = contadores.buscar(idProduto);
+                    if (contador != null) {
+                        contador.registrarDelta(delta);
+                    }
+                });
+                return false;
+            }
+        } catch (IOException e) {
+            log.error("Erro ao rotacionar o journal do ledger de estoque", e);
+            return false;
+        } finally {
+            descarga.unlock();
+        }
+    }
+
+    // Baixas e ajustes são aceitos nos contadores e gravados na descarga, fora da transação de quem os chamou
+    @Override
+    public boolean movimentacaoTransacional() {
+        return false;
+    }
+
+    @Override
+    public ResponseDto cadastrarEstoque(Estoque estoque) {
+        return estoqueRepository.cadastrarEstoque(estoque);
+    }
+
+    @Override
+    public Estoque buscarPorIdProduto(Integer idProduto) {
+        return comSaldoDoLedger(estoqueRepository.buscarPorIdProduto(idProduto));
+    }
+
+    @Override
+    public ResponseDto atualizarEstoque(Estoque estoque) {
+        // Quantidade absoluta: grava os deltas pendentes e descarta o contador para recarregar do banco
+        return comProdutoBloqueado(estoque.getIdProduto(), () -> estoqueRepository.atualizarEstoque(estoque));
+    }
+
+    @Override
+    public Estoque buscarPorSku(String skuProduto) {
+        return comSaldoDoLedger(estoqueRepository.buscarPorSku(skuProduto));
+    }
+
+    @Override
+    public List<Estoque> buscarVarios(Collection<String> skusProduto, Collection<Integer> idsProduto) {
+        List<Estoque> estoques = estoqueRepository.buscarVarios(skusProduto, idsProduto);
+        estoques.forEach(this::comSaldoDoLedger);
+        return estoques;
+    }
+
+    @Override
+    public List<Estoque> listarPagina(Integer aposIdEstoque, int limite) {
+        List<Estoque> pagina = estoqueRepository.listarPagina(aposIdEstoque, limite);
+        pagina.forEach(this::comSaldoDoLedger);
+        return pagina;
+    }
+
+    @Override
+    public List<Estoque> listarPaginaPorSku(String aPartirDoSku, int limite) {
+        List<Estoque> pagina = estoqueRepository.listarPaginaPorSku(aPartirDoSku, limite);
+        pagina.forEach(this::comSaldoDoLedger);
+        return pagina;
+    }
+
+    @Override
+    public void exportarEstoques(Consumer<EstoqueDto> consumidor) {
+        estoqueRepository.exportarEstoques(dto -> {
+            ContadorEstoque contador = contadores.buscar(dto.getIdProduto());
+            if (contador != null) {
+                dto.setQuantidadeEstoque(contador.saldo());
+            }
+            consumidor.accept(dto);
+        });
+    }
+
+    @Override
+    public void deletarEstoque(String skuProduto) {
+        Estoque estoque = estoqueRepository.buscarPorSku(skuProduto);
+        comProdutoBloqueado(estoque.getIdProduto(), () -> {
+            estoqueRepository.deletarEstoque(skuProduto);
+            return null;
+        });
+    }
+
+    @Override
+    public boolean estoqueExistsBySku(String skuProduto) {
+        return estoqueRepository.estoqueExistsBySku(skuProduto);
+    }
+
+    // Linhas novas ainda não têm contador; ele é criado a partir do banco no primeiro acesso
+    @Override
+    public List<String> importarEstoques(List<Estoque> estoques) {
+        return estoqueRepository.importarEstoques(estoques);
+    }
+
+    // Os contadores já eliminam a disputa pela linha; os buckets só precisam refletir o saldo gravado
+    @Override
+    public void particionarEstoque(Integer idProduto, int quantidadeBuckets) {
+        comProdutoBloqueado(idProduto, () -> {
+            estoqueRepository.particionarEstoque(idProduto, quantidadeBuckets);
+            return null;
+        });
+    }
+
+    /**
+     * Executa uma gravação que substitui o saldo do produto no banco. Novas movimentações do produto esperam; as que já
+     * passaram pela verificação terminam antes da descarga, que leva o delta delas ao banco. Só então a gravação roda
+     * e o contador é descartado, para ser recarregado com o valor gravado. Se a descarga falhar, o contador fica como
+     * estava (com os deltas devolvidos) e nada é gravado.
+     */
+    private <T> T comProdutoBloqueado(int idProduto, Supplier<T> gravacao) {
+        CountDownLatch liberado = new CountDownLatch(1);
+        CountDownLatch anterior;
+        while ((anterior = emManutencao.putIfAbsent(idProduto, liberado)) != null) {
+            aguardar(anterior);
+        }
+        try {
+            // Tomar e soltar o lock de escrita espera as movimentações em andamento; as próximas já veem o bloqueio
+            rotacao.writeLock().lock();
+            rotacao.writeLock().unlock();
+            if (!descarregarPendentes()) {
+                throw new ErroInternoException("Erro ao descarregar o ledger antes de gravar o estoque do produto ID: "
+                        + idProduto);
+            }
+            try {
+                return gravacao.get();
+            } finally {
+                contadores.remover(idProduto);
+            }
+        } finally {
+            emManutencao.remove(idProduto);
+            liberado.countDown();
+        }
+    }
+
+    // Movimentações rodam sob o lock de leitura e só depois de verificar que nenhum dos produtos está em gravação
+    // absoluta; o contador é carregado dentro do lock para não ressuscitar um saldo que acabou de ser substituído
+    private <T> T movimentar(Collection<Integer> idsProduto, Supplier<T> movimentacao) {
+        while (true) {
+            for (Integer idProduto : idsProduto) {
+                CountDownLatch emAndamento = emManutencao.get(idProduto);
+                if (emAndamento != null) {
+                    aguardar(emAndamento);
+                }
+            }
+            rotacao.readLock().lock();
+            try {
+                if (idsProduto.stream().noneMatch(emManutencao::containsKey)) {
+                    return movimentacao.get();
+                }
+            } finally {
+                rotacao.readLock().unlock();
+            }
+        }
+    }
+
+    private void aguardar(CountDownLatch liberado) {
+        try {
+            liberado.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ErroInternoException("Interrompido aguardando a gravação do estoque");
+        }
+    }
+
+    private void recuperar() throws IOException {
+        Long checkpoint = jdbcTemplate.queryForObject(SQL_LE_CHECKPOINT, Long.class);
+        long ultimoGravado = checkpoint == null ? 0 : checkpoint;
+        List<Long> segmentos = journal.segmentos();
+        long ultimoSegmento = segmentos.isEmpty()
+                ? ultimoGravado
+                : Math.max(ultimoGravado, segmentos.get(segmentos.size() - 1));
+
+        if (ultimoSegmento > ultimoGravado) {
+            Map<Integer, Integer> deltas = journal.lerDeltasApos(ultimoGravado);
+            log.warn("Reaplicando {} delta(s) do journal do ledger de estoque", deltas.size());
+            gravarDeltas(deltas, ultimoSegmento);
+        }
+        journal.removerAte(ultimoSegmento);
+        journal.abrir(ultimoSegmento + 1);
+    }
+
+    private void gravarDeltas(Map<Integer, Integer> deltas, long segmento) {
+        List<Object[]> parametros = new ArrayList<>(deltas.size());
+        List<EventoEstoque> eventos = new ArrayList<>(deltas.size());
+        deltas.forEach((idProduto, delta) -> {
+            parametros.add(new Object[]{delta, idProduto});
+            // Na recuperação os contadores ainda não existem: o evento sai sem SKU e sem saldo
+            ContadorEstoque contador = contadores.buscar(idProduto);
+            eventos.add(new EventoEstoque(TipoEventoEstoque.DESCARGA_LEDGER, idProduto,
+                    contador == null ? null : contador.getSkuProduto(), delta, null));
+        });
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!parametros.isEmpty()) {
+                jdbcTemplate.batchUpdate(SQL_APLICA_DELTA, parametros);
+                outbox.registrar(TipoEventoEstoque.DESCARGA_LEDGER, eventos);
+            }
+            jdbcTemplate.update(SQL_GRAVA_CHECKPOINT, segmento);
+        });
+    }
+
+    private void registrarMovimentacao(List<ContadorEstoque> contadoresItens, int[] quantidades, int sinal) {
+        int[] idsProduto = new int[quantidades.length];
+        int[] deltas = new int[quantidades.length];
+        for (int i = 0; i < quantidades.length; i++) {
+            idsProduto[i] = contadoresItens.get(i).getIdProduto();
+            deltas[i] = sinal * quantidades[i];
+        }
+
+        try {
+            journal.registrar(idsProduto, deltas);
+        } catch (IOException e) {
+            // Sem journal não há como garantir a gravação: desfaz a movimentação em memória
+            for (int i = 0; i < quantidades.length; i++) {
+                contadoresItens.get(i).devolver(-deltas[i]);
+            }
+            log.error("Erro ao registrar movimentação no journal do ledger", e);
+            throw new ErroInternoException("Erro ao registrar movimentação de estoque: " + e.getMessage());
+        }
+
+        for (int i = 0; i < quantidades.length; i++) {
+            contadoresItens.get(i).registrarDelta(deltas[i]);
+        }
+    }
+
+    private void devolverReservados(List<ContadorEstoque> contadoresItens, int[] quantidades,
+                                    List<ItemEstoqueResultadoDTO> resultados) {
+        for (int i = 0; i < resultados.size(); i++) {
+            if (resultados.get(i).isSucesso()) {
+                contadoresItens.get(i).devolver(quantidades[i]);
+            }
+        }
+    }
+
+    private List<ContadorEstoque> carregar(Map<Integer, Integer> quantidadePorProduto) {
+        List<ContadorEstoque> carregados = new ArrayList<>(quantidadePorProduto.size());
+        for (Integer idProduto : quantidadePorProduto.keySet()) {
+            carregados.add(carregar(idProduto));
+        }
+        return carregados;
+    }
+
+    private ContadorEstoque carregar(int idProduto) {
+        ContadorEstoque contador = contadores.buscar(idProduto);
+        if (contador != null) {
+            return contador;
+        }
+        Optional<EstoqueEntity> entity = estoqueRepositoryJPA.findByIdProduto(idProduto);
+        return entity.map(e -> contadores.inserirSeAusente(
+                        new ContadorEstoque(e.getIdProduto(), e.getSkuProduto(), saldoGravado(e))))
+                .orElse(null);
+    }
+
+    // Deltas do ledger vão para a linha principal; em produto particionado o saldo inclui os buckets
+    private int saldoGravado(EstoqueEntity entity) {
+        if (entity.getBuckets() == null || entity.getBuckets() == 0) {
+            return entity.getQuantidadeEstoque();
+        }
+        EstoqueBucketRepository.SaldoBuckets soma = buckets.somar(List.of(entity.getIdProduto()))
+                .get(entity.getIdProduto());
+        return entity.getQuantidadeEstoque() + (soma == null ? 0 : soma.quantidade());
+    }
+
+    private Estoque comSaldoDoLedger(Estoque estoque) {
+        if (estoque != null && estoque.getIdProduto() != null) {
+            ContadorEstoque contador = contadores.buscar(estoque.getIdProduto());
+            if (contador != null) {
+                estoque.setQuantidadeEstoque(contador.saldo());
+            }
+        }
+        return estoque;
+    }
+
+    private Map<Integer, Integer> agrupaPorProduto(List<ItemEstoqueBaixaDTO> itens) {
+        Map<Integer, Integer> quantidadePorProduto = new TreeMap<>();
+        for (ItemEstoqueBaixaDTO item : itens) {
+            quantidadePorProduto.merge(item.getIdProduto(), item.getQuantidade(), Integer::sum);
+        }
+        return quantidadePorProduto;
+    }
+}
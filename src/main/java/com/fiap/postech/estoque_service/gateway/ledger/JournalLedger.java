@@ -0,0 +1,155 @@
+package com.fiap.postech.estoque_service.gateway.ledger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Journal local, somente de inclusão, com os deltas aplicados no ledger e ainda não gravados no banco.
+ * Cada registro tem 8 bytes (idProduto, delta). O arquivo é dividido em segmentos numerados: a
+ * descarga troca de segmento e, depois de gravar no banco, remove os segmentos já aplicados.
+ */
+final class JournalLedger implements Closeable {
+
+    private static final String PREFIXO = "journal-";
+    private static final String SUFIXO = ".log";
+    private static final int TAMANHO_REGISTRO = Integer.BYTES * 2;
+
+    private final Path diretorio;
+    private final boolean sincronizarDisco;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private FileChannel canal;
+    private long segmentoAtual;
+    private boolean segmentoVazio = true;
+
+    JournalLedger(Path diretorio, boolean sincronizarDisco) throws IOException {
+        this.diretorio = diretorio;
+        this.sincronizarDisco = sincronizarDisco;
+        Files.createDirectories(diretorio);
+    }
+
+    /** Segmentos existentes no diretório, em ordem crescente. */
+    List<Long> segmentos() throws IOException {
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            return arquivos.map(p -> p.getFileName().toString())
+                    .filter(nome -> nome.startsWith(PREFIXO) && nome.endsWith(SUFIXO))
+                    .map(nome -> Long.parseLong(nome.substring(PREFIXO.length(), nome.length() - SUFIXO.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * Soma os deltas por produto dos segmentos posteriores ao checkpoint. Um registro incompleto
+     * no fim do arquivo (queda no meio da escrita) é descartado.
+     */
+    Map<Integer, Integer> lerDeltasApos(long checkpoint) throws IOException {
+        Map<Integer, Integer> deltas = new HashMap<>();
+        for (Long segmento : segmentos()) {
+            if (segmento <= checkpoint) {
+                continue;
+            }
+            ByteBuffer conteudo = ByteBuffer.wrap(Files.readAllBytes(arquivo(segmento)));
+            while (conteudo.remaining() >= TAMANHO_REGISTRO) {
+                deltas.merge(conteudo.getInt(), conteudo.getInt(), Integer::sum);
+            }
+        }
+        deltas.values().removeIf(delta -> delta == 0);
+        return deltas;
+    }
+
+    void abrir(long segmento) throws IOException {
+        lock.lock();
+        try {
+            canal = FileChannel.open(arquivo(segmento),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            segmentoAtual = segmento;
+            segmentoVazio = canal.size() == 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void registrar(int[] idsProduto, int[] deltas) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(idsProduto.length * TAMANHO_REGISTRO);
+        for (int i = 0; i < idsProduto.length; i++) {
+            buffer.putInt(idsProduto[i]).putInt(deltas[i]);
+        }
+        buffer.flip();
+
+        lock.lock();
+        try {
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+            if (sincronizarDisco) {
+                canal.force(false);
+            }
+            segmentoVazio = false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    boolean segmentoAtualVazio() {
+        lock.lock();
+        try {
+            return segmentoVazio;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Fecha o segmento atual e passa a escrever no próximo.
+     *
+     * @return o número do segmento fechado
+     */
+    long rotacionar() throws IOException {
+        lock.lock();
+        try {
+            long fechado = segmentoAtual;
+            canal.force(false);
+            canal.close();
+            abrir(fechado + 1);
+            return fechado;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void removerAte(long segmento) throws IOException {
+        for (Long existente : segmentos()) {
+            if (existente <= segmento && existente != segmentoAtual) {
+                Files.deleteIfExists(arquivo(existente));
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (canal != null && canal.isOpen()) {
+                canal.force(false);
+                canal.close();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Path arquivo(long segmento) {
+        return diretorio.resolve(PREFIXO + segmento + SUFIXO);
+    }
+}
@@ -0,0 +1,216 @@
+package com.fiap.postech.estoque_service.gateway.ledger;
+
+import java.util.function.Consumer;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Mapa de contadores indexado pelo idProduto primitivo, dividido em shards para reduzir contenção.
+ * Cada shard é uma tabela de endereçamento aberto: buscas usam leitura otimista do StampedLock
+ * e só inserções/remoções tomam o lock exclusivo do shard.
+ */
+final class MapaContadores {
+
+    private final Shard[] shards;
+    private final int mascara;
+
+    MapaContadores(int quantidadeShards) {
+        int tamanho = Integer.highestOneBit(Math.max(1, quantidadeShards));
+        if (tamanho < quantidadeShards) {
+            tamanho <<= 1;
+        }
+        this.shards = new Shard[tamanho];
+        this.mascara = tamanho - 1;
+        for (int i = 0; i < tamanho; i++) {
+            shards[i] = new Shard();
+        }
+    }
+
+    ContadorEstoque buscar(int idProduto) {
+        return shard(idProduto).buscar(idProduto);
+    }
+
+    /**
+     * Insere o contador caso ainda não exista um para o produto.
+     *
+     * @return o contador que ficou no mapa (o já existente ou o informado)
+     */
+    ContadorEstoque inserirSeAusente(ContadorEstoque contador) {
+        return shard(contador.getIdProduto()).inserirSeAusente(contador);
+    }
+
+    void remover(int idProduto) {
+        shard(idProduto).remover(idProduto);
+    }
+
+    void paraCada(Consumer<ContadorEstoque> acao) {
+        for (Shard shard : shards) {
+            shard.paraCada(acao);
+        }
+    }
+
+    int tamanho() {
+        int total = 0;
+        for (Shard shard : shards) {
+            total += shard.tamanho();
+        }
+        return total;
+    }
+
+    private Shard shard(int idProduto) {
+        return shards[espalha(idProduto) & mascara];
+    }
+
+    static int espalha(int chave) {
+        int h = chave * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    // Chaves e valores ficam juntos para que uma leitura otimista nunca veja arrays de tamanhos diferentes
+    private record Tabela(int[] chaves, ContadorEstoque[] valores) {
+
+        Tabela(int capacidade) {
+            this(new int[capacidade], new ContadorEstoque[capacidade]);
+        }
+
+        int indice(int chave) {
+            return (espalha(chave) >>> 8) & (chaves.length - 1);
+        }
+
+        ContadorEstoque procurar(int chave) {
+            int mascara = chaves.length - 1;
+            int i = indice(chave);
+            for (int tentativas = 0; tentativas < chaves.length; tentativas++) {
+                ContadorEstoque valor = valores[i];
+                if (valor == null) {
+                    return null;
+                }
+                if (chaves[i] == chave) {
+                    return valor;
+                }
+                i = (i + 1) & mascara;
+            }
+            return null;
+        }
+    }
+
+    private static final class Shard {
+
+        private final StampedLock lock = new StampedLock();
+        private Tabela tabela = new Tabela(16);
+        private int tamanho;
+
+        ContadorEstoque buscar(int chave) {
+            long stamp = lock.tryOptimisticRead();
+            ContadorEstoque encontrado = tabela.procurar(chave);
+            if (lock.validate(stamp)) {
+                return encontrado;
+            }
+            stamp = lock.readLock();
+            try {
+                return tabela.procurar(chave);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        ContadorEstoque inserirSeAusente(ContadorEstoque contador) {
+            long stamp = lock.writeLock();
+            try {
+                ContadorEstoque existente = tabela.procurar(contador.getIdProduto());
+                if (existente != null) {
+                    return existente;
+                }
+                // Mantém ocupação abaixo de 50% para que as sondagens continuem curtas
+                if ((tamanho + 1) * 2 > tabela.chaves().length) {
+                    redimensionar();
+                }
+                inserir(tabela, contador);
+                tamanho++;
+                return contador;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        void remover(int chave) {
+            long stamp = lock.writeLock();
+            try {
+                int[] chaves = tabela.chaves();
+                ContadorEstoque[] valores = tabela.valores();
+                int mascara = chaves.length - 1;
+                int i = tabela.indice(chave);
+                while (valores[i] != null && chaves[i] != chave) {
+                    i = (i + 1) & mascara;
+                }
+                if (valores[i] == null) {
+                    return;
+                }
+                // Remoção com deslocamento para trás: evita lápides e mantém as sondagens válidas
+                int vazio = i;
+                int j = i;
+                while (true) {
+                    j = (j + 1) & mascara;
+                    if (valores[j] == null) {
+                        break;
+                    }
+                    int ideal = tabela.indice(chaves[j]);
+                    boolean podeMover = vazio <= j ? (ideal <= vazio || ideal > j) : (ideal <= vazio && ideal > j);
+                    if (podeMover) {
+                        chaves[vazio] = chaves[j];
+                        valores[vazio] = valores[j];
+                        vazio = j;
+                    }
+                }
+                valores[vazio] = null;
+                chaves[vazio] = 0;
+                tamanho--;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        void paraCada(Consumer<ContadorEstoque> acao) {
+            ContadorEstoque[] valores;
+            long stamp = lock.readLock();
+            try {
+                valores = tabela.valores().clone();
+            } finally {
+                lock.unlockRead(stamp);
+            }
+            for (ContadorEstoque valor : valores) {
+                if (valor != null) {
+                    acao.accept(valor);
+                }
+            }
+        }
+
+        int tamanho() {
+            long stamp = lock.readLock();
+            try {
+                return tamanho;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        private void redimensionar() {
+            Tabela nova = new Tabela(tabela.chaves().length * 2);
+            for (ContadorEstoque valor : tabela.valores()) {
+                if (valor != null) {
+                    inserir(nova, valor);
+                }
+            }
+            tabela = nova;
+        }
+
+        private static void inserir(Tabela destino, ContadorEstoque contador) {
+            int mascara = destino.chaves().length - 1;
+            int i = destino.indice(contador.getIdProduto());
+            while (destino.valores()[i] != null) {
+                i = (i + 1) & mascara;
+            }
+            destino.chaves()[i] = contador.getIdProduto();
+            destino.valores()[i] = contador;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.fiap.postech.estoque_service.gateway.outbox;
+
+import com.fiap.postech.estoque_service.domain.model.EventoEstoque;
+import com.fiap.postech.estoque_service.gateway.port.PublicadorEventosPort;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Sink em processo: cada evento vira um evento de aplicação do Spring, recebido por qualquer
+ * {@code @EventListener(EventoEstoque.class)}. Sem listeners, os eventos são só marcados como publicados.
+ */
+@Component
+@ConditionalOnProperty(name = "estoque.outbox.sink", havingValue = "aplicacao", matchIfMissing = true)
+public class PublicadorEventosAplicacao implements PublicadorEventosPort {
+
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    @Override
+    public void publicar(List<EventoEstoque> eventos) {
+        eventos.forEach(applicationEventPublisher::publishEvent);
+    }
+}
@@ -0,0 +1,62 @@
+package com.fiap.postech.estoque_service.gateway.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fiap.postech.estoque_service.domain.model.EventoEstoque;
+import com.fiap.postech.estoque_service.gateway.port.PublicadorEventosPort;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sink em arquivo: acrescenta cada lote como NDJSON (um evento por linha) em
+ * {@code estoque.outbox.arquivo.diretorio}/eventos-estoque.ndjson. Útil em testes e para consumidores
+ * que acompanham o arquivo.
+ */
+@Component
+@ConditionalOnProperty(name = "estoque.outbox.sink", havingValue = "arquivo")
+public class PublicadorEventosArquivo implements PublicadorEventosPort {
+
+    static final String ARQUIVO = "eventos-estoque.ndjson";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${estoque.outbox.arquivo.diretorio:./data/outbox}")
+    private String diretorio;
+
+    private Path arquivo;
+
+    // Escrita bloqueante: ReentrantLock em vez de synchronized para não prender a thread portadora
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @PostConstruct
+    public void iniciar() throws IOException {
+        arquivo = Files.createDirectories(Path.of(diretorio)).resolve(ARQUIVO);
+    }
+
+    // O lote inteiro é montado antes de abrir o arquivo: uma falha de serialização não deixa linhas pela metade
+    @Override
+    public void publicar(List<EventoEstoque> eventos) throws IOException {
+        StringBuilder linhas = new StringBuilder();
+        for (EventoEstoque evento : eventos) {
+            linhas.append(objectMapper.writeValueAsString(evento)).append('\n');
+        }
+        lock.lock();
+        try (OutputStream saida = Files.newOutputStream(arquivo, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            saida.write(linhas.toString().getBytes(StandardCharsets.UTF_8));
+        } finally {
+            lock.unlock();
+        }
+    }
+}
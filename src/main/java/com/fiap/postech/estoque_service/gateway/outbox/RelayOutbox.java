@@ -0,0 +1,110 @@
+package com.fiap.postech.estoque_service.gateway.outbox;
+
+import com.fiap.postech.estoque_service.domain.model.EventoEstoque;
+import com.fiap.postech.estoque_service.gateway.database.OutboxEstoqueRepository;
+import com.fiap.postech.estoque_service.gateway.port.MovimentacaoRepositoryPort;
+import com.fiap.postech.estoque_service.gateway.port.PublicadorEventosPort;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Publica os eventos pendentes do outbox em lotes. Cada lote é travado, publicado e marcado na mesma
+ * transação: se o publicador falhar, o lote continua pendente e é reenviado na próxima rodada
+ * (entrega "ao menos uma vez", na ordem de id).
+ * <p>
+ * O relay também alimenta o diário de movimentações: cada lote é copiado para {@code movimentacao_estoque}
+ * na mesma transação, com um único INSERT. Assim o caminho da baixa continua pagando só a linha do outbox e
+ * o diário recebe as gravações agrupadas. A cópia não depende do publicador: com ele fora do ar a transação
+ * ainda confirma o diário, e o reenvio do lote não duplica linhas porque a cópia é idempotente pelo id do evento.
+ */
+@Slf4j
+@Component
+public class RelayOutbox {
+
+    public static final String PUBLICADOS = "estoque.outbox.publicados";
+
+    @Autowired
+    private OutboxEstoqueRepository outbox;
+
+    @Autowired
+    private MovimentacaoRepositoryPort movimentacoes;
+
+    @Autowired
+    private PublicadorEventosPort publicador;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${estoque.outbox.tamanho-lote:500}")
+    private int tamanhoLote;
+
+    @Value("${estoque.outbox.retencao-horas:24}")
+    private long retencaoHoras;
+
+    private TransactionTemplate transactionTemplate;
+    private Counter publicados;
+
+    @PostConstruct
+    public void iniciar() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        publicados = meterRegistry.counter(PUBLICADOS);
+    }
+
+    @Scheduled(fixedDelayString = "${estoque.outbox.intervalo-ms:500}")
+    public void publicarPendentes() {
+        try {
+            // Drena o backlog na mesma rodada; para quando um lote vem incompleto
+            int quantidade;
+            do {
+                quantidade = publicarLote();
+            } while (quantidade == tamanhoLote);
+        } catch (Exception e) {
+            log.error("Erro ao publicar eventos do outbox de estoque; o lote será reenviado", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${estoque.outbox.intervalo-limpeza-ms:3600000}")
+    public void removerPublicados() {
+        int removidos = outbox.removerPublicadosAntesDe(LocalDateTime.now().minusHours(retencaoHoras));
+        if (removidos > 0) {
+            log.info("{} eventos publicados removidos do outbox de estoque", removidos);
+        }
+    }
+
+    private int publicarLote() {
+        Integer quantidade = transactionTemplate.execute(status -> {
+            List<EventoEstoque> eventos = outbox.travarPendentes(tamanhoLote);
+            if (eventos.isEmpty()) {
+                return 0;
+            }
+            movimentacoes.registrar(eventos);
+            try {
+                publicador.publicar(eventos);
+            } catch (Exception e) {
+                // Confirma só a cópia para o diário; sem a marcação, o lote volta na próxima rodada
+                log.error("Erro ao publicar {} evento(s) do outbox de estoque; o diário foi gravado e o lote será "
+                        + "reenviado", eventos.size(), e);
+                return 0;
+            }
+            outbox.marcarPublicados(eventos);
+            return eventos.size();
+        });
+        int publicadosLote = quantidade == null ? 0 : quantidade;
+        publicados.increment(publicadosLote);
+        return publicadosLote;
+    }
+}
@@ -0,0 +1,19 @@
+package com.fiap.postech.estoque_service.gateway.port;
+
+import com.fiap.postech.estoque_service.api.dto.AlertaEstoqueDto;
+import com.fiap.postech.estoque_service.api.dto.ItemEstoqueResultadoDTO;
+import com.fiap.postech.estoque_service.api.dto.ResponseDto;
+
+import java.util.List;
+
+public interface AlertaEstoqueServicePort {
+
+    ResponseDto definirLimite(String skuProduto, Integer limiteReposicao);
+
+    List<AlertaEstoqueDto> listarAlertas();
+
+    void avaliar(List<ItemEstoqueResultadoDTO> resultados);
+
+    void avaliar(Integer idProduto, String skuProduto, Integer quantidadeEstoque);
+
+}
@@ -0,0 +1,16 @@
+package com.fiap.postech.estoque_service.gateway.port;
+
+import com.fiap.postech.estoque_service.domain.model.EstoqueLocal;
+import com.fiap.postech.estoque_service.domain.model.LocalEstoque;
+
+import java.util.List;
+
+public interface EstoqueLocalRepositoryPort {
+
+    void salvarLocal(LocalEstoque local);
+
+    void definirQuantidade(Integer idProduto, String codigoLocal, int quantidade);
+
+    List<EstoqueLocal> listarPorProduto(Integer idProduto);
+
+}
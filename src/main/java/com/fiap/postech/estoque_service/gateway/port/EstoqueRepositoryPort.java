@@ -1,10 +1,17 @@
 package com.fiap.postech.estoque_service.gateway.port;
 
+import com.fiap.postech.estoque_service.api.dto.BaixaEstoqueRequest;
+import com.fiap.postech.estoque_service.api.dto.CriterioAlocacaoDTO;
 import com.fiap.postech.estoque_service.api.dto.EstoqueDto;
+import com.fiap.postech.estoque_service.api.dto.ItemAjusteEstoqueDTO;
+import com.fiap.postech.estoque_service.api.dto.ItemEstoqueBaixaDTO;
+import com.fiap.postech.estoque_service.api.dto.ItemEstoqueResultadoDTO;
 import com.fiap.postech.estoque_service.api.dto.ResponseDto;
 import com.fiap.postech.estoque_service.domain.model.Estoque;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface EstoqueRepositoryPort {
 
@@ -16,10 +23,33 @@ public interface EstoqueRepositoryPort {
 
     Estoque buscarPorSku(String skuProduto);
 
-    List<EstoqueDto> listarTodos();
+    List<Estoque> buscarVarios(Collection<String> skusProduto, Collection<Integer> idsProduto);
+
+    List<Estoque> listarPagina(Integer aposIdEstoque, int limite);
+
+    List<Estoque> listarPaginaPorSku(String aPartirDoSku, int limite);
+
+    void exportarEstoques(Consumer<EstoqueDto> consumidor);
 
     void deletarEstoque(String skuProduto);
 
     boolean estoqueExistsBySku(String skuProduto);
 
+    List<ItemEstoqueResultadoDTO> baixarEstoque(List<ItemEstoqueBaixaDTO> itens, String referencia);
+
+    List<ItemEstoqueResultadoDTO> baixarEstoque(List<ItemEstoqueBaixaDTO> itens, String referencia,
+                                                CriterioAlocacaoDTO criterio);
+
+    List<List<ItemEstoqueResultadoDTO>> baixarEstoqueAgrupado(List<BaixaEstoqueRequest> pedidos);
+
+    List<ItemEstoqueResultadoDTO> restaurarEstoque(List<ItemEstoqueBaixaDTO> itens, String referencia);
+
+    List<ItemEstoqueResultadoDTO> ajustarEstoque(List<ItemAjusteEstoqueDTO> itens, String referencia);
+
+    List<String> importarEstoques(List<Estoque> estoques);
+
+    void particionarEstoque(Integer idProduto, int quantidadeBuckets);
+
+    // Falso quando as movimentações não participam da transação do banco e precisam ser desfeitas explicitamente
+    boolean movimentacaoTransacional();
 }
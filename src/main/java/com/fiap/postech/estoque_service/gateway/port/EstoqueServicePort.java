@@ -1,23 +1,34 @@
 package com.fiap.postech.estoque_service.gateway.port;
 
 import com.fiap.postech.estoque_service.api.dto.*;
+import com.fiap.postech.estoque_service.domain.model.FormatoExportacao;
 
-import java.util.List;
+import java.io.OutputStream;
 
 public interface EstoqueServicePort {
 
     ResponseDto cadastrarEstoque(EstoqueRequest request);
 
-    ResponseDto atualizarEstoque(String sku, Integer novaQuantidade);
+    ResponseDto atualizarEstoque(String sku, Integer novaQuantidade, Long versao);
 
     BaixaEstoqueResponse baixarEstoque(BaixaEstoqueRequest request);
 
     BaixaEstoqueResponse restaurarEstoque(BaixaEstoqueRequest request);
 
+    BaixaEstoqueResponse ajustarEstoque(String sku, Integer delta);
+
+    BaixaEstoqueResponse ajustarEstoque(AjusteEstoqueRequest request);
+
     EstoqueDto buscarPorSku(String skuProduto);
 
-    List<EstoqueDto> listarTodos();
+    ConsultaEstoqueResponse consultarEstoques(ConsultaEstoqueRequest request);
+
+    PaginaEstoqueDto listarTodos(Integer cursor, Integer limite);
+
+    void exportarEstoques(OutputStream saida, FormatoExportacao formato);
 
     void deletarEstoque(String skuProduto);
 
+    ResponseDto particionarEstoque(String skuProduto, Integer quantidadeBuckets);
+
 }
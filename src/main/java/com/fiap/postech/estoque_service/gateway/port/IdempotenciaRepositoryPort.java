@@ -0,0 +1,22 @@
+package com.fiap.postech.estoque_service.gateway.port;
+
+import com.fiap.postech.estoque_service.domain.model.RegistroIdempotencia;
+
+import java.time.LocalDateTime;
+
+public interface IdempotenciaRepositoryPort {
+
+    // Devolve o lease da tentativa (instante da reserva) ou null se a chave já tem dono. Também retoma chaves
+    // EM_PROCESSAMENTO reservadas antes de 'retomarAntesDe' com o mesmo hash; null desliga a retomada
+    LocalDateTime reservarChave(String chave, String operacao, String hashRequisicao, LocalDateTime retomarAntesDe);
+
+    RegistroIdempotencia buscar(String chave, String operacao);
+
+    // Ambos só afetam a chave se ela ainda estiver EM_PROCESSAMENTO com o lease 'reservadaEm'
+    boolean registrarResposta(String chave, String operacao, String resposta, LocalDateTime reservadaEm);
+
+    boolean liberarChave(String chave, String operacao, LocalDateTime reservadaEm);
+
+    int removerAnterioresA(LocalDateTime limite);
+
+}
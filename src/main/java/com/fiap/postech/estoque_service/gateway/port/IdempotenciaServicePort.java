@@ -0,0 +1,9 @@
+package com.fiap.postech.estoque_service.gateway.port;
+
+import java.util.function.Supplier;
+
+public interface IdempotenciaServicePort {
+
+    <T> T executar(String chave, String operacao, Object requisicao, Class<T> tipoResposta, Supplier<T> acao);
+
+}
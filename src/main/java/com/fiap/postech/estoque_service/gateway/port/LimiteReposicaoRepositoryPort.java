@@ -0,0 +1,13 @@
+package com.fiap.postech.estoque_service.gateway.port;
+
+import com.fiap.postech.estoque_service.domain.model.LimiteReposicao;
+
+import java.util.List;
+
+public interface LimiteReposicaoRepositoryPort {
+
+    void definirLimite(Integer idProduto, Integer limiteReposicao);
+
+    List<LimiteReposicao> listarComLimite();
+
+}
@@ -0,0 +1,15 @@
+package com.fiap.postech.estoque_service.gateway.port;
+
+import com.fiap.postech.estoque_service.api.dto.EstoqueLocaisResponse;
+import com.fiap.postech.estoque_service.api.dto.LocalEstoqueRequest;
+import com.fiap.postech.estoque_service.api.dto.ResponseDto;
+
+public interface LocalEstoqueServicePort {
+
+    ResponseDto salvarLocal(String codigo, LocalEstoqueRequest request);
+
+    ResponseDto definirQuantidade(String skuProduto, String codigoLocal, Integer quantidade);
+
+    EstoqueLocaisResponse listarLocais(String skuProduto);
+
+}
@@ -0,0 +1,19 @@
+package com.fiap.postech.estoque_service.gateway.port;
+
+import com.fiap.postech.estoque_service.domain.model.EventoEstoque;
+import com.fiap.postech.estoque_service.domain.model.MovimentacaoEstoque;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+public interface MovimentacaoRepositoryPort {
+
+    void registrar(List<EventoEstoque> eventos);
+
+    List<MovimentacaoEstoque> listarPagina(String skuProduto, LocalDateTime de, LocalDateTime ate, Long aposId,
+                                           int limite);
+
+    void criarParticao(YearMonth mes);
+
+}
@@ -0,0 +1,12 @@
+package com.fiap.postech.estoque_service.gateway.port;
+
+import com.fiap.postech.estoque_service.api.dto.PaginaMovimentacaoDto;
+
+import java.time.LocalDateTime;
+
+public interface MovimentacaoServicePort {
+
+    PaginaMovimentacaoDto listarMovimentacoes(String skuProduto, LocalDateTime de, LocalDateTime ate, Long cursor,
+                                              Integer limite);
+
+}
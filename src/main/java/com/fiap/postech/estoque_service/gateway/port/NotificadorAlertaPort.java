@@ -0,0 +1,14 @@
+package com.fiap.postech.estoque_service.gateway.port;
+
+import com.fiap.postech.estoque_service.domain.model.AlertaEstoque;
+
+/**
+ * Destino das notificações de cruzamento do limite de reposição, escolhido por {@code estoque.alerta.notificador}.
+ * É chamado depois da movimentação confirmada, na thread da requisição: implementações lentas devem enviar
+ * de forma assíncrona. Uma exceção só é registrada em log e não desfaz a movimentação.
+ */
+public interface NotificadorAlertaPort {
+
+    void notificar(AlertaEstoque alerta) throws Exception;
+
+}
@@ -0,0 +1,16 @@
+package com.fiap.postech.estoque_service.gateway.port;
+
+import com.fiap.postech.estoque_service.domain.model.EventoEstoque;
+
+import java.util.List;
+
+/**
+ * Destino dos eventos do outbox. Um adaptador de broker (Kafka, RabbitMQ...) só precisa implementar esta
+ * interface e ser ativado por {@code estoque.outbox.sink}. Se lançar exceção, o lote inteiro continua
+ * pendente e é reenviado na próxima rodada do relay.
+ */
+public interface PublicadorEventosPort {
+
+    void publicar(List<EventoEstoque> eventos) throws Exception;
+
+}
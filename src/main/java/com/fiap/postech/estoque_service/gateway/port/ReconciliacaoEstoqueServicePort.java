@@ -0,0 +1,12 @@
+package com.fiap.postech.estoque_service.gateway.port;
+
+import com.fiap.postech.estoque_service.api.dto.ReconciliacaoEstoqueResponse;
+import com.fiap.postech.estoque_service.domain.model.FormatoImportacao;
+
+import java.io.InputStream;
+
+public interface ReconciliacaoEstoqueServicePort {
+
+    ReconciliacaoEstoqueResponse reconciliar(InputStream corpo, FormatoImportacao formato, String referencia);
+
+}
@@ -0,0 +1,26 @@
+package com.fiap.postech.estoque_service.gateway.port;
+
+import com.fiap.postech.estoque_service.api.dto.ItemEstoqueBaixaDTO;
+import com.fiap.postech.estoque_service.domain.model.Reserva;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public interface ReservaRepositoryPort {
+
+    Reserva salvar(Reserva reserva);
+
+    Reserva buscarPorId(UUID idReserva);
+
+    boolean confirmar(UUID idReserva, LocalDateTime agora);
+
+    boolean liberar(UUID idReserva);
+
+    List<UUID> expirar(List<UUID> idsReserva, LocalDateTime agora);
+
+    List<UUID> expirarAtrasadas(LocalDateTime vencidasAntesDe, int limite);
+
+    List<ItemEstoqueBaixaDTO> buscarItens(List<UUID> idsReserva);
+
+}
@@ -0,0 +1,24 @@
+package com.fiap.postech.estoque_service.gateway.port;
+
+import com.fiap.postech.estoque_service.api.dto.ReservaRequest;
+import com.fiap.postech.estoque_service.api.dto.ReservaResponse;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public interface ReservaServicePort {
+
+    ReservaResponse criarReserva(ReservaRequest request);
+
+    ReservaResponse confirmarReserva(UUID idReserva);
+
+    ReservaResponse liberarReserva(UUID idReserva);
+
+    ReservaResponse buscarReserva(UUID idReserva);
+
+    int expirarReservas(List<UUID> idsReserva);
+
+    int expirarAtrasadas(LocalDateTime vencidasAntesDe, int limite);
+
+}
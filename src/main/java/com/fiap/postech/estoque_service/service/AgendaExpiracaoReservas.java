@@ -0,0 +1,55 @@
+package com.fiap.postech.estoque_service.service;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fila de vencimento das reservas ativas. Inserção e retirada custam O(log n), então o volume de
+ * reservas abertas não exige varrer a tabela. Reservas confirmadas ou liberadas antes do vencimento
+ * não são removidas: ao vencer, a transição condicional para EXPIRADA simplesmente não as encontra.
+ */
+@Component
+public class AgendaExpiracaoReservas {
+
+    private final DelayQueue<ExpiracaoAgendada> fila = new DelayQueue<>();
+
+    public void agendar(UUID idReserva, LocalDateTime expiraEm) {
+        long atraso = Duration.between(LocalDateTime.now(), expiraEm).toNanos();
+        fila.put(new ExpiracaoAgendada(idReserva, System.nanoTime() + atraso));
+    }
+
+    /**
+     * Bloqueia até que ao menos uma reserva vença e devolve todas as vencidas, até o limite informado.
+     */
+    public List<UUID> aguardarVencidas(int limite) throws InterruptedException {
+        List<ExpiracaoAgendada> vencidas = new ArrayList<>();
+        vencidas.add(fila.take());
+        fila.drainTo(vencidas, limite - 1);
+        return vencidas.stream().map(ExpiracaoAgendada::idReserva).toList();
+    }
+
+    public int pendentes() {
+        return fila.size();
+    }
+
+    private record ExpiracaoAgendada(UUID idReserva, long venceEmNanos) implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(venceEmNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed outro) {
+            return Long.compare(venceEmNanos, ((ExpiracaoAgendada) outro).venceEmNanos);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.fiap.postech.estoque_service.service;
+
+import com.fiap.postech.estoque_service.api.dto.AlertaEstoqueDto;
+import com.fiap.postech.estoque_service.api.dto.ItemEstoqueResultadoDTO;
+import com.fiap.postech.estoque_service.api.dto.ResponseDto;
+import com.fiap.postech.estoque_service.api.mapper.AlertaEstoqueMapper;
+import com.fiap.postech.estoque_service.domain.exceptions.ErroInternoException;
+import com.fiap.postech.estoque_service.domain.exceptions.internal.EstoqueNotFoundException;
+import com.fiap.postech.estoque_service.domain.exceptions.internal.InvalidQuantidadeEstoqueException;
+import com.fiap.postech.estoque_service.domain.exceptions.internal.InvalidSkuEstoqueException;
+import com.fiap.postech.estoque_service.domain.model.AlertaEstoque;
+import com.fiap.postech.estoque_service.domain.model.Estoque;
+import com.fiap.postech.estoque_service.domain.model.LimiteReposicao;
+import com.fiap.postech.estoque_service.domain.model.ModoLeitura;
+import com.fiap.postech.estoque_service.domain.model.TipoAlertaEstoque;
+import com.fiap.postech.estoque_service.gateway.port.AlertaEstoqueServicePort;
+import com.fiap.postech.estoque_service.gateway.port.LimiteReposicaoRepositoryPort;
+import com.fiap.postech.estoque_service.gateway.port.NotificadorAlertaPort;
+import com.fiap.postech.estoque_service.utils.ConstantUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Alertas de reposição avaliados de forma incremental: cada movimentação confere só os SKUs que ela tocou contra o
+ * limite guardado em memória, e os SKUs no limite ou abaixo dele ficam em um índice servido direto pelo GET.
+ * A sincronização periódica relê apenas os SKUs com limite (índice parcial), para carregar o estado na subida e
+ * alinhar instâncias que não viram as movimentações umas das outras; ela não dispara notificações.
+ */
+@Slf4j
+@Service
+public class AlertaEstoqueServiceImpl implements AlertaEstoqueServicePort {
+
+    @Autowired
+    private LimiteReposicaoRepositoryPort limiteRepositoryPort;
+
+    @Autowired
+    private NotificadorAlertaPort notificador;
+
+    @Autowired
+    private EstoqueCache estoqueCache;
+
+    private final Map<Integer, Integer> limites = new ConcurrentHashMap<>();
+
+    private final Map<Integer, AlertaEstoque> abaixoDoLimite = new ConcurrentHashMap<>();
+
+    @Override
+    public ResponseDto definirLimite(String skuProduto, Integer limiteReposicao) {
+        try {
+            if (limiteReposicao != null && limiteReposicao < 0) {
+                log.warn("Limite de reposição inválido para o SKU {}: {}", skuProduto, limiteReposicao);
+                throw new InvalidQuantidadeEstoqueException(ConstantUtils.LIMITE_REPOSICAO_INVALIDO);
+            }
+            Estoque estoque = estoqueCache.buscarPorSku(skuProduto, ModoLeitura.ESTRITO);
+            limiteRepositoryPort.definirLimite(estoque.getIdProduto(), limiteReposicao);
+
+            if (limiteReposicao == null) {
+                limites.remove(estoque.getIdProduto());
+                abaixoDoLimite.remove(estoque.getIdProduto());
+            } else {
+                limites.put(estoque.getIdProduto(), limiteReposicao);
+                avaliar(estoque.getIdProduto(), estoque.getSkuProduto(), estoque.getQuantidadeEstoque());
+            }
+
+            ResponseDto response = new ResponseDto();
+            response.setMessage(ConstantUtils.LIMITE_REPOSICAO_DEFINIDO);
+            Map<String, Object> data = new HashMap<>();
+            data.put("skuProduto", estoque.getSkuProduto());
+            data.put("limiteReposicao", limiteReposicao);
+            response.setData(data);
+            return response;
+
+        } catch (InvalidQuantidadeEstoqueException | InvalidSkuEstoqueException | EstoqueNotFoundException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Erro inesperado ao definir limite de reposição", e);
+            throw new ErroInternoException("Erro interno ao tentar definir limite de reposição: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public List<AlertaEstoqueDto> listarAlertas() {
+        return abaixoDoLimite.values().stream()
+                .sorted(Comparator.comparing(AlertaEstoque::getSkuProduto))
+                .map(AlertaEstoqueMapper.INSTANCE::domainToDto)
+                .toList();
+    }
+
+    @Override
+    public void avaliar(List<ItemEstoqueResultadoDTO> resultados) {
+        if (resultados == null || limites.isEmpty()) {
+            return;
+        }
+        for (ItemEstoqueResultadoDTO resultado : resultados) {
+            if (resultado.isSucesso()) {
+                avaliar(resultado.getIdProduto(), resultado.getSkuProduto(), resultado.getQuantidadeEstoque());
+            }
+        }
+    }
+
+    /**
+     * Saldo nulo (movimentação que não devolveu o saldo final) só é relido do banco se o SKU tiver limite.
+     */
+    @Override
+    public void avaliar(Integer idProduto, String skuProduto, Integer quantidadeEstoque) {
+        Integer limite = idProduto == null ? null : limites.get(idProduto);
+        if (limite == null) {
+            return;
+        }
+        try {
+            Integer saldo = quantidadeEstoque != null ? quantidadeEstoque
+                    : estoqueCache.buscarPorIdProduto(idProduto, ModoLeitura.ESTRITO).getQuantidadeEstoque();
+            AlertaEstoque cruzamento = atualizaIndice(idProduto, skuProduto, saldo, limite);
+            if (cruzamento != null) {
+                notifica(cruzamento);
+            }
+        } catch (Exception e) {
+            // A movimentação já foi gravada; o alerta se acerta na próxima sincronização
+            log.warn("Falha ao avaliar limite de reposição do produto ID {}: {}", idProduto, e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${estoque.alerta.intervalo-sincronizacao-ms:60000}")
+    public void sincronizar() {
+        List<LimiteReposicao> comLimite = limiteRepositoryPort.listarComLimite();
+        Set<Integer> ids = new HashSet<>();
+        for (LimiteReposicao item : comLimite) {
+            ids.add(item.getIdProduto());
+            limites.put(item.getIdProduto(), item.getLimiteReposicao());
+            atualizaIndice(item.getIdProduto(), item.getSkuProduto(), item.getQuantidadeEstoque(),
+                    item.getLimiteReposicao());
+        }
+        // Limites removidos (ou SKUs excluídos) em outra instância
+        limites.keySet().retainAll(ids);
+        abaixoDoLimite.keySet().retainAll(ids);
+        log.debug("Limites de reposição sincronizados: {} SKU(s), {} em alerta", ids.size(), abaixoDoLimite.size());
+    }
+
+    /**
+     * Atualiza o índice e devolve o alerta quando o saldo cruzou o limite em qualquer sentido; enquanto o SKU
+     * continua do mesmo lado, só o saldo exibido muda e {@code desde} é preservado.
+     */
+    private AlertaEstoque atualizaIndice(Integer idProduto, String skuProduto, int saldo, int limite) {
+        AlertaEstoque[] cruzamento = new AlertaEstoque[1];
+        LocalDateTime agora = LocalDateTime.now();
+        abaixoDoLimite.compute(idProduto, (id, atual) -> {
+            if (saldo > limite) {
+                if (atual != null) {
+                    cruzamento[0] = new AlertaEstoque(TipoAlertaEstoque.NORMALIZADO, id, skuProduto, saldo, limite, agora);
+                }
+                return null;
+            }
+            if (atual == null) {
+                cruzamento[0] = new AlertaEstoque(TipoAlertaEstoque.ABAIXO_DO_LIMITE, id, skuProduto, saldo, limite, agora);
+            }
+            return new AlertaEstoque(TipoAlertaEstoque.ABAIXO_DO_LIMITE, id, skuProduto, saldo, limite,
+                    atual == null ? agora : atual.getDesde());
+        });
+        return cruzamento[0];
+    }
+
+    private void notifica(AlertaEstoque alerta) {
+        try {
+            notificador.notificar(alerta);
+        } catch (Exception e) {
+            log.warn("Falha ao notificar alerta de estoque do SKU {}: {}", alerta.getSkuProduto(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.fiap.postech.estoque_service.service;
+
+import com.fiap.postech.estoque_service.api.dto.ItemEstoqueBaixaDTO;
+import com.fiap.postech.estoque_service.domain.model.Estoque;
+import com.fiap.postech.estoque_service.domain.model.ModoLeitura;
+import com.fiap.postech.estoque_service.domain.model.Sku;
+import com.fiap.postech.estoque_service.gateway.port.EstoqueRepositoryPort;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Cache de leitura de estoque por idProduto, com índice SKU -> idProduto.
+ * Escritas invalidam a entrada; o caminho de decisão (baixa/atualização) lê sempre em modo ESTRITO.
+ */
+@Slf4j
+@Component
+public class EstoqueCache {
+
+    @Autowired
+    private EstoqueRepositoryPort repositoryPort;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    @Value("${estoque.cache.tamanho-maximo:10000}")
+    private long tamanhoMaximo;
+
+    @Value("${estoque.cache.ttl-segundos:5}")
+    private long ttlSegundos;
+
+    @Value("${estoque.cache.modo-leitura:RELAXADO}")
+    private ModoLeitura modoLeitura;
+
+    private Cache<Integer, Estoque> porIdProduto;
+    private Cache<String, Integer> idPorSku;
+
+    @PostConstruct
+    public void iniciar() {
+        porIdProduto = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(Duration.ofSeconds(ttlSegundos))
+                .recordStats()
+                .build();
+        // SKU -> idProduto não muda enquanto o estoque existir; só é removido na exclusão
+        idPorSku = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .build();
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, porIdProduto, "estoque");
+        }
+    }
+
+    public ModoLeitura getModoLeitura() {
+        return modoLeitura;
+    }
+
+    public Estoque buscarPorSku(String skuProduto, ModoLeitura modo) {
+        skuProduto = Sku.chave(skuProduto);
+        if (modo == ModoLeitura.RELAXADO) {
+            Integer idProduto = idPorSku.getIfPresent(skuProduto);
+            Estoque emCache = idProduto == null ? null : porIdProduto.getIfPresent(idProduto);
+            if (emCache != null) {
+                return copia(emCache);
+            }
+        }
+        return armazena(repositoryPort.buscarPorSku(skuProduto));
+    }
+
+    public Estoque buscarPorIdProduto(Integer idProduto, ModoLeitura modo) {
+        if (modo == ModoLeitura.RELAXADO) {
+            Estoque emCache = porIdProduto.getIfPresent(idProduto);
+            if (emCache != null) {
+                return copia(emCache);
+            }
+        }
+        return armazena(repositoryPort.buscarPorIdProduto(idProduto));
+    }
+
+    /**
+     * Vários estoques de uma vez: no modo RELAXADO só os que faltam no cache vão ao banco, todos no mesmo comando.
+     * SKUs e IDs sem estoque ficam fora do resultado.
+     */
+    public List<Estoque> buscarVarios(Collection<String> skusProduto, Collection<Integer> idsProduto, ModoLeitura modo) {
+        List<Estoque> encontrados = new ArrayList<>();
+        Set<String> skusFaltantes = new LinkedHashSet<>();
+        Set<Integer> idsFaltantes = new LinkedHashSet<>();
+        for (String skuProduto : skusProduto) {
+            String chave = Sku.chave(skuProduto);
+            Integer idProduto = modo == ModoLeitura.RELAXADO ? idPorSku.getIfPresent(chave) : null;
+            Estoque emCache = idProduto == null ? null : porIdProduto.getIfPresent(idProduto);
+            if (emCache != null) {
+                encontrados.add(copia(emCache));
+            } else {
+                skusFaltantes.add(chave);
+            }
+        }
+        for (Integer idProduto : idsProduto) {
+            Estoque emCache = modo == ModoLeitura.RELAXADO ? porIdProduto.getIfPresent(idProduto) : null;
+            if (emCache != null) {
+                encontrados.add(copia(emCache));
+            } else {
+                idsFaltantes.add(idProduto);
+            }
+        }
+        if (!skusFaltantes.isEmpty() || !idsFaltantes.isEmpty()) {
+            repositoryPort.buscarVarios(skusFaltantes, idsFaltantes).forEach(estoque -> encontrados.add(armazena(estoque)));
+        }
+        return encontrados;
+    }
+
+    public void invalidar(Integer idProduto) {
+        if (idProduto != null) {
+            porIdProduto.invalidate(idProduto);
+        }
+    }
+
+    public void invalidarItens(Collection<ItemEstoqueBaixaDTO> itens) {
+        itens.forEach(item -> invalidar(item.getIdProduto()));
+    }
+
+    public void invalidarSku(String skuProduto) {
+        skuProduto = Sku.chave(skuProduto);
+        Integer idProduto = idPorSku.getIfPresent(skuProduto);
+        idPorSku.invalidate(skuProduto);
+        invalidar(idProduto);
+    }
+
+    private Estoque armazena(Estoque estoque) {
+        if (estoque != null && estoque.getIdProduto() != null) {
+            porIdProduto.put(estoque.getIdProduto(), copia(estoque));
+            idPorSku.put(estoque.getSkuProduto(), estoque.getIdProduto());
+        }
+        return estoque;
+    }
+
+    // Estoque é mutável: quem lê recebe uma cópia para não alterar a entrada compartilhada
+    private Estoque copia(Estoque estoque) {
+        return new Estoque(estoque.getIdEstoque(), estoque.getIdProduto(),
+                estoque.getSkuProduto(), estoque.getQuantidadeEstoque(), estoque.getVersao());
+    }
+}
@@ -1,21 +1,37 @@
 package com.fiap.postech.estoque_service.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.fiap.postech.estoque_service.api.dto.*;
 import com.fiap.postech.estoque_service.api.mapper.EstoqueMapper;
 import com.fiap.postech.estoque_service.domain.exceptions.ErroInternoException;
 import com.fiap.postech.estoque_service.domain.exceptions.internal.*;
 import com.fiap.postech.estoque_service.domain.model.Estoque;
-import com.fiap.postech.estoque_service.gateway.client.ProdutoClient;
+import com.fiap.postech.estoque_service.domain.model.FormatoExportacao;
+import com.fiap.postech.estoque_service.domain.model.ModoLeitura;
+import com.fiap.postech.estoque_service.domain.model.Sku;
+import com.fiap.postech.estoque_service.gateway.client.ProdutoCache;
 import com.fiap.postech.estoque_service.gateway.client.dto.ProdutoDto;
+import com.fiap.postech.estoque_service.gateway.port.AlertaEstoqueServicePort;
 import com.fiap.postech.estoque_service.gateway.port.EstoqueRepositoryPort;
 import com.fiap.postech.estoque_service.gateway.port.EstoqueServicePort;
 import com.fiap.postech.estoque_service.utils.ConstantUtils;
-import feign.FeignException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 @Slf4j
 @Service
@@ -25,7 +41,31 @@ public class EstoqueServiceImpl implements EstoqueServicePort {
     private EstoqueRepositoryPort repositoryPort;
 
     @Autowired
-    private ProdutoClient produtoClient;
+    private ProdutoCache produtoCache;
+
+    @Autowired
+    private EstoqueCache estoqueCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AlertaEstoqueServicePort alertas;
+
+    @Autowired
+    private PipelineBaixaEstoque pipelineBaixa;
+
+    @Value("${estoque.listagem.limite-padrao:100}")
+    private int limitePadrao;
+
+    @Value("${estoque.listagem.limite-maximo:1000}")
+    private int limiteMaximo;
+
+    @Value("${estoque.consulta.max-itens:500}")
+    private int maxItensConsulta;
+
+    @Value("${estoque.particionamento.max-buckets:64}")
+    private int maxBuckets;
 
     @Override
     public ResponseDto cadastrarEstoque(EstoqueRequest request) {
@@ -44,7 +84,7 @@ public class EstoqueServiceImpl implements EstoqueServicePort {
             return repositoryPort.cadastrarEstoque(estoque);
 
         } catch (InvalidQuantidadeEstoqueException | InvalidSkuEstoqueException |
-                 ProdutoNotFoundException | EstoqueExistsException e) {
+                 ProdutoNotFoundException | ProdutoServiceIndisponivelException | EstoqueExistsException e) {
             throw e;
         } catch (Exception e) {
             log.error("Erro inesperado ao cadastrar estoque", e);
@@ -53,14 +93,26 @@ public class EstoqueServiceImpl implements EstoqueServicePort {
     }
 
     @Override
-    public ResponseDto atualizarEstoque(String sku, Integer novaQuantidade) {
+    public ResponseDto atualizarEstoque(String sku, Integer novaQuantidade, Long versao) {
+        Integer idProduto = null;
         try {
-            Estoque estoque = repositoryPort.buscarPorSku(sku);
+            // Leitura para escrita nunca usa valor em cache
+            Estoque estoque = estoqueCache.buscarPorSku(sku, ModoLeitura.ESTRITO);
+            idProduto = estoque.getIdProduto();
+            // A quantidade é absoluta: só vale sobre a versão que o cliente leu. Sem versão, vale a lida agora
+            if (versao != null) {
+                estoque.setVersao(versao);
+            }
             estoque.setQuantidadeEstoque(novaQuantidade);
-
-            return repositoryPort.atualizarEstoque(estoque);
-
-        } catch (EstoqueNotFoundException e) {
+            ResponseDto response = repositoryPort.atualizarEstoque(estoque);
+            estoqueCache.invalidar(idProduto);
+            alertas.avaliar(idProduto, estoque.getSkuProduto(), novaQuantidade);
+            return response;
+        } catch (ConflitoVersaoException e) {
+            // Sem retentativa: regravar o mesmo valor absoluto sobrescreveria a operação que venceu
+            estoqueCache.invalidar(idProduto);
+            throw e;
+        } catch (EstoqueNotFoundException | InvalidQuantidadeEstoqueException e) {
             throw e;
         } catch (Exception e) {
             log.error("Erro inesperado ao atualizar estoque", e);
@@ -70,41 +122,60 @@ public class EstoqueServiceImpl implements EstoqueServicePort {
 
     @Override
     public BaixaEstoqueResponse baixarEstoque(BaixaEstoqueRequest request) {
-
-        for (ItemEstoqueBaixaDTO item : request.getItens()) {
-            if (!validaEstoque(item.getIdProduto(), item.getQuantidade())) {
-                return new BaixaEstoqueResponse(false, "Estoque insuficiente para o produto ID: " + item.getIdProduto());
-            }
+        try {
+            // Baixa condicional em uma única transação: se algum item não tiver saldo, nada é baixado. Com o
+            // pipeline, a transação é a do lote de pedidos, mas o tudo ou nada continua valendo por pedido
+            List<ItemEstoqueResultadoDTO> itens = pipelineBaixa.habilitado()
+                    ? pipelineBaixa.baixar(request)
+                    : repositoryPort.baixarEstoque(request.getItens(), request.getReferencia(), request.getAlocacao());
+            estoqueCache.invalidarItens(request.getItens());
+            alertas.avaliar(itens);
+            return new BaixaEstoqueResponse(true, "Estoque baixado com sucesso", itens);
+        } catch (EstoqueInsuficienteException e) {
+            return new BaixaEstoqueResponse(false, e.getMessage(), e.getItens());
         }
+    }
 
-        // Se todos têm estoque, baixa todos de uma vez
-        for (ItemEstoqueBaixaDTO item : request.getItens()) {
-            Estoque estoque = repositoryPort.buscarPorIdProduto(item.getIdProduto());
-            estoque.setQuantidadeEstoque(estoque.getQuantidadeEstoque() - item.getQuantidade());
-            repositoryPort.atualizarEstoque(estoque);
+    @Override
+    public BaixaEstoqueResponse restaurarEstoque(BaixaEstoqueRequest request) {
+        try {
+            List<ItemEstoqueResultadoDTO> itens = repositoryPort.restaurarEstoque(request.getItens(), request.getReferencia());
+            estoqueCache.invalidarItens(request.getItens());
+            alertas.avaliar(itens);
+            return new BaixaEstoqueResponse(true, "Estoque restaurado com sucesso", itens);
+        } catch (EstoqueNotFoundException e) {
+            return new BaixaEstoqueResponse(false, e.getMessage());
         }
-
-        return new BaixaEstoqueResponse(true, "Estoque baixado com sucesso");
     }
 
     @Override
-    public BaixaEstoqueResponse restaurarEstoque(BaixaEstoqueRequest request) {
+    public BaixaEstoqueResponse ajustarEstoque(String sku, Integer delta) {
+        return ajustarEstoque(new AjusteEstoqueRequest(List.of(new ItemAjusteEstoqueDTO(sku, delta))));
+    }
 
-        for (ItemEstoqueBaixaDTO item : request.getItens()) {
-            Estoque estoque = repositoryPort.buscarPorIdProduto(item.getIdProduto());
-            if (estoque == null) {
-                return new BaixaEstoqueResponse(false, "Estoque não encontrado para o produto ID: " + item.getIdProduto());
-            }
-            estoque.setQuantidadeEstoque(estoque.getQuantidadeEstoque() + item.getQuantidade());
-            repositoryPort.atualizarEstoque(estoque);
+    @Override
+    public BaixaEstoqueResponse ajustarEstoque(AjusteEstoqueRequest request) {
+        List<ItemAjusteEstoqueDTO> itens = request.getItens().stream()
+                .map(item -> new ItemAjusteEstoqueDTO(Sku.chave(item.getSkuProduto()), item.getDelta()))
+                .toList();
+        try {
+            // Delta aplicado no banco em um único comando, sem ler o saldo antes
+            List<ItemEstoqueResultadoDTO> resultados = repositoryPort.ajustarEstoque(itens, request.getReferencia());
+            alertas.avaliar(resultados);
+            return new BaixaEstoqueResponse(true, ConstantUtils.ESTOQUE_AJUSTADO, resultados);
+        } catch (EstoqueInsuficienteException e) {
+            return new BaixaEstoqueResponse(false, e.getMessage(), e.getItens());
+        } catch (EstoqueNotFoundException e) {
+            return new BaixaEstoqueResponse(false, e.getMessage());
+        } finally {
+            itens.forEach(item -> estoqueCache.invalidarSku(item.getSkuProduto()));
         }
-        return new BaixaEstoqueResponse(true, "Estoque restaurado com sucesso");
     }
 
     @Override
     public EstoqueDto buscarPorSku(String skuProduto) {
         try {
-            Estoque estoque = repositoryPort.buscarPorSku(skuProduto);
+            Estoque estoque = estoqueCache.buscarPorSku(skuProduto, estoqueCache.getModoLeitura());
             return EstoqueMapper.INSTANCE.domainToDto(estoque);
         } catch (EstoqueNotFoundException e) {
             throw e;
@@ -115,19 +186,120 @@ public class EstoqueServiceImpl implements EstoqueServicePort {
     }
 
     @Override
-    public List<EstoqueDto> listarTodos() {
+    public ConsultaEstoqueResponse consultarEstoques(ConsultaEstoqueRequest request) {
+        List<String> skus = request.getSkus() == null ? List.of() : request.getSkus().stream()
+                .filter(Objects::nonNull)
+                .map(Sku::chave)
+                .distinct()
+                .toList();
+        List<Integer> idsProduto = request.getIdsProduto() == null ? List.of() : request.getIdsProduto().stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        if (skus.size() + idsProduto.size() > maxItensConsulta) {
+            log.warn("Consulta com {} itens acima do limite de {}", skus.size() + idsProduto.size(), maxItensConsulta);
+            throw new InvalidQuantidadeEstoqueException(ConstantUtils.CONSULTA_EXCEDE_LIMITE + maxItensConsulta + " itens.");
+        }
         try {
-            return repositoryPort.listarTodos();
+            Map<String, Estoque> porSku = new HashMap<>();
+            Map<Integer, Estoque> porIdProduto = new HashMap<>();
+            for (Estoque estoque : estoqueCache.buscarVarios(skus, idsProduto, estoqueCache.getModoLeitura())) {
+                porSku.put(estoque.getSkuProduto(), estoque);
+                porIdProduto.put(estoque.getIdProduto(), estoque);
+            }
+
+            // Resposta na ordem pedida, só com SKU/ID -> saldo
+            ConsultaEstoqueResponse response = new ConsultaEstoqueResponse(new LinkedHashMap<>(), new LinkedHashMap<>(),
+                    new ArrayList<>());
+            for (String sku : skus) {
+                Estoque estoque = porSku.get(sku);
+                if (estoque != null) {
+                    response.getPorSku().put(sku, estoque.getQuantidadeEstoque());
+                } else {
+                    response.getNaoEncontrados().add(sku);
+                }
+            }
+            for (Integer idProduto : idsProduto) {
+                Estoque estoque = porIdProduto.get(idProduto);
+                if (estoque != null) {
+                    response.getPorIdProduto().put(idProduto, estoque.getQuantidadeEstoque());
+                } else {
+                    response.getNaoEncontrados().add(String.valueOf(idProduto));
+                }
+            }
+            return response;
+        } catch (Exception e) {
+            log.error("Erro inesperado ao consultar estoques", e);
+            throw new ErroInternoException("Erro interno ao tentar consultar estoques: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public PaginaEstoqueDto listarTodos(Integer cursor, Integer limite) {
+        try {
+            int tamanhoPagina = limite == null ? limitePadrao : Math.max(1, Math.min(limite, limiteMaximo));
+            // Busca um registro a mais só para saber se existe próxima página
+            List<Estoque> estoques = repositoryPort.listarPagina(cursor, tamanhoPagina + 1);
+            boolean temProxima = estoques.size() > tamanhoPagina;
+            List<Estoque> pagina = temProxima ? estoques.subList(0, tamanhoPagina) : estoques;
+
+            Integer proximoCursor = temProxima ? pagina.get(pagina.size() - 1).getIdEstoque() : null;
+            return new PaginaEstoqueDto(pagina.stream().map(EstoqueMapper.INSTANCE::domainToDto).toList(), proximoCursor);
         } catch (Exception e) {
             log.error("Erro inesperado ao buscar estoques", e);
             throw new ErroInternoException("Erro interno ao tentar buscar estoques: " + e.getMessage());
         }
     }
 
+    @Override
+    public void exportarEstoques(OutputStream saida, FormatoExportacao formato) {
+        try {
+            if (formato == FormatoExportacao.NDJSON) {
+                exportaNdjson(saida);
+            } else {
+                exportaBinario(saida, objectMapper.copyWith(formato == FormatoExportacao.CBOR
+                        ? new CBORFactory() : new SmileFactory()));
+            }
+        } catch (Exception e) {
+            log.error("Erro inesperado ao exportar estoques em {}", formato, e);
+            throw new ErroInternoException("Erro interno ao tentar exportar estoques: " + e.getMessage());
+        }
+    }
+
+    private void exportaNdjson(OutputStream saida) throws IOException {
+        Writer escritor = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+        repositoryPort.exportarEstoques(estoque -> {
+            try {
+                escritor.write(objectMapper.writeValueAsString(estoque));
+                escritor.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        escritor.flush();
+    }
+
+    // Todos os registros saem do mesmo gerador: em CBOR isso já é uma sequência válida e em Smile o cabeçalho
+    // vai uma vez só. O stream da resposta fica aberto para o container fechar
+    private void exportaBinario(OutputStream saida, ObjectMapper mapeador) throws IOException {
+        try (SequenceWriter sequencia = mapeador.writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .writeValues(saida)) {
+            repositoryPort.exportarEstoques(estoque -> {
+                try {
+                    sequencia.write(estoque);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
     @Override
     public void deletarEstoque(String skuProduto) {
         try {
-            repositoryPort.deletarEstoque(skuProduto);
+            repositoryPort.deletarEstoque(Sku.chave(skuProduto));
+            estoqueCache.invalidarSku(skuProduto);
         } catch (EstoqueNotFoundException e) {
             log.error("Estoque não encontrado para o SKU: {}", skuProduto, e);
             throw e;
@@ -137,34 +309,60 @@ public class EstoqueServiceImpl implements EstoqueServicePort {
         }
     }
 
-    private boolean validaEstoque(Integer idProduto, Integer quantidade) {
-        // Se o estoque for nulo ou a quantidade for insuficiente, retorna false
-        Estoque estoque = repositoryPort.buscarPorIdProduto(idProduto);
-        return estoque != null && estoque.getQuantidadeEstoque() >= quantidade;
+    @Override
+    public ResponseDto particionarEstoque(String skuProduto, Integer quantidadeBuckets) {
+        try {
+            if (quantidadeBuckets == null || quantidadeBuckets < 0 || quantidadeBuckets > maxBuckets) {
+                log.warn("Quantidade de buckets inválida para o SKU {}: {}", skuProduto, quantidadeBuckets);
+                throw new InvalidQuantidadeEstoqueException(ConstantUtils.BUCKETS_INVALIDOS + maxBuckets + ".");
+            }
+            Estoque estoque = estoqueCache.buscarPorSku(skuProduto, ModoLeitura.ESTRITO);
+            repositoryPort.particionarEstoque(estoque.getIdProduto(), quantidadeBuckets);
+            estoqueCache.invalidar(estoque.getIdProduto());
+
+            ResponseDto response = new ResponseDto();
+            response.setMessage(ConstantUtils.ESTOQUE_PARTICIONADO);
+            Map<String, Object> data = new HashMap<>();
+            data.put("skuProduto", estoque.getSkuProduto());
+            data.put("buckets", quantidadeBuckets);
+            response.setData(data);
+            return response;
+
+        } catch (InvalidQuantidadeEstoqueException | EstoqueNotFoundException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Erro inesperado ao particionar estoque", e);
+            throw new ErroInternoException("Erro interno ao tentar particionar estoque: " + e.getMessage());
+        }
     }
 
     private void validaCriacaoEstoque(Estoque estoque) {
         if (!estoque.quantidadeValida()) {
             log.warn("Quantidade inválida para o SKU: {}", estoque.getSkuProduto());
-            throw new InvalidQuantidadeEstoqueException("Quantidade não pode ser negativa.");
+            throw new InvalidQuantidadeEstoqueException(ConstantUtils.QUANTIDADE_INVALIDA);
         }
-        if (!estoque.skuValido()) {
+        if (!estoque.normalizarSku()) {
             log.warn("SKU inválido: {}", estoque.getSkuProduto());
-            throw new InvalidSkuEstoqueException("SKU inválido. Deve seguir o padrão XX-XX-XXX.");
+            throw new InvalidSkuEstoqueException(ConstantUtils.SKU_INVALIDO);
         }
     }
 
 
     private ProdutoDto chamadaProdutoClient(Estoque estoque) {
+        ProdutoDto produto;
         try {
-            return produtoClient.buscarPorSku(estoque.getSkuProduto());
-        } catch (FeignException.NotFound e) {
-            log.error("Produto não encontrado para o SKU: {}", estoque.getSkuProduto());
-            throw new ProdutoNotFoundException(ConstantUtils.PRODUTO_NAO_ENCONTRADO);
+            produto = produtoCache.buscarPorSku(estoque.getSkuProduto());
+        } catch (ProdutoServiceIndisponivelException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Erro ao chamar o serviço de produto: {}", e.getMessage());
             throw new ErroInternoException("Erro ao buscar produto: " + e.getMessage());
         }
+        if (produto == null) {
+            log.error("Produto não encontrado para o SKU: {}", estoque.getSkuProduto());
+            throw new ProdutoNotFoundException(ConstantUtils.PRODUTO_NAO_ENCONTRADO);
+        }
+        return produto;
     }
 
 }
@@ -0,0 +1,219 @@
+package com.fiap.postech.estoque_service.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fiap.postech.estoque_service.domain.exceptions.ErroInternoException;
+import com.fiap.postech.estoque_service.domain.exceptions.internal.ChaveIdempotenciaReutilizadaException;
+import com.fiap.postech.estoque_service.domain.exceptions.internal.RequisicaoEmProcessamentoException;
+import com.fiap.postech.estoque_service.domain.model.RegistroIdempotencia;
+import com.fiap.postech.estoque_service.gateway.port.EstoqueRepositoryPort;
+import com.fiap.postech.estoque_service.gateway.port.IdempotenciaRepositoryPort;
+import com.fiap.postech.estoque_service.gateway.port.IdempotenciaServicePort;
+import com.fiap.postech.estoque_service.utils.ConstantUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+@Slf4j
+@Service
+public class IdempotenciaServiceImpl implements IdempotenciaServicePort {
+
+    @Autowired
+    private IdempotenciaRepositoryPort repositoryPort;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${estoque.idempotencia.cache.tamanho-maximo:10000}")
+    private long tamanhoMaximoCache;
+
+    @Value("${estoque.idempotencia.cache.ttl-segundos:600}")
+    private long ttlCacheSegundos;
+
+    @Value("${estoque.idempotencia.retencao-horas:24}")
+    private long retencaoHoras;
+
+    // Reserva EM_PROCESSAMENTO mais antiga que isso é tratada como abandonada e pode ser retomada pela retentativa
+    @Value("${estoque.idempotencia.lease-segundos:60}")
+    private long leaseSegundos;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EstoqueRepositoryPort estoqueRepositoryPort;
+
+    @Autowired
+    private PipelineBaixaEstoque pipelineBaixa;
+
+    // Respostas recentes por operacao:chave; retentativas dentro do TTL não chegam ao banco
+    private Cache<String, RespostaEmCache> respostasRecentes;
+    private TransactionTemplate transactionTemplate;
+
+    private record RespostaEmCache(String hashRequisicao, Object resposta) {
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        respostasRecentes = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximoCache)
+                .expireAfterWrite(Duration.ofSeconds(ttlCacheSegundos))
+                .build();
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public <T> T executar(String chave, String operacao, Object requisicao, Class<T> tipoResposta, Supplier<T> acao) {
+        if (chave == null || chave.isBlank()) {
+            return acao.get();
+        }
+
+        String hash = hashRequisicao(requisicao);
+        String chaveCache = operacao + ":" + chave;
+        RespostaEmCache emCache = respostasRecentes.getIfPresent(chaveCache);
+        if (emCache != null) {
+            verificaMesmaRequisicao(emCache.hashRequisicao(), hash, chave);
+            log.info("Resposta de {} reaproveitada do cache para a Idempotency-Key {}", operacao, chave);
+            return tipoResposta.cast(emCache.resposta());
+        }
+
+        // Movimentação gravada fora da transação daqui (ledger ou baixa em grupo) não é desfeita pelo fence do
+        // lease, então a chave nunca é retomada nem liberada depois que a movimentação foi aplicada
+        boolean transacional = movimentacaoNaTransacao(operacao);
+        LocalDateTime reservadaEm = repositoryPort.reservarChave(chave, operacao, hash,
+                transacional ? LocalDateTime.now().minusSeconds(leaseSegundos) : null);
+        if (reservadaEm == null) {
+            return respostaRegistrada(chave, operacao, hash, chaveCache, tipoResposta);
+        }
+
+        AtomicBoolean aplicada = new AtomicBoolean();
+        T resposta;
+        try {
+            resposta = executarRegistrando(chave, operacao, reservadaEm, acao, aplicada);
+        } catch (RuntimeException e) {
+            if (!transacional && aplicada.get()) {
+                log.error("Movimentação de {} aplicada sem resposta registrada; Idempotency-Key {} mantida reservada",
+                        operacao, chave, e);
+                throw e;
+            }
+            // Sem resposta para guardar: libera a chave para que a retentativa seja processada
+            repositoryPort.liberarChave(chave, operacao, reservadaEm);
+            throw e;
+        }
+
+        respostasRecentes.put(chaveCache, new RespostaEmCache(hash, resposta));
+        return resposta;
+    }
+
+    /**
+     * A resposta é gravada na mesma transação da operação: se o processo cair antes do commit, nem a movimentação nem
+     * a resposta ficam, e a retentativa retoma a chave quando o lease vencer. Se a chave já foi retomada, a gravação
+     * não acha o lease desta tentativa e a transação é desfeita. Operação recusada (transação já marcada para
+     * rollback) não gravou nada, então só a resposta é registrada, depois do rollback.
+     */
+    private <T> T executarRegistrando(String chave, String operacao, LocalDateTime reservadaEm, Supplier<T> acao,
+                                      AtomicBoolean aplicada) {
+        List<T> recusada = new ArrayList<>(1);
+        T resposta = transactionTemplate.execute(status -> {
+            T resultado = acao.get();
+            if (status.isRollbackOnly()) {
+                // Marca localmente para o commit virar rollback sem UnexpectedRollbackException
+                status.setRollbackOnly();
+                recusada.add(resultado);
+                return resultado;
+            }
+            aplicada.set(true);
+            registraResposta(chave, operacao, reservadaEm, resultado);
+            return resultado;
+        });
+        if (!recusada.isEmpty()) {
+            registraResposta(chave, operacao, reservadaEm, resposta);
+        }
+        return resposta;
+    }
+
+    private void registraResposta(String chave, String operacao, LocalDateTime reservadaEm, Object resposta) {
+        if (!repositoryPort.registrarResposta(chave, operacao, serializa(resposta), reservadaEm)) {
+            log.warn("Idempotency-Key {} de {} retomada por outra tentativa", chave, operacao);
+            throw new RequisicaoEmProcessamentoException(ConstantUtils.CHAVE_IDEMPOTENCIA_RETOMADA);
+        }
+    }
+
+    private boolean movimentacaoNaTransacao(String operacao) {
+        return estoqueRepositoryPort.movimentacaoTransacional()
+                && !(ConstantUtils.OPERACAO_BAIXA.equals(operacao) && pipelineBaixa.habilitado());
+    }
+
+    @Scheduled(fixedDelayString = "${estoque.idempotencia.intervalo-limpeza-ms:3600000}")
+    public void removerChavesExpiradas() {
+        int removidas = repositoryPort.removerAnterioresA(LocalDateTime.now().minusHours(retencaoHoras));
+        if (removidas > 0) {
+            log.info("{} chaves de idempotência removidas", removidas);
+        }
+    }
+
+    private <T> T respostaRegistrada(String chave, String operacao, String hash, String chaveCache,
+                                     Class<T> tipoResposta) {
+        RegistroIdempotencia registro = repositoryPort.buscar(chave, operacao);
+        if (registro != null) {
+            verificaMesmaRequisicao(registro.getHashRequisicao(), hash, chave);
+        }
+        if (registro == null || !registro.isConcluido()) {
+            throw new RequisicaoEmProcessamentoException(ConstantUtils.REQUISICAO_EM_PROCESSAMENTO);
+        }
+        T resposta = desserializa(registro.getResposta(), tipoResposta);
+        respostasRecentes.put(chaveCache, new RespostaEmCache(hash, resposta));
+        log.info("Resposta de {} reaproveitada do banco para a Idempotency-Key {}", operacao, chave);
+        return resposta;
+    }
+
+    // Registros anteriores ao hash (coluna nula) continuam aceitos
+    private void verificaMesmaRequisicao(String hashRegistrado, String hash, String chave) {
+        if (hashRegistrado != null && !hashRegistrado.equals(hash)) {
+            log.warn("Idempotency-Key {} reutilizada com outro conteúdo", chave);
+            throw new ChaveIdempotenciaReutilizadaException(ConstantUtils.CHAVE_IDEMPOTENCIA_REUTILIZADA);
+        }
+    }
+
+    private String hashRequisicao(Object requisicao) {
+        try {
+            byte[] corpo = objectMapper.writeValueAsBytes(requisicao);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(corpo));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new ErroInternoException("Erro ao calcular hash da requisição idempotente: " + e.getMessage());
+        }
+    }
+
+    private String serializa(Object resposta) {
+        try {
+            return objectMapper.writeValueAsString(resposta);
+        } catch (JsonProcessingException e) {
+            throw new ErroInternoException("Erro ao registrar resposta idempotente: " + e.getMessage());
+        }
+    }
+
+    private <T> T desserializa(String resposta, Class<T> tipoResposta) {
+        try {
+            return objectMapper.readValue(resposta, tipoResposta);
+        } catch (JsonProcessingException e) {
+            throw new ErroInternoException("Erro ao ler resposta idempotente: " + e.getMessage());
+        }
+    }
+}
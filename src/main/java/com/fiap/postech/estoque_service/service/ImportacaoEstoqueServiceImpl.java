@@ -0,0 +1,172 @@
+package com.fiap.postech.estoque_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fiap.postech.estoque_service.api.dto.ErroImportacaoDTO;
+import com.fiap.postech.estoque_service.api.dto.EstoqueRequest;
+import com.fiap.postech.estoque_service.api.dto.ImportacaoEstoqueResponse;
+import com.fiap.postech.estoque_service.domain.exceptions.ErroInternoException;
+import com.fiap.postech.estoque_service.domain.model.Estoque;
+import com.fiap.postech.estoque_service.domain.model.FormatoImportacao;
+import com.fiap.postech.estoque_service.gateway.client.ProdutoCache;
+import com.fiap.postech.estoque_service.gateway.client.dto.ProdutoDto;
+import com.fiap.postech.estoque_service.gateway.port.EstoqueRepositoryPort;
+import com.fiap.postech.estoque_service.gateway.port.ImportacaoEstoqueServicePort;
+import com.fiap.postech.estoque_service.utils.ConstantUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Importação em massa: lê o corpo linha a linha e grava em lotes, sem carregar o arquivo inteiro em memória.
+ * Cada lote é confirmado isoladamente; o relatório indica quais linhas ficaram de fora.
+ */
+@Slf4j
+@Service
+public class ImportacaoEstoqueServiceImpl implements ImportacaoEstoqueServicePort {
+
+    @Autowired
+    private EstoqueRepositoryPort repositoryPort;
+
+    @Autowired
+    private ProdutoCache produtoCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${estoque.importacao.tamanho-lote:1000}")
+    private int tamanhoLote;
+
+    @Value("${estoque.importacao.max-erros-relatorio:1000}")
+    private int maxErrosRelatorio;
+
+    private record LinhaImportacao(long numero, Estoque estoque) {
+    }
+
+    @Override
+    public ImportacaoEstoqueResponse importar(InputStream corpo, FormatoImportacao formato) {
+        ImportacaoEstoqueResponse relatorio = new ImportacaoEstoqueResponse();
+        List<LinhaImportacao> lote = new ArrayList<>(tamanhoLote);
+
+        try (BufferedReader leitor = new BufferedReader(new InputStreamReader(corpo, StandardCharsets.UTF_8))) {
+            String linha;
+            long numero = 0;
+            while ((linha = leitor.readLine()) != null) {
+                numero++;
+                if (LinhaArquivoEstoque.ignorar(linha, numero, formato)) {
+                    continue;
+                }
+                relatorio.setLinhasProcessadas(relatorio.getLinhasProcessadas() + 1);
+
+                LinhaImportacao item = interpreta(numero, linha, formato, relatorio);
+                if (item != null) {
+                    lote.add(item);
+                    if (lote.size() >= tamanhoLote) {
+                        gravaLote(lote, relatorio);
+                        lote.clear();
+                    }
+                }
+            }
+            gravaLote(lote, relatorio);
+        } catch (IOException e) {
+            log.error("Erro ao ler arquivo de importação", e);
+            throw new ErroInternoException("Erro ao ler arquivo de importação: " + e.getMessage());
+        }
+
+        relatorio.setMensagem(ConstantUtils.IMPORTACAO_CONCLUIDA);
+        log.info("Importação concluída: {} linhas, {} importados, {} rejeitados",
+                relatorio.getLinhasProcessadas(), relatorio.getImportados(), relatorio.getRejeitados());
+        return relatorio;
+    }
+
+    private LinhaImportacao interpreta(long numero, String linha, FormatoImportacao formato,
+                                       ImportacaoEstoqueResponse relatorio) {
+        EstoqueRequest request;
+        try {
+            request = LinhaArquivoEstoque.ler(linha, formato, objectMapper);
+        } catch (Exception e) {
+            rejeita(relatorio, numero, null, ConstantUtils.LINHA_INVALIDA + e.getMessage());
+            return null;
+        }
+
+        Estoque estoque = new Estoque(null, null, request.getSkuProduto(), request.getQuantidadeEstoque());
+        if (!estoque.quantidadeValida()) {
+            rejeita(relatorio, numero, request.getSkuProduto(), ConstantUtils.QUANTIDADE_INVALIDA);
+            return null;
+        }
+        if (!estoque.normalizarSku()) {
+            rejeita(relatorio, numero, request.getSkuProduto(), ConstantUtils.SKU_INVALIDO);
+            return null;
+        }
+        return new LinhaImportacao(numero, estoque);
+    }
+
+    private void gravaLote(List<LinhaImportacao> lote, ImportacaoEstoqueResponse relatorio) {
+        if (lote.isEmpty()) {
+            return;
+        }
+
+        Map<String, LinhaImportacao> porSku = new LinkedHashMap<>();
+        for (LinhaImportacao linha : lote) {
+            if (porSku.putIfAbsent(linha.estoque().getSkuProduto(), linha) != null) {
+                rejeita(relatorio, linha.numero(), linha.estoque().getSkuProduto(), ConstantUtils.SKU_REPETIDO);
+            }
+        }
+
+        Map<String, ProdutoDto> produtos;
+        try {
+            produtos = produtoCache.buscarPorSkus(porSku.keySet());
+        } catch (Exception e) {
+            log.error("Erro ao consultar produtos do lote de importação", e);
+            porSku.values().forEach(linha -> rejeita(relatorio, linha.numero(), linha.estoque().getSkuProduto(),
+                    "Erro ao buscar produto: " + e.getMessage()));
+            return;
+        }
+
+        List<LinhaImportacao> validas = new ArrayList<>();
+        for (LinhaImportacao linha : porSku.values()) {
+            ProdutoDto produto = produtos.get(linha.estoque().getSkuProduto());
+            if (produto == null) {
+                rejeita(relatorio, linha.numero(), linha.estoque().getSkuProduto(), ConstantUtils.PRODUTO_NAO_ENCONTRADO);
+            } else {
+                linha.estoque().setIdProduto(produto.getIdProduto());
+                validas.add(linha);
+            }
+        }
+        if (validas.isEmpty()) {
+            return;
+        }
+
+        Set<String> inseridos;
+        try {
+            inseridos = new HashSet<>(
+                    repositoryPort.importarEstoques(validas.stream().map(LinhaImportacao::estoque).toList()));
+        } catch (Exception e) {
+            // Os lotes anteriores já foram gravados: o relatório segue valendo, com este lote rejeitado inteiro
+            log.error("Erro ao gravar lote de importação", e);
+            validas.forEach(linha -> rejeita(relatorio, linha.numero(), linha.estoque().getSkuProduto(),
+                    "Erro ao gravar estoque: " + e.getMessage()));
+            return;
+        }
+        for (LinhaImportacao linha : validas) {
+            if (!inseridos.contains(linha.estoque().getSkuProduto())) {
+                rejeita(relatorio, linha.numero(), linha.estoque().getSkuProduto(), ConstantUtils.ESTOQUE_JA_EXISTE);
+            }
+        }
+        relatorio.setImportados(relatorio.getImportados() + inseridos.size());
+    }
+
+    private void rejeita(ImportacaoEstoqueResponse relatorio, long numero, String sku, String mensagem) {
+        relatorio.setRejeitados(relatorio.getRejeitados() + 1);
+        if (relatorio.getErros().size() < maxErrosRelatorio) {
+            relatorio.getErros().add(new ErroImportacaoDTO(numero, sku, mensagem));
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.fiap.postech.estoque_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fiap.postech.estoque_service.api.dto.EstoqueRequest;
+import com.fiap.postech.estoque_service.domain.model.FormatoImportacao;
+
+/**
+ * Leitura das linhas dos arquivos de estoque (importação e recontagem): {@code skuProduto,quantidadeEstoque}
+ * em CSV, com cabeçalho opcional, ou um objeto por linha em NDJSON.
+ */
+final class LinhaArquivoEstoque {
+
+    private LinhaArquivoEstoque() {
+    }
+
+    static EstoqueRequest ler(String linha, FormatoImportacao formato, ObjectMapper objectMapper) throws Exception {
+        return formato == FormatoImportacao.NDJSON
+                ? objectMapper.readValue(linha, EstoqueRequest.class)
+                : linhaCsv(linha);
+    }
+
+    static boolean ignorar(String linha, long numero, FormatoImportacao formato) {
+        return linha.isBlank() || (numero == 1 && formato == FormatoImportacao.CSV && cabecalhoCsv(linha));
+    }
+
+    private static EstoqueRequest linhaCsv(String linha) {
+        int separador = separador(linha);
+        if (separador < 0) {
+            throw new IllegalArgumentException("esperado skuProduto,quantidadeEstoque");
+        }
+        EstoqueRequest request = new EstoqueRequest();
+        request.setSkuProduto(semAspas(linha.substring(0, separador)));
+        request.setQuantidadeEstoque(Integer.valueOf(semAspas(linha.substring(separador + 1))));
+        return request;
+    }
+
+    // Posição do único ',' ou ';' da linha, ou -1 se não houver exatamente um. Varredura simples em vez de
+    // split com regex, que compilaria o padrão a cada linha de um arquivo com milhões delas
+    private static int separador(String linha) {
+        int posicao = -1;
+        for (int i = 0; i < linha.length(); i++) {
+            char c = linha.charAt(i);
+            if (c == ',' || c == ';') {
+                if (posicao >= 0) {
+                    return -1;
+                }
+                posicao = i;
+            }
+        }
+        return posicao;
+    }
+
+    private static String semAspas(String campo) {
+        String valor = campo.trim();
+        if (valor.length() >= 2 && valor.startsWith("\"") && valor.endsWith("\"")) {
+            valor = valor.substring(1, valor.length() - 1).trim();
+        }
+        return valor;
+    }
+
+    private static boolean cabecalhoCsv(String linha) {
+        int separador = separador(linha);
+        return separador >= 0 && !semAspas(linha.substring(separador + 1)).matches("-?\\d+");
+    }
+}
@@ -0,0 +1,106 @@
+package com.fiap.postech.estoque_service.service;
+
+import com.fiap.postech.estoque_service.api.dto.EstoqueLocaisResponse;
+import com.fiap.postech.estoque_service.api.dto.EstoqueLocalDto;
+import com.fiap.postech.estoque_service.api.dto.LocalEstoqueRequest;
+import com.fiap.postech.estoque_service.api.dto.ResponseDto;
+import com.fiap.postech.estoque_service.domain.exceptions.ErroInternoException;
+import com.fiap.postech.estoque_service.domain.exceptions.internal.EstoqueNotFoundException;
+import com.fiap.postech.estoque_service.domain.exceptions.internal.InvalidQuantidadeEstoqueException;
+import com.fiap.postech.estoque_service.domain.exceptions.internal.InvalidSkuEstoqueException;
+import com.fiap.postech.estoque_service.domain.exceptions.internal.LocalEstoqueNotFoundException;
+import com.fiap.postech.estoque_service.domain.model.Estoque;
+import com.fiap.postech.estoque_service.domain.model.EstoqueLocal;
+import com.fiap.postech.estoque_service.domain.model.LocalEstoque;
+import com.fiap.postech.estoque_service.domain.model.ModoLeitura;
+import com.fiap.postech.estoque_service.gateway.port.EstoqueLocalRepositoryPort;
+import com.fiap.postech.estoque_service.gateway.port.LocalEstoqueServicePort;
+import com.fiap.postech.estoque_service.utils.ConstantUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+@Slf4j
+@Service
+public class LocalEstoqueServiceImpl implements LocalEstoqueServicePort {
+
+    @Autowired
+    private EstoqueLocalRepositoryPort localRepositoryPort;
+
+    @Autowired
+    private EstoqueCache estoqueCache;
+
+    @Override
+    public ResponseDto salvarLocal(String codigo, LocalEstoqueRequest request) {
+        String codigoLocal = normalizaCodigo(codigo);
+        localRepositoryPort.salvarLocal(new LocalEstoque(codigoLocal, request.getNome(), request.getLatitude(),
+                request.getLongitude()));
+        log.info("Local de estoque {} salvo", codigoLocal);
+
+        ResponseDto response = new ResponseDto();
+        response.setMessage(ConstantUtils.LOCAL_SALVO);
+        Map<String, Object> data = new HashMap<>();
+        data.put("codigo", codigoLocal);
+        data.put("nome", request.getNome());
+        response.setData(data);
+        return response;
+    }
+
+    @Override
+    public ResponseDto definirQuantidade(String skuProduto, String codigoLocal, Integer quantidade) {
+        try {
+            if (quantidade == null || quantidade < 0) {
+                log.warn("Quantidade inválida para o SKU {} no local {}: {}", skuProduto, codigoLocal, quantidade);
+                throw new InvalidQuantidadeEstoqueException(ConstantUtils.QUANTIDADE_INVALIDA);
+            }
+            String codigo = normalizaCodigo(codigoLocal);
+            Estoque estoque = estoqueCache.buscarPorSku(skuProduto, ModoLeitura.ESTRITO);
+            localRepositoryPort.definirQuantidade(estoque.getIdProduto(), codigo, quantidade);
+
+            ResponseDto response = new ResponseDto();
+            response.setMessage(ConstantUtils.ESTOQUE_LOCAL_ATUALIZADO);
+            Map<String, Object> data = new HashMap<>();
+            data.put("skuProduto", estoque.getSkuProduto());
+            data.put("codigoLocal", codigo);
+            data.put("quantidade", quantidade);
+            response.setData(data);
+            return response;
+
+        } catch (InvalidQuantidadeEstoqueException | InvalidSkuEstoqueException | EstoqueNotFoundException
+                 | LocalEstoqueNotFoundException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Erro inesperado ao definir estoque do local", e);
+            throw new ErroInternoException("Erro interno ao tentar definir estoque do local: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public EstoqueLocaisResponse listarLocais(String skuProduto) {
+        try {
+            Estoque estoque = estoqueCache.buscarPorSku(skuProduto, ModoLeitura.ESTRITO);
+            List<EstoqueLocal> locais = localRepositoryPort.listarPorProduto(estoque.getIdProduto());
+            int somaLocais = locais.stream().mapToInt(EstoqueLocal::getQuantidade).sum();
+            return new EstoqueLocaisResponse(estoque.getSkuProduto(), estoque.getQuantidadeEstoque(),
+                    estoque.getQuantidadeEstoque() - somaLocais,
+                    locais.stream()
+                            .map(local -> new EstoqueLocalDto(local.getCodigoLocal(), local.getNome(),
+                                    local.getQuantidade()))
+                            .toList());
+        } catch (InvalidSkuEstoqueException | EstoqueNotFoundException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Erro inesperado ao listar locais do SKU: {}", skuProduto, e);
+            throw new ErroInternoException("Erro interno ao tentar listar locais do estoque: " + e.getMessage());
+        }
+    }
+
+    private String normalizaCodigo(String codigo) {
+        return codigo.trim().toUpperCase(Locale.ROOT);
+    }
+}
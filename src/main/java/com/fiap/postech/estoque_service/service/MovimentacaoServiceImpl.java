@@ -0,0 +1,87 @@
+package com.fiap.postech.estoque_service.service;
+
+import com.fiap.postech.estoque_service.api.dto.PaginaMovimentacaoDto;
+import com.fiap.postech.estoque_service.api.mapper.MovimentacaoMapper;
+import com.fiap.postech.estoque_service.domain.exceptions.ErroInternoException;
+import com.fiap.postech.estoque_service.domain.exceptions.internal.PeriodoInvalidoException;
+import com.fiap.postech.estoque_service.domain.model.MovimentacaoEstoque;
+import com.fiap.postech.estoque_service.domain.model.Sku;
+import com.fiap.postech.estoque_service.gateway.port.MovimentacaoRepositoryPort;
+import com.fiap.postech.estoque_service.gateway.port.MovimentacaoServicePort;
+import com.fiap.postech.estoque_service.utils.ConstantUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+@Slf4j
+@Service
+public class MovimentacaoServiceImpl implements MovimentacaoServicePort {
+
+    @Autowired
+    private MovimentacaoRepositoryPort movimentacaoRepositoryPort;
+
+    @Value("${estoque.movimentacao.limite-padrao:100}")
+    private int limitePadrao;
+
+    @Value("${estoque.movimentacao.limite-maximo:1000}")
+    private int limiteMaximo;
+
+    @Value("${estoque.movimentacao.janela-padrao-dias:30}")
+    private int janelaPadraoDias;
+
+    @Value("${estoque.movimentacao.meses-antecipados:2}")
+    private int mesesAntecipados;
+
+    @Override
+    public PaginaMovimentacaoDto listarMovimentacoes(String skuProduto, LocalDateTime de, LocalDateTime ate,
+                                                     Long cursor, Integer limite) {
+        // O período é sempre limitado: é ele que restringe a consulta às partições envolvidas
+        LocalDateTime fim = ate == null ? LocalDateTime.now() : ate;
+        LocalDateTime inicio = de == null ? fim.minusDays(janelaPadraoDias) : de;
+        if (!inicio.isBefore(fim)) {
+            throw new PeriodoInvalidoException(ConstantUtils.PERIODO_INVALIDO);
+        }
+        try {
+            String sku = skuProduto == null || skuProduto.isBlank() ? null : Sku.chave(skuProduto);
+            int tamanhoPagina = limite == null ? limitePadrao : Math.max(1, Math.min(limite, limiteMaximo));
+            // Busca um registro a mais só para saber se existe próxima página
+            List<MovimentacaoEstoque> movimentacoes =
+                    movimentacaoRepositoryPort.listarPagina(sku, inicio, fim, cursor, tamanhoPagina + 1);
+            boolean temProxima = movimentacoes.size() > tamanhoPagina;
+            List<MovimentacaoEstoque> pagina = temProxima ? movimentacoes.subList(0, tamanhoPagina) : movimentacoes;
+
+            Long proximoCursor = temProxima ? pagina.get(pagina.size() - 1).getId() : null;
+            return new PaginaMovimentacaoDto(pagina.stream().map(MovimentacaoMapper.INSTANCE::domainToDto).toList(),
+                    proximoCursor);
+        } catch (Exception e) {
+            log.error("Erro inesperado ao buscar movimentações de estoque", e);
+            throw new ErroInternoException("Erro interno ao tentar buscar movimentações: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Mantém criadas as partições do mês corrente e dos próximos meses. Roda na inicialização e depois
+     * uma vez por intervalo; partições existentes são ignoradas, e linhas que caíram na partição padrão
+     * enquanto o mês não existia são movidas para a partição criada.
+     */
+    @Scheduled(fixedDelayString = "${estoque.movimentacao.intervalo-particoes-ms:86400000}")
+    public void criarParticoes() {
+        YearMonth atual = YearMonth.now();
+        for (int i = 0; i <= mesesAntecipados; i++) {
+            YearMonth mes = atual.plusMonths(i);
+            try {
+                movimentacaoRepositoryPort.criarParticao(mes);
+            } catch (Exception e) {
+                log.error("Erro ao criar partição de movimentações para {}; linhas do mês ficam na partição padrão até a "
+                        + "próxima rodada",
+                        mes, e);
+            }
+        }
+    }
+}
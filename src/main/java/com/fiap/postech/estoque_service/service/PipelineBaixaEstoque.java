@@ -0,0 +1,204 @@
+package com.fiap.postech.estoque_service.service;
+
+import com.fiap.postech.estoque_service.api.dto.BaixaEstoqueRequest;
+import com.fiap.postech.estoque_service.api.dto.ItemEstoqueBaixaDTO;
+import com.fiap.postech.estoque_service.api.dto.ItemEstoqueResultadoDTO;
+import com.fiap.postech.estoque_service.domain.exceptions.ErroInternoException;
+import com.fiap.postech.estoque_service.domain.exceptions.internal.EstoqueInsuficienteException;
+import com.fiap.postech.estoque_service.gateway.port.EstoqueRepositoryPort;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Modo opcional de baixa em grupo ("group commit"). Cada pedido entra na fila do seu produto de menor ID, e uma
+ * única thread por fila junta os pedidos pendentes em um lote que o repositório aplica em uma transação, travando
+ * cada linha uma vez por lote em vez de uma vez por pedido. Cada chamador recebe o resultado do próprio pedido
+ * pelo seu {@link CompletableFuture}.
+ * <p>
+ * Pedidos de um mesmo produto caem sempre na mesma fila, então um SKU disputado deixa de acumular transações
+ * esperando a trava da linha. Em pedidos com vários produtos, os demais ainda podem ser tocados por outra fila;
+ * aí a trava do banco ordena os lotes como ordenaria as baixas individuais.
+ */
+@Slf4j
+@Component
+public class PipelineBaixaEstoque {
+
+    @Autowired
+    private EstoqueRepositoryPort repositoryPort;
+
+    @Value("${estoque.baixa.pipeline.habilitado:false}")
+    private boolean habilitado;
+
+    @Value("${estoque.baixa.pipeline.filas:8}")
+    private int quantidadeFilas;
+
+    @Value("${estoque.baixa.pipeline.tamanho-maximo-lote:256}")
+    private int tamanhoMaximoLote;
+
+    @Value("${estoque.baixa.pipeline.janela-micros:500}")
+    private long janelaMicros;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean threadsVirtuais;
+
+    private static final String ENCERRADO = "Pipeline de baixa em grupo encerrado";
+
+    private final List<BlockingQueue<PedidoPendente>> filas = new ArrayList<>();
+    private final List<Thread> drenadores = new ArrayList<>();
+    private volatile boolean ativo;
+
+    private record PedidoPendente(BaixaEstoqueRequest request, CompletableFuture<List<ItemEstoqueResultadoDTO>> resultado) {
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        if (!habilitado) {
+            return;
+        }
+        ativo = true;
+        Thread.Builder builder = threadsVirtuais ? Thread.ofVirtual() : Thread.ofPlatform().daemon();
+        for (int i = 0; i < quantidadeFilas; i++) {
+            BlockingQueue<PedidoPendente> fila = new LinkedBlockingQueue<>();
+            filas.add(fila);
+            drenadores.add(builder.name("baixa-pipeline-" + i).start(() -> drenar(fila)));
+        }
+        log.info("Baixa em grupo habilitada com {} fila(s), lote de até {} pedido(s) e janela de {}µs",
+                quantidadeFilas, tamanhoMaximoLote, janelaMicros);
+    }
+
+    @PreDestroy
+    public void parar() {
+        ativo = false;
+        drenadores.forEach(Thread::interrupt);
+    }
+
+    public boolean habilitado() {
+        return habilitado;
+    }
+
+    /**
+     * Enfileira o pedido e aguarda o lote dele. Não há prazo de espera: o pedido pode já estar na transação do
+     * lote, e desistir dele aqui faria o chamador tratar como falha uma baixa que ainda vai ser gravada. A espera
+     * termina mesmo no encerramento: todo pedido aceito na fila é aplicado ou recusado pelo drenador.
+     */
+    public List<ItemEstoqueResultadoDTO> baixar(BaixaEstoqueRequest request) {
+        try {
+            return enfileirar(request).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new ErroInternoException("Erro ao baixar estoque em grupo: " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ErroInternoException("Baixa em grupo interrompida");
+        }
+    }
+
+    public CompletableFuture<List<ItemEstoqueResultadoDTO>> enfileirar(BaixaEstoqueRequest request) {
+        CompletableFuture<List<ItemEstoqueResultadoDTO>> resultado = new CompletableFuture<>();
+        if (!ativo) {
+            resultado.completeExceptionally(new ErroInternoException("Pipeline de baixa em grupo não está ativo"));
+            return resultado;
+        }
+        int menorIdProduto = request.getItens().stream().mapToInt(ItemEstoqueBaixaDTO::getIdProduto).min().orElse(0);
+        BlockingQueue<PedidoPendente> fila = filas.get(Math.floorMod(menorIdProduto, filas.size()));
+        PedidoPendente pendente = new PedidoPendente(request, resultado);
+        fila.add(pendente);
+        // parar() pode ter rodado entre a conferência e o add, depois de o drenador esvaziar a fila. Se o pedido
+        // ainda estiver nela, ninguém mais vai tirá-lo; se não estiver, o drenador já o pegou e vai completá-lo
+        if (!ativo && fila.remove(pendente)) {
+            resultado.completeExceptionally(new ErroInternoException(ENCERRADO));
+        }
+        return resultado;
+    }
+
+    private void drenar(BlockingQueue<PedidoPendente> fila) {
+        List<PedidoPendente> lote = new ArrayList<>(tamanhoMaximoLote);
+        try {
+            while (ativo) {
+                if (!juntarLote(fila, lote)) {
+                    return;
+                }
+                aplicar(lote);
+                lote.clear();
+            }
+        } finally {
+            // Encerrado, inclusive por interrupção dentro de aplicar: os pedidos que sobraram não serão aplicados e
+            // quem espera por eles em baixar() precisa de uma resposta. Completar um futuro já completo não faz nada
+            fila.drainTo(lote);
+            lote.forEach(pedido -> pedido.resultado().completeExceptionally(new ErroInternoException(ENCERRADO)));
+        }
+    }
+
+    // Devolve false se a thread foi interrompida enquanto esperava pedidos
+    private boolean juntarLote(BlockingQueue<PedidoPendente> fila, List<PedidoPendente> lote) {
+        try {
+            lote.add(fila.take());
+            // A janela só serve para juntar mais pedidos; com a fila cheia o lote fecha na hora
+            long prazo = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(janelaMicros);
+            while (lote.size() < tamanhoMaximoLote) {
+                fila.drainTo(lote, tamanhoMaximoLote - lote.size());
+                long restante = prazo - System.nanoTime();
+                if (lote.size() >= tamanhoMaximoLote || restante <= 0) {
+                    break;
+                }
+                PedidoPendente proximo = fila.poll(restante, TimeUnit.NANOSECONDS);
+                if (proximo == null) {
+                    break;
+                }
+                lote.add(proximo);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void aplicar(List<PedidoPendente> lote) {
+        List<List<ItemEstoqueResultadoDTO>> resultados;
+        try {
+            resultados = repositoryPort.baixarEstoqueAgrupado(lote.stream().map(PedidoPendente::request).toList());
+        } catch (Exception e) {
+            // O lote inteiro foi desfeito; cada pedido segue sozinho para receber o próprio resultado
+            log.warn("Lote de baixa em grupo desfeito ({}); aplicando {} pedido(s) individualmente",
+                    e.getMessage(), lote.size());
+            resultados = Collections.nCopies(lote.size(), null);
+        }
+        for (int i = 0; i < lote.size(); i++) {
+            PedidoPendente pedido = lote.get(i);
+            try {
+                pedido.resultado().complete(resultados.get(i) != null
+                        ? confere(resultados.get(i))
+                        : repositoryPort.baixarEstoque(pedido.request().getItens(), pedido.request().getReferencia(),
+                        pedido.request().getAlocacao()));
+            } catch (Exception e) {
+                pedido.resultado().completeExceptionally(e);
+            }
+        }
+    }
+
+    private List<ItemEstoqueResultadoDTO> confere(List<ItemEstoqueResultadoDTO> resultado) {
+        for (ItemEstoqueResultadoDTO item : resultado) {
+            if (!item.isSucesso()) {
+                throw new EstoqueInsuficienteException(
+                        "Estoque insuficiente para o produto ID: " + item.getIdProduto(), resultado);
+            }
+        }
+        return resultado;
+    }
+}
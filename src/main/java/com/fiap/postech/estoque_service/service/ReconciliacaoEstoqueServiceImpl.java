@@ -0,0 +1,223 @@
+package com.fiap.postech.estoque_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fiap.postech.estoque_service.api.dto.DivergenciaEstoqueDTO;
+import com.fiap.postech.estoque_service.api.dto.ErroImportacaoDTO;
+import com.fiap.postech.estoque_service.api.dto.EstoqueRequest;
+import com.fiap.postech.estoque_service.api.dto.ItemAjusteEstoqueDTO;
+import com.fiap.postech.estoque_service.api.dto.ReconciliacaoEstoqueResponse;
+import com.fiap.postech.estoque_service.domain.exceptions.ErroInternoException;
+import com.fiap.postech.estoque_service.domain.exceptions.internal.EstoqueInsuficienteException;
+import com.fiap.postech.estoque_service.domain.exceptions.internal.EstoqueNotFoundException;
+import com.fiap.postech.estoque_service.domain.model.Estoque;
+import com.fiap.postech.estoque_service.domain.model.FormatoImportacao;
+import com.fiap.postech.estoque_service.gateway.port.AlertaEstoqueServicePort;
+import com.fiap.postech.estoque_service.gateway.port.EstoqueRepositoryPort;
+import com.fiap.postech.estoque_service.gateway.port.ReconciliacaoEstoqueServicePort;
+import com.fiap.postech.estoque_service.utils.ConstantUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reconciliação com a recontagem física. O arquivo, ordenado por SKU, é percorrido junto com o estoque em
+ * ordem de SKU (merge join), uma página de cada vez, e só as diferenças são gravadas, em lotes: a memória
+ * usada não depende do tamanho do arquivo nem do catálogo.
+ * <p>
+ * Cada diferença é aplicada como delta sobre o saldo lido (o mesmo ajuste do PATCH /ajuste), e não como valor
+ * absoluto, para baixas e restaurações feitas entre a leitura e a gravação continuarem valendo.
+ */
+@Slf4j
+@Service
+public class ReconciliacaoEstoqueServiceImpl implements ReconciliacaoEstoqueServicePort {
+
+    @Autowired
+    private EstoqueRepositoryPort repositoryPort;
+
+    @Autowired
+    private EstoqueCache estoqueCache;
+
+    @Autowired
+    private AlertaEstoqueServicePort alertas;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${estoque.reconciliacao.tamanho-lote:1000}")
+    private int tamanhoLote;
+
+    @Value("${estoque.reconciliacao.max-itens-relatorio:1000}")
+    private int maxItensRelatorio;
+
+    private record Ajuste(ItemAjusteEstoqueDTO item, DivergenciaEstoqueDTO divergencia) {
+    }
+
+    @Override
+    public ReconciliacaoEstoqueResponse reconciliar(InputStream corpo, FormatoImportacao formato, String referencia) {
+        ReconciliacaoEstoqueResponse relatorio = new ReconciliacaoEstoqueResponse();
+        CursorEstoque cursor = new CursorEstoque();
+        List<Ajuste> pendentes = new ArrayList<>(tamanhoLote);
+        String skuAnterior = null;
+
+        try (BufferedReader leitor = new BufferedReader(new InputStreamReader(corpo, StandardCharsets.UTF_8))) {
+            String linha;
+            long numero = 0;
+            while ((linha = leitor.readLine()) != null) {
+                numero++;
+                if (LinhaArquivoEstoque.ignorar(linha, numero, formato)) {
+                    continue;
+                }
+                relatorio.setLinhasProcessadas(relatorio.getLinhasProcessadas() + 1);
+
+                Estoque contagem = interpreta(numero, linha, formato, relatorio);
+                if (contagem == null) {
+                    continue;
+                }
+                String sku = contagem.getSkuProduto();
+                // O merge só avança: um SKU menor ou igual ao anterior já teria passado pelo cursor
+                if (skuAnterior != null && sku.compareTo(skuAnterior) <= 0) {
+                    rejeita(relatorio, numero, sku,
+                            sku.equals(skuAnterior) ? ConstantUtils.SKU_REPETIDO : ConstantUtils.SKU_FORA_DE_ORDEM);
+                    continue;
+                }
+                skuAnterior = sku;
+
+                Estoque sistema = cursor.buscar(sku);
+                if (sistema == null) {
+                    rejeita(relatorio, numero, sku, ConstantUtils.ESTOQUE_NAO_ENCONTRADO);
+                    continue;
+                }
+                int diferenca = contagem.getQuantidadeEstoque() - sistema.getQuantidadeEstoque();
+                if (diferenca == 0) {
+                    relatorio.setConferidos(relatorio.getConferidos() + 1);
+                    continue;
+                }
+
+                relatorio.setDivergentes(relatorio.getDivergentes() + 1);
+                DivergenciaEstoqueDTO divergencia = null;
+                if (relatorio.getDivergencias().size() < maxItensRelatorio) {
+                    divergencia = new DivergenciaEstoqueDTO(numero, sku, sistema.getQuantidadeEstoque(),
+                            contagem.getQuantidadeEstoque(), diferenca, false, null);
+                    relatorio.getDivergencias().add(divergencia);
+                }
+                pendentes.add(new Ajuste(new ItemAjusteEstoqueDTO(sku, diferenca), divergencia));
+                if (pendentes.size() >= tamanhoLote) {
+                    aplica(pendentes, referencia, relatorio);
+                    pendentes.clear();
+                }
+            }
+            aplica(pendentes, referencia, relatorio);
+        } catch (IOException e) {
+            log.error("Erro ao ler arquivo de recontagem", e);
+            throw new ErroInternoException("Erro ao ler arquivo de recontagem: " + e.getMessage());
+        }
+
+        relatorio.setMensagem(ConstantUtils.RECONCILIACAO_CONCLUIDA);
+        log.info("Reconciliação concluída: {} linhas, {} conferidos, {} divergentes, {} ajustados, {} rejeitados",
+                relatorio.getLinhasProcessadas(), relatorio.getConferidos(), relatorio.getDivergentes(),
+                relatorio.getAjustados(), relatorio.getRejeitados());
+        return relatorio;
+    }
+
+    private Estoque interpreta(long numero, String linha, FormatoImportacao formato,
+                               ReconciliacaoEstoqueResponse relatorio) {
+        EstoqueRequest request;
+        try {
+            request = LinhaArquivoEstoque.ler(linha, formato, objectMapper);
+        } catch (Exception e) {
+            rejeita(relatorio, numero, null, ConstantUtils.LINHA_INVALIDA + e.getMessage());
+            return null;
+        }
+
+        Estoque contagem = new Estoque(null, null, request.getSkuProduto(), request.getQuantidadeEstoque());
+        if (!contagem.quantidadeValida()) {
+            rejeita(relatorio, numero, request.getSkuProduto(), ConstantUtils.QUANTIDADE_INVALIDA);
+            return null;
+        }
+        if (!contagem.normalizarSku()) {
+            rejeita(relatorio, numero, request.getSkuProduto(), ConstantUtils.SKU_INVALIDO);
+            return null;
+        }
+        return contagem;
+    }
+
+    private void aplica(List<Ajuste> pendentes, String referencia, ReconciliacaoEstoqueResponse relatorio) {
+        if (pendentes.isEmpty()) {
+            return;
+        }
+        try {
+            alertas.avaliar(repositoryPort.ajustarEstoque(pendentes.stream().map(Ajuste::item).toList(), referencia));
+            pendentes.forEach(ajuste -> marcaAplicada(ajuste, relatorio));
+        } catch (EstoqueInsuficienteException | EstoqueNotFoundException e) {
+            // Algum SKU mudou desde a leitura (removido, ou com baixas que deixariam o saldo negativo) e o lote
+            // inteiro foi desfeito; refaz item a item para aplicar os demais
+            log.warn("Lote de reconciliação desfeito ({}); aplicando {} ajuste(s) individualmente",
+                    e.getMessage(), pendentes.size());
+            for (Ajuste ajuste : pendentes) {
+                try {
+                    alertas.avaliar(repositoryPort.ajustarEstoque(List.of(ajuste.item()), referencia));
+                    marcaAplicada(ajuste, relatorio);
+                } catch (EstoqueInsuficienteException | EstoqueNotFoundException falha) {
+                    if (ajuste.divergencia() != null) {
+                        ajuste.divergencia().setMensagem(falha.getMessage());
+                    }
+                }
+            }
+        } finally {
+            pendentes.forEach(ajuste -> estoqueCache.invalidarSku(ajuste.item().getSkuProduto()));
+        }
+    }
+
+    private void marcaAplicada(Ajuste ajuste, ReconciliacaoEstoqueResponse relatorio) {
+        relatorio.setAjustados(relatorio.getAjustados() + 1);
+        if (ajuste.divergencia() != null) {
+            ajuste.divergencia().setAplicada(true);
+        }
+    }
+
+    private void rejeita(ReconciliacaoEstoqueResponse relatorio, long numero, String sku, String mensagem) {
+        relatorio.setRejeitados(relatorio.getRejeitados() + 1);
+        if (relatorio.getErros().size() < maxItensRelatorio) {
+            relatorio.getErros().add(new ErroImportacaoDTO(numero, sku, mensagem));
+        }
+    }
+
+    /**
+     * Lado do banco do merge: páginas do estoque em ordem de SKU. Cada página começa no SKU do arquivo que
+     * esgotou a anterior, então trechos do catálogo sem linhas no arquivo são pulados pelo índice.
+     */
+    private class CursorEstoque {
+
+        private List<Estoque> pagina = List.of();
+        private int posicao;
+        private boolean fim;
+
+        Estoque buscar(String sku) {
+            while (true) {
+                while (posicao < pagina.size() && pagina.get(posicao).getSkuProduto().compareTo(sku) < 0) {
+                    posicao++;
+                }
+                if (posicao < pagina.size()) {
+                    Estoque atual = pagina.get(posicao);
+                    return atual.getSkuProduto().equals(sku) ? atual : null;
+                }
+                if (fim) {
+                    return null;
+                }
+                pagina = repositoryPort.listarPaginaPorSku(sku, tamanhoLote);
+                posicao = 0;
+                // Página incompleta: não há estoque depois dela, nem para os próximos SKUs do arquivo
+                fim = pagina.size() < tamanhoLote;
+            }
+        }
+    }
+}
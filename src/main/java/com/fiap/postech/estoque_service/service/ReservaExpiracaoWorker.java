@@ -0,0 +1,107 @@
+package com.fiap.postech.estoque_service.service;
+
+import com.fiap.postech.estoque_service.gateway.port.ReservaServicePort;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Thread que consome a {@link AgendaExpiracaoReservas} e devolve ao estoque as reservas vencidas, em lote. A agenda
+ * é o mecanismo de expiração: dispara no vencimento de cada reserva, sem consultar a tabela {@code reserva}.
+ * <p>
+ * A agenda só tem as reservas criadas nesta instância. As de uma instância que caiu ou reiniciou ficariam presas,
+ * por isso existe também uma varredura no banco, só como rede de segurança: ela lê {@code reserva} pelo índice
+ * parcial das ativas ({@code idx_reserva_ativa}), pega apenas as vencidas há mais que a tolerância e roda em um
+ * intervalo bem maior que o da agenda. Não é um segundo caminho de expiração, e com as instâncias de pé não
+ * encontra nada.
+ */
+@Slf4j
+@Component
+public class ReservaExpiracaoWorker {
+
+    @Autowired
+    private AgendaExpiracaoReservas agenda;
+
+    @Autowired
+    private ReservaServicePort reservaService;
+
+    @Value("${estoque.reserva.expiracao.tamanho-lote:500}")
+    private int tamanhoLote;
+
+    @Value("${estoque.reserva.expiracao.atraso-nova-tentativa-segundos:5}")
+    private int atrasoNovaTentativa;
+
+    // Folga para a agenda da instância dona expirar no prazo (inclusive nas novas tentativas) antes de a varredura
+    // disputar a reserva
+    @Value("${estoque.reserva.expiracao.tolerancia-varredura-segundos:120}")
+    private int toleranciaVarredura;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean threadsVirtuais;
+
+    private volatile boolean ativo;
+    private Thread worker;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        ativo = true;
+        Thread.Builder builder = threadsVirtuais ? Thread.ofVirtual() : Thread.ofPlatform().daemon();
+        worker = builder.name("reserva-expiracao").start(this::processar);
+    }
+
+    @PreDestroy
+    public void parar() {
+        ativo = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${estoque.reserva.expiracao.intervalo-varredura-ms:300000}")
+    public void varrerAtrasadas() {
+        try {
+            int total = 0;
+            int expiradas;
+            do {
+                expiradas = reservaService.expirarAtrasadas(
+                        LocalDateTime.now().minusSeconds(toleranciaVarredura), tamanhoLote);
+                total += expiradas;
+            } while (expiradas == tamanhoLote);
+            if (total > 0) {
+                log.info("{} reserva(s) atrasada(s) expirada(s) pela varredura", total);
+            }
+        } catch (Exception e) {
+            log.error("Erro na varredura de reservas atrasadas", e);
+        }
+    }
+
+    private void processar() {
+        while (ativo) {
+            List<UUID> vencidas;
+            try {
+                vencidas = agenda.aguardarVencidas(tamanhoLote);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            try {
+                int expiradas = reservaService.expirarReservas(vencidas);
+                log.info("{} reserva(s) expirada(s) de {} vencida(s)", expiradas, vencidas.size());
+            } catch (Exception e) {
+                log.error("Erro ao expirar {} reserva(s); nova tentativa em {}s", vencidas.size(), atrasoNovaTentativa, e);
+                LocalDateTime novaTentativa = LocalDateTime.now().plusSeconds(atrasoNovaTentativa);
+                vencidas.forEach(idReserva -> agenda.agendar(idReserva, novaTentativa));
+            }
+        }
+    }
+}
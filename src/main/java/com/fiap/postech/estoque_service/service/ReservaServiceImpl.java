@@ -0,0 +1,186 @@
+package com.fiap.postech.estoque_service.service;
+
+import com.fiap.postech.estoque_service.api.dto.ItemEstoqueBaixaDTO;
+import com.fiap.postech.estoque_service.api.dto.ItemEstoqueResultadoDTO;
+import com.fiap.postech.estoque_service.api.dto.ReservaRequest;
+import com.fiap.postech.estoque_service.api.dto.ReservaResponse;
+import com.fiap.postech.estoque_service.domain.exceptions.ErroInternoException;
+import com.fiap.postech.estoque_service.domain.exceptions.internal.EstoqueInsuficienteException;
+import com.fiap.postech.estoque_service.domain.exceptions.internal.ReservaInvalidaException;
+import com.fiap.postech.estoque_service.domain.model.Reserva;
+import com.fiap.postech.estoque_service.domain.model.StatusReserva;
+import com.fiap.postech.estoque_service.gateway.port.EstoqueRepositoryPort;
+import com.fiap.postech.estoque_service.gateway.port.ReservaRepositoryPort;
+import com.fiap.postech.estoque_service.gateway.port.AlertaEstoqueServicePort;
+import com.fiap.postech.estoque_service.gateway.port.ReservaServicePort;
+import com.fiap.postech.estoque_service.utils.ConstantUtils;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Slf4j
+@Service
+public class ReservaServiceImpl implements ReservaServicePort {
+
+    @Autowired
+    private ReservaRepositoryPort reservaRepositoryPort;
+
+    @Autowired
+    private EstoqueRepositoryPort estoqueRepositoryPort;
+
+    @Autowired
+    private AgendaExpiracaoReservas agenda;
+
+    @Autowired
+    private EstoqueCache estoqueCache;
+
+    @Autowired
+    private AlertaEstoqueServicePort alertas;
+
+    @Value("${estoque.reserva.ttl-padrao-segundos:900}")
+    private int ttlPadraoSegundos;
+
+    @Value("${estoque.reserva.ttl-maximo-segundos:3600}")
+    private int ttlMaximoSegundos;
+
+    // Baixa e reserva gravam na mesma transação: uma queda entre as duas não deixa estoque baixado sem reserva
+    @Transactional
+    @Override
+    public ReservaResponse criarReserva(ReservaRequest request) {
+        // A reserva já baixa o estoque: confirmar é só troca de status e liberar/expirar devolve a quantidade
+        List<ItemEstoqueResultadoDTO> resultados;
+        try {
+            resultados = estoqueRepositoryPort.baixarEstoque(request.getItens(), request.getReferencia());
+        } catch (EstoqueInsuficienteException e) {
+            // A baixa recusada já marcou a transação para rollback; marcar aqui evita o UnexpectedRollbackException
+            desfazTransacao();
+            return new ReservaResponse(false, e.getMessage(), null, null, null, e.getItens());
+        }
+        estoqueCache.invalidarItens(request.getItens());
+
+        LocalDateTime agora = LocalDateTime.now();
+        Reserva reserva = new Reserva(null, StatusReserva.ATIVA, agora.plusSeconds(ttlSegundos(request)), agora,
+                request.getItens());
+        try {
+            reserva = reservaRepositoryPort.salvar(reserva);
+        } catch (Exception e) {
+            log.error("Erro ao registrar reserva; desfazendo a baixa", e);
+            if (!estoqueRepositoryPort.movimentacaoTransacional()) {
+                // Os contadores do ledger não participam da transação: a devolução tem de ser explícita
+                estoqueRepositoryPort.restaurarEstoque(request.getItens(), request.getReferencia());
+            }
+            estoqueCache.invalidarItens(request.getItens());
+            throw new ErroInternoException("Erro interno ao tentar criar reserva: " + e.getMessage());
+        }
+
+        // A expiração só pode disparar para uma reserva que o banco já tem
+        Reserva criada = reserva;
+        aposCommit(() -> {
+            agenda.agendar(criada.getIdReserva(), criada.getExpiraEm());
+            alertas.avaliar(resultados);
+        });
+        return montaResponse(reserva, ConstantUtils.RESERVA_CRIADA, resultados);
+    }
+
+    @Transactional
+    @Override
+    public ReservaResponse confirmarReserva(UUID idReserva) {
+        if (!reservaRepositoryPort.confirmar(idReserva, LocalDateTime.now())) {
+            throw reservaNaoAtiva(idReserva);
+        }
+        return montaResponse(reservaRepositoryPort.buscarPorId(idReserva), ConstantUtils.RESERVA_CONFIRMADA, null);
+    }
+
+    @Transactional
+    @Override
+    public ReservaResponse liberarReserva(UUID idReserva) {
+        if (!reservaRepositoryPort.liberar(idReserva)) {
+            throw reservaNaoAtiva(idReserva);
+        }
+        Reserva reserva = reservaRepositoryPort.buscarPorId(idReserva);
+        List<ItemEstoqueResultadoDTO> resultados = estoqueRepositoryPort.restaurarEstoque(reserva.getItens(),
+                idReserva.toString());
+        estoqueCache.invalidarItens(reserva.getItens());
+        alertas.avaliar(resultados);
+        return montaResponse(reserva, ConstantUtils.RESERVA_LIBERADA, resultados);
+    }
+
+    @Override
+    public ReservaResponse buscarReserva(UUID idReserva) {
+        return montaResponse(reservaRepositoryPort.buscarPorId(idReserva), null, null);
+    }
+
+    @Transactional
+    @Override
+    public int expirarReservas(List<UUID> idsReserva) {
+        return devolveExpiradas(reservaRepositoryPort.expirar(idsReserva, LocalDateTime.now()));
+    }
+
+    @Transactional
+    @Override
+    public int expirarAtrasadas(LocalDateTime vencidasAntesDe, int limite) {
+        return devolveExpiradas(reservaRepositoryPort.expirarAtrasadas(vencidasAntesDe, limite));
+    }
+
+    private int devolveExpiradas(List<UUID> expiradas) {
+        if (expiradas.isEmpty()) {
+            return 0;
+        }
+        // Devolve os itens de todas as reservas expiradas em uma única movimentação, por isso sem referência
+        List<ItemEstoqueBaixaDTO> itens = reservaRepositoryPort.buscarItens(expiradas);
+        List<ItemEstoqueResultadoDTO> resultados = estoqueRepositoryPort.restaurarEstoque(itens, null);
+        estoqueCache.invalidarItens(itens);
+        alertas.avaliar(resultados);
+        return expiradas.size();
+    }
+
+    private void aposCommit(Runnable acao) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            acao.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                acao.run();
+            }
+        });
+    }
+
+    private void desfazTransacao() {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+        }
+    }
+
+    private int ttlSegundos(ReservaRequest request) {
+        if (request.getTtlSegundos() == null) {
+            return ttlPadraoSegundos;
+        }
+        return Math.min(request.getTtlSegundos(), ttlMaximoSegundos);
+    }
+
+    private RuntimeException reservaNaoAtiva(UUID idReserva) {
+        Reserva reserva = reservaRepositoryPort.buscarPorId(idReserva);
+        if (reserva.getStatus() == StatusReserva.ATIVA) {
+            log.warn("Reserva {} expirada e ainda não processada", idReserva);
+            return new ReservaInvalidaException(ConstantUtils.RESERVA_EXPIRADA);
+        }
+        log.warn("Reserva {} não está ativa: {}", idReserva, reserva.getStatus());
+        return new ReservaInvalidaException(ConstantUtils.RESERVA_NAO_ATIVA + reserva.getStatus());
+    }
+
+    private ReservaResponse montaResponse(Reserva reserva, String mensagem, List<ItemEstoqueResultadoDTO> itens) {
+        return new ReservaResponse(true, mensagem, reserva.getIdReserva(), reserva.getStatus(),
+                reserva.getExpiraEm(), itens);
+    }
+}
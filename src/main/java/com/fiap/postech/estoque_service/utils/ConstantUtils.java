@@ -5,6 +5,12 @@ import lombok.Data;
 @Data
 public class ConstantUtils {
 
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    public static final String PROXIMO_CURSOR = "X-Proximo-Cursor";
+    public static final String OPERACAO_BAIXA = "BAIXA";
+    public static final String OPERACAO_RESTAURACAO = "RESTAURACAO";
+    public static final String OPERACAO_AJUSTE = "AJUSTE";
+
 
 
 
@@ -15,11 +21,42 @@ public class ConstantUtils {
 
     //ERROS
     public static final String PRODUTO_NAO_ENCONTRADO = "Produto não encontrado para o SKU informado.";
+    public static final String PRODUTO_SERVICE_INDISPONIVEL = "Serviço de produto indisponível no momento. Tente novamente em instantes.";
     public static final String ESTOQUE_JA_EXISTE = "Já existe estoque cadastrado para o SKU informado.";
     public static final String ESTOQUE_NAO_ENCONTRADO = "Estoque não encontrado para o produto informado.";
+    public static final String RESERVA_NAO_ENCONTRADA = "Reserva não encontrada.";
+    public static final String RESERVA_NAO_ATIVA = "Reserva não está ativa. Situação atual: ";
+    public static final String RESERVA_EXPIRADA = "Reserva expirada.";
+    public static final String QUANTIDADE_INVALIDA = "Quantidade não pode ser negativa.";
+    public static final String CONFLITO_ATUALIZACAO = "Estoque alterado por outra operação. Consulte o estoque e envie a versão atual.";
+    public static final String BUCKETS_INVALIDOS = "Quantidade de buckets deve estar entre 0 e ";
+    public static final String CONSULTA_EXCEDE_LIMITE = "A consulta aceita no máximo ";
+    public static final String LIMITE_REPOSICAO_INVALIDO = "Limite de reposição não pode ser negativo.";
+    public static final String LOCAL_NAO_ENCONTRADO = "Local de estoque não encontrado.";
+    public static final String LOCAIS_EXCEDEM_ESTOQUE = "A soma dos locais não pode exceder o saldo total do produto.";
+    public static final String ESTOQUE_ABAIXO_DOS_LOCAIS = "O saldo total não pode ficar abaixo da soma dos locais do produto.";
+    public static final String LOCAIS_COM_PARTICIONAMENTO = "Produto particionado não pode ter estoque por local.";
+    public static final String PERIODO_INVALIDO = "Período inválido: a data inicial deve ser anterior à final.";
+    public static final String SKU_INVALIDO = "SKU inválido. Deve seguir o padrão XX-XX-XXX.";
+    public static final String SKU_REPETIDO = "SKU repetido no arquivo.";
+    public static final String SKU_FORA_DE_ORDEM = "SKU fora de ordem: o arquivo deve estar ordenado por SKU.";
+    public static final String LINHA_INVALIDA = "Linha inválida: ";
+    public static final String REQUISICAO_EM_PROCESSAMENTO = "Requisição com a mesma Idempotency-Key ainda em processamento.";
+    public static final String CHAVE_IDEMPOTENCIA_RETOMADA = "Idempotency-Key retomada por outra tentativa; esta foi desfeita.";
+    public static final String CHAVE_IDEMPOTENCIA_REUTILIZADA = "Idempotency-Key já usada com outro conteúdo de requisição.";
 
 
     //SUCESSO
     public static final String ESTOQUE_CADASTRADO = "Estoque cadastrado com sucesso!";
     public static final String ESTOQUE_ATUALIZADO = "Estoque atualizado com sucesso!";
+    public static final String ESTOQUE_AJUSTADO = "Estoque ajustado com sucesso!";
+    public static final String ESTOQUE_PARTICIONADO = "Particionamento do estoque atualizado com sucesso!";
+    public static final String LIMITE_REPOSICAO_DEFINIDO = "Limite de reposição atualizado com sucesso!";
+    public static final String LOCAL_SALVO = "Local de estoque salvo com sucesso!";
+    public static final String ESTOQUE_LOCAL_ATUALIZADO = "Estoque do local atualizado com sucesso!";
+    public static final String IMPORTACAO_CONCLUIDA = "Importação concluída.";
+    public static final String RECONCILIACAO_CONCLUIDA = "Reconciliação concluída.";
+    public static final String RESERVA_CRIADA = "Reserva criada com sucesso!";
+    public static final String RESERVA_CONFIRMADA = "Reserva confirmada com sucesso!";
+    public static final String RESERVA_LIBERADA = "Reserva liberada com sucesso!";
 }
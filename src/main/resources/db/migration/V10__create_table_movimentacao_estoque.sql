@@ -0,0 +1,34 @@
+-- Diário de movimentações: só recebe INSERT. Alimentado pelo relay do outbox, reaproveitando o id do evento,
+-- e particionado por mês; a aplicação cria as partições dos meses seguintes com antecedência.
+CREATE TABLE movimentacao_estoque (
+    id BIGINT NOT NULL,
+    registrado_em TIMESTAMP NOT NULL,
+    id_produto INTEGER NOT NULL,
+    sku_produto VARCHAR(255),
+    motivo VARCHAR(30) NOT NULL,
+    delta INTEGER,
+    quantidade_estoque INTEGER,
+    referencia VARCHAR(255),
+    PRIMARY KEY (id, registrado_em)
+) PARTITION BY RANGE (registrado_em);
+
+-- Só recebe linhas se a criação antecipada das partições falhar
+CREATE TABLE movimentacao_estoque_padrao PARTITION OF movimentacao_estoque DEFAULT;
+
+DO $$
+DECLARE
+    inicio DATE := date_trunc('month', now())::date;
+BEGIN
+    FOR i IN 0..2 LOOP
+        EXECUTE format('CREATE TABLE movimentacao_estoque_%s PARTITION OF movimentacao_estoque FOR VALUES FROM (%L) TO (%L)',
+                       to_char(inicio + make_interval(months => i), 'YYYY_MM'),
+                       inicio + make_interval(months => i),
+                       inicio + make_interval(months => i + 1));
+    END LOOP;
+END $$;
+
+-- Consulta por SKU em ordem de id; a consulta só por período usa a chave primária
+CREATE INDEX idx_movimentacao_estoque_sku ON movimentacao_estoque (sku_produto, id);
+
+-- Referência da movimentação (pedido, reserva...) levada do outbox para o diário
+ALTER TABLE outbox_estoque ADD COLUMN referencia VARCHAR(255);
@@ -0,0 +1,2 @@
+-- Percurso do estoque em ordem binária de SKU, usado na reconciliação com arquivos de recontagem ordenados
+CREATE INDEX idx_estoque_sku_c ON estoque (sku_produto COLLATE "C");
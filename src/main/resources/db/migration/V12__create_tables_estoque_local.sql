@@ -0,0 +1,15 @@
+-- Centros de distribuição e saldo de cada produto por local. O saldo do produto continua em estoque;
+-- estoque_local só detalha onde ele está, e o total menos a soma dos locais é o saldo ainda sem local.
+CREATE TABLE local_estoque (
+    codigo VARCHAR(30) PRIMARY KEY,
+    nome VARCHAR(100) NOT NULL,
+    latitude DOUBLE PRECISION,
+    longitude DOUBLE PRECISION
+);
+
+CREATE TABLE estoque_local (
+    id_produto INTEGER NOT NULL REFERENCES estoque (id_produto) ON DELETE CASCADE,
+    codigo_local VARCHAR(30) NOT NULL REFERENCES local_estoque (codigo),
+    quantidade INTEGER NOT NULL CHECK (quantidade >= 0),
+    PRIMARY KEY (id_produto, codigo_local)
+);
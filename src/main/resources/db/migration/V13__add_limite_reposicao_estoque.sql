@@ -0,0 +1,5 @@
+-- Limite de reposição por SKU: com saldo igual ou abaixo dele o SKU entra em alerta. Nulo desliga o alerta.
+ALTER TABLE estoque ADD COLUMN limite_reposicao INTEGER CHECK (limite_reposicao >= 0);
+
+-- A sincronização do índice de alertas só percorre os SKUs com limite
+CREATE INDEX idx_estoque_limite_reposicao ON estoque (id_produto) WHERE limite_reposicao IS NOT NULL;
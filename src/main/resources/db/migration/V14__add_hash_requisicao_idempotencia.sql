@@ -0,0 +1,2 @@
+-- Hash do corpo da requisição: a mesma Idempotency-Key com outro conteúdo é recusada em vez de receber a resposta antiga
+ALTER TABLE idempotencia ADD COLUMN hash_requisicao VARCHAR(64);
@@ -0,0 +1,4 @@
+-- Baixas nos buckets não tocam a linha principal: a versão do produto é estoque.versao + soma das versões dos buckets.
+-- Quem regrava os buckets com todas as travas (particionamento, rebalanceamento) incorpora essa soma em estoque.versao
+-- e zera os buckets, então a versão combinada nunca volta atrás.
+ALTER TABLE estoque_bucket ADD COLUMN versao BIGINT NOT NULL DEFAULT 0;
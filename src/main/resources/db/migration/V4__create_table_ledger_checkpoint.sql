@@ -0,0 +1,7 @@
+-- Último segmento do journal do ledger de estoque já gravado na tabela estoque
+CREATE TABLE ledger_checkpoint (
+    id SMALLINT PRIMARY KEY,
+    ultimo_segmento BIGINT NOT NULL
+);
+
+INSERT INTO ledger_checkpoint (id, ultimo_segmento) VALUES (1, 0);
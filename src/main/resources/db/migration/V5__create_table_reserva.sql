@@ -0,0 +1,18 @@
+-- Tabela reserva
+CREATE TABLE reserva (
+    id_reserva UUID PRIMARY KEY,
+    status VARCHAR(20) NOT NULL,
+    expira_em TIMESTAMP NOT NULL,
+    criado_em TIMESTAMP NOT NULL
+);
+
+-- Itens reservados (a quantidade já foi baixada de estoque enquanto a reserva estiver ativa)
+CREATE TABLE reserva_item (
+    id_reserva_item SERIAL PRIMARY KEY,
+    id_reserva UUID NOT NULL REFERENCES reserva (id_reserva),
+    id_produto INTEGER NOT NULL,
+    quantidade INTEGER NOT NULL
+);
+
+CREATE INDEX idx_reserva_item_reserva ON reserva_item (id_reserva);
+CREATE INDEX idx_reserva_ativa ON reserva (expira_em) WHERE status = 'ATIVA';
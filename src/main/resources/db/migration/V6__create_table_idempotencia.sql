@@ -0,0 +1,11 @@
+-- Respostas já enviadas por Idempotency-Key, para responder retentativas sem repetir a movimentação
+CREATE TABLE idempotencia (
+    chave VARCHAR(255) NOT NULL,
+    operacao VARCHAR(30) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    resposta TEXT,
+    criado_em TIMESTAMP NOT NULL,
+    PRIMARY KEY (chave, operacao)
+);
+
+CREATE INDEX idx_idempotencia_criado_em ON idempotencia (criado_em);
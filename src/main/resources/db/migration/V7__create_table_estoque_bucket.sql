@@ -0,0 +1,13 @@
+-- Estoque particionado: o saldo de um produto é quantidade_estoque + soma dos seus buckets.
+-- buckets = 0 mantém o produto na linha única de estoque; com N > 0 as baixas se espalham por N linhas.
+ALTER TABLE estoque ADD COLUMN buckets SMALLINT NOT NULL DEFAULT 0;
+
+CREATE TABLE estoque_bucket (
+    id_produto INTEGER NOT NULL REFERENCES estoque (id_produto) ON DELETE CASCADE,
+    bucket SMALLINT NOT NULL,
+    quantidade INTEGER NOT NULL CHECK (quantidade >= 0),
+    PRIMARY KEY (id_produto, bucket)
+);
+
+-- Rebalanceamento e recarga dos produtos particionados só percorrem as linhas com buckets
+CREATE INDEX idx_estoque_particionado ON estoque (id_produto) WHERE buckets > 0;
@@ -0,0 +1,2 @@
+-- Controle de concorrência otimista: toda gravação direta na linha de estoque incrementa a versão
+ALTER TABLE estoque ADD COLUMN versao BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,15 @@
+-- Outbox de eventos de estoque: gravado na mesma transação da movimentação e publicado depois pelo relay
+CREATE TABLE outbox_estoque (
+    id BIGSERIAL PRIMARY KEY,
+    tipo VARCHAR(30) NOT NULL,
+    id_produto INTEGER NOT NULL,
+    sku_produto VARCHAR(255),
+    quantidade INTEGER,
+    quantidade_estoque INTEGER,
+    criado_em TIMESTAMP NOT NULL DEFAULT now(),
+    publicado_em TIMESTAMP
+);
+
+-- O relay só lê pendentes, em ordem de id; a limpeza só lê publicados
+CREATE INDEX idx_outbox_estoque_pendente ON outbox_estoque (id) WHERE publicado_em IS NULL;
+CREATE INDEX idx_outbox_estoque_publicado ON outbox_estoque (publicado_em) WHERE publicado_em IS NOT NULL;
@@ -0,0 +1,124 @@
+package com.fiap.postech.estoque_service.client;
+
+import com.fiap.postech.estoque_service.gateway.client.ProdutoCache;
+import com.fiap.postech.estoque_service.gateway.client.ProdutoClient;
+import com.fiap.postech.estoque_service.gateway.client.dto.ProdutoDto;
+import feign.FeignException;
+import feign.Request;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ProdutoCacheTest {
+
+    @InjectMocks
+    private ProdutoCache cache;
+
+    @Mock
+    private ProdutoClient produtoClient;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(cache, "tamanhoMaximo", 100L);
+        ReflectionTestUtils.setField(cache, "ttlMinutos", 60L);
+        ReflectionTestUtils.setField(cache, "ttlNegativoSegundos", 30L);
+        ReflectionTestUtils.setField(cache, "tamanhoLote", 2);
+        ReflectionTestUtils.setField(cache, "maxChamadasConcorrentes", 2);
+        ReflectionTestUtils.setField(cache, "taxaFalhaPercentual", 50f);
+        ReflectionTestUtils.setField(cache, "janelaChamadas", 4);
+        ReflectionTestUtils.setField(cache, "minimoChamadas", 4);
+        ReflectionTestUtils.setField(cache, "chamadaLentaMs", 1000L);
+        ReflectionTestUtils.setField(cache, "esperaCircuitoAbertoMs", 60000L);
+        cache.iniciar();
+    }
+
+    // ---------- buscarPorSku ----------
+
+    @Test
+    void buscarPorSku_memoizaProdutoEncontrado() {
+        when(produtoClient.buscarPorSku("AP-IPH-001")).thenReturn(produto(1, "AP-IPH-001"));
+
+        cache.buscarPorSku("AP-IPH-001");
+        ProdutoDto produto = cache.buscarPorSku("AP-IPH-001");
+
+        assertEquals(1, produto.getIdProduto());
+        verify(produtoClient, times(1)).buscarPorSku("AP-IPH-001");
+    }
+
+    @Test
+    void buscarPorSku_cacheNegativoPara404() {
+        when(produtoClient.buscarPorSku("XX-XX-000")).thenThrow(notFound());
+
+        assertNull(cache.buscarPorSku("XX-XX-000"));
+        assertNull(cache.buscarPorSku("XX-XX-000"));
+
+        verify(produtoClient, times(1)).buscarPorSku("XX-XX-000");
+    }
+
+    @Test
+    void buscarPorSku_erroGenericoNaoEhCacheado() {
+        when(produtoClient.buscarPorSku("AP-IPH-001")).thenThrow(new RuntimeException("timeout"));
+
+        assertThrows(RuntimeException.class, () -> cache.buscarPorSku("AP-IPH-001"));
+        assertThrows(RuntimeException.class, () -> cache.buscarPorSku("AP-IPH-001"));
+
+        verify(produtoClient, times(2)).buscarPorSku("AP-IPH-001");
+    }
+
+    // ---------- buscarPorSkus ----------
+
+    @Test
+    void buscarPorSkus_consultaApenasPendentesEmLotes() {
+        when(produtoClient.buscarPorSku("A-A-001")).thenReturn(produto(1, "A-A-001"));
+        when(produtoClient.buscarPorSkus(List.of("A-A-002", "A-A-003"))).thenReturn(List.of(produto(2, "A-A-002")));
+        when(produtoClient.buscarPorSkus(List.of("A-A-004"))).thenReturn(List.of(produto(4, "A-A-004")));
+        cache.buscarPorSku("A-A-001");
+
+        Map<String, ProdutoDto> produtos = cache.buscarPorSkus(List.of("A-A-001", "A-A-002", "A-A-003", "A-A-004"));
+
+        assertEquals(3, produtos.size());
+        assertFalse(produtos.containsKey("A-A-003"));
+        assertNull(cache.buscarPorSku("A-A-003"));
+        verify(produtoClient, never()).buscarPorSku("A-A-003");
+        verify(produtoClient, times(2)).buscarPorSkus(anyList());
+    }
+
+    @Test
+    void buscarPorSkus_semEndpointEmLoteUsaChamadasIndividuais() {
+        when(produtoClient.buscarPorSkus(anyList())).thenThrow(notFound());
+        when(produtoClient.buscarPorSku("A-A-001")).thenReturn(produto(1, "A-A-001"));
+        when(produtoClient.buscarPorSku("A-A-002")).thenThrow(notFound());
+
+        Map<String, ProdutoDto> produtos = cache.buscarPorSkus(List.of("A-A-001", "A-A-002"));
+
+        assertEquals(1, produtos.size());
+        assertEquals(1, produtos.get("A-A-001").getIdProduto());
+        cache.buscarPorSkus(List.of("A-A-005"));
+        verify(produtoClient, times(1)).buscarPorSkus(anyList());
+    }
+
+    private ProdutoDto produto(int id, String sku) {
+        ProdutoDto produto = new ProdutoDto();
+        produto.setIdProduto(id);
+        produto.setSkuProduto(sku);
+        return produto;
+    }
+
+    private FeignException.NotFound notFound() {
+        Request request = Request.create(Request.HttpMethod.GET, "/api/produtos", new HashMap<>(), null,
+                StandardCharsets.UTF_8, null);
+        return new FeignException.NotFound("not found", request, null, null);
+    }
+}
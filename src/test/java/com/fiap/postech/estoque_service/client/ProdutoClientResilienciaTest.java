@@ -0,0 +1,170 @@
+package com.fiap.postech.estoque_service.client;
+
+import com.fiap.postech.estoque_service.domain.exceptions.internal.ProdutoServiceIndisponivelException;
+import com.fiap.postech.estoque_service.gateway.client.ProdutoCache;
+import com.fiap.postech.estoque_service.gateway.client.ProdutoClient;
+import com.fiap.postech.estoque_service.gateway.client.dto.ProdutoDto;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import feign.Feign;
+import feign.Request;
+import feign.Retryer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.cloud.openfeign.support.SpringDecoder;
+import org.springframework.cloud.openfeign.support.SpringMvcContract;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Exercita o ProdutoCache com um ProdutoClient Feign real contra um produto-service simulado
+ * em HTTP local, cobrindo timeout, circuit breaker e bulkhead.
+ */
+class ProdutoClientResilienciaTest {
+
+    private static final int READ_TIMEOUT_MS = 200;
+
+    private HttpServer servidor;
+    private final AtomicInteger requisicoes = new AtomicInteger();
+    private volatile RespostaStub resposta;
+
+    private ProdutoCache cache;
+
+    @FunctionalInterface
+    private interface RespostaStub {
+        void responder(HttpExchange exchange) throws Exception;
+    }
+
+    @BeforeEach
+    void setup() throws IOException {
+        servidor = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        servidor.setExecutor(Executors.newCachedThreadPool());
+        servidor.createContext("/api/produtos", exchange -> {
+            requisicoes.incrementAndGet();
+            try {
+                resposta.responder(exchange);
+            } catch (Exception e) {
+                exchange.sendResponseHeaders(500, -1);
+            } finally {
+                exchange.close();
+            }
+        });
+        servidor.start();
+
+        ProdutoClient client = Feign.builder()
+                .contract(new SpringMvcContract())
+                .decoder(new SpringDecoder(() -> new HttpMessageConverters(new MappingJackson2HttpMessageConverter())))
+                .options(new Request.Options(READ_TIMEOUT_MS, TimeUnit.MILLISECONDS, READ_TIMEOUT_MS, TimeUnit.MILLISECONDS, true))
+                .retryer(Retryer.NEVER_RETRY)
+                .target(ProdutoClient.class, "http://127.0.0.1:" + servidor.getAddress().getPort());
+
+        cache = new ProdutoCache();
+        ReflectionTestUtils.setField(cache, "produtoClient", client);
+        ReflectionTestUtils.setField(cache, "tamanhoMaximo", 100L);
+        ReflectionTestUtils.setField(cache, "ttlMinutos", 60L);
+        ReflectionTestUtils.setField(cache, "ttlNegativoSegundos", 30L);
+        ReflectionTestUtils.setField(cache, "tamanhoLote", 10);
+        ReflectionTestUtils.setField(cache, "maxChamadasConcorrentes", 1);
+        ReflectionTestUtils.setField(cache, "taxaFalhaPercentual", 50f);
+        ReflectionTestUtils.setField(cache, "janelaChamadas", 4);
+        ReflectionTestUtils.setField(cache, "minimoChamadas", 4);
+        ReflectionTestUtils.setField(cache, "chamadaLentaMs", 5000L);
+        ReflectionTestUtils.setField(cache, "esperaCircuitoAbertoMs", 60000L);
+        cache.iniciar();
+    }
+
+    @AfterEach
+    void encerrar() {
+        servidor.stop(0);
+    }
+
+    @Test
+    void buscarPorSku_respostaComSucessoDoServico() {
+        resposta = exchange -> json(exchange, 200, "{\"idProduto\":7,\"skuProduto\":\"AP-IPH-001\"}");
+
+        ProdutoDto produto = cache.buscarPorSku("AP-IPH-001");
+
+        assertEquals(7, produto.getIdProduto());
+    }
+
+    @Test
+    void buscarPorSku_timeoutDeLeituraFalhaRapidoCom503() {
+        resposta = exchange -> {
+            Thread.sleep(READ_TIMEOUT_MS * 10L);
+            json(exchange, 200, "{}");
+        };
+
+        long inicio = System.nanoTime();
+        assertThrows(ProdutoServiceIndisponivelException.class, () -> cache.buscarPorSku("AP-IPH-001"));
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio) < READ_TIMEOUT_MS * 5L);
+    }
+
+    @Test
+    void buscarPorSku_circuitoAbreAposFalhasENaoChamaMaisOServico() {
+        resposta = exchange -> exchange.sendResponseHeaders(503, -1);
+
+        for (int i = 0; i < 4; i++) {
+            String sku = "AP-IPH-00" + i;
+            assertThrows(ProdutoServiceIndisponivelException.class, () -> cache.buscarPorSku(sku));
+        }
+        assertThrows(ProdutoServiceIndisponivelException.class, () -> cache.buscarPorSku("AP-IPH-009"));
+
+        assertEquals(4, requisicoes.get());
+    }
+
+    @Test
+    void buscarPorSku_404NaoContaComoFalhaDoCircuito() {
+        resposta = exchange -> exchange.sendResponseHeaders(404, -1);
+
+        for (int i = 0; i < 6; i++) {
+            assertNull(cache.buscarPorSku("AP-IPH-00" + i));
+        }
+
+        assertEquals(6, requisicoes.get());
+    }
+
+    @Test
+    void buscarPorSku_bulkheadCheioRejeitaSemEsperar() throws Exception {
+        CountDownLatch chegou = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        resposta = exchange -> {
+            chegou.countDown();
+            liberar.await(READ_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            json(exchange, 200, "{\"idProduto\":1,\"skuProduto\":\"AP-IPH-001\"}");
+        };
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<ProdutoDto> ocupada = executor.submit(() -> cache.buscarPorSku("AP-IPH-001"));
+            assertTrue(chegou.await(1, TimeUnit.SECONDS));
+
+            assertThrows(ProdutoServiceIndisponivelException.class, () -> cache.buscarPorSku("AP-IPH-002"));
+
+            liberar.countDown();
+            assertEquals(1, ocupada.get(1, TimeUnit.SECONDS).getIdProduto());
+            assertEquals(1, requisicoes.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void json(HttpExchange exchange, int status, String corpo) throws IOException {
+        byte[] bytes = corpo.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
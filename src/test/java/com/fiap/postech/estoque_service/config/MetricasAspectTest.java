@@ -0,0 +1,143 @@
+package com.fiap.postech.estoque_service.config;
+
+import com.fiap.postech.estoque_service.api.dto.BaixaEstoqueRequest;
+import com.fiap.postech.estoque_service.api.dto.ItemEstoqueBaixaDTO;
+import com.fiap.postech.estoque_service.api.dto.ItemEstoqueResultadoDTO;
+import com.fiap.postech.estoque_service.domain.exceptions.internal.ConflitoVersaoException;
+import com.fiap.postech.estoque_service.domain.exceptions.internal.EstoqueInsuficienteException;
+import com.fiap.postech.estoque_service.domain.exceptions.internal.EstoqueNotFoundException;
+import com.fiap.postech.estoque_service.domain.model.Estoque;
+import com.fiap.postech.estoque_service.gateway.database.EstoqueRepositoryImpl;
+import com.fiap.postech.estoque_service.gateway.port.EstoqueRepositoryPort;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class MetricasAspectTest {
+
+    @Mock
+    private EstoqueRepositoryPort repositoryPort;
+
+    @Mock
+    private EstoqueRepositoryImpl repositoryImpl;
+
+    private SimpleMeterRegistry meterRegistry;
+    private MetricasAspect aspect;
+    private EstoqueRepositoryPort proxy;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        aspect = new MetricasAspect();
+        ReflectionTestUtils.setField(aspect, "meterRegistry", meterRegistry);
+
+        AspectJProxyFactory factory = new AspectJProxyFactory(repositoryPort);
+        factory.addInterface(EstoqueRepositoryPort.class);
+        factory.addAspect(aspect);
+        proxy = factory.getProxy();
+    }
+
+    // ---------- medirRepositorio ----------
+
+    @Test
+    void medirRepositorio_registraLatenciaPorMetodo() {
+        proxy.estoqueExistsBySku("AP-IPH-001");
+
+        assertEquals(1, meterRegistry.get(MetricasAspect.OPERACAO)
+                .tags("camada", "repositorio", "metodo", "estoqueExistsBySku", "resultado", "sucesso")
+                .timer().count());
+    }
+
+    @Test
+    void medirRepositorio_registraErroPorTipoDeExcecao() {
+        when(repositoryPort.buscarPorSku("X")).thenThrow(new EstoqueNotFoundException("x"));
+
+        assertThrows(EstoqueNotFoundException.class, () -> proxy.buscarPorSku("X"));
+
+        assertEquals(1, meterRegistry.get(MetricasAspect.OPERACAO)
+                .tags("metodo", "buscarPorSku", "resultado", "erro", "excecao", "EstoqueNotFoundException")
+                .timer().count());
+    }
+
+    // ---------- medirBaixa ----------
+
+    @Test
+    void medirBaixa_registraItensERejeicoesPorProduto() {
+        List<ItemEstoqueBaixaDTO> itens = List.of(item(1, 2), item(2, 9));
+        when(repositoryPort.baixarEstoque(itens, null)).thenThrow(new EstoqueInsuficienteException("insuficiente", List.of(
+                new ItemEstoqueResultadoDTO(1, "SKU-1", 2, 8, true),
+                new ItemEstoqueResultadoDTO(2, null, 9, null, false))));
+
+        assertThrows(EstoqueInsuficienteException.class, () -> proxy.baixarEstoque(itens, null));
+
+        assertEquals(2.0, meterRegistry.get(MetricasAspect.BAIXA_ITENS).summary().totalAmount());
+        assertEquals(1.0, meterRegistry.get(MetricasAspect.BAIXA_REJEICOES).tag("id_produto", "2").counter().count());
+        assertTrue(meterRegistry.find(MetricasAspect.BAIXA_REJEICOES).tag("id_produto", "1").counters().isEmpty());
+    }
+
+    @Test
+    void medirBaixaAgrupada_registraPedidosDecididosNoLote() {
+        BaixaEstoqueRequest atendido = pedido(item(1, 2), item(2, 1));
+        BaixaEstoqueRequest recusado = pedido(item(3, 9));
+        BaixaEstoqueRequest particionado = pedido(item(4, 1));
+        List<BaixaEstoqueRequest> pedidos = List.of(atendido, recusado, particionado);
+        when(repositoryPort.baixarEstoqueAgrupado(pedidos)).thenReturn(Arrays.asList(
+                List.of(new ItemEstoqueResultadoDTO(1, "SKU-1", 2, 8, true), new ItemEstoqueResultadoDTO(2, "SKU-2", 1, 4, true)),
+                List.of(new ItemEstoqueResultadoDTO(3, "SKU-3", 9, null, false)),
+                null));
+
+        proxy.baixarEstoqueAgrupado(pedidos);
+
+        // O pedido sem resultado vai para a baixa individual e é medido lá
+        assertEquals(2, meterRegistry.get(MetricasAspect.BAIXA_ITENS).summary().count());
+        assertEquals(3.0, meterRegistry.get(MetricasAspect.BAIXA_ITENS).summary().totalAmount());
+        assertEquals(1.0, meterRegistry.get(MetricasAspect.BAIXA_REJEICOES).tag("id_produto", "3").counter().count());
+        assertTrue(meterRegistry.find(MetricasAspect.BAIXA_REJEICOES).tag("id_produto", "1").counters().isEmpty());
+    }
+
+    // ---------- medirConflitos ----------
+
+    @Test
+    void medirConflitos_contaCadaVersaoDesatualizada() {
+        AspectJProxyFactory factory = new AspectJProxyFactory(repositoryImpl);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(aspect);
+        EstoqueRepositoryImpl proxyImpl = factory.getProxy();
+        Estoque estoque = new Estoque(1, 2, "AP-IPH-001", 5, 3L);
+        when(repositoryImpl.atualizarEstoque(estoque))
+                .thenThrow(new ConflitoVersaoException("conflito"))
+                .thenReturn(null);
+
+        assertThrows(ConflitoVersaoException.class, () -> proxyImpl.atualizarEstoque(estoque));
+        proxyImpl.atualizarEstoque(estoque);
+
+        assertEquals(1.0, meterRegistry.get(MetricasAspect.ATUALIZACAO_CONFLITOS).counter().count());
+        assertEquals(2, meterRegistry.get(MetricasAspect.OPERACAO)
+                .tags("camada", "repositorio", "metodo", "atualizarEstoque").timers().stream()
+                .mapToLong(t -> t.count()).sum());
+    }
+
+    private BaixaEstoqueRequest pedido(ItemEstoqueBaixaDTO... itens) {
+        BaixaEstoqueRequest pedido = new BaixaEstoqueRequest();
+        pedido.setItens(List.of(itens));
+        return pedido;
+    }
+
+    private ItemEstoqueBaixaDTO item(int idProduto, int quantidade) {
+        ItemEstoqueBaixaDTO item = new ItemEstoqueBaixaDTO();
+        item.setIdProduto(idProduto);
+        item.setQuantidade(quantidade);
+        return item;
+    }
+}
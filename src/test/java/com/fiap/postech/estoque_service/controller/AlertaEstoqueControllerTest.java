@@ -0,0 +1,61 @@
+package com.fiap.postech.estoque_service.controller;
+
+import com.fiap.postech.estoque_service.api.controller.AlertaEstoqueController;
+import com.fiap.postech.estoque_service.api.dto.AlertaEstoqueDto;
+import com.fiap.postech.estoque_service.api.dto.ResponseDto;
+import com.fiap.postech.estoque_service.gateway.port.AlertaEstoqueServicePort;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AlertaEstoqueControllerTest {
+
+    @Mock
+    private AlertaEstoqueServicePort service;
+
+    @InjectMocks
+    private AlertaEstoqueController controller;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void testListarAlertas() {
+        List<AlertaEstoqueDto> alertas = List.of(new AlertaEstoqueDto());
+        when(service.listarAlertas()).thenReturn(alertas);
+
+        ResponseEntity<List<AlertaEstoqueDto>> response = controller.listarAlertas();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(alertas, response.getBody());
+    }
+
+    @Test
+    void testDefinirLimite() {
+        ResponseDto responseMock = new ResponseDto();
+        when(service.definirLimite("AP-IPH-001", 10)).thenReturn(responseMock);
+
+        ResponseEntity<ResponseDto> response = controller.definirLimite("AP-IPH-001", 10);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(responseMock, response.getBody());
+    }
+
+    @Test
+    void testRemoverLimite() {
+        controller.definirLimite("AP-IPH-001", null);
+
+        verify(service).definirLimite("AP-IPH-001", null);
+    }
+}
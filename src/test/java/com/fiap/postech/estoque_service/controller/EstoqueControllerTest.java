@@ -3,6 +3,12 @@ package com.fiap.postech.estoque_service.controller;
 import com.fiap.postech.estoque_service.api.controller.EstoqueController;
 import com.fiap.postech.estoque_service.api.dto.*;
 import com.fiap.postech.estoque_service.gateway.port.EstoqueServicePort;
+import com.fiap.postech.estoque_service.domain.model.FormatoExportacao;
+import com.fiap.postech.estoque_service.domain.model.FormatoImportacao;
+import com.fiap.postech.estoque_service.gateway.port.IdempotenciaServicePort;
+import com.fiap.postech.estoque_service.gateway.port.ImportacaoEstoqueServicePort;
+import com.fiap.postech.estoque_service.gateway.port.ReconciliacaoEstoqueServicePort;
+import com.fiap.postech.estoque_service.utils.ConstantUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -10,9 +16,14 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -22,12 +33,23 @@ class EstoqueControllerTest {
     @Mock
     private EstoqueServicePort service;
 
+    @Mock
+    private IdempotenciaServicePort idempotenciaService;
+
+    @Mock
+    private ImportacaoEstoqueServicePort importacaoService;
+
+    @Mock
+    private ReconciliacaoEstoqueServicePort reconciliacaoService;
+
     @InjectMocks
     private EstoqueController controller;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        when(idempotenciaService.executar(any(), any(), any(), any(), any()))
+                .thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(4)).get());
     }
 
     // --- Teste cadastrarEstoque ---
@@ -57,7 +79,7 @@ class EstoqueControllerTest {
         BaixaEstoqueResponse responseMock = new BaixaEstoqueResponse(true, "Baixa realizada com sucesso!");
         when(service.baixarEstoque(request)).thenReturn(responseMock);
 
-        ResponseEntity<BaixaEstoqueResponse> response = controller.baixarEstoque(request);
+        ResponseEntity<BaixaEstoqueResponse> response = controller.baixarEstoque(null, request);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertTrue(response.getBody().isSucesso());
@@ -71,13 +93,39 @@ class EstoqueControllerTest {
         BaixaEstoqueResponse responseMock = new BaixaEstoqueResponse(false, "Estoque insuficiente!");
         when(service.baixarEstoque(request)).thenReturn(responseMock);
 
-        ResponseEntity<BaixaEstoqueResponse> response = controller.baixarEstoque(request);
+        ResponseEntity<BaixaEstoqueResponse> response = controller.baixarEstoque(null, request);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertFalse(response.getBody().isSucesso());
         assertEquals("Estoque insuficiente!", response.getBody().getMensagem());
     }
 
+    // --- Teste ajustarEstoque ---
+    @Test
+    void testAjustarEstoque_PorSku() {
+        BaixaEstoqueResponse responseMock = new BaixaEstoqueResponse(true, "Estoque ajustado com sucesso!");
+        when(service.ajustarEstoque("AP-IPH-001", -2)).thenReturn(responseMock);
+
+        ResponseEntity<BaixaEstoqueResponse> response = controller.ajustarEstoque(null, "AP-IPH-001", -2);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(response.getBody().isSucesso());
+        verify(idempotenciaService).executar(isNull(), eq(ConstantUtils.OPERACAO_AJUSTE), any(), any(), any());
+    }
+
+    @Test
+    void testAjustarEstoque_EmLote() {
+        AjusteEstoqueRequest request = new AjusteEstoqueRequest(List.of(new ItemAjusteEstoqueDTO("AP-IPH-001", 12)));
+        BaixaEstoqueResponse responseMock = new BaixaEstoqueResponse(false, "Estoque insuficiente para o SKU: AP-IPH-001");
+        when(service.ajustarEstoque(request)).thenReturn(responseMock);
+
+        ResponseEntity<BaixaEstoqueResponse> response = controller.ajustarEstoqueEmLote("chave-1", request);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertFalse(response.getBody().isSucesso());
+        verify(service).ajustarEstoque(request);
+    }
+
     // --- Teste atualizarEstoque ---
     @Test
     void testAtualizarEstoque_ComSucesso() {
@@ -87,13 +135,55 @@ class EstoqueControllerTest {
         responseMock.setMessage("Estoque atualizado com sucesso!");
         responseMock.setData(null);
 
-        when(service.atualizarEstoque(sku, novaQuantidade)).thenReturn(responseMock);
+        when(service.atualizarEstoque(sku, novaQuantidade, 3L)).thenReturn(responseMock);
 
-        ResponseEntity<ResponseDto> response = controller.atualizarEstoque(sku, novaQuantidade);
+        ResponseEntity<ResponseDto> response = controller.atualizarEstoque(sku, novaQuantidade, 3L);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals("Estoque atualizado com sucesso!", response.getBody().getMessage());
-        verify(service).atualizarEstoque(sku, novaQuantidade);
+        verify(service).atualizarEstoque(sku, novaQuantidade, 3L);
+    }
+
+    // --- Teste particionarEstoque ---
+    @Test
+    void testParticionarEstoque_ComSucesso() {
+        ResponseDto responseMock = new ResponseDto();
+        responseMock.setMessage("Particionamento do estoque atualizado com sucesso!");
+        when(service.particionarEstoque("AP-IPH-001", 8)).thenReturn(responseMock);
+
+        ResponseEntity<ResponseDto> response = controller.particionarEstoque("AP-IPH-001", 8);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(service).particionarEstoque("AP-IPH-001", 8);
+    }
+
+    // --- Teste importarEstoques ---
+    @Test
+    void testImportarEstoques_NdjsonPeloContentType() {
+        InputStream corpo = new ByteArrayInputStream(new byte[0]);
+        ImportacaoEstoqueResponse responseMock = new ImportacaoEstoqueResponse();
+        responseMock.setImportados(2);
+        when(importacaoService.importar(corpo, FormatoImportacao.NDJSON)).thenReturn(responseMock);
+
+        ResponseEntity<ImportacaoEstoqueResponse> response = controller.importarEstoques("application/x-ndjson", corpo);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(2, response.getBody().getImportados());
+        verify(importacaoService).importar(corpo, FormatoImportacao.NDJSON);
+    }
+
+    // --- Teste reconciliarEstoque ---
+    @Test
+    void testReconciliarEstoque_CsvComReferencia() {
+        InputStream corpo = new ByteArrayInputStream(new byte[0]);
+        ReconciliacaoEstoqueResponse responseMock = new ReconciliacaoEstoqueResponse();
+        responseMock.setAjustados(3);
+        when(reconciliacaoService.reconciliar(corpo, FormatoImportacao.CSV, "INV-07")).thenReturn(responseMock);
+
+        ResponseEntity<ReconciliacaoEstoqueResponse> response = controller.reconciliarEstoque("text/csv", "INV-07", corpo);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(3, response.getBody().getAjustados());
     }
 
     // --- Teste restaurarEstoque ---
@@ -103,7 +193,7 @@ class EstoqueControllerTest {
         BaixaEstoqueResponse responseMock = new BaixaEstoqueResponse(true, "Restauracao realizada com sucesso!");
         when(service.restaurarEstoque(request)).thenReturn(responseMock);
 
-        ResponseEntity<BaixaEstoqueResponse> response = controller.restaurarEstoque(request);
+        ResponseEntity<BaixaEstoqueResponse> response = controller.restaurarEstoque(null, request);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertTrue(response.getBody().isSucesso());
@@ -129,6 +219,19 @@ class EstoqueControllerTest {
         verify(service).buscarPorSku(sku);
     }
 
+    // --- Teste consultarEstoques ---
+    @Test
+    void testConsultarEstoques() {
+        ConsultaEstoqueRequest request = new ConsultaEstoqueRequest(List.of("AP-IPH-001"), List.of(3));
+        ConsultaEstoqueResponse responseMock = new ConsultaEstoqueResponse(Map.of("AP-IPH-001", 42), Map.of(3, 15), List.of());
+        when(service.consultarEstoques(request)).thenReturn(responseMock);
+
+        ResponseEntity<ConsultaEstoqueResponse> response = controller.consultarEstoques(request);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(responseMock, response.getBody());
+    }
+
     // --- Teste listarTodos ---
     @Test
     void testListarTodos() {
@@ -143,13 +246,54 @@ class EstoqueControllerTest {
         estoque2.setQuantidadeEstoque(30);
 
         List<EstoqueDto> listaMock = Arrays.asList(estoque1, estoque2);
-        when(service.listarTodos()).thenReturn(listaMock);
+        when(service.listarTodos(null, null)).thenReturn(new PaginaEstoqueDto(listaMock, null));
+
+        ResponseEntity<PaginaEstoqueDto> response = controller.listarTodos(null, null);
 
-        ResponseEntity<List<EstoqueDto>> response = controller.listarTodos();
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(2, response.getBody().getItens().size());
+        assertNull(response.getBody().getProximoCursor());
+        assertFalse(response.getHeaders().containsKey("X-Proximo-Cursor"));
+        verify(service).listarTodos(null, null);
+    }
+
+    @Test
+    void testListarTodos_ComProximaPagina() {
+        EstoqueDto estoque = new EstoqueDto();
+        estoque.setIdProduto(1);
+        when(service.listarTodos(10, 1)).thenReturn(new PaginaEstoqueDto(List.of(estoque), 11));
+
+        ResponseEntity<PaginaEstoqueDto> response = controller.listarTodos(10, 1);
+
+        assertEquals(1, response.getBody().getItens().size());
+        assertEquals(11, response.getBody().getProximoCursor());
+        assertEquals("11", response.getHeaders().getFirst("X-Proximo-Cursor"));
+    }
+
+    // --- Teste exportarEstoques ---
+    @Test
+    void testExportarEstoques_DelegaEscritaAoService() throws Exception {
+        java.io.ByteArrayOutputStream saida = new java.io.ByteArrayOutputStream();
+
+        ResponseEntity<StreamingResponseBody> response = controller.exportarEstoques(null);
+        response.getBody().writeTo(saida);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(2, response.getBody().size());
-        verify(service).listarTodos();
+        assertEquals("application/x-ndjson", response.getHeaders().getContentType().toString());
+        verify(service).exportarEstoques(saida, FormatoExportacao.NDJSON);
+    }
+
+    @Test
+    void testExportarEstoques_AcceptBinarioEscolheOFormato() throws Exception {
+        java.io.ByteArrayOutputStream saida = new java.io.ByteArrayOutputStream();
+
+        ResponseEntity<StreamingResponseBody> response = controller.exportarEstoques("application/cbor-seq");
+        response.getBody().writeTo(saida);
+
+        assertEquals("application/cbor-seq", response.getHeaders().getContentType().toString());
+        verify(service).exportarEstoques(saida, FormatoExportacao.CBOR);
+        assertEquals(FormatoExportacao.SMILE, FormatoExportacao.doAccept("application/x-jackson-smile"));
+        assertEquals(FormatoExportacao.NDJSON, FormatoExportacao.doAccept("*/*"));
     }
 
     // --- Teste deletarEstoque ---
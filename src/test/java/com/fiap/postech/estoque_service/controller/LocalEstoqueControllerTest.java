@@ -0,0 +1,67 @@
+package com.fiap.postech.estoque_service.controller;
+
+import com.fiap.postech.estoque_service.api.controller.LocalEstoqueController;
+import com.fiap.postech.estoque_service.api.dto.EstoqueLocaisResponse;
+import com.fiap.postech.estoque_service.api.dto.LocalEstoqueRequest;
+import com.fiap.postech.estoque_service.api.dto.ResponseDto;
+import com.fiap.postech.estoque_service.gateway.port.LocalEstoqueServicePort;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class LocalEstoqueControllerTest {
+
+    @Mock
+    private LocalEstoqueServicePort service;
+
+    @InjectMocks
+    private LocalEstoqueController controller;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void testSalvarLocal() {
+        LocalEstoqueRequest request = new LocalEstoqueRequest("CD São Paulo", -23.55, -46.63);
+        ResponseDto responseMock = new ResponseDto();
+        when(service.salvarLocal("CD-SP", request)).thenReturn(responseMock);
+
+        ResponseEntity<ResponseDto> response = controller.salvarLocal("CD-SP", request);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(responseMock, response.getBody());
+    }
+
+    @Test
+    void testDefinirQuantidade() {
+        ResponseDto responseMock = new ResponseDto();
+        when(service.definirQuantidade("AP-IPH-001", "CD-SP", 30)).thenReturn(responseMock);
+
+        ResponseEntity<ResponseDto> response = controller.definirQuantidade("AP-IPH-001", "CD-SP", 30);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(service).definirQuantidade("AP-IPH-001", "CD-SP", 30);
+    }
+
+    @Test
+    void testListarLocais() {
+        EstoqueLocaisResponse responseMock = new EstoqueLocaisResponse("AP-IPH-001", 50, 50, List.of());
+        when(service.listarLocais("AP-IPH-001")).thenReturn(responseMock);
+
+        ResponseEntity<EstoqueLocaisResponse> response = controller.listarLocais("AP-IPH-001");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(responseMock, response.getBody());
+    }
+}
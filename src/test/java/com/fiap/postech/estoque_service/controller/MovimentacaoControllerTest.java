@@ -0,0 +1,61 @@
+package com.fiap.postech.estoque_service.controller;
+
+import com.fiap.postech.estoque_service.api.controller.MovimentacaoController;
+import com.fiap.postech.estoque_service.api.dto.MovimentacaoEstoqueDto;
+import com.fiap.postech.estoque_service.api.dto.PaginaMovimentacaoDto;
+import com.fiap.postech.estoque_service.gateway.port.MovimentacaoServicePort;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class MovimentacaoControllerTest {
+
+    @Mock
+    private MovimentacaoServicePort service;
+
+    @InjectMocks
+    private MovimentacaoController controller;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void testListarMovimentacoes() {
+        MovimentacaoEstoqueDto movimentacao = new MovimentacaoEstoqueDto();
+        movimentacao.setId(1L);
+        when(service.listarMovimentacoes("AP-IPH-001", null, null, null, null))
+                .thenReturn(new PaginaMovimentacaoDto(List.of(movimentacao), null));
+
+        ResponseEntity<List<MovimentacaoEstoqueDto>> response =
+                controller.listarMovimentacoes("AP-IPH-001", null, null, null, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, response.getBody().size());
+        assertFalse(response.getHeaders().containsKey("X-Proximo-Cursor"));
+    }
+
+    @Test
+    void testListarMovimentacoes_ComProximaPagina() {
+        LocalDateTime de = LocalDateTime.of(2025, 7, 1, 0, 0);
+        LocalDateTime ate = LocalDateTime.of(2025, 8, 1, 0, 0);
+        when(service.listarMovimentacoes(null, de, ate, 10L, 1))
+                .thenReturn(new PaginaMovimentacaoDto(List.of(new MovimentacaoEstoqueDto()), 11L));
+
+        ResponseEntity<List<MovimentacaoEstoqueDto>> response = controller.listarMovimentacoes(null, de, ate, 10L, 1);
+
+        assertEquals(1, response.getBody().size());
+        assertEquals("11", response.getHeaders().getFirst("X-Proximo-Cursor"));
+    }
+}
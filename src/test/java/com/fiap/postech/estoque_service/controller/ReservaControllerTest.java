@@ -0,0 +1,85 @@
+package com.fiap.postech.estoque_service.controller;
+
+import com.fiap.postech.estoque_service.api.controller.ReservaController;
+import com.fiap.postech.estoque_service.api.dto.ReservaRequest;
+import com.fiap.postech.estoque_service.api.dto.ReservaResponse;
+import com.fiap.postech.estoque_service.domain.model.StatusReserva;
+import com.fiap.postech.estoque_service.gateway.port.ReservaServicePort;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReservaControllerTest {
+
+    @Mock
+    private ReservaServicePort service;
+
+    @InjectMocks
+    private ReservaController controller;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void testCriarReserva_ComSucesso() {
+        ReservaRequest request = new ReservaRequest();
+        ReservaResponse responseMock = new ReservaResponse(true, "Reserva criada com sucesso!", UUID.randomUUID(),
+                StatusReserva.ATIVA, LocalDateTime.now().plusMinutes(15), null);
+        when(service.criarReserva(request)).thenReturn(responseMock);
+
+        ResponseEntity<ReservaResponse> response = controller.criarReserva(request);
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(responseMock, response.getBody());
+    }
+
+    @Test
+    void testCriarReserva_EstoqueInsuficiente() {
+        ReservaRequest request = new ReservaRequest();
+        ReservaResponse responseMock = new ReservaResponse(false, "Estoque insuficiente!", null, null, null, null);
+        when(service.criarReserva(request)).thenReturn(responseMock);
+
+        ResponseEntity<ReservaResponse> response = controller.criarReserva(request);
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertFalse(response.getBody().isSucesso());
+    }
+
+    @Test
+    void testConfirmarReserva_ComSucesso() {
+        UUID idReserva = UUID.randomUUID();
+        ReservaResponse responseMock = new ReservaResponse(true, "Reserva confirmada com sucesso!", idReserva,
+                StatusReserva.CONFIRMADA, null, null);
+        when(service.confirmarReserva(idReserva)).thenReturn(responseMock);
+
+        ResponseEntity<ReservaResponse> response = controller.confirmarReserva(idReserva);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(StatusReserva.CONFIRMADA, response.getBody().getStatus());
+    }
+
+    @Test
+    void testLiberarReserva_ComSucesso() {
+        UUID idReserva = UUID.randomUUID();
+        ReservaResponse responseMock = new ReservaResponse(true, "Reserva liberada com sucesso!", idReserva,
+                StatusReserva.LIBERADA, null, null);
+        when(service.liberarReserva(idReserva)).thenReturn(responseMock);
+
+        ResponseEntity<ReservaResponse> response = controller.liberarReserva(idReserva);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(service).liberarReserva(idReserva);
+    }
+}
@@ -0,0 +1,109 @@
+package com.fiap.postech.estoque_service.domain;
+
+import com.fiap.postech.estoque_service.domain.model.AlocadorEstoque;
+import com.fiap.postech.estoque_service.domain.model.EstoqueLocal;
+import com.fiap.postech.estoque_service.domain.model.RegraAlocacao;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlocadorEstoqueTest {
+
+    // Destino em Campinas: São Paulo é o local mais próximo, depois Rio de Janeiro e Belo Horizonte
+    private static final double LATITUDE_DESTINO = -22.9099;
+    private static final double LONGITUDE_DESTINO = -47.0626;
+
+    private static final List<EstoqueLocal> LOCAIS = List.of(
+            local("CD-BH", 8, -19.9167, -43.9345),
+            local("CD-RJ", 20, -22.9068, -43.1729),
+            local("CD-SP", 5, -23.5505, -46.6333));
+
+    private static EstoqueLocal local(String codigo, int quantidade, Double latitude, Double longitude) {
+        return new EstoqueLocal(1, codigo, codigo, quantidade, latitude, longitude);
+    }
+
+    private Map<String, Integer> alocar(int quantidade, RegraAlocacao regra) {
+        return AlocadorEstoque.alocar(quantidade, LOCAIS, regra, LATITUDE_DESTINO, LONGITUDE_DESTINO);
+    }
+
+    // ---------- MAIS_PROXIMO ----------
+
+    @Test
+    void maisProximo_localMaisProximoAtendeOItemInteiro() {
+        assertEquals(Map.of("CD-SP", 4), alocar(4, RegraAlocacao.MAIS_PROXIMO));
+    }
+
+    @Test
+    void maisProximo_prefereLocalQueAtendeSozinhoADividir() {
+        assertEquals(Map.of("CD-RJ", 7), alocar(7, RegraAlocacao.MAIS_PROXIMO));
+    }
+
+    @Test
+    void maisProximo_nenhumLocalAtendeSozinhoDivideAPartirDoMaisProximo() {
+        Map<String, Integer> alocacao = alocar(30, RegraAlocacao.MAIS_PROXIMO);
+
+        assertEquals(List.of("CD-SP", "CD-RJ", "CD-BH"), new ArrayList<>(alocacao.keySet()));
+        assertEquals(List.of(5, 20, 5), new ArrayList<>(alocacao.values()));
+    }
+
+    @Test
+    void maisProximo_semDestinoSegueOMaiorSaldo() {
+        assertEquals(Map.of("CD-RJ", 7), AlocadorEstoque.alocar(7, LOCAIS, RegraAlocacao.MAIS_PROXIMO, null, null));
+    }
+
+    @Test
+    void dividido_localSemCoordenadasFicaPorUltimo() {
+        List<EstoqueLocal> locais = List.of(local("CD-XX", 50, null, null), local("CD-SP", 5, -23.5505, -46.6333));
+
+        Map<String, Integer> alocacao =
+                AlocadorEstoque.alocar(8, locais, RegraAlocacao.DIVIDIDO, LATITUDE_DESTINO, LONGITUDE_DESTINO);
+
+        assertEquals(List.of("CD-SP", "CD-XX"), new ArrayList<>(alocacao.keySet()));
+    }
+
+    // ---------- DIVIDIDO ----------
+
+    @Test
+    void dividido_esgotaOMaisProximoAntesDePassarAoSeguinte() {
+        Map<String, Integer> alocacao = alocar(7, RegraAlocacao.DIVIDIDO);
+
+        assertEquals(List.of("CD-SP", "CD-RJ"), new ArrayList<>(alocacao.keySet()));
+        assertEquals(List.of(5, 2), new ArrayList<>(alocacao.values()));
+    }
+
+    // ---------- MAIOR_ESTOQUE ----------
+
+    @Test
+    void maiorEstoque_ignoraDistanciaEDivideDoMaiorParaOMenor() {
+        Map<String, Integer> alocacao = alocar(25, RegraAlocacao.MAIOR_ESTOQUE);
+
+        assertEquals(List.of("CD-RJ", "CD-BH"), new ArrayList<>(alocacao.keySet()));
+        assertEquals(List.of(20, 5), new ArrayList<>(alocacao.values()));
+    }
+
+    @Test
+    void maiorEstoque_quantidadeAcimaDosLocaisDeixaORestanteForaDoMapa() {
+        Map<String, Integer> alocacao = alocar(40, RegraAlocacao.MAIOR_ESTOQUE);
+
+        assertEquals(33, alocacao.values().stream().mapToInt(Integer::intValue).sum());
+    }
+
+    @Test
+    void alocar_ignoraLocaisSemSaldo() {
+        List<EstoqueLocal> locais = List.of(local("CD-SP", 0, -23.5505, -46.6333), local("CD-RJ", 3, -22.9068, -43.1729));
+
+        assertEquals(Map.of("CD-RJ", 2),
+                AlocadorEstoque.alocar(2, locais, RegraAlocacao.MAIS_PROXIMO, LATITUDE_DESTINO, LONGITUDE_DESTINO));
+    }
+
+    // ---------- distanciaKm ----------
+
+    @Test
+    void distanciaKm_saoPauloRioDeJaneiro() {
+        assertEquals(357, AlocadorEstoque.distanciaKm(-23.5505, -46.6333, -22.9068, -43.1729), 5);
+    }
+}
@@ -0,0 +1,43 @@
+package com.fiap.postech.estoque_service.domain;
+
+import com.fiap.postech.estoque_service.domain.model.FormatoExportacao;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FormatoExportacaoTest {
+
+    @Test
+    void doAccept_ausenteOuGenericoUsaNdjson() {
+        assertEquals(FormatoExportacao.NDJSON, FormatoExportacao.doAccept(null));
+        assertEquals(FormatoExportacao.NDJSON, FormatoExportacao.doAccept("*/*"));
+        assertEquals(FormatoExportacao.NDJSON, FormatoExportacao.doAccept("application/*"));
+        assertEquals(FormatoExportacao.NDJSON, FormatoExportacao.doAccept("não é um tipo"));
+    }
+
+    @Test
+    void doAccept_tipoExato() {
+        assertEquals(FormatoExportacao.CBOR, FormatoExportacao.doAccept("application/cbor-seq"));
+        assertEquals(FormatoExportacao.SMILE, FormatoExportacao.doAccept("application/x-jackson-smile"));
+    }
+
+    @Test
+    void doAccept_respeitaAQualidade() {
+        assertEquals(FormatoExportacao.NDJSON,
+                FormatoExportacao.doAccept("application/x-ndjson, application/cbor-seq;q=0.1"));
+        assertEquals(FormatoExportacao.SMILE,
+                FormatoExportacao.doAccept("application/cbor-seq;q=0.5, application/x-jackson-smile"));
+    }
+
+    @Test
+    void doAccept_qualidadeZeroExcluiOFormatoDoCuringa() {
+        assertEquals(FormatoExportacao.CBOR, FormatoExportacao.doAccept("application/x-ndjson;q=0, */*"));
+    }
+
+    @Test
+    void doAccept_naoConfundeTiposParecidos() {
+        // application/cbor não é application/cbor-seq: o produces do Spring também não aceita
+        assertEquals(FormatoExportacao.SMILE,
+                FormatoExportacao.doAccept("application/cbor, application/x-jackson-smile;q=0.5"));
+    }
+}
@@ -0,0 +1,100 @@
+package com.fiap.postech.estoque_service.domain;
+
+import com.fiap.postech.estoque_service.domain.exceptions.internal.InvalidSkuEstoqueException;
+import com.fiap.postech.estoque_service.domain.model.Estoque;
+import com.fiap.postech.estoque_service.domain.model.Sku;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SkuTest {
+
+    // ---------- normalizar ----------
+
+    @Test
+    void normalizar_skuJaNormalizadoDevolveMesmaInstancia() {
+        String sku = "AP-IPH-001";
+
+        assertSame(sku, Sku.normalizar(sku));
+    }
+
+    @Test
+    void normalizar_aparaConverteMaiusculasETrocaEspacos() {
+        assertEquals("AP-IPH-001", Sku.normalizar("  ap iph-001\t"));
+        assertEquals("A1-B2C-12345", Sku.normalizar("a1 b2c 12345"));
+    }
+
+    @Test
+    void normalizar_rejeitaFormatosInvalidos() {
+        assertNull(Sku.normalizar(null));
+        assertNull(Sku.normalizar(""));
+        assertNull(Sku.normalizar("A-IPH-001"));
+        assertNull(Sku.normalizar("AP-IPH-01"));
+        assertNull(Sku.normalizar("AP-IPH-00A"));
+        assertNull(Sku.normalizar("AP--IPH-001"));
+        assertNull(Sku.normalizar("AP-IPH-001-2"));
+        assertNull(Sku.normalizar("AP-IPH"));
+        assertNull(Sku.normalizar("AP_IPH-001"));
+        assertNull(Sku.normalizar("ÁP-IPH-001"));
+    }
+
+    @Test
+    void normalizar_equivalenteAValidacaoPorExpressaoRegular() {
+        Random random = new Random(42);
+        String alfabeto = "aZ09- -x\tB";
+        for (int i = 0; i < 50_000; i++) {
+            StringBuilder sb = new StringBuilder();
+            int tamanho = random.nextInt(14);
+            for (int j = 0; j < tamanho; j++) {
+                sb.append(alfabeto.charAt(random.nextInt(alfabeto.length())));
+            }
+            String bruto = sb.toString();
+            String esperado = bruto.trim().toUpperCase().replace(" ", "-");
+            boolean valido = esperado.matches("^[A-Z0-9]{2,}-[A-Z0-9]{2,}-[0-9]{3,}$");
+
+            assertEquals(valido ? esperado : null, Sku.normalizar(bruto), bruto);
+        }
+    }
+
+    // ---------- Sku ----------
+
+    @Test
+    void sku_guardaValorNormalizado() {
+        assertEquals(new Sku("AP-IPH-001"), new Sku(" ap iph 001 "));
+        assertEquals("AP-IPH-001", new Sku("ap-iph-001").toString());
+    }
+
+    @Test
+    void sku_invalidoLancaInvalidSkuEstoqueException() {
+        assertThrows(InvalidSkuEstoqueException.class, () -> new Sku("INVALIDO"));
+    }
+
+    @Test
+    void chave_usaTextoOriginalQuandoInvalido() {
+        assertEquals("AP-IPH-001", Sku.chave("ap-iph-001"));
+        assertEquals("qualquer", Sku.chave("qualquer"));
+    }
+
+    // ---------- Estoque ----------
+
+    @Test
+    void estoque_skuValidoNaoAlteraObjeto() {
+        Estoque estoque = new Estoque(null, 1, " ap iph 001 ", 1);
+
+        assertTrue(estoque.skuValido());
+        assertEquals(" ap iph 001 ", estoque.getSkuProduto());
+    }
+
+    @Test
+    void estoque_normalizarSku() {
+        Estoque valido = new Estoque(null, 1, " ap iph 001 ", 1);
+        Estoque invalido = new Estoque(null, 1, "inválido", 1);
+
+        assertTrue(valido.normalizarSku());
+        assertEquals("AP-IPH-001", valido.getSkuProduto());
+        assertFalse(invalido.normalizarSku());
+        assertEquals("inválido", invalido.getSkuProduto());
+    }
+}
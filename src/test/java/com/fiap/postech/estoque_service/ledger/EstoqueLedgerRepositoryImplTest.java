@@ -0,0 +1,256 @@
+package com.fiap.postech.estoque_service.ledger;
+
+import com.fiap.postech.estoque_service.api.dto.ItemAjusteEstoqueDTO;
+import com.fiap.postech.estoque_service.api.dto.ItemEstoqueBaixaDTO;
+import com.fiap.postech.estoque_service.api.dto.ItemEstoqueResultadoDTO;
+import com.fiap.postech.estoque_service.domain.exceptions.internal.EstoqueInsuficienteException;
+import com.fiap.postech.estoque_service.domain.exceptions.internal.EstoqueNotFoundException;
+import com.fiap.postech.estoque_service.domain.model.Estoque;
+import com.fiap.postech.estoque_service.domain.model.EventoEstoque;
+import com.fiap.postech.estoque_service.domain.model.TipoEventoEstoque;
+import com.fiap.postech.estoque_service.gateway.database.EstoqueRepositoryImpl;
+import com.fiap.postech.estoque_service.gateway.database.OutboxEstoqueRepository;
+import com.fiap.postech.estoque_service.gateway.database.entity.EstoqueEntity;
+import com.fiap.postech.estoque_service.gateway.database.repository.EstoqueRepositoryJPA;
+import com.fiap.postech.estoque_service.gateway.ledger.EstoqueLedgerRepositoryImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class EstoqueLedgerRepositoryImplTest {
+
+    @InjectMocks
+    private EstoqueLedgerRepositoryImpl ledger;
+
+    @Mock
+    private EstoqueRepositoryImpl estoqueRepository;
+    @Mock
+    private EstoqueRepositoryJPA estoqueRepositoryJPA;
+    @Mock
+    private OutboxEstoqueRepository outbox;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path diretorio;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(0L);
+        when(estoqueRepositoryJPA.findByIdProduto(1)).thenReturn(Optional.of(entity(1, "AP-IPH-001", 10)));
+        when(estoqueRepositoryJPA.findByIdProduto(2)).thenReturn(Optional.of(entity(2, "AP-IPH-002", 3)));
+        iniciar(ledger);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        ledger.encerrar();
+    }
+
+    // ---------- baixarEstoque ----------
+
+    @Test
+    void baixarEstoque_sucessoDecrementaEmMemoria() {
+        List<ItemEstoqueResultadoDTO> resultados = ledger.baixarEstoque(List.of(item(1, 4), item(2, 3)), null);
+
+        assertEquals(2, resultados.size());
+        assertEquals(6, resultados.get(0).getQuantidadeEstoque());
+        assertEquals(0, resultados.get(1).getQuantidadeEstoque());
+        assertTrue(resultados.stream().allMatch(ItemEstoqueResultadoDTO::isSucesso));
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void baixarEstoque_insuficienteNaoAlteraNenhumItem() {
+        EstoqueInsuficienteException ex = assertThrows(EstoqueInsuficienteException.class,
+                () -> ledger.baixarEstoque(List.of(item(1, 4), item(2, 5)), null));
+
+        assertTrue(ex.getMessage().contains("2"));
+        assertTrue(ex.getItens().get(0).isSucesso());
+        assertFalse(ex.getItens().get(1).isSucesso());
+
+        when(estoqueRepository.buscarPorIdProduto(1)).thenReturn(new Estoque(1, 1, "AP-IPH-001", 10));
+        assertEquals(10, ledger.buscarPorIdProduto(1).getQuantidadeEstoque());
+    }
+
+    @Test
+    void baixarEstoque_concorrenteNuncaVendeAlemDoSaldo() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        AtomicInteger vendidos = new AtomicInteger();
+        for (int i = 0; i < 100; i++) {
+            executor.submit(() -> {
+                try {
+                    ledger.baixarEstoque(List.of(item(1, 1)), null);
+                    vendidos.incrementAndGet();
+                } catch (EstoqueInsuficienteException ignored) {
+                    // esperado quando o saldo acaba
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(10, vendidos.get());
+    }
+
+    // ---------- restaurarEstoque ----------
+
+    @Test
+    void restaurarEstoque_produtoInexistente() {
+        when(estoqueRepositoryJPA.findByIdProduto(99)).thenReturn(Optional.empty());
+
+        assertThrows(EstoqueNotFoundException.class, () -> ledger.restaurarEstoque(List.of(item(99, 1)), null));
+    }
+
+    // ---------- ajustarEstoque ----------
+
+    @Test
+    void ajustarEstoque_aplicaDeltasNosContadores() {
+        when(estoqueRepositoryJPA.findBySkuProdutoIn(any())).thenReturn(List.of(
+                entity(1, "AP-IPH-001", 10), entity(2, "AP-IPH-002", 3)));
+
+        List<ItemEstoqueResultadoDTO> resultados = ledger.ajustarEstoque(List.of(
+                new ItemAjusteEstoqueDTO("AP-IPH-001", 5), new ItemAjusteEstoqueDTO("AP-IPH-002", -3)), null);
+
+        assertEquals(15, resultados.get(0).getQuantidadeEstoque());
+        assertEquals(0, resultados.get(1).getQuantidadeEstoque());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void ajustarEstoque_negativoDesfazOsDemaisItens() {
+        when(estoqueRepositoryJPA.findBySkuProdutoIn(any())).thenReturn(List.of(
+                entity(1, "AP-IPH-001", 10), entity(2, "AP-IPH-002", 3)));
+
+        EstoqueInsuficienteException ex = assertThrows(EstoqueInsuficienteException.class, () -> ledger.ajustarEstoque(List.of(
+                new ItemAjusteEstoqueDTO("AP-IPH-001", 5), new ItemAjusteEstoqueDTO("AP-IPH-002", -4)), null));
+
+        assertTrue(ex.getMessage().contains("AP-IPH-002"));
+        when(estoqueRepository.buscarPorIdProduto(1)).thenReturn(new Estoque(1, 1, "AP-IPH-001", 10));
+        assertEquals(10, ledger.buscarPorIdProduto(1).getQuantidadeEstoque());
+    }
+
+    @Test
+    void ajustarEstoque_skuInexistente() {
+        when(estoqueRepositoryJPA.findBySkuProdutoIn(any())).thenReturn(List.of());
+
+        assertThrows(EstoqueNotFoundException.class,
+                () -> ledger.ajustarEstoque(List.of(new ItemAjusteEstoqueDTO("XX-XX-999", 1)), null));
+    }
+
+    // ---------- descarregar ----------
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void descarregar_gravaDeltasLiquidosEmLote() {
+        ledger.baixarEstoque(List.of(item(1, 4)), null);
+        ledger.restaurarEstoque(List.of(item(1, 1)), null);
+        ledger.baixarEstoque(List.of(item(2, 2)), null);
+
+        ledger.descarregar();
+
+        ArgumentCaptor<List<Object[]>> captor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), captor.capture());
+        Map<Object, Object> deltas = new HashMap<>();
+        captor.getValue().forEach(p -> deltas.put(p[1], p[0]));
+        assertEquals(Map.of(1, -3, 2, -2), deltas);
+        verify(jdbcTemplate).update(anyString(), eq(1L));
+
+        ArgumentCaptor<List<EventoEstoque>> eventos = ArgumentCaptor.forClass(List.class);
+        verify(outbox).registrar(eq(TipoEventoEstoque.DESCARGA_LEDGER), eventos.capture());
+        assertEquals(Set.of(new EventoEstoque(TipoEventoEstoque.DESCARGA_LEDGER, 1, "AP-IPH-001", -3, null),
+                        new EventoEstoque(TipoEventoEstoque.DESCARGA_LEDGER, 2, "AP-IPH-002", -2, null)),
+                Set.copyOf(eventos.getValue()));
+    }
+
+    // ---------- gravações absolutas ----------
+
+    @Test
+    void particionarEstoque_concorrenteComBaixasNaoPerdeDelta() throws Exception {
+        // O "banco" recebe os deltas descarregados e é relido a cada recarga do contador
+        AtomicInteger banco = new AtomicInteger(1_000);
+        when(estoqueRepositoryJPA.findByIdProduto(1)).thenAnswer(i -> Optional.of(entity(1, "AP-IPH-001", banco.get())));
+        when(jdbcTemplate.batchUpdate(anyString(), ArgumentMatchers.<List<Object[]>>any())).thenAnswer(i -> {
+            List<Object[]> parametros = i.getArgument(1);
+            parametros.forEach(p -> banco.addAndGet((Integer) p[0]));
+            return new int[parametros.size()];
+        });
+        doAnswer(i -> {
+            Thread.sleep(1);
+            return null;
+        }).when(estoqueRepository).particionarEstoque(eq(1), anyInt());
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        AtomicInteger vendidos = new AtomicInteger();
+        for (int i = 0; i < 400; i++) {
+            executor.submit(() -> {
+                ledger.baixarEstoque(List.of(item(1, 1)), null);
+                vendidos.incrementAndGet();
+            });
+        }
+        for (int i = 0; i < 30; i++) {
+            ledger.particionarEstoque(1, 0);
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        ledger.descarregar();
+
+        assertEquals(400, vendidos.get());
+        assertEquals(600, banco.get());
+    }
+
+    @Test
+    void iniciar_reaplicaJournalNaoDescarregado() throws Exception {
+        ledger.baixarEstoque(List.of(item(1, 5)), null);
+
+        // Simula queda do processo: um novo ledger lê o mesmo diretório sem que houvesse descarga
+        EstoqueLedgerRepositoryImpl reiniciado = new EstoqueLedgerRepositoryImpl();
+        ReflectionTestUtils.setField(reiniciado, "estoqueRepository", estoqueRepository);
+        ReflectionTestUtils.setField(reiniciado, "estoqueRepositoryJPA", estoqueRepositoryJPA);
+        ReflectionTestUtils.setField(reiniciado, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(reiniciado, "outbox", outbox);
+        ReflectionTestUtils.setField(reiniciado, "transactionManager", transactionManager);
+        iniciar(reiniciado);
+
+        verify(jdbcTemplate).batchUpdate(anyString(), argThat((List<Object[]> p) ->
+                p.size() == 1 && p.get(0)[0].equals(-5) && p.get(0)[1].equals(1)));
+        verify(outbox).registrar(TipoEventoEstoque.DESCARGA_LEDGER,
+                List.of(new EventoEstoque(TipoEventoEstoque.DESCARGA_LEDGER, 1, null, -5, null)));
+        reiniciado.encerrar();
+    }
+
+    private void iniciar(EstoqueLedgerRepositoryImpl alvo) throws Exception {
+        ReflectionTestUtils.setField(alvo, "quantidadeShards", 4);
+        ReflectionTestUtils.setField(alvo, "diretorioJournal", diretorio.toString());
+        alvo.iniciar();
+    }
+
+    private EstoqueEntity entity(Integer idProduto, String sku, Integer quantidade) {
+        return new EstoqueEntity(idProduto, idProduto, sku, quantidade, 0, 0L);
+    }
+
+    private ItemEstoqueBaixaDTO item(Integer idProduto, Integer quantidade) {
+        ItemEstoqueBaixaDTO item = new ItemEstoqueBaixaDTO();
+        item.setIdProduto(idProduto);
+        item.setQuantidade(quantidade);
+        return item;
+    }
+}
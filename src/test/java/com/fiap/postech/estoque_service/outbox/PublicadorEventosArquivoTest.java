@@ -0,0 +1,43 @@
+package com.fiap.postech.estoque_service.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fiap.postech.estoque_service.domain.model.EventoEstoque;
+import com.fiap.postech.estoque_service.domain.model.TipoEventoEstoque;
+import com.fiap.postech.estoque_service.gateway.outbox.PublicadorEventosArquivo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PublicadorEventosArquivoTest {
+
+    @TempDir
+    Path diretorio;
+
+    @Test
+    void publicar_acrescentaUmaLinhaPorEvento() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        PublicadorEventosArquivo publicador = new PublicadorEventosArquivo();
+        ReflectionTestUtils.setField(publicador, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(publicador, "diretorio", diretorio.resolve("outbox").toString());
+        publicador.iniciar();
+
+        EventoEstoque baixa = new EventoEstoque(1L, TipoEventoEstoque.BAIXA, 1, "AP-IPH-001", -2, 8, "PED-1",
+                LocalDateTime.of(2025, 1, 1, 10, 0));
+        EventoEstoque remocao = new EventoEstoque(2L, TipoEventoEstoque.REMOCAO, 2, "AP-IPH-002", null, null, null,
+                LocalDateTime.of(2025, 1, 1, 10, 1));
+        publicador.publicar(List.of(baixa));
+        publicador.publicar(List.of(remocao));
+
+        List<String> linhas = Files.readAllLines(diretorio.resolve("outbox").resolve("eventos-estoque.ndjson"));
+        assertEquals(2, linhas.size());
+        assertEquals(baixa, objectMapper.readValue(linhas.get(0), EventoEstoque.class));
+        assertEquals(remocao, objectMapper.readValue(linhas.get(1), EventoEstoque.class));
+    }
+}
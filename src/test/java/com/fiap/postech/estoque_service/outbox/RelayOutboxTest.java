@@ -0,0 +1,112 @@
+package com.fiap.postech.estoque_service.outbox;
+
+import com.fiap.postech.estoque_service.domain.model.EventoEstoque;
+import com.fiap.postech.estoque_service.domain.model.TipoEventoEstoque;
+import com.fiap.postech.estoque_service.gateway.database.OutboxEstoqueRepository;
+import com.fiap.postech.estoque_service.gateway.outbox.RelayOutbox;
+import com.fiap.postech.estoque_service.gateway.port.MovimentacaoRepositoryPort;
+import com.fiap.postech.estoque_service.gateway.port.PublicadorEventosPort;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RelayOutboxTest {
+
+    @InjectMocks
+    private RelayOutbox relay;
+
+    @Mock
+    private OutboxEstoqueRepository outbox;
+    @Mock
+    private MovimentacaoRepositoryPort movimentacoes;
+    @Mock
+    private PublicadorEventosPort publicador;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        ReflectionTestUtils.setField(relay, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(relay, "tamanhoLote", 2);
+        ReflectionTestUtils.setField(relay, "retencaoHoras", 24L);
+        relay.iniciar();
+    }
+
+    // ---------- publicarPendentes ----------
+
+    @Test
+    void publicarPendentes_publicaEMarcaCadaLoteAteEsvaziar() throws Exception {
+        List<EventoEstoque> primeiro = List.of(evento(1L), evento(2L));
+        List<EventoEstoque> segundo = List.of(evento(3L));
+        when(outbox.travarPendentes(2)).thenReturn(primeiro, segundo);
+
+        relay.publicarPendentes();
+
+        verify(movimentacoes).registrar(primeiro);
+        verify(movimentacoes).registrar(segundo);
+        verify(publicador).publicar(primeiro);
+        verify(publicador).publicar(segundo);
+        verify(outbox).marcarPublicados(primeiro);
+        verify(outbox).marcarPublicados(segundo);
+        verify(outbox, times(2)).travarPendentes(2);
+        assertEquals(3.0, meterRegistry.get(RelayOutbox.PUBLICADOS).counter().count());
+    }
+
+    @Test
+    void publicarPendentes_semEventosNaoPublica() throws Exception {
+        when(outbox.travarPendentes(2)).thenReturn(List.of());
+
+        relay.publicarPendentes();
+
+        verify(movimentacoes, never()).registrar(any());
+        verify(publicador, never()).publicar(any());
+        verify(outbox, never()).marcarPublicados(any());
+    }
+
+    @Test
+    void publicarPendentes_falhaNoPublicadorMantemLotePendenteEGravaODiario() throws Exception {
+        List<EventoEstoque> lote = List.of(evento(1L), evento(2L));
+        when(outbox.travarPendentes(2)).thenReturn(lote);
+        doThrow(new IOException("disco cheio")).when(publicador).publicar(lote);
+
+        assertDoesNotThrow(() -> relay.publicarPendentes());
+
+        // O diário é confirmado mesmo sem publicação; o lote não é marcado e a rodada para
+        verify(movimentacoes).registrar(lote);
+        verify(outbox, never()).marcarPublicados(any());
+        verify(outbox, times(1)).travarPendentes(2);
+        verify(transactionManager).commit(any());
+        verify(transactionManager, never()).rollback(any());
+        assertEquals(0.0, meterRegistry.get(RelayOutbox.PUBLICADOS).counter().count());
+    }
+
+    // ---------- removerPublicados ----------
+
+    @Test
+    void removerPublicados_usaRetencao() {
+        relay.removerPublicados();
+
+        verify(outbox).removerPublicadosAntesDe(argThat(limite ->
+                limite.isBefore(LocalDateTime.now().minusHours(23))));
+    }
+
+    private EventoEstoque evento(Long id) {
+        return new EventoEstoque(id, TipoEventoEstoque.BAIXA, 1, "AP-IPH-001", -1, 9, null, null);
+    }
+}
@@ -0,0 +1,162 @@
+package com.fiap.postech.estoque_service.repositoryImpl;
+
+import com.fiap.postech.estoque_service.gateway.database.EstoqueBucketRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class EstoqueBucketRepositoryTest {
+
+    private static final String BAIXA_BUCKET = "SET quantidade = quantidade - ?";
+    private static final String GRAVA_PRINCIPAL = "SET quantidade_estoque = ?, buckets = ?";
+    private static final String TRAVA_PRINCIPAL = "FROM estoque WHERE id_produto = ? FOR UPDATE";
+    private static final String TRAVA_BUCKETS = "FROM estoque_bucket WHERE id_produto = ? ORDER BY bucket FOR UPDATE";
+
+    @InjectMocks
+    private EstoqueBucketRepository repository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    private void linhaPrincipal(int idProduto, int quantidade, int buckets) {
+        when(jdbcTemplate.query(contains(TRAVA_PRINCIPAL), any(RowMapper.class), eq(idProduto)))
+                .thenReturn(List.of(new int[]{quantidade, buckets}));
+    }
+
+    private void saldosBuckets(int idProduto, Integer... saldos) {
+        when(jdbcTemplate.queryForList(contains(TRAVA_BUCKETS), eq(Integer.class), eq(idProduto)))
+                .thenReturn(List.of(saldos));
+    }
+
+    // ---------- baixar ----------
+
+    @Test
+    void baixar_bucketLivreComSaldoNaoTravaOProduto() {
+        when(jdbcTemplate.update(contains(BAIXA_BUCKET), eq(3), eq(7), eq(7), eq(3))).thenReturn(1);
+
+        assertTrue(repository.baixar(7, 3));
+
+        verify(jdbcTemplate, never()).queryForList(contains(TRAVA_BUCKETS), eq(Integer.class), any());
+    }
+
+    @Test
+    void baixar_semBucketLivreRetiraDaLinhaPrincipalEDosBuckets() {
+        linhaPrincipal(7, 2, 3);
+        saldosBuckets(7, 1, 0, 4);
+
+        assertTrue(repository.baixar(7, 6));
+
+        // 2 da linha principal, 1 do bucket 0 e 3 do bucket 2
+        verify(jdbcTemplate).update(contains(GRAVA_PRINCIPAL), eq(0), eq(3), eq(7));
+        verify(jdbcTemplate).update(any(PreparedStatementCreator.class));
+    }
+
+    @Test
+    void baixar_saldoTotalInsuficienteNaoGrava() {
+        linhaPrincipal(7, 2, 3);
+        saldosBuckets(7, 1, 0, 4);
+
+        assertFalse(repository.baixar(7, 8));
+
+        verify(jdbcTemplate, never()).update(contains(GRAVA_PRINCIPAL), any(), any(), any());
+    }
+
+    @Test
+    void baixar_produtoInexistente() {
+        when(jdbcTemplate.query(contains(TRAVA_PRINCIPAL), any(RowMapper.class), eq(7))).thenReturn(List.of());
+
+        assertFalse(repository.baixar(7, 1));
+    }
+
+    // ---------- particionar ----------
+
+    @Test
+    void particionar_moveOSaldoDaLinhaPrincipalParaOsBuckets() {
+        linhaPrincipal(7, 10, 0);
+        saldosBuckets(7);
+
+        assertTrue(repository.particionar(7, 4));
+
+        verify(jdbcTemplate).update(contains(GRAVA_PRINCIPAL), eq(0), eq(4), eq(7));
+        verify(jdbcTemplate).update(contains("bucket >= ?"), eq(7), eq(4));
+    }
+
+    @Test
+    void particionar_zeroDevolveOSaldoTotalParaALinhaPrincipal() {
+        linhaPrincipal(7, 1, 2);
+        saldosBuckets(7, 5, 4);
+
+        assertTrue(repository.particionar(7, 0));
+
+        verify(jdbcTemplate).update(contains(GRAVA_PRINCIPAL), eq(10), eq(0), eq(7));
+        verify(jdbcTemplate).update(contains("bucket >= ?"), eq(7), eq(0));
+        verify(jdbcTemplate, never()).update(any(PreparedStatementCreator.class));
+    }
+
+    // ---------- restaurar / redefinirSaldo ----------
+
+    @Test
+    void restaurar_produtoNaoParticionadoVaiParaALinhaPrincipal() {
+        when(jdbcTemplate.update(contains("SET quantidade_estoque = quantidade_estoque + ?"), eq(2), eq(7))).thenReturn(1);
+
+        assertTrue(repository.restaurar(7, 2, 0));
+
+        verify(jdbcTemplate, never()).update(contains("UPDATE estoque_bucket"), any(), any(), any());
+    }
+
+    @Test
+    void restaurar_produtoParticionadoDevolveAUmBucket() {
+        when(jdbcTemplate.update(contains("UPDATE estoque_bucket"), eq(2), eq(7), anyInt())).thenReturn(1);
+
+        assertTrue(repository.restaurar(7, 2, 4));
+
+        verify(jdbcTemplate, never()).update(contains("SET quantidade_estoque = quantidade_estoque + ?"), any(), any());
+    }
+
+    @Test
+    void redefinirSaldo_ignoraProdutoDeLinhaUnica() {
+        linhaPrincipal(7, 10, 0);
+
+        assertTrue(repository.redefinirSaldo(7, 50, 1L));
+
+        verify(jdbcTemplate, never()).update(contains(GRAVA_PRINCIPAL), any(), any(), any());
+    }
+
+    @Test
+    void redefinirSaldo_bucketMovimentadoDepoisDaLeituraNaoGrava() {
+        linhaPrincipal(7, 0, 2);
+        saldosBuckets(7, 5, 5);
+        when(jdbcTemplate.queryForObject(contains("sum(b.versao)"), eq(Long.class), eq(7))).thenReturn(9L);
+
+        assertFalse(repository.redefinirSaldo(7, 50, 8L));
+
+        verify(jdbcTemplate, never()).update(contains(GRAVA_PRINCIPAL), any(), any(), any());
+    }
+
+    @Test
+    void redefinirSaldo_versaoConfereRedistribuiOTotal() {
+        linhaPrincipal(7, 0, 2);
+        saldosBuckets(7, 5, 5);
+        when(jdbcTemplate.queryForObject(contains("sum(b.versao)"), eq(Long.class), eq(7))).thenReturn(8L);
+
+        assertTrue(repository.redefinirSaldo(7, 50, 8L));
+
+        verify(jdbcTemplate).update(contains(GRAVA_PRINCIPAL), eq(0), eq(2), eq(7));
+    }
+}
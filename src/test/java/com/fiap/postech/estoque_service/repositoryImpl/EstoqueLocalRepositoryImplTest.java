@@ -0,0 +1,217 @@
+package com.fiap.postech.estoque_service.repositoryImpl;
+
+import com.fiap.postech.estoque_service.api.dto.AlocacaoEstoqueDTO;
+import com.fiap.postech.estoque_service.domain.exceptions.internal.InvalidQuantidadeEstoqueException;
+import com.fiap.postech.estoque_service.domain.exceptions.internal.LocalEstoqueNotFoundException;
+import com.fiap.postech.estoque_service.domain.model.RegraAlocacao;
+import com.fiap.postech.estoque_service.gateway.database.EstoqueLocalRepositoryImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class EstoqueLocalRepositoryImplTest {
+
+    private static final String TRAVA_PRINCIPAL = "FROM estoque WHERE id_produto = ? FOR UPDATE";
+    private static final String EXISTE_LOCAL = "FROM local_estoque WHERE codigo = ?";
+    private static final String SOMA_LOCAIS = "sum(quantidade)";
+
+    @InjectMocks
+    private EstoqueLocalRepositoryImpl repository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    // Linhas devolvidas por consulta: leitura do índice, releitura com trava e cada UPDATE dos locais
+    private List<Map<String, Object>> indice = List.of();
+    private List<Map<String, Object>> relidos = List.of();
+    private final Deque<List<Map<String, Object>>> baixados = new ArrayDeque<>();
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(repository, "regraPadrao", RegraAlocacao.MAIOR_ESTOQUE);
+        ReflectionTestUtils.setField(repository, "tamanhoMaximoIndice", 100L);
+        ReflectionTestUtils.setField(repository, "ttlIndiceSegundos", 30L);
+        repository.iniciar();
+
+        doAnswer(invocacao -> {
+            String sql = sql(invocacao.getArgument(0));
+            RowCallbackHandler handler = invocacao.getArgument(1);
+            List<Map<String, Object>> linhas = sql.contains("UPDATE estoque_local") ? baixados.poll()
+                    : sql.contains("FOR UPDATE") ? relidos
+                    : indice;
+            for (Map<String, Object> linha : linhas) {
+                handler.processRow(resultSet(linha));
+            }
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    private static String sql(PreparedStatementCreator creator) throws SQLException {
+        Connection con = mock(Connection.class);
+        when(con.prepareStatement(anyString())).thenReturn(mock(PreparedStatement.class));
+        creator.createPreparedStatement(con);
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(con).prepareStatement(sql.capture());
+        return sql.getValue();
+    }
+
+    private static ResultSet resultSet(Map<String, Object> linha) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getInt(anyString())).thenAnswer(i -> linha.get(i.<String>getArgument(0)));
+        when(rs.getString(anyString())).thenAnswer(i -> linha.get(i.<String>getArgument(0)));
+        when(rs.getObject(anyString(), eq(Double.class))).thenAnswer(i -> linha.get(i.<String>getArgument(0)));
+        return rs;
+    }
+
+    private static Map<String, Object> local(int idProduto, String codigo, int quantidade) {
+        return Map.of("id_produto", idProduto, "codigo_local", codigo, "nome", codigo, "quantidade", quantidade);
+    }
+
+    private static Map<String, Object> baixado(int idProduto, String codigo) {
+        return Map.of("id_produto", idProduto, "codigo_local", codigo);
+    }
+
+    // ---------- alocar ----------
+
+    @Test
+    void alocar_produtoSemLocaisNaoGravaEFicaNoCache() {
+        assertTrue(repository.alocar(Map.of(1, 3), null).isEmpty());
+        assertTrue(repository.alocar(Map.of(1, 2), null).isEmpty());
+
+        verify(jdbcTemplate, times(1)).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    @Test
+    void alocar_indiceEmDiaGravaOPedidoEmUmComando() {
+        indice = List.of(local(1, "CD-RJ", 20), local(1, "CD-SP", 5), local(2, "CD-SP", 4));
+        baixados.add(List.of(baixado(1, "CD-RJ"), baixado(2, "CD-SP")));
+
+        Map<Integer, List<AlocacaoEstoqueDTO>> alocacoes = repository.alocar(Map.of(1, 7, 2, 3), null);
+
+        assertEquals(List.of(new AlocacaoEstoqueDTO("CD-RJ", 7)), alocacoes.get(1));
+        assertEquals(List.of(new AlocacaoEstoqueDTO("CD-SP", 3)), alocacoes.get(2));
+        verify(jdbcTemplate, times(2)).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+        verify(jdbcTemplate, never()).update(any(PreparedStatementCreator.class));
+    }
+
+    @Test
+    void alocar_sobraSemLocalSoComLocaisRelidosComTrava() {
+        indice = List.of(local(1, "CD-RJ", 20), local(2, "CD-SP", 4));
+        relidos = List.of(local(2, "CD-SP", 4));
+        baixados.add(List.of(baixado(1, "CD-RJ")));
+        baixados.add(List.of(baixado(2, "CD-SP")));
+
+        Map<Integer, List<AlocacaoEstoqueDTO>> alocacoes = repository.alocar(Map.of(1, 7, 2, 6), null);
+
+        assertEquals(List.of(new AlocacaoEstoqueDTO("CD-RJ", 7)), alocacoes.get(1));
+        // O produto 2 só tem 4 no local, confirmado com trava; o restante sai do saldo sem local
+        assertEquals(List.of(new AlocacaoEstoqueDTO("CD-SP", 4), new AlocacaoEstoqueDTO(null, 2)), alocacoes.get(2));
+        verify(jdbcTemplate, times(4)).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    @Test
+    void alocar_indiceComMenosSaldoQueOBancoNaoUsaSaldoSemLocal() {
+        indice = List.of(local(1, "CD-SP", 4));
+        relidos = List.of(local(1, "CD-SP", 10));
+        baixados.add(List.of(baixado(1, "CD-SP")));
+
+        Map<Integer, List<AlocacaoEstoqueDTO>> alocacoes = repository.alocar(Map.of(1, 6), null);
+
+        assertEquals(List.of(new AlocacaoEstoqueDTO("CD-SP", 6)), alocacoes.get(1));
+        assertEquals(0, baixados.size());
+    }
+
+    @Test
+    void alocar_indiceDesatualizadoReleComTravaEReplaneja() {
+        indice = List.of(local(1, "CD-RJ", 20), local(1, "CD-SP", 5));
+        relidos = List.of(local(1, "CD-RJ", 4), local(1, "CD-SP", 5));
+        baixados.add(List.of());
+        baixados.add(List.of(baixado(1, "CD-SP"), baixado(1, "CD-RJ")));
+
+        Map<Integer, List<AlocacaoEstoqueDTO>> alocacoes = repository.alocar(Map.of(1, 7), null);
+
+        assertEquals(List.of(new AlocacaoEstoqueDTO("CD-SP", 5), new AlocacaoEstoqueDTO("CD-RJ", 2)), alocacoes.get(1));
+        // Nenhuma parte chegou a ser retirada no primeiro UPDATE, então não há o que devolver
+        verify(jdbcTemplate, never()).update(any(PreparedStatementCreator.class));
+    }
+
+    @Test
+    void alocar_planoParcialmenteAplicadoDevolveAsPartesRetiradas() {
+        indice = List.of(local(1, "CD-RJ", 20), local(1, "CD-SP", 5));
+        relidos = List.of(local(1, "CD-RJ", 30), local(1, "CD-SP", 0));
+        baixados.add(List.of(baixado(1, "CD-RJ")));
+        baixados.add(List.of(baixado(1, "CD-RJ")));
+
+        Map<Integer, List<AlocacaoEstoqueDTO>> alocacoes = repository.alocar(Map.of(1, 22), null);
+
+        assertEquals(List.of(new AlocacaoEstoqueDTO("CD-RJ", 22)), alocacoes.get(1));
+        verify(jdbcTemplate, times(1)).update(any(PreparedStatementCreator.class));
+    }
+
+    // ---------- definirQuantidade ----------
+
+    @SuppressWarnings("unchecked")
+    private void linhaPrincipal(int idProduto, int quantidade, int buckets) {
+        when(jdbcTemplate.query(contains(TRAVA_PRINCIPAL), any(RowMapper.class), eq(idProduto)))
+                .thenReturn(List.of(new int[]{quantidade, buckets}));
+    }
+
+    @Test
+    void definirQuantidade_sucesso() {
+        linhaPrincipal(1, 10, 0);
+        when(jdbcTemplate.queryForObject(contains(EXISTE_LOCAL), eq(Boolean.class), eq("CD-SP"))).thenReturn(true);
+        when(jdbcTemplate.queryForObject(contains(SOMA_LOCAIS), eq(Integer.class), eq(1))).thenReturn(10);
+
+        assertDoesNotThrow(() -> repository.definirQuantidade(1, "CD-SP", 6));
+
+        verify(jdbcTemplate).update(contains("INSERT INTO estoque_local"), eq(1), eq("CD-SP"), eq(6));
+    }
+
+    @Test
+    void definirQuantidade_somaDosLocaisAcimaDoTotalRejeita() {
+        linhaPrincipal(1, 10, 0);
+        when(jdbcTemplate.queryForObject(contains(EXISTE_LOCAL), eq(Boolean.class), eq("CD-SP"))).thenReturn(true);
+        when(jdbcTemplate.queryForObject(contains(SOMA_LOCAIS), eq(Integer.class), eq(1))).thenReturn(12);
+
+        assertThrows(InvalidQuantidadeEstoqueException.class, () -> repository.definirQuantidade(1, "CD-SP", 8));
+    }
+
+    @Test
+    void definirQuantidade_produtoParticionadoRejeita() {
+        linhaPrincipal(1, 10, 4);
+
+        assertThrows(InvalidQuantidadeEstoqueException.class, () -> repository.definirQuantidade(1, "CD-SP", 1));
+
+        verify(jdbcTemplate, never()).update(contains("INSERT INTO estoque_local"), any(), any(), any());
+    }
+
+    @Test
+    void definirQuantidade_localInexistente() {
+        linhaPrincipal(1, 10, 0);
+        when(jdbcTemplate.queryForObject(contains(EXISTE_LOCAL), eq(Boolean.class), eq("CD-XX"))).thenReturn(false);
+
+        assertThrows(LocalEstoqueNotFoundException.class, () -> repository.definirQuantidade(1, "CD-XX", 1));
+    }
+}
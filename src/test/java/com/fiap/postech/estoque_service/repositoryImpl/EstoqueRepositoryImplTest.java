@@ -1,17 +1,39 @@
 package com.fiap.postech.estoque_service.repositoryImpl;
 
+import com.fiap.postech.estoque_service.api.dto.AlocacaoEstoqueDTO;
+import com.fiap.postech.estoque_service.api.dto.BaixaEstoqueRequest;
+import com.fiap.postech.estoque_service.api.dto.CriterioAlocacaoDTO;
 import com.fiap.postech.estoque_service.api.dto.EstoqueDto;
+import com.fiap.postech.estoque_service.api.dto.ItemAjusteEstoqueDTO;
+import com.fiap.postech.estoque_service.api.dto.ItemEstoqueBaixaDTO;
+import com.fiap.postech.estoque_service.api.dto.ItemEstoqueResultadoDTO;
 import com.fiap.postech.estoque_service.api.dto.ResponseDto;
 import com.fiap.postech.estoque_service.domain.exceptions.ErroInternoException;
+import com.fiap.postech.estoque_service.domain.exceptions.internal.ConflitoVersaoException;
+import com.fiap.postech.estoque_service.domain.exceptions.internal.EstoqueInsuficienteException;
 import com.fiap.postech.estoque_service.domain.exceptions.internal.EstoqueNotFoundException;
+import com.fiap.postech.estoque_service.domain.exceptions.internal.InvalidQuantidadeEstoqueException;
 import com.fiap.postech.estoque_service.domain.exceptions.internal.ProdutoNotFoundException;
 import com.fiap.postech.estoque_service.domain.model.Estoque;
+import com.fiap.postech.estoque_service.domain.model.EventoEstoque;
+import com.fiap.postech.estoque_service.domain.model.RegraAlocacao;
+import com.fiap.postech.estoque_service.domain.model.TipoEventoEstoque;
+import com.fiap.postech.estoque_service.gateway.database.EstoqueBucketRepository;
+import com.fiap.postech.estoque_service.gateway.database.EstoqueLocalRepositoryImpl;
 import com.fiap.postech.estoque_service.gateway.database.EstoqueRepositoryImpl;
+import com.fiap.postech.estoque_service.gateway.database.OutboxEstoqueRepository;
 import com.fiap.postech.estoque_service.gateway.database.entity.EstoqueEntity;
 import com.fiap.postech.estoque_service.gateway.database.repository.EstoqueRepositoryJPA;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.ResultSet;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -25,6 +47,18 @@ class EstoqueRepositoryImplTest {
     @Mock
     private EstoqueRepositoryJPA estoqueRepositoryJPA;
 
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private EstoqueBucketRepository buckets;
+
+    @Mock
+    private EstoqueLocalRepositoryImpl locais;
+
+    @Mock
+    private OutboxEstoqueRepository outbox;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -95,14 +129,10 @@ class EstoqueRepositoryImplTest {
 
     @Test
     void atualizarEstoque_sucesso() {
-        Estoque estoque = new Estoque(1, 10, "AP-IPH-002", 8);
-        EstoqueEntity entity = new EstoqueEntity();
-        entity.setIdEstoque(1);
-        entity.setIdProduto(10);
-        entity.setSkuProduto("AP-IPH-002");
-        entity.setQuantidadeEstoque(8);
+        Estoque estoque = new Estoque(1, 10, "AP-IPH-002", 8, 3L);
 
-        when(estoqueRepositoryJPA.save(any())).thenReturn(entity);
+        when(estoqueRepositoryJPA.atualizarQuantidade(10, 8, 3L)).thenReturn(1);
+        when(buckets.redefinirSaldo(10, 8, 4L)).thenReturn(true);
 
         ResponseDto resp = repositoryImpl.atualizarEstoque(estoque);
 
@@ -110,12 +140,45 @@ class EstoqueRepositoryImplTest {
         assertNotNull(resp.getMessage());
         assertTrue(resp.getMessage().contains("atualizado"));
         assertTrue(resp.getData().toString().contains("AP-IPH-002"));
+        verify(buckets).redefinirSaldo(10, 8, 4L);
+        verify(outbox).registrar(TipoEventoEstoque.ATUALIZACAO, 10, "AP-IPH-002", null, 8);
+    }
+
+    @Test
+    void atualizarEstoque_bucketMovimentadoDepoisDaLeituraLancaConflito() {
+        Estoque estoque = new Estoque(1, 10, "AP-IPH-002", 8, 3L);
+        when(estoqueRepositoryJPA.atualizarQuantidade(10, 8, 3L)).thenReturn(1);
+        when(buckets.redefinirSaldo(10, 8, 4L)).thenReturn(false);
+
+        assertThrows(ConflitoVersaoException.class, () -> repositoryImpl.atualizarEstoque(estoque));
+        verify(outbox, never()).registrar(any(), anyInt(), any(), any(), any());
+    }
+
+    @Test
+    void atualizarEstoque_versaoDesatualizadaLancaConflito() {
+        Estoque estoque = new Estoque(1, 10, "AP-IPH-002", 8, 3L);
+
+        when(estoqueRepositoryJPA.atualizarQuantidade(10, 8, 3L)).thenReturn(0);
+
+        assertThrows(ConflitoVersaoException.class, () -> repositoryImpl.atualizarEstoque(estoque));
+        verify(buckets, never()).redefinirSaldo(anyInt(), anyInt(), anyLong());
+    }
+
+    @Test
+    void atualizarEstoque_abaixoDaSomaDosLocaisRejeita() {
+        Estoque estoque = new Estoque(1, 10, "AP-IPH-002", 8, 3L);
+        when(estoqueRepositoryJPA.atualizarQuantidade(10, 8, 3L)).thenReturn(1);
+        when(locais.somaLocais(10)).thenReturn(9);
+
+        assertThrows(InvalidQuantidadeEstoqueException.class, () -> repositoryImpl.atualizarEstoque(estoque));
+        verify(buckets, never()).redefinirSaldo(anyInt(), anyInt(), anyLong());
+        verify(outbox, never()).registrar(any(), anyInt(), any(), any(), any());
     }
 
     @Test
     void atualizarEstoque_erroBancoLancaErroInterno() {
-        Estoque estoque = new Estoque(1, 10, "AP-IPH-002", 8);
-        when(estoqueRepositoryJPA.save(any())).thenThrow(new RuntimeException("erro"));
+        Estoque estoque = new Estoque(1, 10, "AP-IPH-002", 8, 3L);
+        when(estoqueRepositoryJPA.atualizarQuantidade(any(), any(), any())).thenThrow(new RuntimeException("erro"));
 
         assertThrows(ErroInternoException.class, () -> repositoryImpl.atualizarEstoque(estoque));
     }
@@ -138,6 +201,18 @@ class EstoqueRepositoryImplTest {
         assertEquals(9, estoque.getQuantidadeEstoque());
     }
 
+    @Test
+    void buscarPorSku_produtoParticionadoSomaOsBuckets() {
+        EstoqueEntity entity = new EstoqueEntity(1, 15, "SKU-15", 2, 4, 3L);
+        when(estoqueRepositoryJPA.findBySkuProduto("SKU-15")).thenReturn(Optional.of(entity));
+        when(buckets.somar(List.of(15))).thenReturn(Map.of(15, new EstoqueBucketRepository.SaldoBuckets(40, 5)));
+
+        Estoque estoque = repositoryImpl.buscarPorSku("SKU-15");
+
+        assertEquals(42, estoque.getQuantidadeEstoque());
+        assertEquals(8L, estoque.getVersao());
+    }
+
     @Test
     void buscarPorSku_notFound() {
         when(estoqueRepositoryJPA.findBySkuProduto("NOT-FOUND")).thenReturn(Optional.empty());
@@ -145,6 +220,28 @@ class EstoqueRepositoryImplTest {
         assertThrows(EstoqueNotFoundException.class, () -> repositoryImpl.buscarPorSku("NOT-FOUND"));
     }
 
+    // ---------- buscarVarios ----------
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void buscarVarios_umUnicoComando() {
+        List<Estoque> estoques = List.of(new Estoque(1, 1, "AP-IPH-001", 42), new Estoque(3, 3, "MO-MOT-100", 15));
+        when(jdbcTemplate.query(any(PreparedStatementCreator.class), any(RowMapper.class))).thenReturn(estoques);
+
+        assertEquals(estoques, repositoryImpl.buscarVarios(List.of("AP-IPH-001"), List.of(3)));
+        verify(jdbcTemplate, times(1)).query(any(PreparedStatementCreator.class), any(RowMapper.class));
+        verifyNoInteractions(estoqueRepositoryJPA);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void buscarVarios_erroBancoLancaErroInterno() {
+        when(jdbcTemplate.query(any(PreparedStatementCreator.class), any(RowMapper.class)))
+                .thenThrow(new RuntimeException("erro db"));
+
+        assertThrows(ErroInternoException.class, () -> repositoryImpl.buscarVarios(List.of("AP-IPH-001"), List.of()));
+    }
+
     // ---------- listarTodos ----------
 
     @Test
@@ -161,9 +258,9 @@ class EstoqueRepositoryImplTest {
 
         List<EstoqueEntity> entityList = Arrays.asList(entity1, entity2);
 
-        when(estoqueRepositoryJPA.findAll()).thenReturn(entityList);
+        when(estoqueRepositoryJPA.findByIdEstoqueGreaterThanOrderByIdEstoqueAsc(0, Limit.of(2))).thenReturn(entityList);
 
-        List<EstoqueDto> lista = repositoryImpl.listarTodos();
+        List<Estoque> lista = repositoryImpl.listarPagina(null, 2);
 
         assertNotNull(lista);
         assertFalse(lista.isEmpty());
@@ -173,9 +270,9 @@ class EstoqueRepositoryImplTest {
 
     @Test
     void listarTodos_erroBancoLancaErroInterno() {
-        when(estoqueRepositoryJPA.findAll()).thenThrow(new RuntimeException("erro"));
+        when(estoqueRepositoryJPA.findByIdEstoqueGreaterThanOrderByIdEstoqueAsc(any(), any())).thenThrow(new RuntimeException("erro"));
 
-        assertThrows(ErroInternoException.class, () -> repositoryImpl.listarTodos());
+        assertThrows(ErroInternoException.class, () -> repositoryImpl.listarPagina(10, 2));
     }
 
     // ---------- deletarEstoque ----------
@@ -183,6 +280,7 @@ class EstoqueRepositoryImplTest {
     @Test
     void deletarEstoque_sucesso() {
         EstoqueEntity entity = new EstoqueEntity();
+        entity.setIdProduto(7);
         entity.setSkuProduto("DEL-001");
 
         when(estoqueRepositoryJPA.findBySkuProduto("DEL-001")).thenReturn(Optional.of(entity));
@@ -190,6 +288,7 @@ class EstoqueRepositoryImplTest {
 
         assertDoesNotThrow(() -> repositoryImpl.deletarEstoque("DEL-001"));
         verify(estoqueRepositoryJPA).deleteBySkuProduto("DEL-001");
+        verify(outbox).registrar(TipoEventoEstoque.REMOCAO, 7, "DEL-001", null, null);
     }
 
     @Test
@@ -198,4 +297,349 @@ class EstoqueRepositoryImplTest {
 
         assertThrows(EstoqueNotFoundException.class, () -> repositoryImpl.deletarEstoque("NOT-FOUND"));
     }
+
+    // ---------- baixarEstoque ----------
+
+    @Test
+    void baixarEstoque_produtoParticionadoUsaBuckets() {
+        List<ItemEstoqueBaixaDTO> itens = Arrays.asList(item(2, 3), item(1, 1));
+        when(buckets.quantidadeBuckets(2)).thenReturn(4);
+        when(buckets.baixar(2, 3)).thenReturn(true);
+        when(buckets.resultado(2, 3, true)).thenReturn(new ItemEstoqueResultadoDTO(2, "SKU-2", 3, 97, true));
+        when(estoqueRepositoryJPA.baixarEstoque(1, 1)).thenReturn(1);
+
+        List<ItemEstoqueResultadoDTO> resultados = repositoryImpl.baixarEstoque(itens, null);
+
+        assertEquals(List.of(1, 2), resultados.stream().map(ItemEstoqueResultadoDTO::getIdProduto).toList());
+        assertEquals(97, resultados.get(1).getQuantidadeEstoque());
+        verify(buckets, never()).quantidadeBuckets(1);
+    }
+
+    @Test
+    void baixarEstoque_produtoParticionadoSemSaldo() {
+        when(buckets.quantidadeBuckets(2)).thenReturn(4);
+        when(buckets.resultado(2, 3, false)).thenReturn(new ItemEstoqueResultadoDTO(2, "SKU-2", 3, null, false));
+
+        assertThrows(EstoqueInsuficienteException.class, () -> repositoryImpl.baixarEstoque(List.of(item(2, 3)), null));
+    }
+
+    @Test
+    void baixarEstoque_sucessoAgrupaItensPorProduto() {
+        List<ItemEstoqueBaixaDTO> itens = Arrays.asList(item(2, 1), item(1, 3), item(2, 4));
+
+        when(estoqueRepositoryJPA.baixarEstoque(anyInt(), anyInt())).thenReturn(1);
+
+        assertDoesNotThrow(() -> repositoryImpl.baixarEstoque(itens, null));
+
+        InOrder ordem = inOrder(estoqueRepositoryJPA);
+        ordem.verify(estoqueRepositoryJPA).baixarEstoque(1, 3);
+        ordem.verify(estoqueRepositoryJPA).baixarEstoque(2, 5);
+        verify(estoqueRepositoryJPA, never()).save(any());
+    }
+
+    @Test
+    void baixarEstoque_estoqueInsuficiente() {
+        List<ItemEstoqueBaixaDTO> itens = Arrays.asList(item(1, 2), item(2, 50));
+
+        when(estoqueRepositoryJPA.baixarEstoque(1, 2)).thenReturn(1);
+        when(estoqueRepositoryJPA.baixarEstoque(2, 50)).thenReturn(0);
+
+        EstoqueInsuficienteException ex = assertThrows(EstoqueInsuficienteException.class,
+                () -> repositoryImpl.baixarEstoque(itens, null));
+        assertTrue(ex.getMessage().contains("2"));
+    }
+
+    @Test
+    void baixarEstoque_produtoComLocaisDevolveAlocacoes() {
+        CriterioAlocacaoDTO criterio = new CriterioAlocacaoDTO(RegraAlocacao.MAIS_PROXIMO, -23.5, -46.6);
+        when(estoqueRepositoryJPA.baixarEstoque(anyInt(), anyInt())).thenReturn(1);
+        when(locais.alocar(Map.of(1, 3, 2, 1), criterio)).thenReturn(Map.of(1, List.of(
+                new AlocacaoEstoqueDTO("CD-SP", 2), new AlocacaoEstoqueDTO(null, 1))));
+
+        List<ItemEstoqueResultadoDTO> resultados =
+                repositoryImpl.baixarEstoque(List.of(item(1, 3), item(2, 1)), null, criterio);
+
+        assertEquals(2, resultados.get(0).getAlocacoes().size());
+        assertEquals("CD-SP", resultados.get(0).getAlocacoes().get(0).getCodigoLocal());
+        assertNull(resultados.get(1).getAlocacoes());
+    }
+
+    @Test
+    void baixarEstoque_semSaldoNaoAlocaLocais() {
+        when(estoqueRepositoryJPA.baixarEstoque(1, 3)).thenReturn(0);
+
+        assertThrows(EstoqueInsuficienteException.class, () -> repositoryImpl.baixarEstoque(List.of(item(1, 3)), null));
+
+        verify(locais, never()).alocar(any(), any());
+    }
+
+    @Test
+    void baixarEstoque_erroBancoLancaErroInterno() {
+        when(estoqueRepositoryJPA.baixarEstoque(anyInt(), anyInt())).thenThrow(new RuntimeException("erro"));
+
+        assertThrows(ErroInternoException.class, () -> repositoryImpl.baixarEstoque(List.of(item(1, 1)), null));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void baixarEstoque_emLoteUsaUmUnicoComando() {
+        ReflectionTestUtils.setField(repositoryImpl, "movimentacaoEmLote", true);
+        List<ItemEstoqueResultadoDTO> resultados = List.of(
+                new ItemEstoqueResultadoDTO(1, "SKU-1", 2, 8, true),
+                new ItemEstoqueResultadoDTO(2, "SKU-2", 1, 0, true));
+        when(jdbcTemplate.query(any(PreparedStatementCreator.class), any(RowMapper.class))).thenReturn(resultados);
+
+        List<ItemEstoqueResultadoDTO> resp = repositoryImpl.baixarEstoque(List.of(item(1, 2), item(2, 1)), "PED-1");
+
+        assertEquals(resultados, resp);
+        verify(jdbcTemplate, times(1)).query(any(PreparedStatementCreator.class), any(RowMapper.class));
+        verify(outbox).registrar(TipoEventoEstoque.BAIXA, resultados, "PED-1");
+        verifyNoInteractions(estoqueRepositoryJPA);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void baixarEstoque_emLoteComItemSemSaldoDevolveResultados() {
+        ReflectionTestUtils.setField(repositoryImpl, "movimentacaoEmLote", true);
+        List<ItemEstoqueResultadoDTO> resultados = List.of(
+                new ItemEstoqueResultadoDTO(1, "SKU-1", 2, 8, true),
+                new ItemEstoqueResultadoDTO(2, null, 9, null, false));
+        when(jdbcTemplate.query(any(PreparedStatementCreator.class), any(RowMapper.class))).thenReturn(resultados);
+
+        EstoqueInsuficienteException ex = assertThrows(EstoqueInsuficienteException.class,
+                () -> repositoryImpl.baixarEstoque(List.of(item(1, 2), item(2, 9)), null));
+
+        assertTrue(ex.getMessage().contains("2"));
+        assertEquals(resultados, ex.getItens());
+        verifyNoInteractions(outbox);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void baixarEstoque_emLoteProdutoParticionadoSeguePelosBuckets() throws Exception {
+        ReflectionTestUtils.setField(repositoryImpl, "movimentacaoEmLote", true);
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getInt("id_produto")).thenReturn(15);
+        when(rs.getInt("buckets")).thenReturn(4);
+        when(rs.getInt("quantidade")).thenReturn(3);
+        when(rs.getBoolean("sucesso")).thenReturn(false);
+        when(jdbcTemplate.query(any(PreparedStatementCreator.class), any(RowMapper.class)))
+                .thenAnswer(inv -> List.of(((RowMapper<ItemEstoqueResultadoDTO>) inv.getArgument(1)).mapRow(rs, 0)));
+        ItemEstoqueResultadoDTO doBucket = new ItemEstoqueResultadoDTO(15, "AP-IPH-015", 3, 37, true);
+        when(buckets.baixar(15, 3)).thenReturn(true);
+        when(buckets.resultado(15, 3, true)).thenReturn(doBucket);
+
+        List<ItemEstoqueResultadoDTO> resp = repositoryImpl.baixarEstoque(List.of(item(15, 3)), null);
+
+        assertEquals(List.of(doBucket), resp);
+        verifyNoInteractions(estoqueRepositoryJPA);
+    }
+
+    // ---------- baixarEstoqueAgrupado ----------
+
+    private BaixaEstoqueRequest pedido(String referencia, ItemEstoqueBaixaDTO... itens) {
+        BaixaEstoqueRequest pedido = new BaixaEstoqueRequest();
+        pedido.setReferencia(referencia);
+        pedido.setItens(List.of(itens));
+        return pedido;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void travados(Estoque... estoques) {
+        when(jdbcTemplate.query(any(PreparedStatementCreator.class), any(RowMapper.class))).thenReturn(List.of(estoques));
+    }
+
+    @Test
+    void baixarEstoqueAgrupado_decidePedidosNaOrdemEGravaUmUpdate() {
+        travados(new Estoque(null, 1, "SKU-1", 10), new Estoque(null, 2, "SKU-2", 1));
+        // Só o produto 1 tem baixa aceita
+        when(jdbcTemplate.update(any(PreparedStatementCreator.class))).thenReturn(1);
+
+        List<List<ItemEstoqueResultadoDTO>> resultados = repositoryImpl.baixarEstoqueAgrupado(List.of(
+                pedido("PED-1", item(1, 4)),
+                pedido("PED-2", item(1, 5), item(2, 2)),
+                pedido("PED-3", item(1, 6)),
+                pedido("PED-4", item(2, 1), item(1, 1))));
+
+        // PED-2 não cabe no produto 2; o PED-3 zera o produto 1, que deixa de atender o PED-4
+        assertEquals(6, resultados.get(0).get(0).getQuantidadeEstoque());
+        assertFalse(resultados.get(1).get(1).isSucesso());
+        assertEquals(0, resultados.get(2).get(0).getQuantidadeEstoque());
+        assertFalse(resultados.get(3).get(0).isSucesso());
+        assertTrue(resultados.get(3).get(1).isSucesso());
+
+        verify(jdbcTemplate, times(1)).update(any(PreparedStatementCreator.class));
+        verify(outbox).registrar(TipoEventoEstoque.BAIXA, resultados.get(0), "PED-1");
+        verify(outbox).registrar(TipoEventoEstoque.BAIXA, resultados.get(2), "PED-3");
+        verify(outbox, times(2)).registrar(any(TipoEventoEstoque.class), anyList(), any());
+        verifyNoInteractions(estoqueRepositoryJPA);
+    }
+
+    @Test
+    void baixarEstoqueAgrupado_pedidoComProdutoParticionadoVoltaNulo() {
+        // O produto 2 é particionado e fica fora das linhas travadas
+        travados(new Estoque(null, 1, "SKU-1", 10));
+        when(jdbcTemplate.update(any(PreparedStatementCreator.class))).thenReturn(1);
+
+        List<List<ItemEstoqueResultadoDTO>> resultados = repositoryImpl.baixarEstoqueAgrupado(List.of(
+                pedido("PED-1", item(2, 1)), pedido("PED-2", item(1, 3))));
+
+        assertNull(resultados.get(0));
+        assertEquals(7, resultados.get(1).get(0).getQuantidadeEstoque());
+        verify(buckets, never()).baixar(anyInt(), anyInt());
+    }
+
+    @Test
+    void baixarEstoqueAgrupado_nenhumPedidoAtendidoNaoGrava() {
+        travados(new Estoque(null, 1, "SKU-1", 1));
+
+        List<List<ItemEstoqueResultadoDTO>> resultados = repositoryImpl.baixarEstoqueAgrupado(List.of(
+                pedido("PED-1", item(1, 3)), pedido("PED-2", item(99, 1))));
+
+        // O produto 99 não foi travado: o pedido segue pela baixa individual, que o recusa
+        assertFalse(resultados.get(0).get(0).isSucesso());
+        assertNull(resultados.get(1));
+        verify(jdbcTemplate, never()).update(any(PreparedStatementCreator.class));
+        verifyNoInteractions(outbox, locais);
+    }
+
+    @Test
+    void baixarEstoqueAgrupado_updateDivergenteDesfazOLote() {
+        travados(new Estoque(null, 1, "SKU-1", 10));
+        when(jdbcTemplate.update(any(PreparedStatementCreator.class))).thenReturn(0);
+
+        assertThrows(ErroInternoException.class,
+                () -> repositoryImpl.baixarEstoqueAgrupado(List.of(pedido("PED-1", item(1, 3)))));
+        verifyNoInteractions(outbox);
+    }
+
+    // ---------- importarEstoques ----------
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importarEstoques_devolveSkusInseridos() {
+        List<EventoEstoque> eventos = List.of(new EventoEstoque(TipoEventoEstoque.CADASTRO, 1, "AP-IPH-001", 5, 5));
+        when(jdbcTemplate.query(any(PreparedStatementCreator.class), any(RowMapper.class))).thenReturn(eventos);
+
+        List<String> inseridos = repositoryImpl.importarEstoques(List.of(
+                new Estoque(null, 1, "AP-IPH-001", 5),
+                new Estoque(null, 2, "AP-IPH-002", 3)));
+
+        assertEquals(List.of("AP-IPH-001"), inseridos);
+        verify(outbox).registrar(TipoEventoEstoque.CADASTRO, eventos);
+        verifyNoInteractions(estoqueRepositoryJPA);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importarEstoques_deveLancarErroInternoException() {
+        when(jdbcTemplate.query(any(PreparedStatementCreator.class), any(RowMapper.class)))
+                .thenThrow(new RuntimeException("falha"));
+
+        assertThrows(ErroInternoException.class,
+                () -> repositoryImpl.importarEstoques(List.of(new Estoque(null, 1, "AP-IPH-001", 5))));
+    }
+
+    // ---------- restaurarEstoque ----------
+
+    @Test
+    void restaurarEstoque_sucesso() {
+        when(estoqueRepositoryJPA.restaurarEstoque(3, 4)).thenReturn(1);
+
+        List<ItemEstoqueResultadoDTO> resp = repositoryImpl.restaurarEstoque(List.of(item(3, 4)), null);
+
+        assertEquals(1, resp.size());
+        assertTrue(resp.get(0).isSucesso());
+        verify(estoqueRepositoryJPA).restaurarEstoque(3, 4);
+    }
+
+    @Test
+    void restaurarEstoque_estoqueNaoEncontrado() {
+        when(estoqueRepositoryJPA.restaurarEstoque(99, 1)).thenReturn(0);
+
+        assertThrows(EstoqueNotFoundException.class, () -> repositoryImpl.restaurarEstoque(List.of(item(99, 1)), null));
+    }
+
+    // ---------- ajustarEstoque ----------
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void ajustarEstoque_aplicaDeltasEmUmComando() {
+        List<ItemEstoqueResultadoDTO> resultados = List.of(
+                new ItemEstoqueResultadoDTO(1, "AP-IPH-001", 5, 15, true),
+                new ItemEstoqueResultadoDTO(2, "SA-GAL-010", -2, 0, true));
+        when(jdbcTemplate.query(any(PreparedStatementCreator.class), any(RowMapper.class))).thenReturn(resultados);
+
+        List<ItemEstoqueResultadoDTO> resp = repositoryImpl.ajustarEstoque(List.of(
+                new ItemAjusteEstoqueDTO("AP-IPH-001", 5), new ItemAjusteEstoqueDTO("SA-GAL-010", -2)), null);
+
+        assertEquals(resultados, resp);
+        verify(jdbcTemplate, times(1)).query(any(PreparedStatementCreator.class), any(RowMapper.class));
+        verifyNoInteractions(estoqueRepositoryJPA, buckets);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void ajustarEstoque_saldoNegativoDesfazTudo() {
+        List<ItemEstoqueResultadoDTO> resultados = List.of(
+                new ItemEstoqueResultadoDTO(1, "AP-IPH-001", 5, 15, true),
+                new ItemEstoqueResultadoDTO(2, "SA-GAL-010", -9, null, false));
+        when(jdbcTemplate.query(any(PreparedStatementCreator.class), any(RowMapper.class))).thenReturn(resultados);
+
+        EstoqueInsuficienteException ex = assertThrows(EstoqueInsuficienteException.class,
+                () -> repositoryImpl.ajustarEstoque(List.of(
+                        new ItemAjusteEstoqueDTO("AP-IPH-001", 5), new ItemAjusteEstoqueDTO("SA-GAL-010", -9)), null));
+
+        assertTrue(ex.getMessage().contains("SA-GAL-010"));
+        assertEquals(resultados, ex.getItens());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void ajustarEstoque_skuInexistenteLancaNotFound() {
+        when(jdbcTemplate.query(any(PreparedStatementCreator.class), any(RowMapper.class)))
+                .thenReturn(List.of(new ItemEstoqueResultadoDTO(null, "XX-XX-999", 1, null, false)));
+
+        assertThrows(EstoqueNotFoundException.class,
+                () -> repositoryImpl.ajustarEstoque(List.of(new ItemAjusteEstoqueDTO("XX-XX-999", 1)), null));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void ajustarEstoque_produtoParticionadoSeguePelosBuckets() throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getObject("id_produto", Integer.class)).thenReturn(15);
+        when(rs.getInt("buckets")).thenReturn(4);
+        when(rs.getString("sku_produto")).thenReturn("AP-IPH-015");
+        when(rs.getInt("delta")).thenReturn(-3);
+        when(rs.getBoolean("sucesso")).thenReturn(false);
+        when(jdbcTemplate.query(any(PreparedStatementCreator.class), any(RowMapper.class)))
+                .thenAnswer(inv -> List.of(((RowMapper<ItemEstoqueResultadoDTO>) inv.getArgument(1)).mapRow(rs, 0)));
+        ItemEstoqueResultadoDTO doBucket = new ItemEstoqueResultadoDTO(15, "AP-IPH-015", -3, 37, true);
+        when(buckets.baixar(15, 3)).thenReturn(true);
+        when(buckets.resultado(15, -3, true)).thenReturn(doBucket);
+
+        List<ItemEstoqueResultadoDTO> resp = repositoryImpl.ajustarEstoque(List.of(new ItemAjusteEstoqueDTO("AP-IPH-015", -3)), null);
+
+        assertEquals(List.of(doBucket), resp);
+        verify(buckets, never()).restaurar(anyInt(), anyInt(), anyInt());
+    }
+
+    // ---------- particionarEstoque ----------
+
+    @Test
+    void particionarEstoque_produtoComLocaisRejeitado() {
+        when(locais.possuiLocais(7)).thenReturn(true);
+
+        assertThrows(InvalidQuantidadeEstoqueException.class, () -> repositoryImpl.particionarEstoque(7, 4));
+
+        verify(buckets, never()).particionar(anyInt(), anyInt());
+    }
+
+    private ItemEstoqueBaixaDTO item(Integer idProduto, Integer quantidade) {
+        ItemEstoqueBaixaDTO item = new ItemEstoqueBaixaDTO();
+        item.setIdProduto(idProduto);
+        item.setQuantidade(quantidade);
+        return item;
+    }
 }
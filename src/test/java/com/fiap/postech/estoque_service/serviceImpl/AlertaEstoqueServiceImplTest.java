@@ -0,0 +1,167 @@
+package com.fiap.postech.estoque_service.serviceImpl;
+
+import com.fiap.postech.estoque_service.api.dto.AlertaEstoqueDto;
+import com.fiap.postech.estoque_service.api.dto.ItemEstoqueResultadoDTO;
+import com.fiap.postech.estoque_service.domain.exceptions.internal.InvalidQuantidadeEstoqueException;
+import com.fiap.postech.estoque_service.domain.model.AlertaEstoque;
+import com.fiap.postech.estoque_service.domain.model.Estoque;
+import com.fiap.postech.estoque_service.domain.model.LimiteReposicao;
+import com.fiap.postech.estoque_service.domain.model.ModoLeitura;
+import com.fiap.postech.estoque_service.domain.model.TipoAlertaEstoque;
+import com.fiap.postech.estoque_service.gateway.port.LimiteReposicaoRepositoryPort;
+import com.fiap.postech.estoque_service.gateway.port.NotificadorAlertaPort;
+import com.fiap.postech.estoque_service.service.AlertaEstoqueServiceImpl;
+import com.fiap.postech.estoque_service.service.EstoqueCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AlertaEstoqueServiceImplTest {
+
+    @InjectMocks
+    private AlertaEstoqueServiceImpl service;
+
+    @Mock
+    private LimiteReposicaoRepositoryPort limiteRepositoryPort;
+
+    @Mock
+    private NotificadorAlertaPort notificador;
+
+    @Mock
+    private EstoqueCache estoqueCache;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        // Produto 1 com limite 10 e saldo 50
+        when(limiteRepositoryPort.listarComLimite()).thenReturn(List.of(new LimiteReposicao(1, "AP-IPH-001", 10, 50)));
+        service.sincronizar();
+    }
+
+    private static ItemEstoqueResultadoDTO resultado(int idProduto, Integer saldo, boolean sucesso) {
+        return new ItemEstoqueResultadoDTO(idProduto, "AP-IPH-00" + idProduto, 1, saldo, sucesso);
+    }
+
+    private AlertaEstoque notificado() throws Exception {
+        ArgumentCaptor<AlertaEstoque> alerta = ArgumentCaptor.forClass(AlertaEstoque.class);
+        verify(notificador).notificar(alerta.capture());
+        return alerta.getValue();
+    }
+
+    // ---------- avaliar ----------
+
+    @Test
+    void avaliar_saldoChegaAoLimiteEntraNoIndiceENotifica() throws Exception {
+        service.avaliar(List.of(resultado(1, 10, true)));
+
+        assertEquals(TipoAlertaEstoque.ABAIXO_DO_LIMITE, notificado().getTipo());
+        List<AlertaEstoqueDto> alertas = service.listarAlertas();
+        assertEquals(1, alertas.size());
+        assertEquals(10, alertas.get(0).getQuantidadeEstoque());
+    }
+
+    @Test
+    void avaliar_continuarAbaixoDoLimiteNaoNotificaDeNovoEPreservaDesde() throws Exception {
+        service.avaliar(List.of(resultado(1, 8, true)));
+        AlertaEstoqueDto primeiro = service.listarAlertas().get(0);
+
+        service.avaliar(List.of(resultado(1, 5, true)));
+
+        verify(notificador, times(1)).notificar(any());
+        AlertaEstoqueDto atual = service.listarAlertas().get(0);
+        assertEquals(5, atual.getQuantidadeEstoque());
+        assertEquals(primeiro.getDesde(), atual.getDesde());
+    }
+
+    @Test
+    void avaliar_saldoVoltaAcimaDoLimiteSaiDoIndiceENotificaNormalizacao() throws Exception {
+        service.avaliar(1, "AP-IPH-001", 3);
+        clearInvocations(notificador);
+
+        service.avaliar(1, "AP-IPH-001", 40);
+
+        assertEquals(TipoAlertaEstoque.NORMALIZADO, notificado().getTipo());
+        assertTrue(service.listarAlertas().isEmpty());
+    }
+
+    @Test
+    void avaliar_produtoSemLimiteOuItemSemSucessoNaoFazNada() {
+        service.avaliar(List.of(resultado(2, 0, true), resultado(1, 0, false)));
+
+        assertTrue(service.listarAlertas().isEmpty());
+        verifyNoInteractions(notificador, estoqueCache);
+    }
+
+    @Test
+    void avaliar_saldoDesconhecidoReleSoProdutoComLimite() {
+        when(estoqueCache.buscarPorIdProduto(1, ModoLeitura.ESTRITO)).thenReturn(new Estoque(1, 1, "AP-IPH-001", 2, 1L));
+
+        service.avaliar(List.of(resultado(1, null, true), resultado(2, null, true)));
+
+        assertEquals(1, service.listarAlertas().size());
+        verify(estoqueCache, times(1)).buscarPorIdProduto(anyInt(), any());
+    }
+
+    @Test
+    void avaliar_falhaDoNotificadorNaoPropaga() throws Exception {
+        doThrow(new IllegalStateException("webhook fora")).when(notificador).notificar(any());
+
+        assertDoesNotThrow(() -> service.avaliar(1, "AP-IPH-001", 1));
+        assertEquals(1, service.listarAlertas().size());
+    }
+
+    // ---------- definirLimite ----------
+
+    @Test
+    void definirLimite_avaliaNaHoraComOSaldoAtual() throws Exception {
+        when(estoqueCache.buscarPorSku("AP-IPH-002", ModoLeitura.ESTRITO)).thenReturn(new Estoque(2, 2, "AP-IPH-002", 4, 1L));
+
+        service.definirLimite("AP-IPH-002", 5);
+
+        verify(limiteRepositoryPort).definirLimite(2, 5);
+        assertEquals("AP-IPH-002", notificado().getSkuProduto());
+    }
+
+    @Test
+    void definirLimite_nuloRemoveLimiteEAlerta() {
+        service.avaliar(1, "AP-IPH-001", 1);
+        when(estoqueCache.buscarPorSku("AP-IPH-001", ModoLeitura.ESTRITO)).thenReturn(new Estoque(1, 1, "AP-IPH-001", 1, 1L));
+
+        service.definirLimite("AP-IPH-001", null);
+        service.avaliar(1, "AP-IPH-001", 0);
+
+        verify(limiteRepositoryPort).definirLimite(1, null);
+        assertTrue(service.listarAlertas().isEmpty());
+    }
+
+    @Test
+    void definirLimite_negativoRejeita() {
+        assertThrows(InvalidQuantidadeEstoqueException.class, () -> service.definirLimite("AP-IPH-001", -1));
+
+        verify(limiteRepositoryPort, never()).definirLimite(any(), any());
+    }
+
+    // ---------- sincronizar ----------
+
+    @Test
+    void sincronizar_alinhaIndiceSemNotificarERemoveLimitesApagados() throws Exception {
+        when(limiteRepositoryPort.listarComLimite()).thenReturn(List.of(new LimiteReposicao(3, "AP-IPH-003", 5, 2)));
+
+        service.sincronizar();
+        service.avaliar(1, "AP-IPH-001", 0);
+
+        verify(notificador, never()).notificar(any());
+        List<AlertaEstoqueDto> alertas = service.listarAlertas();
+        assertEquals(1, alertas.size());
+        assertEquals("AP-IPH-003", alertas.get(0).getSkuProduto());
+    }
+}
@@ -6,16 +6,23 @@ import com.fiap.postech.estoque_service.api.mapper.EstoqueMapper;
 import com.fiap.postech.estoque_service.domain.exceptions.ErroInternoException;
 import com.fiap.postech.estoque_service.domain.exceptions.internal.*;
 import com.fiap.postech.estoque_service.domain.model.Estoque;
+import com.fiap.postech.estoque_service.domain.model.FormatoExportacao;
+import com.fiap.postech.estoque_service.gateway.client.ProdutoCache;
 import com.fiap.postech.estoque_service.gateway.client.ProdutoClient;
 import com.fiap.postech.estoque_service.gateway.client.dto.ProdutoDto;
+import com.fiap.postech.estoque_service.gateway.port.AlertaEstoqueServicePort;
 import com.fiap.postech.estoque_service.gateway.port.EstoqueRepositoryPort;
+import com.fiap.postech.estoque_service.domain.model.ModoLeitura;
+import com.fiap.postech.estoque_service.service.EstoqueCache;
 import com.fiap.postech.estoque_service.service.EstoqueServiceImpl;
+import com.fiap.postech.estoque_service.service.PipelineBaixaEstoque;
 import com.fiap.postech.estoque_service.utils.ConstantUtils;
 import feign.FeignException;
 import feign.Request;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.yaml.snakeyaml.scanner.Constant;
 
 import java.math.BigDecimal;
@@ -33,10 +40,42 @@ class EstoqueServiceImplTest {
     private EstoqueRepositoryPort repositoryPort;
     @Mock
     private ProdutoClient produtoClient;
+    @Mock
+    private AlertaEstoqueServicePort alertas;
+    @Mock
+    private PipelineBaixaEstoque pipelineBaixa;
+
+    private EstoqueCache estoqueCache;
 
     @BeforeEach
     void setup() {
         MockitoAnnotations.openMocks(this);
+        estoqueCache = new EstoqueCache();
+        ReflectionTestUtils.setField(estoqueCache, "repositoryPort", repositoryPort);
+        ReflectionTestUtils.setField(estoqueCache, "tamanhoMaximo", 100L);
+        ReflectionTestUtils.setField(estoqueCache, "ttlSegundos", 60L);
+        ReflectionTestUtils.setField(estoqueCache, "modoLeitura", ModoLeitura.RELAXADO);
+        estoqueCache.iniciar();
+        ReflectionTestUtils.setField(service, "objectMapper", new com.fasterxml.jackson.databind.ObjectMapper());
+        ReflectionTestUtils.setField(service, "limitePadrao", 100);
+        ReflectionTestUtils.setField(service, "limiteMaximo", 1000);
+        ReflectionTestUtils.setField(service, "maxBuckets", 64);
+        ReflectionTestUtils.setField(service, "estoqueCache", estoqueCache);
+
+        ProdutoCache produtoCache = new ProdutoCache();
+        ReflectionTestUtils.setField(produtoCache, "produtoClient", produtoClient);
+        ReflectionTestUtils.setField(produtoCache, "tamanhoMaximo", 100L);
+        ReflectionTestUtils.setField(produtoCache, "ttlMinutos", 60L);
+        ReflectionTestUtils.setField(produtoCache, "ttlNegativoSegundos", 30L);
+        ReflectionTestUtils.setField(produtoCache, "tamanhoLote", 2);
+        ReflectionTestUtils.setField(produtoCache, "maxChamadasConcorrentes", 2);
+        ReflectionTestUtils.setField(produtoCache, "taxaFalhaPercentual", 50f);
+        ReflectionTestUtils.setField(produtoCache, "janelaChamadas", 4);
+        ReflectionTestUtils.setField(produtoCache, "minimoChamadas", 4);
+        ReflectionTestUtils.setField(produtoCache, "chamadaLentaMs", 1000L);
+        ReflectionTestUtils.setField(produtoCache, "esperaCircuitoAbertoMs", 60000L);
+        produtoCache.iniciar();
+        ReflectionTestUtils.setField(service, "produtoCache", produtoCache);
     }
 
     // ---------- cadastrarEstoque ----------
@@ -141,13 +180,28 @@ class EstoqueServiceImplTest {
         assertThrows(ProdutoNotFoundException.class, () -> service.cadastrarEstoque(request));
     }
 
+    @Test
+    void cadastrarEstoque_deveLancarProdutoServiceIndisponivelException() {
+        EstoqueRequest request = new EstoqueRequest();
+        request.setSkuProduto("AP-IPH-001");
+        request.setQuantidadeEstoque(2);
+
+        Request feignRequest = Request.create(Request.HttpMethod.GET, "http://fake", Collections.emptyMap(),
+                null, null, null);
+        when(produtoClient.buscarPorSku("AP-IPH-001"))
+                .thenThrow(new FeignException.ServiceUnavailable("fora do ar", feignRequest, null, Collections.emptyMap()));
+
+        assertThrows(ProdutoServiceIndisponivelException.class, () -> service.cadastrarEstoque(request));
+        verify(repositoryPort, never()).cadastrarEstoque(any());
+    }
+
     @Test
     void cadastrarEstoque_deveLancarErroInternoException() {
         EstoqueRequest request = new EstoqueRequest();
         request.setSkuProduto("AP-IPH-001");
         request.setQuantidadeEstoque(1);
 
-        when(repositoryPort.buscarPorSku(any())).thenThrow(new RuntimeException("Erro inesperado"));
+        when(repositoryPort.estoqueExistsBySku(any())).thenThrow(new RuntimeException("Erro inesperado"));
 
         assertThrows(ErroInternoException.class, () -> service.cadastrarEstoque(request));
     }
@@ -164,11 +218,37 @@ class EstoqueServiceImplTest {
 
         when(repositoryPort.atualizarEstoque(any())).thenReturn(new ResponseDto());
 
-        ResponseDto resp = service.atualizarEstoque(sku, novaQtd);
+        ResponseDto resp = service.atualizarEstoque(sku, novaQtd, null);
 
         assertNotNull(resp);
         verify(repositoryPort).atualizarEstoque(estoque);
         assertEquals(novaQtd, estoque.getQuantidadeEstoque());
+        verify(alertas).avaliar(2, sku, novaQtd);
+    }
+
+    @Test
+    void atualizarEstoque_gravaSobreAVersaoInformadaPeloCliente() {
+        String sku = "AP-IPH-001";
+        Estoque lida = new Estoque(1, 2, sku, 10, 5L);
+        when(repositoryPort.buscarPorSku(sku)).thenReturn(lida);
+        when(repositoryPort.atualizarEstoque(any())).thenReturn(new ResponseDto());
+
+        service.atualizarEstoque(sku, 22, 4L);
+
+        verify(repositoryPort).atualizarEstoque(argThat(e -> e.getVersao() == 4L && e.getQuantidadeEstoque() == 22));
+    }
+
+    @Test
+    void atualizarEstoque_conflitoDeVersaoNaoRegrava() {
+        String sku = "AP-IPH-001";
+        when(repositoryPort.buscarPorSku(sku)).thenAnswer(inv -> new Estoque(1, 2, sku, 10, 5L));
+        when(repositoryPort.atualizarEstoque(any()))
+                .thenThrow(new ConflitoVersaoException(ConstantUtils.CONFLITO_ATUALIZACAO));
+
+        assertThrows(ConflitoVersaoException.class, () -> service.atualizarEstoque(sku, 22, 4L));
+
+        verify(repositoryPort, times(1)).atualizarEstoque(any());
+        verify(alertas, never()).avaliar(anyInt(), any(), anyInt());
     }
 
     @Test
@@ -176,7 +256,7 @@ class EstoqueServiceImplTest {
         String sku = "SKUNOTFOUND";
         when(repositoryPort.buscarPorSku(sku)).thenThrow(new EstoqueNotFoundException("not found"));
 
-        assertThrows(EstoqueNotFoundException.class, () -> service.atualizarEstoque(sku, 10));
+        assertThrows(EstoqueNotFoundException.class, () -> service.atualizarEstoque(sku, 10, null));
     }
 
     @Test
@@ -184,7 +264,7 @@ class EstoqueServiceImplTest {
         String sku = "AP-IPH-001";
         when(repositoryPort.buscarPorSku(sku)).thenThrow(new RuntimeException("erro"));
 
-        assertThrows(ErroInternoException.class, () -> service.atualizarEstoque(sku, 9));
+        assertThrows(ErroInternoException.class, () -> service.atualizarEstoque(sku, 9, null));
     }
 
     // ---------- baixarEstoque ----------
@@ -196,17 +276,38 @@ class EstoqueServiceImplTest {
         item.setIdProduto(1);
         item.setQuantidade(2);
         request.setItens(Collections.singletonList(item));
+        request.setReferencia("PED-1");
 
-        Estoque estoque = new Estoque(1, 1, "SKU-1", 5);
-
-        when(repositoryPort.buscarPorIdProduto(1)).thenReturn(estoque);
-        when(repositoryPort.atualizarEstoque(any())).thenReturn(new ResponseDto());
+        List<ItemEstoqueResultadoDTO> resultados = List.of(new ItemEstoqueResultadoDTO(1, "SKU-1", 2, 3, true));
+        when(repositoryPort.baixarEstoque(request.getItens(), "PED-1", null)).thenReturn(resultados);
 
         BaixaEstoqueResponse resp = service.baixarEstoque(request);
 
         assertTrue(resp.isSucesso());
         assertEquals("Estoque baixado com sucesso", resp.getMensagem());
-        verify(repositoryPort).atualizarEstoque(any());
+        assertEquals(resultados, resp.getItens());
+        verify(repositoryPort, never()).buscarPorIdProduto(any());
+        verify(repositoryPort, never()).atualizarEstoque(any());
+    }
+
+    @Test
+    void baixarEstoque_pipelineHabilitadoEnfileiraOPedido() {
+        BaixaEstoqueRequest request = new BaixaEstoqueRequest();
+        ItemEstoqueBaixaDTO item = new ItemEstoqueBaixaDTO();
+        item.setIdProduto(1);
+        item.setQuantidade(2);
+        request.setItens(Collections.singletonList(item));
+
+        List<ItemEstoqueResultadoDTO> resultados = List.of(new ItemEstoqueResultadoDTO(1, "SKU-1", 2, 3, true));
+        when(pipelineBaixa.habilitado()).thenReturn(true);
+        when(pipelineBaixa.baixar(request)).thenReturn(resultados);
+
+        BaixaEstoqueResponse resp = service.baixarEstoque(request);
+
+        assertTrue(resp.isSucesso());
+        assertEquals(resultados, resp.getItens());
+        verify(repositoryPort, never()).baixarEstoque(any(), any(), any());
+        verify(alertas).avaliar(resultados);
     }
 
     @Test
@@ -217,14 +318,70 @@ class EstoqueServiceImplTest {
         item.setQuantidade(10); // insuficiente!
         request.setItens(Collections.singletonList(item));
 
-        Estoque estoque = new Estoque(1, 1, "SKU-1", 5);
-
-        when(repositoryPort.buscarPorIdProduto(1)).thenReturn(estoque);
+        List<ItemEstoqueResultadoDTO> resultados = List.of(new ItemEstoqueResultadoDTO(1, null, 10, null, false));
+        when(repositoryPort.baixarEstoque(request.getItens(), null, null))
+                .thenThrow(new EstoqueInsuficienteException("Estoque insuficiente para o produto ID: 1", resultados));
 
         BaixaEstoqueResponse resp = service.baixarEstoque(request);
 
         assertFalse(resp.isSucesso());
         assertTrue(resp.getMensagem().contains("Estoque insuficiente"));
+        assertEquals(resultados, resp.getItens());
+    }
+
+    // ---------- ajustarEstoque ----------
+
+    @Test
+    void ajustarEstoque_normalizaSkuEAplicaDelta() {
+        List<ItemEstoqueResultadoDTO> resultados = List.of(new ItemEstoqueResultadoDTO(2, "AP-IPH-001", -3, 7, true));
+        when(repositoryPort.ajustarEstoque(List.of(new ItemAjusteEstoqueDTO("AP-IPH-001", -3)), null)).thenReturn(resultados);
+
+        BaixaEstoqueResponse resp = service.ajustarEstoque(" ap iph 001 ", -3);
+
+        assertTrue(resp.isSucesso());
+        assertEquals(ConstantUtils.ESTOQUE_AJUSTADO, resp.getMensagem());
+        assertEquals(resultados, resp.getItens());
+        verify(repositoryPort, never()).buscarPorSku(any());
+    }
+
+    @Test
+    void ajustarEstoque_emLoteComSaldoNegativo() {
+        AjusteEstoqueRequest request = new AjusteEstoqueRequest(List.of(
+                new ItemAjusteEstoqueDTO("AP-IPH-001", 4), new ItemAjusteEstoqueDTO("SA-GAL-010", -9)));
+        List<ItemEstoqueResultadoDTO> resultados = List.of(
+                new ItemEstoqueResultadoDTO(2, "AP-IPH-001", 4, 14, true),
+                new ItemEstoqueResultadoDTO(3, "SA-GAL-010", -9, null, false));
+        when(repositoryPort.ajustarEstoque(request.getItens(), null))
+                .thenThrow(new EstoqueInsuficienteException("Estoque insuficiente para o SKU: SA-GAL-010", resultados));
+
+        BaixaEstoqueResponse resp = service.ajustarEstoque(request);
+
+        assertFalse(resp.isSucesso());
+        assertTrue(resp.getMensagem().contains("SA-GAL-010"));
+        assertEquals(resultados, resp.getItens());
+    }
+
+    @Test
+    void ajustarEstoque_skuInexistente() {
+        when(repositoryPort.ajustarEstoque(any(), any()))
+                .thenThrow(new EstoqueNotFoundException("Estoque não encontrado para o SKU: XX-XX-999"));
+
+        BaixaEstoqueResponse resp = service.ajustarEstoque("XX-XX-999", 1);
+
+        assertFalse(resp.isSucesso());
+        assertTrue(resp.getMensagem().contains("XX-XX-999"));
+    }
+
+    @Test
+    void ajustarEstoque_invalidaCacheDoSku() {
+        String sku = "AP-IPH-001";
+        when(repositoryPort.buscarPorSku(sku)).thenReturn(new Estoque(1, 2, sku, 10), new Estoque(1, 2, sku, 15));
+        when(repositoryPort.ajustarEstoque(any(), any())).thenReturn(List.of());
+
+        service.buscarPorSku(sku);
+        service.ajustarEstoque(sku, 5);
+
+        assertEquals(15, service.buscarPorSku(sku).getQuantidadeEstoque());
     }
 
     // ---------- restaurarEstoque ----------
@@ -237,16 +394,15 @@ class EstoqueServiceImplTest {
         item.setQuantidade(3);
         request.setItens(Collections.singletonList(item));
 
-        Estoque estoque = new Estoque(10, 2, "SKU-2", 7);
-
-        when(repositoryPort.buscarPorIdProduto(2)).thenReturn(estoque);
-        when(repositoryPort.atualizarEstoque(any())).thenReturn(new ResponseDto());
+        List<ItemEstoqueResultadoDTO> resultados = List.of(new ItemEstoqueResultadoDTO(2, "SKU-2", 3, 10, true));
+        when(repositoryPort.restaurarEstoque(request.getItens(), null)).thenReturn(resultados);
 
         BaixaEstoqueResponse resp = service.restaurarEstoque(request);
 
         assertTrue(resp.isSucesso());
         assertEquals("Estoque restaurado com sucesso", resp.getMensagem());
-        verify(repositoryPort).atualizarEstoque(any());
+        assertEquals(resultados, resp.getItens());
+        verify(repositoryPort, never()).atualizarEstoque(any());
     }
 
     @Test
@@ -257,7 +413,8 @@ class EstoqueServiceImplTest {
         item.setQuantidade(1);
         request.setItens(Collections.singletonList(item));
 
-        when(repositoryPort.buscarPorIdProduto(99)).thenReturn(null);
+        when(repositoryPort.restaurarEstoque(request.getItens(), null))
+                .thenThrow(new EstoqueNotFoundException("Estoque não encontrado para o produto ID: 99"));
 
         BaixaEstoqueResponse resp = service.restaurarEstoque(request);
 
@@ -299,24 +456,215 @@ class EstoqueServiceImplTest {
         assertThrows(ErroInternoException.class, () -> service.buscarPorSku(sku));
     }
 
+    @Test
+    void buscarPorSku_segundaLeituraVemDoCache() {
+        String sku = "AP-IPH-001";
+        when(repositoryPort.buscarPorSku(sku)).thenReturn(new Estoque(1, 2, sku, 11));
+
+        service.buscarPorSku(sku);
+        EstoqueDto resp = service.buscarPorSku(sku);
+
+        assertEquals(11, resp.getQuantidadeEstoque());
+        verify(repositoryPort, times(1)).buscarPorSku(sku);
+    }
+
+    @Test
+    void buscarPorSku_baixaInvalidaCache() {
+        String sku = "AP-IPH-001";
+        when(repositoryPort.buscarPorSku(sku)).thenReturn(new Estoque(1, 2, sku, 11), new Estoque(1, 2, sku, 8));
+        BaixaEstoqueRequest request = new BaixaEstoqueRequest();
+        ItemEstoqueBaixaDTO item = new ItemEstoqueBaixaDTO();
+        item.setIdProduto(2);
+        item.setQuantidade(3);
+        request.setItens(Collections.singletonList(item));
+        when(repositoryPort.baixarEstoque(request.getItens(), null, null))
+                .thenReturn(List.of(new ItemEstoqueResultadoDTO(2, sku, 3, 8, true)));
+
+        service.buscarPorSku(sku);
+        service.baixarEstoque(request);
+        EstoqueDto resp = service.buscarPorSku(sku);
+
+        assertEquals(8, resp.getQuantidadeEstoque());
+        verify(repositoryPort, times(2)).buscarPorSku(sku);
+    }
+
+    @Test
+    void buscarPorSku_modoEstritoNaoUsaCache() {
+        String sku = "AP-IPH-001";
+        ReflectionTestUtils.setField(estoqueCache, "modoLeitura", ModoLeitura.ESTRITO);
+        when(repositoryPort.buscarPorSku(sku)).thenReturn(new Estoque(1, 2, sku, 11));
+
+        service.buscarPorSku(sku);
+        service.buscarPorSku(sku);
+
+        verify(repositoryPort, times(2)).buscarPorSku(sku);
+    }
+
+    @Test
+    void atualizarEstoque_ignoraCacheNaLeituraParaEscrita() {
+        String sku = "AP-IPH-001";
+        when(repositoryPort.buscarPorSku(sku)).thenReturn(new Estoque(1, 2, sku, 11), new Estoque(1, 2, sku, 11));
+        when(repositoryPort.atualizarEstoque(any())).thenReturn(new ResponseDto());
+
+        service.buscarPorSku(sku);
+        service.atualizarEstoque(sku, 20, null);
+
+        verify(repositoryPort, times(2)).buscarPorSku(sku);
+    }
+
+    // ---------- consultarEstoques ----------
+
+    @Test
+    void consultarEstoques_resolveTudoEmUmaConsultaNaOrdemPedida() {
+        ReflectionTestUtils.setField(service, "maxItensConsulta", 10);
+        when(repositoryPort.buscarVarios(anyCollection(), anyCollection())).thenReturn(List.of(
+                new Estoque(1, 2, "SA-GAL-010", 0), new Estoque(2, 1, "AP-IPH-001", 42), new Estoque(3, 3, "MO-MOT-100", 15)));
+
+        ConsultaEstoqueResponse resp = service.consultarEstoques(new ConsultaEstoqueRequest(
+                List.of("ap-iph-001", "SA-GAL-010", "XX-YY-999", "AP-IPH-001"), List.of(3, 7)));
+
+        assertEquals(List.of("AP-IPH-001", "SA-GAL-010"), new ArrayList<>(resp.getPorSku().keySet()));
+        assertEquals(42, resp.getPorSku().get("AP-IPH-001"));
+        assertEquals(Map.of(3, 15), resp.getPorIdProduto());
+        assertEquals(List.of("XX-YY-999", "7"), resp.getNaoEncontrados());
+        verify(repositoryPort, times(1)).buscarVarios(anyCollection(), anyCollection());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void consultarEstoques_itensEmCacheNaoVaoAoBanco() {
+        ReflectionTestUtils.setField(service, "maxItensConsulta", 10);
+        when(repositoryPort.buscarPorSku("AP-IPH-001")).thenReturn(new Estoque(1, 1, "AP-IPH-001", 42));
+        service.buscarPorSku("AP-IPH-001");
+        when(repositoryPort.buscarVarios(anyCollection(), anyCollection()))
+                .thenReturn(List.of(new Estoque(2, 2, "SA-GAL-010", 5)));
+
+        ConsultaEstoqueResponse resp = service.consultarEstoques(
+                new ConsultaEstoqueRequest(List.of("AP-IPH-001", "SA-GAL-010"), null));
+
+        assertEquals(Map.of("AP-IPH-001", 42, "SA-GAL-010", 5), resp.getPorSku());
+        ArgumentCaptor<Collection<String>> skus = ArgumentCaptor.forClass(Collection.class);
+        verify(repositoryPort).buscarVarios(skus.capture(), anyCollection());
+        assertEquals(List.of("SA-GAL-010"), new ArrayList<>(skus.getValue()));
+    }
+
+    @Test
+    void consultarEstoques_acimaDoLimiteLancaQuantidadeInvalida() {
+        ReflectionTestUtils.setField(service, "maxItensConsulta", 2);
+
+        assertThrows(InvalidQuantidadeEstoqueException.class, () -> service.consultarEstoques(
+                new ConsultaEstoqueRequest(List.of("AP-IPH-001", "SA-GAL-010"), List.of(3))));
+        verify(repositoryPort, never()).buscarVarios(anyCollection(), anyCollection());
+    }
+
     // ---------- listarTodos ----------
 
     @Test
     void listarTodos_sucesso() {
-        List<EstoqueDto> list = new ArrayList<>();
-        when(repositoryPort.listarTodos()).thenReturn(list);
+        when(repositoryPort.listarPagina(null, 101)).thenReturn(List.of(new Estoque(1, 10, "SKU-1", 5)));
+
+        PaginaEstoqueDto resp = service.listarTodos(null, null);
+
+        assertEquals(1, resp.getItens().size());
+        assertEquals("SKU-1", resp.getItens().get(0).getSkuProduto());
+        assertNull(resp.getProximoCursor());
+        verify(repositoryPort).listarPagina(null, 101);
+    }
+
+    @Test
+    void listarTodos_devolveCursorQuandoHaProximaPagina() {
+        when(repositoryPort.listarPagina(5, 3)).thenReturn(List.of(
+                new Estoque(6, 1, "SKU-1", 1),
+                new Estoque(7, 2, "SKU-2", 1),
+                new Estoque(9, 3, "SKU-3", 1)));
 
-        List<EstoqueDto> resp = service.listarTodos();
+        PaginaEstoqueDto resp = service.listarTodos(5, 2);
 
-        assertSame(list, resp);
-        verify(repositoryPort).listarTodos();
+        assertEquals(2, resp.getItens().size());
+        assertEquals(7, resp.getProximoCursor());
+    }
+
+    @Test
+    void listarTodos_limitaTamanhoDaPagina() {
+        when(repositoryPort.listarPagina(any(), anyInt())).thenReturn(List.of());
+
+        service.listarTodos(null, 50_000);
+
+        verify(repositoryPort).listarPagina(null, 1001);
     }
 
     @Test
     void listarTodos_deveLancarErroInternoException() {
-        when(repositoryPort.listarTodos()).thenThrow(new RuntimeException("erro"));
+        when(repositoryPort.listarPagina(any(), anyInt())).thenThrow(new RuntimeException("erro"));
+
+        assertThrows(ErroInternoException.class, () -> service.listarTodos(null, null));
+    }
+
+    // ---------- exportarEstoques ----------
+
+    @SuppressWarnings("unchecked")
+    private void exportaDoisEstoques() {
+        doAnswer(inv -> {
+            java.util.function.Consumer<EstoqueDto> consumidor = inv.getArgument(0);
+            for (int i = 1; i <= 2; i++) {
+                EstoqueDto dto = new EstoqueDto();
+                dto.setIdProduto(i);
+                dto.setSkuProduto("SKU-" + i);
+                dto.setQuantidadeEstoque(i * 10);
+                consumidor.accept(dto);
+            }
+            return null;
+        }).when(repositoryPort).exportarEstoques(any());
+    }
+
+    @Test
+    void exportarEstoques_escreveUmaLinhaPorEstoque() {
+        exportaDoisEstoques();
+        java.io.ByteArrayOutputStream saida = new java.io.ByteArrayOutputStream();
+
+        service.exportarEstoques(saida, FormatoExportacao.NDJSON);
+
+        String[] linhas = saida.toString(java.nio.charset.StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, linhas.length);
+        assertTrue(linhas[1].contains("\"skuProduto\":\"SKU-2\""));
+    }
+
+    @Test
+    void exportarEstoques_cborSaiComoSequenciaDeValores() throws Exception {
+        exportaDoisEstoques();
+        java.io.ByteArrayOutputStream saida = new java.io.ByteArrayOutputStream();
+
+        service.exportarEstoques(saida, FormatoExportacao.CBOR);
+
+        List<EstoqueDto> lidos = new com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper()
+                .readerFor(EstoqueDto.class).<EstoqueDto>readValues(saida.toByteArray()).readAll();
+        assertEquals(2, lidos.size());
+        assertEquals("SKU-2", lidos.get(1).getSkuProduto());
+        assertEquals(20, lidos.get(1).getQuantidadeEstoque());
+    }
 
-        assertThrows(ErroInternoException.class, () -> service.listarTodos());
+    @Test
+    void exportarEstoques_smileEscreveOCabecalhoUmaVez() throws Exception {
+        exportaDoisEstoques();
+        java.io.ByteArrayOutputStream saida = new java.io.ByteArrayOutputStream();
+
+        service.exportarEstoques(saida, FormatoExportacao.SMILE);
+
+        byte[] bytes = saida.toByteArray();
+        // Cabeçalho Smile ":)\n" só no início do stream
+        assertEquals(":)\n", new String(bytes, 0, 3, java.nio.charset.StandardCharsets.US_ASCII));
+        assertEquals(-1, new String(bytes, 3, bytes.length - 3, java.nio.charset.StandardCharsets.ISO_8859_1).indexOf(":)\n"));
+        List<EstoqueDto> lidos = new com.fasterxml.jackson.dataformat.smile.databind.SmileMapper()
+                .readerFor(EstoqueDto.class).<EstoqueDto>readValues(bytes).readAll();
+        assertEquals(List.of("SKU-1", "SKU-2"), lidos.stream().map(EstoqueDto::getSkuProduto).toList());
+    }
+
+    @Test
+    void exportarEstoques_falhaNoRepositorioViraErroInterno() {
+        doThrow(new RuntimeException("cursor fechado")).when(repositoryPort).exportarEstoques(any());
+
+        assertThrows(ErroInternoException.class,
+                () -> service.exportarEstoques(new java.io.ByteArrayOutputStream(), FormatoExportacao.CBOR));
     }
 
     // ---------- deletarEstoque ----------
@@ -346,6 +694,33 @@ class EstoqueServiceImplTest {
         assertThrows(ErroInternoException.class, () -> service.deletarEstoque(sku));
     }
 
+    // ---------- particionarEstoque ----------
+
+    @Test
+    void particionarEstoque_sucesso() {
+        when(repositoryPort.buscarPorSku("AP-IPH-001")).thenReturn(new Estoque(1, 2, "AP-IPH-001", 100));
+
+        ResponseDto resp = service.particionarEstoque("AP-IPH-001", 16);
+
+        assertEquals(ConstantUtils.ESTOQUE_PARTICIONADO, resp.getMessage());
+        verify(repositoryPort).particionarEstoque(2, 16);
+    }
+
+    @Test
+    void particionarEstoque_deveLancarInvalidQuantidadeParaBucketsForaDoLimite() {
+        assertThrows(InvalidQuantidadeEstoqueException.class, () -> service.particionarEstoque("AP-IPH-001", 65));
+        assertThrows(InvalidQuantidadeEstoqueException.class, () -> service.particionarEstoque("AP-IPH-001", -1));
+
+        verify(repositoryPort, never()).particionarEstoque(any(), anyInt());
+    }
+
+    @Test
+    void particionarEstoque_deveLancarEstoqueNotFoundException() {
+        when(repositoryPort.buscarPorSku("NAO-EXI-STE")).thenThrow(new EstoqueNotFoundException("not found"));
+
+        assertThrows(EstoqueNotFoundException.class, () -> service.particionarEstoque("NAO-EXI-STE", 4));
+    }
+
     @Test
     void chamadaProdutoClient_deveLancarErroInternoException_paraErroGenerico() throws Exception {
         Estoque estoque = new Estoque();
@@ -0,0 +1,232 @@
+package com.fiap.postech.estoque_service.serviceImpl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fiap.postech.estoque_service.api.dto.BaixaEstoqueResponse;
+import com.fiap.postech.estoque_service.api.dto.ItemEstoqueResultadoDTO;
+import com.fiap.postech.estoque_service.domain.exceptions.internal.ChaveIdempotenciaReutilizadaException;
+import com.fiap.postech.estoque_service.domain.exceptions.internal.RequisicaoEmProcessamentoException;
+import com.fiap.postech.estoque_service.domain.model.RegistroIdempotencia;
+import com.fiap.postech.estoque_service.gateway.port.EstoqueRepositoryPort;
+import com.fiap.postech.estoque_service.gateway.port.IdempotenciaRepositoryPort;
+import com.fiap.postech.estoque_service.service.IdempotenciaServiceImpl;
+import com.fiap.postech.estoque_service.service.PipelineBaixaEstoque;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class IdempotenciaServiceImplTest {
+
+    @InjectMocks
+    private IdempotenciaServiceImpl service;
+
+    @Mock
+    private IdempotenciaRepositoryPort repositoryPort;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private EstoqueRepositoryPort estoqueRepositoryPort;
+    @Mock
+    private PipelineBaixaEstoque pipelineBaixa;
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    private static final List<String> REQUISICAO = List.of("SKU-1", "2");
+    private static final LocalDateTime LEASE = LocalDateTime.of(2026, 1, 1, 10, 0);
+
+    private final AtomicInteger execucoes = new AtomicInteger();
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(service, "tamanhoMaximoCache", 100L);
+        ReflectionTestUtils.setField(service, "ttlCacheSegundos", 60L);
+        ReflectionTestUtils.setField(service, "leaseSegundos", 60L);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        when(estoqueRepositoryPort.movimentacaoTransacional()).thenReturn(true);
+        when(repositoryPort.registrarResposta(any(), any(), any(), any())).thenReturn(true);
+        service.iniciar();
+    }
+
+    // ---------- executar ----------
+
+    @Test
+    void executar_semChaveExecutaSemRegistrar() {
+        BaixaEstoqueResponse resp = service.executar(null, "BAIXA", REQUISICAO, BaixaEstoqueResponse.class, acao());
+
+        assertTrue(resp.isSucesso());
+        assertEquals(1, execucoes.get());
+        verifyNoInteractions(repositoryPort);
+    }
+
+    @Test
+    void executar_primeiraChamadaRegistraResposta() {
+        when(repositoryPort.reservarChave(eq("k1"), eq("BAIXA"), any(), any())).thenReturn(LEASE);
+
+        BaixaEstoqueResponse resp = service.executar("k1", "BAIXA", REQUISICAO, BaixaEstoqueResponse.class, acao());
+
+        assertTrue(resp.isSucesso());
+        assertEquals(1, execucoes.get());
+        verify(repositoryPort).registrarResposta(eq("k1"), eq("BAIXA"), contains("\"sucesso\":true"), eq(LEASE));
+    }
+
+    @Test
+    void executar_retentativaRespondidaPeloCache() {
+        when(repositoryPort.reservarChave(eq("k1"), eq("BAIXA"), any(), any())).thenReturn(LEASE);
+
+        BaixaEstoqueResponse primeira = service.executar("k1", "BAIXA", REQUISICAO, BaixaEstoqueResponse.class, acao());
+        BaixaEstoqueResponse segunda = service.executar("k1", "BAIXA", REQUISICAO, BaixaEstoqueResponse.class, acao());
+
+        assertSame(primeira, segunda);
+        assertEquals(1, execucoes.get());
+        verify(repositoryPort, times(1)).reservarChave(eq("k1"), eq("BAIXA"), any(), any());
+    }
+
+    @Test
+    void executar_mesmaChaveEmOperacaoDiferenteExecutaNovamente() {
+        when(repositoryPort.reservarChave(eq("k1"), any(), any(), any())).thenReturn(LEASE);
+
+        service.executar("k1", "BAIXA", REQUISICAO, BaixaEstoqueResponse.class, acao());
+        service.executar("k1", "RESTAURACAO", REQUISICAO, BaixaEstoqueResponse.class, acao());
+
+        assertEquals(2, execucoes.get());
+    }
+
+    @Test
+    void executar_retentativaRespondidaPeloBanco() throws Exception {
+        BaixaEstoqueResponse original = new BaixaEstoqueResponse(true, "Estoque baixado com sucesso",
+                List.of(new ItemEstoqueResultadoDTO(1, "SKU-1", 2, 8, true)));
+        String json = objectMapper.writeValueAsString(original);
+        when(repositoryPort.reservarChave(eq("k1"), eq("BAIXA"), any(), any())).thenReturn(null);
+        when(repositoryPort.buscar("k1", "BAIXA")).thenReturn(new RegistroIdempotencia("k1", "BAIXA", true, json, null));
+
+        BaixaEstoqueResponse resp = service.executar("k1", "BAIXA", REQUISICAO, BaixaEstoqueResponse.class, acao());
+
+        assertEquals(original, resp);
+        assertEquals(0, execucoes.get());
+    }
+
+    @Test
+    void executar_chaveEmProcessamentoLancaConflito() {
+        when(repositoryPort.reservarChave(eq("k1"), eq("BAIXA"), any(), any())).thenReturn(null);
+        when(repositoryPort.buscar("k1", "BAIXA")).thenReturn(new RegistroIdempotencia("k1", "BAIXA", false, null, null));
+
+        assertThrows(RequisicaoEmProcessamentoException.class,
+                () -> service.executar("k1", "BAIXA", REQUISICAO, BaixaEstoqueResponse.class, acao()));
+        assertEquals(0, execucoes.get());
+    }
+
+    @Test
+    void executar_falhaLiberaChave() {
+        when(repositoryPort.reservarChave(eq("k1"), eq("BAIXA"), any(), any())).thenReturn(LEASE);
+
+        assertThrows(IllegalStateException.class, () -> service.executar("k1", "BAIXA", REQUISICAO,
+                BaixaEstoqueResponse.class, () -> {
+                    throw new IllegalStateException("falha");
+                }));
+
+        verify(repositoryPort).liberarChave("k1", "BAIXA", LEASE);
+        verify(repositoryPort, never()).registrarResposta(any(), any(), any(), any());
+    }
+
+    @Test
+    void executar_mesmaChaveComOutroConteudoNoCacheLancaErro() {
+        when(repositoryPort.reservarChave(eq("k1"), eq("BAIXA"), any(), any())).thenReturn(LEASE);
+        service.executar("k1", "BAIXA", REQUISICAO, BaixaEstoqueResponse.class, acao());
+
+        assertThrows(ChaveIdempotenciaReutilizadaException.class, () -> service.executar("k1", "BAIXA",
+                List.of("SKU-1", "5"), BaixaEstoqueResponse.class, acao()));
+        assertEquals(1, execucoes.get());
+    }
+
+    @Test
+    void executar_mesmaChaveComOutroConteudoNoBancoLancaErro() {
+        when(repositoryPort.reservarChave(eq("k1"), eq("BAIXA"), any(), any())).thenReturn(null);
+        when(repositoryPort.buscar("k1", "BAIXA"))
+                .thenReturn(new RegistroIdempotencia("k1", "BAIXA", true, "{}", "outro-hash"));
+
+        assertThrows(ChaveIdempotenciaReutilizadaException.class,
+                () -> service.executar("k1", "BAIXA", REQUISICAO, BaixaEstoqueResponse.class, acao()));
+        assertEquals(0, execucoes.get());
+    }
+
+    @Test
+    void executar_operacaoRecusadaRegistraRespostaForaDaTransacao() {
+        when(repositoryPort.reservarChave(eq("k1"), eq("BAIXA"), any(), any())).thenReturn(LEASE);
+        SimpleTransactionStatus status = new SimpleTransactionStatus();
+        status.setRollbackOnly();
+        when(transactionManager.getTransaction(any())).thenReturn(status);
+
+        service.executar("k1", "BAIXA", REQUISICAO, BaixaEstoqueResponse.class, acao());
+
+        assertTrue(status.isRollbackOnly());
+        verify(transactionManager).commit(status);
+        verify(repositoryPort, times(1)).registrarResposta(eq("k1"), eq("BAIXA"), contains("\"sucesso\":true"), eq(LEASE));
+    }
+
+    @Test
+    void executar_chaveRetomadaDesfazTransacaoSemLiberar() {
+        when(repositoryPort.reservarChave(eq("k1"), eq("BAIXA"), any(), any())).thenReturn(LEASE);
+        when(repositoryPort.registrarResposta(any(), any(), any(), any())).thenReturn(false);
+
+        assertThrows(RequisicaoEmProcessamentoException.class,
+                () -> service.executar("k1", "BAIXA", REQUISICAO, BaixaEstoqueResponse.class, acao()));
+
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+        // A liberação também é cercada pelo lease: não apaga a reserva da tentativa que retomou a chave
+        verify(repositoryPort).liberarChave("k1", "BAIXA", LEASE);
+    }
+
+    @Test
+    void executar_transacionalPermiteRetomarReservaVencida() {
+        when(repositoryPort.reservarChave(eq("k1"), eq("BAIXA"), any(), any())).thenReturn(LEASE);
+
+        service.executar("k1", "BAIXA", REQUISICAO, BaixaEstoqueResponse.class, acao());
+
+        verify(repositoryPort).reservarChave(eq("k1"), eq("BAIXA"), any(), notNull());
+    }
+
+    @Test
+    void executar_movimentacaoForaDaTransacaoNaoRetomaNemLibera() {
+        when(estoqueRepositoryPort.movimentacaoTransacional()).thenReturn(false);
+        when(repositoryPort.reservarChave(eq("k1"), eq("BAIXA"), any(), any())).thenReturn(LEASE);
+        when(repositoryPort.registrarResposta(any(), any(), any(), any()))
+                .thenThrow(new IllegalStateException("banco indisponível"));
+
+        assertThrows(IllegalStateException.class,
+                () -> service.executar("k1", "BAIXA", REQUISICAO, BaixaEstoqueResponse.class, acao()));
+
+        verify(repositoryPort).reservarChave(eq("k1"), eq("BAIXA"), any(), isNull());
+        verify(repositoryPort, never()).liberarChave(any(), any(), any());
+    }
+
+    @Test
+    void executar_baixaEmGrupoNaoRetomaReservaVencida() {
+        when(pipelineBaixa.habilitado()).thenReturn(true);
+        when(repositoryPort.reservarChave(eq("k1"), any(), any(), any())).thenReturn(LEASE);
+
+        service.executar("k1", "BAIXA", REQUISICAO, BaixaEstoqueResponse.class, acao());
+        service.executar("k1", "RESTAURACAO", REQUISICAO, BaixaEstoqueResponse.class, acao());
+
+        verify(repositoryPort).reservarChave(eq("k1"), eq("BAIXA"), any(), isNull());
+        verify(repositoryPort).reservarChave(eq("k1"), eq("RESTAURACAO"), any(), notNull());
+    }
+
+    private Supplier<BaixaEstoqueResponse> acao() {
+        return () -> {
+            execucoes.incrementAndGet();
+            return new BaixaEstoqueResponse(true, "Estoque baixado com sucesso", List.of());
+        };
+    }
+}
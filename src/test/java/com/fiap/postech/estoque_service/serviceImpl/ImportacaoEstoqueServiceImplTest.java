@@ -0,0 +1,159 @@
+package com.fiap.postech.estoque_service.serviceImpl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fiap.postech.estoque_service.api.dto.ErroImportacaoDTO;
+import com.fiap.postech.estoque_service.api.dto.ImportacaoEstoqueResponse;
+import com.fiap.postech.estoque_service.domain.model.Estoque;
+import com.fiap.postech.estoque_service.domain.model.FormatoImportacao;
+import com.fiap.postech.estoque_service.gateway.client.ProdutoCache;
+import com.fiap.postech.estoque_service.gateway.client.dto.ProdutoDto;
+import com.fiap.postech.estoque_service.gateway.port.EstoqueRepositoryPort;
+import com.fiap.postech.estoque_service.service.ImportacaoEstoqueServiceImpl;
+import com.fiap.postech.estoque_service.utils.ConstantUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ImportacaoEstoqueServiceImplTest {
+
+    @InjectMocks
+    private ImportacaoEstoqueServiceImpl service;
+
+    @Mock
+    private EstoqueRepositoryPort repositoryPort;
+    @Mock
+    private ProdutoCache produtoCache;
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Captor
+    private ArgumentCaptor<List<Estoque>> loteCaptor;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(service, "tamanhoLote", 2);
+        ReflectionTestUtils.setField(service, "maxErrosRelatorio", 10);
+        when(produtoCache.buscarPorSkus(any())).thenAnswer(inv -> {
+            Map<String, ProdutoDto> produtos = new HashMap<>();
+            Collection<String> skus = inv.getArgument(0);
+            for (String sku : skus) {
+                if (!sku.startsWith("XX")) {
+                    produtos.put(sku, produto(Math.abs(sku.hashCode()), sku));
+                }
+            }
+            return produtos;
+        });
+        when(repositoryPort.importarEstoques(any())).thenAnswer(inv -> {
+            List<Estoque> estoques = inv.getArgument(0);
+            return estoques.stream().map(Estoque::getSkuProduto).toList();
+        });
+    }
+
+    // ---------- importar ----------
+
+    @Test
+    void importar_csvComCabecalhoGravaEmLotes() {
+        String csv = """
+                skuProduto,quantidadeEstoque
+                AP-IPH-001,10
+                ap iph 002;5
+                "AP-IPH-003","7"
+                """;
+
+        ImportacaoEstoqueResponse resp = service.importar(corpo(csv), FormatoImportacao.CSV);
+
+        assertEquals(3, resp.getLinhasProcessadas());
+        assertEquals(3, resp.getImportados());
+        assertEquals(0, resp.getRejeitados());
+        verify(repositoryPort, times(2)).importarEstoques(loteCaptor.capture());
+        assertEquals("AP-IPH-002", loteCaptor.getAllValues().get(0).get(1).getSkuProduto());
+        assertNotNull(loteCaptor.getAllValues().get(0).get(0).getIdProduto());
+    }
+
+    @Test
+    void importar_ndjsonRelataLinhasRejeitadas() {
+        String ndjson = """
+                {"skuProduto": "AP-IPH-001", "quantidadeEstoque": 10}
+                {"skuProduto": "AP-IPH-001", "quantidadeEstoque": 3}
+                {"skuProduto": "SKU", "quantidadeEstoque": 1}
+                {"skuProduto": "AP-IPH-002", "quantidadeEstoque": -1}
+                {"skuProduto": "XX-XX-000", "quantidadeEstoque": 1}
+                nao é json
+                """;
+
+        ImportacaoEstoqueResponse resp = service.importar(corpo(ndjson), FormatoImportacao.NDJSON);
+
+        assertEquals(6, resp.getLinhasProcessadas());
+        assertEquals(1, resp.getImportados());
+        assertEquals(5, resp.getRejeitados());
+        Map<Long, String> erros = new HashMap<>();
+        for (ErroImportacaoDTO erro : resp.getErros()) {
+            erros.put(erro.getLinha(), erro.getMensagem());
+        }
+        assertEquals(ConstantUtils.SKU_REPETIDO, erros.get(2L));
+        assertEquals(ConstantUtils.SKU_INVALIDO, erros.get(3L));
+        assertEquals(ConstantUtils.QUANTIDADE_INVALIDA, erros.get(4L));
+        assertEquals(ConstantUtils.PRODUTO_NAO_ENCONTRADO, erros.get(5L));
+        assertTrue(erros.get(6L).startsWith(ConstantUtils.LINHA_INVALIDA));
+    }
+
+    @Test
+    void importar_estoqueJaExistenteEhRejeitado() {
+        doReturn(List.of("AP-IPH-001")).when(repositoryPort).importarEstoques(any());
+
+        ImportacaoEstoqueResponse resp = service.importar(corpo("AP-IPH-001,1\nAP-IPH-002,2\n"), FormatoImportacao.CSV);
+
+        assertEquals(1, resp.getImportados());
+        assertEquals(1, resp.getRejeitados());
+        assertEquals("AP-IPH-002", resp.getErros().get(0).getSkuProduto());
+        assertEquals(ConstantUtils.ESTOQUE_JA_EXISTE, resp.getErros().get(0).getMensagem());
+    }
+
+    @Test
+    void importar_falhaAoGravarUmLoteRejeitaSoAsLinhasDele() {
+        doReturn(List.of("AP-IPH-001", "AP-IPH-002"))
+                .doThrow(new RuntimeException("conexão perdida"))
+                .when(repositoryPort).importarEstoques(any());
+
+        ImportacaoEstoqueResponse resp = service.importar(
+                corpo("AP-IPH-001,1\nAP-IPH-002,2\nAP-IPH-003,3\nAP-IPH-004;4;9\n"), FormatoImportacao.CSV);
+
+        assertEquals(2, resp.getImportados());
+        assertEquals(2, resp.getRejeitados());
+        assertEquals(3L, resp.getErros().get(1).getLinha());
+        assertTrue(resp.getErros().get(1).getMensagem().contains("conexão perdida"));
+        assertTrue(resp.getErros().get(0).getMensagem().startsWith(ConstantUtils.LINHA_INVALIDA));
+    }
+
+    @Test
+    void importar_limitaTamanhoDoRelatorio() {
+        ReflectionTestUtils.setField(service, "maxErrosRelatorio", 2);
+
+        ImportacaoEstoqueResponse resp = service.importar(corpo("a\nb\nc\nd\n"), FormatoImportacao.CSV);
+
+        assertEquals(4, resp.getRejeitados());
+        assertEquals(2, resp.getErros().size());
+        verifyNoInteractions(repositoryPort);
+    }
+
+    private InputStream corpo(String conteudo) {
+        return new ByteArrayInputStream(conteudo.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private ProdutoDto produto(int id, String sku) {
+        ProdutoDto produto = new ProdutoDto();
+        produto.setIdProduto(id);
+        produto.setSkuProduto(sku);
+        return produto;
+    }
+}
@@ -0,0 +1,98 @@
+package com.fiap.postech.estoque_service.serviceImpl;
+
+import com.fiap.postech.estoque_service.api.dto.EstoqueLocaisResponse;
+import com.fiap.postech.estoque_service.api.dto.LocalEstoqueRequest;
+import com.fiap.postech.estoque_service.api.dto.ResponseDto;
+import com.fiap.postech.estoque_service.domain.exceptions.internal.EstoqueNotFoundException;
+import com.fiap.postech.estoque_service.domain.exceptions.internal.InvalidQuantidadeEstoqueException;
+import com.fiap.postech.estoque_service.domain.model.Estoque;
+import com.fiap.postech.estoque_service.domain.model.EstoqueLocal;
+import com.fiap.postech.estoque_service.domain.model.LocalEstoque;
+import com.fiap.postech.estoque_service.domain.model.ModoLeitura;
+import com.fiap.postech.estoque_service.gateway.port.EstoqueLocalRepositoryPort;
+import com.fiap.postech.estoque_service.service.EstoqueCache;
+import com.fiap.postech.estoque_service.service.LocalEstoqueServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class LocalEstoqueServiceImplTest {
+
+    @InjectMocks
+    private LocalEstoqueServiceImpl service;
+
+    @Mock
+    private EstoqueLocalRepositoryPort localRepositoryPort;
+
+    @Mock
+    private EstoqueCache estoqueCache;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    // ---------- salvarLocal ----------
+
+    @Test
+    void salvarLocal_normalizaCodigo() {
+        ResponseDto response = service.salvarLocal(" cd-sp ", new LocalEstoqueRequest("CD São Paulo", -23.55, -46.63));
+
+        verify(localRepositoryPort).salvarLocal(new LocalEstoque("CD-SP", "CD São Paulo", -23.55, -46.63));
+        assertTrue(response.getData().toString().contains("CD-SP"));
+    }
+
+    // ---------- definirQuantidade ----------
+
+    @Test
+    void definirQuantidade_sucesso() {
+        when(estoqueCache.buscarPorSku("AP-IPH-001", ModoLeitura.ESTRITO))
+                .thenReturn(new Estoque(1, 10, "AP-IPH-001", 50));
+
+        ResponseDto response = service.definirQuantidade("AP-IPH-001", "cd-sp", 30);
+
+        verify(localRepositoryPort).definirQuantidade(10, "CD-SP", 30);
+        assertTrue(response.getData().toString().contains("quantidade=30"));
+    }
+
+    @Test
+    void definirQuantidade_negativaRejeitada() {
+        assertThrows(InvalidQuantidadeEstoqueException.class,
+                () -> service.definirQuantidade("AP-IPH-001", "CD-SP", -1));
+
+        verifyNoInteractions(localRepositoryPort);
+    }
+
+    @Test
+    void definirQuantidade_estoqueNaoEncontrado() {
+        when(estoqueCache.buscarPorSku(anyString(), any()))
+                .thenThrow(new EstoqueNotFoundException("Estoque não encontrado"));
+
+        assertThrows(EstoqueNotFoundException.class, () -> service.definirQuantidade("AP-IPH-001", "CD-SP", 1));
+    }
+
+    // ---------- listarLocais ----------
+
+    @Test
+    void listarLocais_calculaSaldoSemLocal() {
+        when(estoqueCache.buscarPorSku("AP-IPH-001", ModoLeitura.ESTRITO))
+                .thenReturn(new Estoque(1, 10, "AP-IPH-001", 50));
+        when(localRepositoryPort.listarPorProduto(10)).thenReturn(List.of(
+                new EstoqueLocal(10, "CD-RJ", "CD Rio de Janeiro", 15, null, null),
+                new EstoqueLocal(10, "CD-SP", "CD São Paulo", 30, null, null)));
+
+        EstoqueLocaisResponse response = service.listarLocais("AP-IPH-001");
+
+        assertEquals(50, response.getQuantidadeEstoque());
+        assertEquals(5, response.getQuantidadeSemLocal());
+        assertEquals(2, response.getLocais().size());
+    }
+}
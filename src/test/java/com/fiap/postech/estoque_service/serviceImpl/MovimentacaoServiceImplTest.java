@@ -0,0 +1,124 @@
+package com.fiap.postech.estoque_service.serviceImpl;
+
+import com.fiap.postech.estoque_service.api.dto.PaginaMovimentacaoDto;
+import com.fiap.postech.estoque_service.domain.exceptions.ErroInternoException;
+import com.fiap.postech.estoque_service.domain.exceptions.internal.PeriodoInvalidoException;
+import com.fiap.postech.estoque_service.domain.model.MovimentacaoEstoque;
+import com.fiap.postech.estoque_service.domain.model.TipoEventoEstoque;
+import com.fiap.postech.estoque_service.gateway.port.MovimentacaoRepositoryPort;
+import com.fiap.postech.estoque_service.service.MovimentacaoServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class MovimentacaoServiceImplTest {
+
+    private static final LocalDateTime DE = LocalDateTime.of(2025, 7, 1, 0, 0);
+    private static final LocalDateTime ATE = LocalDateTime.of(2025, 8, 1, 0, 0);
+
+    @InjectMocks
+    private MovimentacaoServiceImpl service;
+
+    @Mock
+    private MovimentacaoRepositoryPort movimentacaoRepositoryPort;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(service, "limitePadrao", 100);
+        ReflectionTestUtils.setField(service, "limiteMaximo", 1000);
+        ReflectionTestUtils.setField(service, "janelaPadraoDias", 30);
+        ReflectionTestUtils.setField(service, "mesesAntecipados", 2);
+    }
+
+    // ---------- listarMovimentacoes ----------
+
+    @Test
+    void listarMovimentacoes_normalizaSkuEUsaPeriodoInformado() {
+        when(movimentacaoRepositoryPort.listarPagina("AP-IPH-001", DE, ATE, null, 101))
+                .thenReturn(List.of(movimentacao(10L)));
+
+        PaginaMovimentacaoDto resp = service.listarMovimentacoes("ap iph 001", DE, ATE, null, null);
+
+        assertEquals(1, resp.getItens().size());
+        assertEquals(TipoEventoEstoque.BAIXA, resp.getItens().get(0).getMotivo());
+        assertEquals("PED-1", resp.getItens().get(0).getReferencia());
+        assertNull(resp.getProximoCursor());
+    }
+
+    @Test
+    void listarMovimentacoes_devolveCursorQuandoHaProximaPagina() {
+        when(movimentacaoRepositoryPort.listarPagina(null, DE, ATE, 5L, 3))
+                .thenReturn(List.of(movimentacao(6L), movimentacao(8L), movimentacao(9L)));
+
+        PaginaMovimentacaoDto resp = service.listarMovimentacoes(null, DE, ATE, 5L, 2);
+
+        assertEquals(2, resp.getItens().size());
+        assertEquals(8L, resp.getProximoCursor());
+    }
+
+    @Test
+    void listarMovimentacoes_semPeriodoUsaJanelaPadraoELimitaPagina() {
+        when(movimentacaoRepositoryPort.listarPagina(any(), any(), any(), any(), anyInt())).thenReturn(List.of());
+
+        service.listarMovimentacoes(null, null, null, null, 50_000);
+
+        verify(movimentacaoRepositoryPort).listarPagina(isNull(),
+                argThat(de -> de.isAfter(LocalDateTime.now().minusDays(31))),
+                argThat(ate -> !ate.isAfter(LocalDateTime.now())), isNull(), eq(1001));
+    }
+
+    @Test
+    void listarMovimentacoes_periodoInvertidoLancaPeriodoInvalido() {
+        assertThrows(PeriodoInvalidoException.class,
+                () -> service.listarMovimentacoes(null, ATE, DE, null, null));
+        verifyNoInteractions(movimentacaoRepositoryPort);
+    }
+
+    @Test
+    void listarMovimentacoes_deveLancarErroInternoException() {
+        when(movimentacaoRepositoryPort.listarPagina(any(), any(), any(), any(), anyInt()))
+                .thenThrow(new RuntimeException("erro"));
+
+        assertThrows(ErroInternoException.class, () -> service.listarMovimentacoes(null, DE, ATE, null, null));
+    }
+
+    // ---------- criarParticoes ----------
+
+    @Test
+    void criarParticoes_criaMesCorrenteEAntecipados() {
+        YearMonth atual = YearMonth.now();
+
+        service.criarParticoes();
+
+        verify(movimentacaoRepositoryPort).criarParticao(atual);
+        verify(movimentacaoRepositoryPort).criarParticao(atual.plusMonths(1));
+        verify(movimentacaoRepositoryPort).criarParticao(atual.plusMonths(2));
+        verifyNoMoreInteractions(movimentacaoRepositoryPort);
+    }
+
+    @Test
+    void criarParticoes_falhaEmUmMesNaoImpedeOsDemais() {
+        YearMonth atual = YearMonth.now();
+        doThrow(new RuntimeException("erro")).when(movimentacaoRepositoryPort).criarParticao(atual);
+
+        assertDoesNotThrow(() -> service.criarParticoes());
+
+        verify(movimentacaoRepositoryPort).criarParticao(atual.plusMonths(2));
+    }
+
+    private MovimentacaoEstoque movimentacao(Long id) {
+        return new MovimentacaoEstoque(id, DE.plusHours(1), 1, "AP-IPH-001", TipoEventoEstoque.BAIXA, -2, 8, "PED-1");
+    }
+}
@@ -0,0 +1,147 @@
+package com.fiap.postech.estoque_service.serviceImpl;
+
+import com.fiap.postech.estoque_service.api.dto.BaixaEstoqueRequest;
+import com.fiap.postech.estoque_service.api.dto.ItemEstoqueBaixaDTO;
+import com.fiap.postech.estoque_service.api.dto.ItemEstoqueResultadoDTO;
+import com.fiap.postech.estoque_service.domain.exceptions.ErroInternoException;
+import com.fiap.postech.estoque_service.domain.exceptions.internal.EstoqueInsuficienteException;
+import com.fiap.postech.estoque_service.gateway.port.EstoqueRepositoryPort;
+import com.fiap.postech.estoque_service.service.PipelineBaixaEstoque;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PipelineBaixaEstoqueTest {
+
+    @InjectMocks
+    private PipelineBaixaEstoque pipeline;
+
+    @Mock
+    private EstoqueRepositoryPort repositoryPort;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(pipeline, "habilitado", true);
+        ReflectionTestUtils.setField(pipeline, "quantidadeFilas", 1);
+        ReflectionTestUtils.setField(pipeline, "tamanhoMaximoLote", 10);
+        // Janela longa o bastante para os pedidos do teste entrarem no mesmo lote
+        ReflectionTestUtils.setField(pipeline, "janelaMicros", 200_000L);
+        pipeline.iniciar();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pipeline.parar();
+    }
+
+    private static BaixaEstoqueRequest pedido(String referencia, int idProduto, int quantidade) {
+        BaixaEstoqueRequest request = new BaixaEstoqueRequest();
+        request.setReferencia(referencia);
+        ItemEstoqueBaixaDTO item = new ItemEstoqueBaixaDTO();
+        item.setIdProduto(idProduto);
+        item.setQuantidade(quantidade);
+        request.setItens(List.of(item));
+        return request;
+    }
+
+    private static List<ItemEstoqueResultadoDTO> resultado(int idProduto, int quantidade, Integer saldo, boolean sucesso) {
+        return List.of(new ItemEstoqueResultadoDTO(idProduto, "SKU-" + idProduto, quantidade, saldo, sucesso));
+    }
+
+    private static <T> T aguarda(CompletableFuture<T> futuro) throws Exception {
+        try {
+            return futuro.get(5, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            throw (Exception) e.getCause();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void pedidosPendentesDoMesmoProdutoSaemEmUmLoteECadaUmRecebeOProprioResultado() throws Exception {
+        when(repositoryPort.baixarEstoqueAgrupado(anyList())).thenReturn(List.of(
+                resultado(1, 2, 8, true), resultado(1, 9, null, false), resultado(1, 3, 5, true)));
+
+        CompletableFuture<List<ItemEstoqueResultadoDTO>> primeiro = pipeline.enfileirar(pedido("PED-1", 1, 2));
+        CompletableFuture<List<ItemEstoqueResultadoDTO>> segundo = pipeline.enfileirar(pedido("PED-2", 1, 9));
+        CompletableFuture<List<ItemEstoqueResultadoDTO>> terceiro = pipeline.enfileirar(pedido("PED-3", 1, 3));
+
+        assertEquals(8, aguarda(primeiro).get(0).getQuantidadeEstoque());
+        EstoqueInsuficienteException ex = assertThrows(EstoqueInsuficienteException.class, () -> aguarda(segundo));
+        assertFalse(ex.getItens().get(0).isSucesso());
+        assertEquals(5, aguarda(terceiro).get(0).getQuantidadeEstoque());
+
+        ArgumentCaptor<List<BaixaEstoqueRequest>> lote = ArgumentCaptor.forClass(List.class);
+        verify(repositoryPort, times(1)).baixarEstoqueAgrupado(lote.capture());
+        assertEquals(List.of("PED-1", "PED-2", "PED-3"),
+                lote.getValue().stream().map(BaixaEstoqueRequest::getReferencia).toList());
+    }
+
+    @Test
+    void pedidoNaoAgrupadoSeguePelaBaixaIndividual() throws Exception {
+        List<List<ItemEstoqueResultadoDTO>> resultados = new ArrayList<>();
+        resultados.add(null);
+        when(repositoryPort.baixarEstoqueAgrupado(anyList())).thenReturn(resultados);
+        when(repositoryPort.baixarEstoque(anyList(), eq("PED-1"), isNull())).thenReturn(resultado(1, 2, 4, true));
+
+        assertEquals(4, pipeline.baixar(pedido("PED-1", 1, 2)).get(0).getQuantidadeEstoque());
+    }
+
+    @Test
+    void loteDesfeitoAplicaCadaPedidoIndividualmente() throws Exception {
+        when(repositoryPort.baixarEstoqueAgrupado(anyList())).thenThrow(new ErroInternoException("erro db"));
+        when(repositoryPort.baixarEstoque(anyList(), eq("PED-1"), isNull())).thenReturn(resultado(1, 2, 4, true));
+        when(repositoryPort.baixarEstoque(anyList(), eq("PED-2"), isNull()))
+                .thenThrow(new EstoqueInsuficienteException("Estoque insuficiente para o produto ID: 2"));
+
+        CompletableFuture<List<ItemEstoqueResultadoDTO>> primeiro = pipeline.enfileirar(pedido("PED-1", 1, 2));
+        CompletableFuture<List<ItemEstoqueResultadoDTO>> segundo = pipeline.enfileirar(pedido("PED-2", 2, 1));
+
+        assertTrue(aguarda(primeiro).get(0).isSucesso());
+        assertThrows(EstoqueInsuficienteException.class, () -> aguarda(segundo));
+    }
+
+    @Test
+    void pararDuranteOLoteRecusaOsPedidosQueFicaramNaFila() throws Exception {
+        CountDownLatch emAplicacao = new CountDownLatch(1);
+        when(repositoryPort.baixarEstoqueAgrupado(anyList())).thenAnswer(inv -> {
+            emAplicacao.countDown();
+            Thread.sleep(10_000);
+            return List.of();
+        });
+
+        pipeline.enfileirar(pedido("PED-1", 1, 1));
+        assertTrue(emAplicacao.await(5, TimeUnit.SECONDS));
+        CompletableFuture<List<ItemEstoqueResultadoDTO>> naFila = pipeline.enfileirar(pedido("PED-2", 1, 1));
+
+        pipeline.parar();
+
+        assertThrows(ErroInternoException.class, () -> aguarda(naFila));
+        verify(repositoryPort, never()).baixarEstoque(anyList(), eq("PED-2"), any());
+    }
+
+    @Test
+    void pipelineParadoRecusaNovosPedidos() {
+        pipeline.parar();
+
+        assertThrows(ErroInternoException.class, () -> pipeline.baixar(pedido("PED-1", 1, 1)));
+        verifyNoInteractions(repositoryPort);
+    }
+}
@@ -0,0 +1,173 @@
+package com.fiap.postech.estoque_service.serviceImpl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fiap.postech.estoque_service.api.dto.DivergenciaEstoqueDTO;
+import com.fiap.postech.estoque_service.api.dto.ItemAjusteEstoqueDTO;
+import com.fiap.postech.estoque_service.api.dto.ReconciliacaoEstoqueResponse;
+import com.fiap.postech.estoque_service.domain.exceptions.internal.EstoqueInsuficienteException;
+import com.fiap.postech.estoque_service.domain.model.Estoque;
+import com.fiap.postech.estoque_service.domain.model.FormatoImportacao;
+import com.fiap.postech.estoque_service.gateway.port.AlertaEstoqueServicePort;
+import com.fiap.postech.estoque_service.gateway.port.EstoqueRepositoryPort;
+import com.fiap.postech.estoque_service.service.EstoqueCache;
+import com.fiap.postech.estoque_service.service.ReconciliacaoEstoqueServiceImpl;
+import com.fiap.postech.estoque_service.utils.ConstantUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReconciliacaoEstoqueServiceImplTest {
+
+    @InjectMocks
+    private ReconciliacaoEstoqueServiceImpl service;
+
+    @Mock
+    private EstoqueRepositoryPort repositoryPort;
+    @Mock
+    private EstoqueCache estoqueCache;
+    @Mock
+    private AlertaEstoqueServicePort alertas;
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    private final TreeMap<String, Integer> saldos = new TreeMap<>();
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(service, "tamanhoLote", 2);
+        ReflectionTestUtils.setField(service, "maxItensRelatorio", 10);
+        saldos.put("AP-IPH-001", 10);
+        saldos.put("AP-IPH-002", 5);
+        saldos.put("AP-IPH-003", 7);
+        saldos.put("AP-IPH-004", 1);
+        saldos.put("AP-IPH-005", 0);
+        // Página do banco: SKUs a partir do informado, em ordem, até o limite
+        when(repositoryPort.listarPaginaPorSku(any(), anyInt())).thenAnswer(inv -> {
+            String aPartirDe = inv.getArgument(0);
+            int limite = inv.getArgument(1);
+            return saldos.tailMap(aPartirDe, true).entrySet().stream()
+                    .limit(limite)
+                    .map(e -> new Estoque(null, Math.abs(e.getKey().hashCode()), e.getKey(), e.getValue()))
+                    .toList();
+        });
+    }
+
+    // ---------- reconciliar ----------
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reconciliar_aplicaSoAsDiferencasEmLotes() {
+        String csv = """
+                skuProduto,quantidadeEstoque
+                AP-IPH-001,10
+                ap iph 002;3
+                AP-IPH-004,2
+                AP-IPH-005,4
+                """;
+
+        ReconciliacaoEstoqueResponse resp = service.reconciliar(corpo(csv), FormatoImportacao.CSV, "INV-07");
+
+        assertEquals(ConstantUtils.RECONCILIACAO_CONCLUIDA, resp.getMensagem());
+        assertEquals(4, resp.getLinhasProcessadas());
+        assertEquals(1, resp.getConferidos());
+        assertEquals(3, resp.getDivergentes());
+        assertEquals(3, resp.getAjustados());
+        assertEquals(0, resp.getRejeitados());
+
+        ArgumentCaptor<List<ItemAjusteEstoqueDTO>> lotes = ArgumentCaptor.forClass(List.class);
+        verify(repositoryPort, times(2)).ajustarEstoque(lotes.capture(), eq("INV-07"));
+        assertEquals(List.of(new ItemAjusteEstoqueDTO("AP-IPH-002", -2), new ItemAjusteEstoqueDTO("AP-IPH-004", 1)),
+                lotes.getAllValues().get(0));
+        assertEquals(List.of(new ItemAjusteEstoqueDTO("AP-IPH-005", 4)), lotes.getAllValues().get(1));
+
+        DivergenciaEstoqueDTO divergencia = resp.getDivergencias().get(0);
+        assertEquals(3, divergencia.getLinha());
+        assertEquals(5, divergencia.getQuantidadeSistema());
+        assertEquals(3, divergencia.getQuantidadeContada());
+        assertTrue(divergencia.isAplicada());
+        verify(estoqueCache).invalidarSku("AP-IPH-005");
+    }
+
+    @Test
+    void reconciliar_avancaOCursorPeloSkuDoArquivo() {
+        String ndjson = """
+                {"skuProduto":"AP-IPH-001","quantidadeEstoque":10}
+                {"skuProduto":"AP-IPH-004","quantidadeEstoque":1}
+                {"skuProduto":"AP-IPH-009","quantidadeEstoque":1}
+                {"skuProduto":"AP-IPH-010","quantidadeEstoque":1}
+                """;
+
+        ReconciliacaoEstoqueResponse resp = service.reconciliar(corpo(ndjson), FormatoImportacao.NDJSON, null);
+
+        assertEquals(2, resp.getConferidos());
+        assertEquals(2, resp.getRejeitados());
+        // Cada página começa no SKU do arquivo; depois de uma página incompleta não há nova consulta
+        InOrder ordem = inOrder(repositoryPort);
+        ordem.verify(repositoryPort).listarPaginaPorSku("AP-IPH-001", 2);
+        ordem.verify(repositoryPort).listarPaginaPorSku("AP-IPH-004", 2);
+        ordem.verify(repositoryPort).listarPaginaPorSku("AP-IPH-009", 2);
+        verify(repositoryPort, times(3)).listarPaginaPorSku(any(), anyInt());
+        verify(repositoryPort, never()).ajustarEstoque(any(), any());
+    }
+
+    @Test
+    void reconciliar_rejeitaLinhasInvalidasForaDeOrdemEInexistentes() {
+        String csv = """
+                AP-IPH-002,5
+                AP-IPH-001,1
+                AP-IPH-002,4
+                AP-IPH-003,-1
+                SKU,abc
+                ZZ-ZZZ-999,1
+                """;
+
+        ReconciliacaoEstoqueResponse resp = service.reconciliar(corpo(csv), FormatoImportacao.CSV, null);
+
+        assertEquals(6, resp.getLinhasProcessadas());
+        assertEquals(1, resp.getConferidos());
+        assertEquals(5, resp.getRejeitados());
+        assertEquals(ConstantUtils.SKU_FORA_DE_ORDEM, resp.getErros().get(0).getMensagem());
+        assertEquals(ConstantUtils.SKU_REPETIDO, resp.getErros().get(1).getMensagem());
+        assertEquals(ConstantUtils.QUANTIDADE_INVALIDA, resp.getErros().get(2).getMensagem());
+        assertTrue(resp.getErros().get(3).getMensagem().startsWith(ConstantUtils.LINHA_INVALIDA));
+        assertEquals(ConstantUtils.ESTOQUE_NAO_ENCONTRADO, resp.getErros().get(4).getMensagem());
+        verify(repositoryPort, never()).ajustarEstoque(any(), any());
+    }
+
+    @Test
+    void reconciliar_loteDesfeitoAplicaItemAItem() {
+        ItemAjusteEstoqueDTO baixa = new ItemAjusteEstoqueDTO("AP-IPH-001", -10);
+        ItemAjusteEstoqueDTO entrada = new ItemAjusteEstoqueDTO("AP-IPH-002", 1);
+        // Uma baixa concorrente deixou AP-IPH-001 sem saldo para a diferença lida
+        when(repositoryPort.ajustarEstoque(List.of(baixa, entrada), null))
+                .thenThrow(new EstoqueInsuficienteException("Estoque insuficiente para o SKU: AP-IPH-001", List.of()));
+        when(repositoryPort.ajustarEstoque(List.of(baixa), null))
+                .thenThrow(new EstoqueInsuficienteException("Estoque insuficiente para o SKU: AP-IPH-001", List.of()));
+
+        ReconciliacaoEstoqueResponse resp = service.reconciliar(corpo("AP-IPH-001,0\nAP-IPH-002,6\n"),
+                FormatoImportacao.CSV, null);
+
+        assertEquals(2, resp.getDivergentes());
+        assertEquals(1, resp.getAjustados());
+        assertFalse(resp.getDivergencias().get(0).isAplicada());
+        assertEquals("Estoque insuficiente para o SKU: AP-IPH-001", resp.getDivergencias().get(0).getMensagem());
+        assertTrue(resp.getDivergencias().get(1).isAplicada());
+        verify(repositoryPort).ajustarEstoque(List.of(entrada), null);
+        verify(estoqueCache).invalidarSku("AP-IPH-001");
+        verify(estoqueCache).invalidarSku("AP-IPH-002");
+    }
+
+    private InputStream corpo(String conteudo) {
+        return new ByteArrayInputStream(conteudo.getBytes(StandardCharsets.UTF_8));
+    }
+}
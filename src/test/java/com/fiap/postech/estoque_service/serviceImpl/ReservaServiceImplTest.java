@@ -0,0 +1,267 @@
+package com.fiap.postech.estoque_service.serviceImpl;
+
+import com.fiap.postech.estoque_service.api.dto.*;
+import com.fiap.postech.estoque_service.domain.exceptions.ErroInternoException;
+import com.fiap.postech.estoque_service.domain.exceptions.internal.EstoqueInsuficienteException;
+import com.fiap.postech.estoque_service.domain.exceptions.internal.ReservaInvalidaException;
+import com.fiap.postech.estoque_service.domain.exceptions.internal.ReservaNotFoundException;
+import com.fiap.postech.estoque_service.domain.model.Reserva;
+import com.fiap.postech.estoque_service.domain.model.StatusReserva;
+import com.fiap.postech.estoque_service.gateway.port.AlertaEstoqueServicePort;
+import com.fiap.postech.estoque_service.gateway.port.EstoqueRepositoryPort;
+import com.fiap.postech.estoque_service.gateway.port.ReservaRepositoryPort;
+import com.fiap.postech.estoque_service.service.AgendaExpiracaoReservas;
+import com.fiap.postech.estoque_service.service.EstoqueCache;
+import com.fiap.postech.estoque_service.service.ReservaServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReservaServiceImplTest {
+
+    @InjectMocks
+    private ReservaServiceImpl service;
+
+    @Mock
+    private ReservaRepositoryPort reservaRepositoryPort;
+    @Mock
+    private EstoqueRepositoryPort estoqueRepositoryPort;
+    @Mock
+    private EstoqueCache estoqueCache;
+    @Mock
+    private AlertaEstoqueServicePort alertas;
+    @Spy
+    private AgendaExpiracaoReservas agenda = new AgendaExpiracaoReservas();
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(service, "ttlPadraoSegundos", 900);
+        ReflectionTestUtils.setField(service, "ttlMaximoSegundos", 3600);
+    }
+
+    // ---------- criarReserva ----------
+
+    @Test
+    void criarReserva_sucessoBaixaEstoqueEAgendaExpiracao() {
+        ReservaRequest request = request(item(1, 2));
+        UUID idReserva = UUID.randomUUID();
+        when(estoqueRepositoryPort.baixarEstoque(request.getItens(), null))
+                .thenReturn(List.of(new ItemEstoqueResultadoDTO(1, "SKU-1", 2, 8, true)));
+        when(reservaRepositoryPort.salvar(any())).thenAnswer(inv -> {
+            Reserva reserva = inv.getArgument(0);
+            reserva.setIdReserva(idReserva);
+            return reserva;
+        });
+
+        ReservaResponse resp = service.criarReserva(request);
+
+        assertTrue(resp.isSucesso());
+        assertEquals(idReserva, resp.getIdReserva());
+        assertEquals(StatusReserva.ATIVA, resp.getStatus());
+        assertTrue(resp.getExpiraEm().isAfter(LocalDateTime.now().plusSeconds(890)));
+        verify(agenda).agendar(eq(idReserva), any());
+        assertEquals(1, agenda.pendentes());
+    }
+
+    @Test
+    void criarReserva_ttlLimitadoAoMaximo() {
+        ReservaRequest request = request(item(1, 2));
+        request.setTtlSegundos(999_999);
+        when(reservaRepositoryPort.salvar(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        ReservaResponse resp = service.criarReserva(request);
+
+        assertTrue(resp.getExpiraEm().isBefore(LocalDateTime.now().plusSeconds(3601)));
+    }
+
+    @Test
+    void criarReserva_estoqueInsuficienteNaoGravaReserva() {
+        ReservaRequest request = request(item(1, 50));
+        when(estoqueRepositoryPort.baixarEstoque(request.getItens(), null))
+                .thenThrow(new EstoqueInsuficienteException("Estoque insuficiente para o produto ID: 1"));
+
+        ReservaResponse resp = service.criarReserva(request);
+
+        assertFalse(resp.isSucesso());
+        verify(reservaRepositoryPort, never()).salvar(any());
+        assertEquals(0, agenda.pendentes());
+    }
+
+    @Test
+    void criarReserva_erroAoGravarDeixaARestauracaoParaORollback() {
+        ReservaRequest request = request(item(1, 2));
+        when(estoqueRepositoryPort.movimentacaoTransacional()).thenReturn(true);
+        when(reservaRepositoryPort.salvar(any())).thenThrow(new ErroInternoException("erro db"));
+
+        assertThrows(ErroInternoException.class, () -> service.criarReserva(request));
+        verify(estoqueRepositoryPort, never()).restaurarEstoque(any(), any());
+        assertEquals(0, agenda.pendentes());
+    }
+
+    @Test
+    void criarReserva_erroAoGravarNoLedgerDevolveEstoque() {
+        ReservaRequest request = request(item(1, 2));
+        when(estoqueRepositoryPort.movimentacaoTransacional()).thenReturn(false);
+        when(reservaRepositoryPort.salvar(any())).thenThrow(new ErroInternoException("erro db"));
+
+        assertThrows(ErroInternoException.class, () -> service.criarReserva(request));
+        verify(estoqueRepositoryPort).restaurarEstoque(request.getItens(), null);
+    }
+
+    @Test
+    void criarReserva_agendaExpiracaoSoDepoisDoCommit() {
+        ReservaRequest request = request(item(1, 2));
+        when(reservaRepositoryPort.salvar(any())).thenAnswer(inv -> {
+            Reserva reserva = inv.getArgument(0);
+            reserva.setIdReserva(UUID.randomUUID());
+            return reserva;
+        });
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.criarReserva(request);
+            assertEquals(0, agenda.pendentes());
+
+            TransactionSynchronizationUtils.triggerAfterCommit();
+            assertEquals(1, agenda.pendentes());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    // ---------- confirmarReserva ----------
+
+    @Test
+    void confirmarReserva_sucesso() {
+        UUID idReserva = UUID.randomUUID();
+        when(reservaRepositoryPort.confirmar(eq(idReserva), any())).thenReturn(true);
+        when(reservaRepositoryPort.buscarPorId(idReserva)).thenReturn(reserva(idReserva, StatusReserva.CONFIRMADA));
+
+        ReservaResponse resp = service.confirmarReserva(idReserva);
+
+        assertEquals(StatusReserva.CONFIRMADA, resp.getStatus());
+        verifyNoInteractions(estoqueRepositoryPort);
+    }
+
+    @Test
+    void confirmarReserva_jaLiberadaLancaReservaInvalida() {
+        UUID idReserva = UUID.randomUUID();
+        when(reservaRepositoryPort.confirmar(eq(idReserva), any())).thenReturn(false);
+        when(reservaRepositoryPort.buscarPorId(idReserva)).thenReturn(reserva(idReserva, StatusReserva.LIBERADA));
+
+        ReservaInvalidaException ex = assertThrows(ReservaInvalidaException.class, () -> service.confirmarReserva(idReserva));
+        assertTrue(ex.getMessage().contains("LIBERADA"));
+    }
+
+    @Test
+    void confirmarReserva_inexistenteLancaReservaNotFound() {
+        UUID idReserva = UUID.randomUUID();
+        when(reservaRepositoryPort.confirmar(eq(idReserva), any())).thenReturn(false);
+        when(reservaRepositoryPort.buscarPorId(idReserva)).thenThrow(new ReservaNotFoundException("não encontrada"));
+
+        assertThrows(ReservaNotFoundException.class, () -> service.confirmarReserva(idReserva));
+    }
+
+    // ---------- liberarReserva ----------
+
+    @Test
+    void liberarReserva_sucessoDevolveItens() {
+        UUID idReserva = UUID.randomUUID();
+        Reserva reserva = reserva(idReserva, StatusReserva.LIBERADA);
+        when(reservaRepositoryPort.liberar(idReserva)).thenReturn(true);
+        when(reservaRepositoryPort.buscarPorId(idReserva)).thenReturn(reserva);
+
+        ReservaResponse resp = service.liberarReserva(idReserva);
+
+        assertTrue(resp.isSucesso());
+        verify(estoqueRepositoryPort).restaurarEstoque(reserva.getItens(), idReserva.toString());
+    }
+
+    @Test
+    void liberarReserva_jaConfirmadaNaoDevolveItens() {
+        UUID idReserva = UUID.randomUUID();
+        when(reservaRepositoryPort.liberar(idReserva)).thenReturn(false);
+        when(reservaRepositoryPort.buscarPorId(idReserva)).thenReturn(reserva(idReserva, StatusReserva.CONFIRMADA));
+
+        assertThrows(ReservaInvalidaException.class, () -> service.liberarReserva(idReserva));
+        verify(estoqueRepositoryPort, never()).restaurarEstoque(any(), any());
+    }
+
+    // ---------- expirarReservas ----------
+
+    @Test
+    void expirarReservas_devolveItensApenasDasQueExpiraram() {
+        UUID expirada = UUID.randomUUID();
+        UUID confirmada = UUID.randomUUID();
+        List<ItemEstoqueBaixaDTO> itens = List.of(item(1, 2));
+        when(reservaRepositoryPort.expirar(eq(List.of(expirada, confirmada)), any())).thenReturn(List.of(expirada));
+        when(reservaRepositoryPort.buscarItens(List.of(expirada))).thenReturn(itens);
+
+        int total = service.expirarReservas(List.of(expirada, confirmada));
+
+        assertEquals(1, total);
+        verify(estoqueRepositoryPort).restaurarEstoque(itens, null);
+    }
+
+    @Test
+    void expirarReservas_nenhumaAtivaNaoMovimentaEstoque() {
+        when(reservaRepositoryPort.expirar(anyList(), any())).thenReturn(List.of());
+
+        assertEquals(0, service.expirarReservas(List.of(UUID.randomUUID())));
+        verifyNoInteractions(estoqueRepositoryPort);
+    }
+
+    @Test
+    void expirarAtrasadas_devolveItensDasVarridas() {
+        UUID atrasada = UUID.randomUUID();
+        LocalDateTime limite = LocalDateTime.now().minusSeconds(30);
+        List<ItemEstoqueBaixaDTO> itens = List.of(item(1, 2));
+        when(reservaRepositoryPort.expirarAtrasadas(limite, 500)).thenReturn(List.of(atrasada));
+        when(reservaRepositoryPort.buscarItens(List.of(atrasada))).thenReturn(itens);
+
+        assertEquals(1, service.expirarAtrasadas(limite, 500));
+        verify(estoqueRepositoryPort).restaurarEstoque(itens, null);
+    }
+
+    // ---------- agenda ----------
+
+    @Test
+    void agenda_devolveVencidasEmOrdemDeVencimento() throws Exception {
+        AgendaExpiracaoReservas agendaLocal = new AgendaExpiracaoReservas();
+        UUID primeira = UUID.randomUUID();
+        UUID segunda = UUID.randomUUID();
+        UUID futura = UUID.randomUUID();
+        agendaLocal.agendar(segunda, LocalDateTime.now().minusSeconds(1));
+        agendaLocal.agendar(futura, LocalDateTime.now().plusHours(1));
+        agendaLocal.agendar(primeira, LocalDateTime.now().minusSeconds(10));
+
+        assertEquals(List.of(primeira, segunda), agendaLocal.aguardarVencidas(10));
+        assertEquals(1, agendaLocal.pendentes());
+    }
+
+    private Reserva reserva(UUID idReserva, StatusReserva status) {
+        return new Reserva(idReserva, status, LocalDateTime.now().plusMinutes(5), LocalDateTime.now(), List.of(item(1, 2)));
+    }
+
+    private ReservaRequest request(ItemEstoqueBaixaDTO... itens) {
+        ReservaRequest request = new ReservaRequest();
+        request.setItens(List.of(itens));
+        return request;
+    }
+
+    private ItemEstoqueBaixaDTO item(Integer idProduto, Integer quantidade) {
+        ItemEstoqueBaixaDTO item = new ItemEstoqueBaixaDTO();
+        item.setIdProduto(idProduto);
+        item.setQuantidade(quantidade);
+        return item;
+    }
+}